@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler;
+
+import java.time.Duration;
+
+/**
+ * Configuration for a polling-interval adapting to the observed amount of due executions. The
+ * interval backs off exponentially while polls return no executions, and snaps back to the minimum
+ * as soon as a poll returns a full batch. Each wait is randomized by the jitter-fraction, so nodes
+ * in a cluster do not poll in lock-step.
+ */
+public class AdaptivePollingInterval {
+  public static final double DEFAULT_BACKOFF_FACTOR = 2.0;
+  public static final double DEFAULT_JITTER_FRACTION = 0.1;
+
+  public final Duration minInterval;
+  public final Duration maxInterval;
+  public final double backoffFactor;
+  public final double jitterFraction;
+
+  public AdaptivePollingInterval(
+      Duration minInterval, Duration maxInterval, double backoffFactor, double jitterFraction) {
+    if (minInterval.isNegative() || minInterval.isZero()) {
+      throw new IllegalArgumentException("minInterval must be positive");
+    }
+    if (maxInterval.compareTo(minInterval) < 0) {
+      throw new IllegalArgumentException("maxInterval must be equal to minInterval or higher");
+    }
+    if (backoffFactor < 1.0) {
+      throw new IllegalArgumentException("backoffFactor must be 1.0 or higher");
+    }
+    if (jitterFraction < 0.0 || jitterFraction >= 1.0) {
+      throw new IllegalArgumentException("jitterFraction must be in the range [0.0, 1.0)");
+    }
+    this.minInterval = minInterval;
+    this.maxInterval = maxInterval;
+    this.backoffFactor = backoffFactor;
+    this.jitterFraction = jitterFraction;
+  }
+
+  public static AdaptivePollingInterval between(Duration minInterval, Duration maxInterval) {
+    return new AdaptivePollingInterval(
+        minInterval, maxInterval, DEFAULT_BACKOFF_FACTOR, DEFAULT_JITTER_FRACTION);
+  }
+
+  public AdaptivePollingInterval withBackoffFactor(double backoffFactor) {
+    return new AdaptivePollingInterval(minInterval, maxInterval, backoffFactor, jitterFraction);
+  }
+
+  public AdaptivePollingInterval withJitter(double jitterFraction) {
+    return new AdaptivePollingInterval(minInterval, maxInterval, backoffFactor, jitterFraction);
+  }
+
+  public String describe() {
+    return "min="
+        + minInterval
+        + ", max="
+        + maxInterval
+        + ", backoff="
+        + backoffFactor
+        + ", jitter="
+        + jitterFraction;
+  }
+}
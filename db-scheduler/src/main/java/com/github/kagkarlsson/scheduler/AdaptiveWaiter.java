@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** {@link Waiter} for polling, adjusting the wait-duration to the result of the last poll. */
+class AdaptiveWaiter extends Waiter {
+  private static final Logger LOG = LoggerFactory.getLogger(AdaptiveWaiter.class);
+  private final AdaptivePollingInterval config;
+  private volatile Duration currentInterval;
+
+  AdaptiveWaiter(AdaptivePollingInterval config, Clock clock) {
+    super(config.minInterval, clock);
+    this.config = config;
+    this.currentInterval = config.minInterval;
+  }
+
+  @Override
+  public void onPollResult(int fetched, int limit) {
+    if (fetched == 0) {
+      final long backedOff = (long) (currentInterval.toMillis() * config.backoffFactor);
+      currentInterval = Duration.ofMillis(Math.min(backedOff, config.maxInterval.toMillis()));
+      LOG.trace("Nothing due, backing off polling-interval to {}.", currentInterval);
+    } else if (fetched >= limit) {
+      currentInterval = config.minInterval;
+      LOG.trace("Fetched full batch, resetting polling-interval to {}.", currentInterval);
+    }
+  }
+
+  @Override
+  protected Duration nextWaitDuration() {
+    final long millis = currentInterval.toMillis();
+    final long jitter = (long) (millis * config.jitterFraction);
+    if (jitter == 0) {
+      return currentInterval;
+    }
+    return Duration.ofMillis(millis + ThreadLocalRandom.current().nextLong(-jitter, jitter + 1));
+  }
+
+  @Override
+  public Duration getWaitDuration() {
+    return currentInterval;
+  }
+}
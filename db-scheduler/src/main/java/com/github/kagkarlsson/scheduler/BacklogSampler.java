@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler;
+
+import com.github.kagkarlsson.scheduler.stats.BacklogSample;
+import com.github.kagkarlsson.scheduler.stats.StatsRegistry;
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodically samples the backlog of the whole cluster from the database and publishes it to the
+ * {@link StatsRegistry}. Runs on the housekeeper-executor.
+ */
+public class BacklogSampler implements Runnable {
+  private static final Logger LOG = LoggerFactory.getLogger(BacklogSampler.class);
+  // bounds the number of rows read by the grouping queries
+  public static final int DEFAULT_MAX_GROUPS = 1000;
+
+  private final TaskRepository taskRepository;
+  private final StatsRegistry statsRegistry;
+  private final Clock clock;
+  private final Duration interval;
+  private final int maxGroups;
+
+  public BacklogSampler(
+      TaskRepository taskRepository,
+      StatsRegistry statsRegistry,
+      Clock clock,
+      Duration interval,
+      int maxGroups) {
+    if (interval.isNegative() || interval.isZero()) {
+      throw new IllegalArgumentException("Backlog sampling interval must be positive: " + interval);
+    }
+    this.taskRepository = taskRepository;
+    this.statsRegistry = statsRegistry;
+    this.clock = clock;
+    this.interval = interval;
+    this.maxGroups = maxGroups;
+  }
+
+  public Duration getInterval() {
+    return interval;
+  }
+
+  @Override
+  public void run() {
+    final BacklogSample sample = taskRepository.sampleBacklog(clock.now(), maxGroups);
+    LOG.trace("Sampled backlog: {}", sample);
+    statsRegistry.registerBacklogSample(sample);
+  }
+}
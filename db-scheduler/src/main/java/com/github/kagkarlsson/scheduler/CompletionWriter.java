@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler;
+
+import com.github.kagkarlsson.scheduler.task.Execution;
+import java.time.Instant;
+
+/**
+ * Writes the outcome of a picked execution, i.e. removes or reschedules it. Implementations may
+ * write asynchronously, in which case failures, such as version conflicts, are reported per
+ * execution to the scheduler-listeners rather than thrown.
+ */
+public interface CompletionWriter {
+
+  void remove(Execution execution);
+
+  void reschedule(
+      Execution execution,
+      Instant nextExecutionTime,
+      Instant lastSuccess,
+      Instant lastFailure,
+      int consecutiveFailures);
+
+  /**
+   * As {@link #remove(Execution)}, running {@code onWritten} once the write is done, whether it
+   * succeeded or not.
+   */
+  default void remove(Execution execution, Runnable onWritten) {
+    try {
+      remove(execution);
+    } finally {
+      onWritten.run();
+    }
+  }
+
+  /**
+   * As {@link #reschedule(Execution, Instant, Instant, Instant, int)}, running {@code onWritten}
+   * once the write is done, whether it succeeded or not.
+   */
+  default void reschedule(
+      Execution execution,
+      Instant nextExecutionTime,
+      Instant lastSuccess,
+      Instant lastFailure,
+      int consecutiveFailures,
+      Runnable onWritten) {
+    try {
+      reschedule(execution, nextExecutionTime, lastSuccess, lastFailure, consecutiveFailures);
+    } finally {
+      onWritten.run();
+    }
+  }
+
+  default void start() {}
+
+  default void stop() {}
+
+  /** Writes synchronously, one statement per completion. */
+  static CompletionWriter direct(TaskRepository taskRepository) {
+    return new CompletionWriter() {
+      @Override
+      public void remove(Execution execution) {
+        taskRepository.remove(execution);
+      }
+
+      @Override
+      public void reschedule(
+          Execution execution,
+          Instant nextExecutionTime,
+          Instant lastSuccess,
+          Instant lastFailure,
+          int consecutiveFailures) {
+        taskRepository.reschedule(
+            execution, nextExecutionTime, lastSuccess, lastFailure, consecutiveFailures);
+      }
+    };
+  }
+}
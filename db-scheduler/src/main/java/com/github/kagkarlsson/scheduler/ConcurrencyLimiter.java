@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler;
+
+import com.github.kagkarlsson.scheduler.task.AsyncExecutionHandler;
+import com.github.kagkarlsson.scheduler.task.ConcurrencyLimit;
+import com.github.kagkarlsson.scheduler.task.Execution;
+import com.github.kagkarlsson.scheduler.task.Task;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Free slots per concurrency-limited group of tasks, from the number of executions the scheduler
+ * currently holds per task. If tasks in the same group declare different limits, the lowest
+ * applies.
+ *
+ * <p>Async tasks are limited by async permits as well, so executions that cannot be started are not
+ * fetched. Those not in a limited group share a group of their own.
+ */
+class ConcurrencyLimiter {
+  private static final String ASYNC_GROUP = "db-scheduler-async";
+  private final TaskResolver taskResolver;
+  private final Predicate<String> polled;
+
+  /**
+   * @param polled task-names polled by the strategy, groups of other tasks are left out
+   */
+  ConcurrencyLimiter(TaskResolver taskResolver, Predicate<String> polled) {
+    this.taskResolver = taskResolver;
+    this.polled = polled;
+  }
+
+  /**
+   * @param heldByTask number of executions currently held, queued or running, for a task-name
+   * @param freeAsyncPermits async executions the executor may still take on
+   * @return one entry per limited group, empty if no task is limited
+   */
+  List<ConcurrencySlots> freeSlots(ToIntFunction<String> heldByTask, int freeAsyncPermits) {
+    final Groups groups = groups();
+    final List<ConcurrencySlots> slots = new ArrayList<>(groups.taskNamesByGroup.size() + 1);
+    groups.taskNamesByGroup.forEach(
+        (group, taskNames) -> {
+          final int free = groups.free(group, heldByTask);
+          slots.add(
+              new ConcurrencySlots(
+                  group,
+                  taskNames,
+                  groups.hasAsync(group) ? Math.min(free, freeAsyncPermits) : free));
+        });
+    if (!groups.asyncNotLimited.isEmpty()) {
+      slots.add(new ConcurrencySlots(ASYNC_GROUP, groups.asyncNotLimited, freeAsyncPermits));
+    }
+    return slots;
+  }
+
+  /**
+   * Slots of async tasks only, for fetching them separately from the rest. The permits are split
+   * between the groups, so no more executions are fetched in total than there are permits for.
+   *
+   * @param asyncPermits permits claimed for the executions fetched
+   * @return empty if no async task is polled
+   */
+  List<ConcurrencySlots> asyncSlots(ToIntFunction<String> heldByTask, int asyncPermits) {
+    final Groups groups = groups();
+    final List<ConcurrencySlots> slots = new ArrayList<>();
+    int permitsLeft = asyncPermits;
+    for (Map.Entry<String, Set<String>> group : groups.taskNamesByGroup.entrySet()) {
+      if (!groups.hasAsync(group.getKey())) {
+        continue;
+      }
+      final int free = Math.max(0, Math.min(groups.free(group.getKey(), heldByTask), permitsLeft));
+      slots.add(new ConcurrencySlots(group.getKey(), groups.async(group.getValue()), free));
+      permitsLeft -= free;
+    }
+    if (!groups.asyncNotLimited.isEmpty()) {
+      slots.add(new ConcurrencySlots(ASYNC_GROUP, groups.asyncNotLimited, permitsLeft));
+    }
+    return slots;
+  }
+
+  /**
+   * Slots of tasks that are not async, for fetching them separately from async tasks.
+   *
+   * @see #excludingAsync(List)
+   */
+  List<ConcurrencySlots> syncSlots(ToIntFunction<String> heldByTask) {
+    final Groups groups = groups();
+    final List<ConcurrencySlots> slots = new ArrayList<>();
+    groups.taskNamesByGroup.forEach(
+        (group, taskNames) -> {
+          final Set<String> sync = new HashSet<>(taskNames);
+          sync.removeAll(groups.async(taskNames));
+          if (!sync.isEmpty()) {
+            slots.add(new ConcurrencySlots(group, sync, groups.free(group, heldByTask)));
+          }
+        });
+    return slots;
+  }
+
+  /**
+   * @return the slots plus a group of all async tasks without free slots, which keeps them from
+   *     being fetched
+   */
+  List<ConcurrencySlots> excludingAsync(List<ConcurrencySlots> slots) {
+    final Groups groups = groups();
+    if (groups.allAsync.isEmpty()) {
+      return slots;
+    }
+    final List<ConcurrencySlots> excluding = new ArrayList<>(slots);
+    excluding.add(new ConcurrencySlots(ASYNC_GROUP, groups.allAsync, 0));
+    return excluding;
+  }
+
+  /** Whether any of the tasks polled is async. */
+  boolean anyAsync() {
+    return !groups().allAsync.isEmpty();
+  }
+
+  private Groups groups() {
+    final Groups groups = new Groups();
+    for (Task<?> task : taskResolver.getKnownTasks()) {
+      if (!polled.test(task.getName())) {
+        continue;
+      }
+      final Optional<ConcurrencyLimit> limit = task.getConcurrencyLimit();
+      final boolean async = task instanceof AsyncExecutionHandler;
+      if (async) {
+        groups.allAsync.add(task.getName());
+      }
+      if (!limit.isPresent()) {
+        if (async) {
+          groups.asyncNotLimited.add(task.getName());
+        }
+        continue;
+      }
+      final String group = limit.get().getGroup();
+      groups.taskNamesByGroup.computeIfAbsent(group, g -> new HashSet<>()).add(task.getName());
+      groups.maxByGroup.merge(group, limit.get().getMaxConcurrent(), Math::min);
+    }
+    return groups;
+  }
+
+  private static class Groups {
+    final Map<String, Set<String>> taskNamesByGroup = new LinkedHashMap<>();
+    final Map<String, Integer> maxByGroup = new LinkedHashMap<>();
+    final Set<String> allAsync = new HashSet<>();
+    final Set<String> asyncNotLimited = new HashSet<>();
+
+    int free(String group, ToIntFunction<String> heldByTask) {
+      int held = 0;
+      for (String taskName : taskNamesByGroup.get(group)) {
+        held += heldByTask.applyAsInt(taskName);
+      }
+      return maxByGroup.get(group) - held;
+    }
+
+    boolean hasAsync(String group) {
+      return !async(taskNamesByGroup.get(group)).isEmpty();
+    }
+
+    Set<String> async(Set<String> taskNames) {
+      final Set<String> async = new HashSet<>(taskNames);
+      async.retainAll(allAsync);
+      return async;
+    }
+  }
+
+  /**
+   * @return true if any group used all its free slots, meaning it may have more due executions left
+   *     in the database
+   */
+  static boolean anyGroupFilled(List<ConcurrencySlots> slots, List<Execution> fetched) {
+    for (ConcurrencySlots group : slots) {
+      final long fetchedForGroup =
+          fetched.stream()
+              .filter(e -> group.getTaskNames().contains(e.taskInstance.getTaskName()))
+              .count();
+      if (fetchedForGroup >= group.getFree()) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Number of executions a scheduler may still take on for a group of tasks sharing a {@link
+ * com.github.kagkarlsson.scheduler.task.ConcurrencyLimit}.
+ */
+public final class ConcurrencySlots {
+  private final String group;
+  private final Set<String> taskNames;
+  private final int free;
+
+  public ConcurrencySlots(String group, Set<String> taskNames, int free) {
+    this.group = group;
+    this.taskNames = Collections.unmodifiableSet(taskNames);
+    this.free = Math.max(0, free);
+  }
+
+  public String getGroup() {
+    return group;
+  }
+
+  public Set<String> getTaskNames() {
+    return taskNames;
+  }
+
+  public int getFree() {
+    return free;
+  }
+
+  @Override
+  public String toString() {
+    return "ConcurrencySlots{group=" + group + ", taskNames=" + taskNames + ", free=" + free + "}";
+  }
+}
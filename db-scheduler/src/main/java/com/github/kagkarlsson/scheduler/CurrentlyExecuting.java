@@ -17,18 +17,26 @@ import com.github.kagkarlsson.scheduler.task.Execution;
 import com.github.kagkarlsson.scheduler.task.TaskInstance;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Optional;
 
 @SuppressWarnings("rawtypes")
 public class CurrentlyExecuting {
 
   private final Execution execution;
   private final Clock clock;
+  private final Instant timePicked;
   private final Instant startTime;
   private final HeartbeatState heartbeatState;
 
   public CurrentlyExecuting(Execution execution, Clock clock, HeartbeatConfig heartbeatConfig) {
+    this(execution, clock, heartbeatConfig, null);
+  }
+
+  public CurrentlyExecuting(
+      Execution execution, Clock clock, HeartbeatConfig heartbeatConfig, Instant timePicked) {
     this.execution = execution;
     this.clock = clock;
+    this.timePicked = timePicked;
     this.startTime = clock.now();
     this.heartbeatState = new HeartbeatState(clock, startTime, heartbeatConfig);
   }
@@ -37,6 +45,15 @@ public class CurrentlyExecuting {
     return Duration.between(startTime, clock.now());
   }
 
+  /** When this scheduler picked the execution, if known. */
+  public Optional<Instant> getTimePicked() {
+    return Optional.ofNullable(timePicked);
+  }
+
+  public Instant getStartTime() {
+    return startTime;
+  }
+
   public TaskInstance getTaskInstance() {
     return execution.taskInstance;
   }
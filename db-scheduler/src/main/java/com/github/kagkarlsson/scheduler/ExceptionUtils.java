@@ -13,6 +13,9 @@
  */
 package com.github.kagkarlsson.scheduler;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 final class ExceptionUtils {
 
   static String describe(Throwable t) {
@@ -25,5 +28,20 @@ final class ExceptionUtils {
     return typeDescription + (message != null ? ": '" + message + "'" : "");
   }
 
+  /** Waits for the future, rethrowing an unchecked failure as it was thrown. */
+  static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e;
+    }
+  }
+
   private ExceptionUtils() {}
 }
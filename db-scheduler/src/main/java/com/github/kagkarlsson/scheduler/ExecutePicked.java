@@ -21,6 +21,7 @@ import com.github.kagkarlsson.scheduler.event.SchedulerListener.CandidateEventTy
 import com.github.kagkarlsson.scheduler.event.SchedulerListener.SchedulerEventType;
 import com.github.kagkarlsson.scheduler.event.SchedulerListeners;
 import com.github.kagkarlsson.scheduler.logging.ConfigurableLogger;
+import com.github.kagkarlsson.scheduler.task.AsyncExecutionHandler;
 import com.github.kagkarlsson.scheduler.task.CompletionHandler;
 import com.github.kagkarlsson.scheduler.task.Execution;
 import com.github.kagkarlsson.scheduler.task.ExecutionComplete;
@@ -33,11 +34,16 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @SuppressWarnings({"rawtypes", "unchecked"})
-class ExecutePicked implements Runnable {
+class ExecutePicked {
   private static final Logger LOG = LoggerFactory.getLogger(ExecutePicked.class);
   private final Executor executor;
   private final TaskRepository taskRepository;
@@ -49,7 +55,9 @@ class ExecutePicked implements Runnable {
   private final ConfigurableLogger failureLogger;
   private final Clock clock;
   private HeartbeatConfig heartbeatConfig;
+  private final CompletionWriter completionWriter;
   private final Execution pickedExecution;
+  private final Instant timePicked;
 
   public ExecutePicked(
       Executor executor,
@@ -62,7 +70,9 @@ class ExecutePicked implements Runnable {
       ConfigurableLogger failureLogger,
       Clock clock,
       HeartbeatConfig heartbeatConfig,
-      Execution pickedExecution) {
+      CompletionWriter completionWriter,
+      Execution pickedExecution,
+      Instant timePicked) {
     this.executor = executor;
     this.taskRepository = taskRepository;
     this.schedulerClient = schedulerClient;
@@ -73,44 +83,63 @@ class ExecutePicked implements Runnable {
     this.failureLogger = failureLogger;
     this.clock = clock;
     this.heartbeatConfig = heartbeatConfig;
+    this.completionWriter = completionWriter;
     this.pickedExecution = pickedExecution;
+    this.timePicked = timePicked;
   }
 
-  @Override
-  public void run() {
+  /**
+   * @return completed when the execution is, which for {@link AsyncExecutionHandler} may be after
+   *     returning
+   */
+  public CompletableFuture<Void> run() {
     // FIXLATER: need to cleanup all the references back to scheduler fields
     CurrentlyExecuting currentlyExecuting =
-        new CurrentlyExecuting(pickedExecution, clock, heartbeatConfig);
+        new CurrentlyExecuting(pickedExecution, clock, heartbeatConfig, timePicked);
     final UUID executionId = executor.addCurrentlyProcessing(currentlyExecuting);
 
+    final CompletableFuture<Void> done;
     try {
       schedulerListeners.onCandidateEvent(CandidateEventType.EXECUTED);
       schedulerListeners.onExecutionStart(currentlyExecuting);
-      executePickedExecution(pickedExecution, currentlyExecuting);
-    } finally {
+      done = executePickedExecution(pickedExecution, currentlyExecuting);
+    } catch (Throwable e) {
       executor.removeCurrentlyProcessing(executionId);
+      throw e;
     }
+    // kept as currently executing, and heartbeated, until completed
+    return done.whenComplete((result, cause) -> executor.removeCurrentlyProcessing(executionId));
   }
 
-  private void executePickedExecution(Execution execution, CurrentlyExecuting currentlyExecuting) {
+  private CompletableFuture<Void> executePickedExecution(
+      Execution execution, CurrentlyExecuting currentlyExecuting) {
     final Optional<Task> task = taskResolver.resolve(execution.taskInstance.getTaskName());
     if (!task.isPresent()) {
       LOG.error(
           "Failed to find implementation for task with name '{}'. Should have been excluded in JdbcRepository.",
           execution.taskInstance.getTaskName());
       schedulerListeners.onSchedulerEvent(SchedulerEventType.UNEXPECTED_ERROR);
-      return;
+      return CompletableFuture.completedFuture(null);
     }
 
     Instant executionStarted = clock.now();
+    final AtomicReference<CompletionStage<CompletionHandler>> dispatched = new AtomicReference<>();
     try {
       LOG.debug("Executing: " + execution);
-      ExecutionHandler handler = task.get();
+      ExecutionHandler handler =
+          task.get() instanceof AsyncExecutionHandler
+              ? dispatching((AsyncExecutionHandler) task.get(), dispatched)
+              : task.get();
       ExecutionContext executionContext =
           new ExecutionContext(schedulerState, execution, schedulerClient, currentlyExecuting);
       ExecutionChain chain = new ExecutionChain(new ArrayList<>(executionInterceptors), handler);
 
       CompletionHandler completion = chain.proceed(execution.taskInstance, executionContext);
+
+      if (dispatched.get() != null) {
+        LOG.debug("Execution dispatched: " + execution);
+        return whenDone(task.get(), completion, dispatched.get(), execution, executionStarted);
+      }
       LOG.debug("Execution done: " + execution);
 
       complete(completion, execution, executionStarted);
@@ -121,15 +150,82 @@ class ExecutePicked implements Runnable {
     } catch (Throwable unhandledError) {
       failure(task.get(), execution, unhandledError, executionStarted, "Error");
     }
+    return CompletableFuture.completedFuture(null);
+  }
+
+  /**
+   * Whether executions of the task are async, and so must be queued holding an async permit.
+   *
+   * @see Executor#tryAcquireAsyncPermit()
+   */
+  static boolean isAsync(TaskResolver taskResolver, String taskName) {
+    return taskResolver
+        .resolve(taskName, false)
+        .filter(AsyncExecutionHandler.class::isInstance)
+        .isPresent();
+  }
+
+  /**
+   * Handler dispatching the execution. Interceptors only see the dispatch, and the returned
+   * completion-handler is the one of the async result.
+   */
+  private ExecutionHandler dispatching(
+      AsyncExecutionHandler handler,
+      AtomicReference<CompletionStage<CompletionHandler>> dispatched) {
+    return (taskInstance, executionContext) -> {
+      final CompletionStage<CompletionHandler> stage =
+          handler.executeAsync(taskInstance, executionContext);
+      dispatched.set(stage);
+      return (executionComplete, executionOperations) ->
+          stage.toCompletableFuture().getNow(null).complete(executionComplete, executionOperations);
+    };
+  }
+
+  private CompletableFuture<Void> whenDone(
+      Task task,
+      CompletionHandler completion,
+      CompletionStage<CompletionHandler> dispatched,
+      Execution execution,
+      Instant executionStarted) {
+    final CompletableFuture<Void> done = new CompletableFuture<>();
+    dispatched.whenComplete(
+        (result, cause) -> {
+          try {
+            final Throwable unwrapped =
+                cause instanceof CompletionException && cause.getCause() != null
+                    ? cause.getCause()
+                    : cause;
+            if (unwrapped == null && result == null) {
+              failure(
+                  task,
+                  execution,
+                  new NullPointerException("Async execution completed without CompletionHandler"),
+                  executionStarted,
+                  "Unhandled exception");
+            } else if (unwrapped == null) {
+              LOG.debug("Execution done: " + execution);
+              complete(completion, execution, executionStarted);
+            } else if (unwrapped instanceof Error) {
+              failure(task, execution, unwrapped, executionStarted, "Error");
+            } else {
+              failure(task, execution, unwrapped, executionStarted, "Unhandled exception");
+            }
+          } finally {
+            done.complete(null);
+          }
+        });
+    return done;
   }
 
   private void complete(
       CompletionHandler completion, Execution execution, Instant executionStarted) {
     ExecutionComplete completeEvent =
-        ExecutionComplete.success(execution, executionStarted, clock.now());
+        ExecutionComplete.success(execution, timePicked, executionStarted, clock.now());
+    final TrackingCompletionWriter writer = new TrackingCompletionWriter(completeEvent);
     try {
       completion.complete(
-          completeEvent, new ExecutionOperations(taskRepository, schedulerListeners, execution));
+          completeEvent,
+          new ExecutionOperations(taskRepository, schedulerListeners, execution, writer));
     } catch (Throwable e) {
       schedulerListeners.onSchedulerEvent(SchedulerEventType.COMPLETIONHANDLER_ERROR);
       schedulerListeners.onSchedulerEvent(SchedulerEventType.UNEXPECTED_ERROR);
@@ -140,7 +236,7 @@ class ExecutePicked implements Runnable {
           describe(e),
           e);
     } finally {
-      schedulerListeners.onExecutionComplete(completeEvent);
+      writer.handlerDone();
     }
   }
 
@@ -154,12 +250,13 @@ class ExecutePicked implements Runnable {
     failureLogger.log(logMessage, cause, errorMessagePrefix, describe(cause), task.getName());
 
     ExecutionComplete completeEvent =
-        ExecutionComplete.failure(execution, executionStarted, clock.now(), cause);
+        ExecutionComplete.failure(execution, timePicked, executionStarted, clock.now(), cause);
+    final TrackingCompletionWriter writer = new TrackingCompletionWriter(completeEvent);
     try {
       task.getFailureHandler()
           .onFailure(
               completeEvent,
-              new ExecutionOperations(taskRepository, schedulerListeners, execution));
+              new ExecutionOperations(taskRepository, schedulerListeners, execution, writer));
     } catch (Throwable e) {
       schedulerListeners.onSchedulerEvent(SchedulerEventType.FAILUREHANDLER_ERROR);
       schedulerListeners.onSchedulerEvent(SchedulerEventType.UNEXPECTED_ERROR);
@@ -170,7 +267,81 @@ class ExecutePicked implements Runnable {
           describe(cause),
           e);
     } finally {
-      schedulerListeners.onExecutionComplete(completeEvent);
+      writer.handlerDone();
+    }
+  }
+
+  /**
+   * Reports the execution as complete once the handler has returned and the writes it handed to the
+   * completion-writer are done, which for group-commit is when the batch is flushed.
+   */
+  private class TrackingCompletionWriter implements CompletionWriter {
+    private final ExecutionComplete completeEvent;
+    // the handler itself counts as one pending write until it has returned
+    private final AtomicInteger pending = new AtomicInteger(1);
+
+    TrackingCompletionWriter(ExecutionComplete completeEvent) {
+      this.completeEvent = completeEvent;
+    }
+
+    @Override
+    public void remove(Execution execution) {
+      remove(execution, () -> {});
+    }
+
+    @Override
+    public void reschedule(
+        Execution execution,
+        Instant nextExecutionTime,
+        Instant lastSuccess,
+        Instant lastFailure,
+        int consecutiveFailures) {
+      reschedule(
+          execution, nextExecutionTime, lastSuccess, lastFailure, consecutiveFailures, () -> {});
+    }
+
+    @Override
+    public void remove(Execution execution, Runnable onWritten) {
+      pending.incrementAndGet();
+      completionWriter.remove(execution, written(onWritten));
+    }
+
+    @Override
+    public void reschedule(
+        Execution execution,
+        Instant nextExecutionTime,
+        Instant lastSuccess,
+        Instant lastFailure,
+        int consecutiveFailures,
+        Runnable onWritten) {
+      pending.incrementAndGet();
+      completionWriter.reschedule(
+          execution,
+          nextExecutionTime,
+          lastSuccess,
+          lastFailure,
+          consecutiveFailures,
+          written(onWritten));
+    }
+
+    void handlerDone() {
+      writeDone();
+    }
+
+    private Runnable written(Runnable onWritten) {
+      return () -> {
+        try {
+          onWritten.run();
+        } finally {
+          writeDone();
+        }
+      };
+    }
+
+    private void writeDone() {
+      if (pending.decrementAndGet() == 0) {
+        schedulerListeners.onExecutionComplete(completeEvent.withCompletionWritten(clock.now()));
+      }
     }
   }
 }
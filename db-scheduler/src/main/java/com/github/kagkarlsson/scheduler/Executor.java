@@ -22,43 +22,179 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class Executor {
   private static final Logger LOG = LoggerFactory.getLogger(Executor.class);
+  public static final int DEFAULT_MAX_ASYNC_EXECUTIONS = 1000;
+  private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
 
   final Map<UUID, CurrentlyExecuting> currentlyProcessing =
       Collections.synchronizedMap(new HashMap<>());
   private AtomicInteger currentlyInQueueOrProcessing = new AtomicInteger(0);
+  private final Map<String, AtomicInteger> inQueueOrProcessingByTask = new ConcurrentHashMap<>();
   private final ExecutorService executorService;
   private final Clock clock;
+  private final int maxAsyncExecutions;
+  private final Semaphore asyncPermits;
 
   public Executor(ExecutorService executorService, Clock clock) {
+    this(executorService, clock, DEFAULT_MAX_ASYNC_EXECUTIONS);
+  }
+
+  /**
+   * @param maxAsyncExecutions max number of async executions in flight, i.e. executing without
+   *     holding a thread
+   */
+  public Executor(ExecutorService executorService, Clock clock, int maxAsyncExecutions) {
     this.executorService = executorService;
     this.clock = clock;
+    this.maxAsyncExecutions = maxAsyncExecutions;
+    this.asyncPermits = new Semaphore(maxAsyncExecutions);
   }
 
   public void addToQueue(Runnable r, Runnable afterDone) {
+    addToQueue(null, r, afterDone);
+  }
+
+  /**
+   * @param taskName counted towards the executions held for the task until done, may be null
+   */
+  public void addToQueue(String taskName, Runnable r, Runnable afterDone) {
+    addToQueueAsync(
+        taskName,
+        () -> {
+          r.run();
+          return DONE;
+        },
+        afterDone);
+  }
+
+  /**
+   * Same as {@link #addToQueue(String, Runnable, Runnable)}, but the execution may continue after
+   * releasing the thread, until the returned future completes. It is then no longer counted as in
+   * queue or processing, only towards its task and the async permits it holds. {@code afterDone} is
+   * run both when the thread is released and when the future completes.
+   */
+  public void addToQueueAsync(
+      String taskName, Supplier<CompletableFuture<Void>> r, Runnable afterDone) {
+    addToQueueAsync(taskName, false, r, afterDone);
+  }
+
+  /**
+   * @param holdsAsyncPermit whether an async permit was acquired for the execution, using {@link
+   *     #tryAcquireAsyncPermit()}. It is released when the returned future completes.
+   */
+  public void addToQueueAsync(
+      String taskName,
+      boolean holdsAsyncPermit,
+      Supplier<CompletableFuture<Void>> r,
+      Runnable afterDone) {
+    final AtomicInteger heldForTask =
+        taskName != null
+            ? inQueueOrProcessingByTask.computeIfAbsent(taskName, n -> new AtomicInteger(0))
+            : null;
+    if (heldForTask != null) {
+      heldForTask.incrementAndGet();
+    }
     currentlyInQueueOrProcessing
         .incrementAndGet(); // if we always had a ThreadPoolExecutor we could check queue-size using
     // getQueue()
+    try {
+      execute(heldForTask, holdsAsyncPermit, r, afterDone);
+    } catch (RejectedExecutionException e) {
+      currentlyInQueueOrProcessing.decrementAndGet();
+      release(heldForTask, holdsAsyncPermit);
+      throw e;
+    }
+  }
+
+  private void execute(
+      AtomicInteger heldForTask,
+      boolean holdsAsyncPermit,
+      Supplier<CompletableFuture<Void>> r,
+      Runnable afterDone) {
     executorService.execute(
         () -> {
           // Execute
+          CompletableFuture<Void> done = DONE;
           try {
-            r.run();
+            done = r.get();
           } finally {
             currentlyInQueueOrProcessing.decrementAndGet();
-            // Run callbacks after decrementing currentlyInQueueOrProcessing
-            afterDone.run();
+            // Run callbacks after releasing what the execution holds
+            if (done.isDone()) {
+              release(heldForTask, holdsAsyncPermit);
+              afterDone.run();
+            } else {
+              afterDone.run();
+              done.whenComplete(
+                  (result, cause) -> {
+                    release(heldForTask, holdsAsyncPermit);
+                    afterDone.run();
+                  });
+            }
           }
         });
   }
 
+  private void release(AtomicInteger heldForTask, boolean holdsAsyncPermit) {
+    if (heldForTask != null) {
+      heldForTask.decrementAndGet();
+    }
+    if (holdsAsyncPermit) {
+      asyncPermits.release();
+    }
+  }
+
+  /**
+   * Claims capacity for an async execution before it is queued, so async executions are bounded by
+   * permits rather than threads. Never blocks.
+   *
+   * @return false if the max number of async executions are in flight
+   * @see #addToQueueAsync(String, boolean, Supplier, Runnable)
+   */
+  public boolean tryAcquireAsyncPermit() {
+    return asyncPermits.tryAcquire();
+  }
+
+  /**
+   * Claims as many of {@code max} permits as are free, e.g. for sizing a fetch of async executions.
+   * Never blocks.
+   *
+   * @return number of permits claimed, to be used by queued executions or released
+   */
+  public int tryAcquireAsyncPermits(int max) {
+    int claimed = Math.min(max, asyncPermits.availablePermits());
+    while (claimed > 0 && !asyncPermits.tryAcquire(claimed)) {
+      claimed = Math.min(claimed, asyncPermits.availablePermits());
+    }
+    return Math.max(0, claimed);
+  }
+
+  /** Releases permits acquired for executions that were not queued after all. */
+  public void releaseAsyncPermits(int permits) {
+    asyncPermits.release(permits);
+  }
+
+  public int getAvailableAsyncPermits() {
+    return asyncPermits.availablePermits();
+  }
+
+  public int getNumberOfAsyncExecutions() {
+    return maxAsyncExecutions - asyncPermits.availablePermits();
+  }
+
   public List<CurrentlyExecuting> getCurrentlyExecuting() {
     return new ArrayList<>(currentlyProcessing.values());
   }
@@ -66,8 +202,8 @@ public class Executor {
   public void stop(Duration shutdownMaxWait) {
     LOG.info("Letting running executions finish. Will wait up to 2x{}.", shutdownMaxWait);
     final Instant startShutdown = clock.now();
-    if (ExecutorUtils.shutdownAndAwaitTermination(
-        executorService, shutdownMaxWait, shutdownMaxWait)) {
+    if (ExecutorUtils.shutdownAndAwaitTermination(executorService, shutdownMaxWait, shutdownMaxWait)
+        && awaitAsyncExecutions(shutdownMaxWait)) {
       LOG.info("Scheduler stopped.");
     } else {
       LOG.warn(
@@ -90,10 +226,32 @@ public class Executor {
     }
   }
 
+  private boolean awaitAsyncExecutions(Duration maxWait) {
+    if (getNumberOfAsyncExecutions() == 0) {
+      return true;
+    }
+    LOG.info("Waiting for {} async executions to complete.", getNumberOfAsyncExecutions());
+    try {
+      if (asyncPermits.tryAcquire(maxAsyncExecutions, maxWait.toMillis(), TimeUnit.MILLISECONDS)) {
+        asyncPermits.release(maxAsyncExecutions);
+        return true;
+      }
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
   public int getNumberInQueueOrProcessing() {
     return currentlyInQueueOrProcessing.get();
   }
 
+  public int getNumberInQueueOrProcessing(String taskName) {
+    final AtomicInteger heldForTask = inQueueOrProcessingByTask.get(taskName);
+    return heldForTask != null ? heldForTask.get() : 0;
+  }
+
   public UUID addCurrentlyProcessing(CurrentlyExecuting currentlyExecuting) {
     final UUID executionId = UUID.randomUUID();
     currentlyProcessing.put(executionId, currentlyExecuting);
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A group of tasks executed by threads of their own, polled independently of other lanes. Tasks not
+ * in any lane are executed by the default lane, using the threads and polling-limits of the
+ * scheduler.
+ *
+ * <p>Lanes share heartbeating and detection of dead executions. Polling-limits are fractions of the
+ * threads of the lane, so prefetching follows the throughput of each lane.
+ */
+public final class ExecutorLane {
+  private final String name;
+  private final int threads;
+  private final Set<String> taskNames;
+  private final double lowerLimitFractionOfThreads;
+  private final double upperLimitFractionOfThreads;
+
+  private ExecutorLane(
+      String name,
+      int threads,
+      Set<String> taskNames,
+      double lowerLimitFractionOfThreads,
+      double upperLimitFractionOfThreads) {
+    this.name = name;
+    this.threads = threads;
+    this.taskNames = Collections.unmodifiableSet(taskNames);
+    this.lowerLimitFractionOfThreads = lowerLimitFractionOfThreads;
+    this.upperLimitFractionOfThreads = upperLimitFractionOfThreads;
+  }
+
+  /** Lane using the polling-limits of the scheduler. */
+  public static ExecutorLane of(String name, int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("threads must be at least 1, was " + threads);
+    }
+    return new ExecutorLane(name, threads, new LinkedHashSet<>(), Double.NaN, Double.NaN);
+  }
+
+  public ExecutorLane withTasks(String... taskNames) {
+    final Set<String> tasks = new LinkedHashSet<>(this.taskNames);
+    tasks.addAll(Arrays.asList(taskNames));
+    return new ExecutorLane(
+        name, threads, tasks, lowerLimitFractionOfThreads, upperLimitFractionOfThreads);
+  }
+
+  /** See {@link SchedulerBuilder#pollUsingFetchAndLockOnExecute(double, double)}. */
+  public ExecutorLane withPollingLimits(
+      double lowerLimitFractionOfThreads, double upperLimitFractionOfThreads) {
+    return new ExecutorLane(
+        name, threads, taskNames, lowerLimitFractionOfThreads, upperLimitFractionOfThreads);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getThreads() {
+    return threads;
+  }
+
+  public Set<String> getTaskNames() {
+    return taskNames;
+  }
+
+  /** Polling-strategy of the scheduler, fetching only the tasks of this lane. */
+  PollingStrategyConfig pollingStrategyFor(PollingStrategyConfig scheduler) {
+    final PollingStrategyConfig limited =
+        Double.isNaN(lowerLimitFractionOfThreads)
+            ? scheduler
+            : scheduler.withLimits(lowerLimitFractionOfThreads, upperLimitFractionOfThreads);
+    return limited.withTaskNames(taskNames);
+  }
+
+  public String describe() {
+    return name
+        + "(threads="
+        + threads
+        + ", tasks="
+        + taskNames
+        + (Double.isNaN(lowerLimitFractionOfThreads)
+            ? ""
+            : ", lowerLimit="
+                + lowerLimitFractionOfThreads
+                + ", upperLimit="
+                + upperLimitFractionOfThreads)
+        + ")";
+  }
+}
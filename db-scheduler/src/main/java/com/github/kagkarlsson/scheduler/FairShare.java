@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler;
+
+import com.github.kagkarlsson.scheduler.task.Task;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Configuration for splitting each poll between task-names by weight, rather than fetching the
+ * executions that have been due the longest. A backlog for one task can then not starve tasks that
+ * become due later. Each task-name is a share of its own with {@link #DEFAULT_WEIGHT}, unless put
+ * in a group, in which case the group is the share.
+ */
+public class FairShare {
+  public static final int DEFAULT_WEIGHT = 1;
+
+  private final Map<String, Integer> weightByShare;
+  private final Map<String, String> groupByTask;
+
+  private FairShare(Map<String, Integer> weightByShare, Map<String, String> groupByTask) {
+    this.weightByShare = Collections.unmodifiableMap(weightByShare);
+    this.groupByTask = Collections.unmodifiableMap(groupByTask);
+  }
+
+  public static FairShare equalWeights() {
+    return new FairShare(new HashMap<>(), new HashMap<>());
+  }
+
+  /**
+   * @param share task-name or group
+   */
+  public FairShare withWeight(String share, int weight) {
+    if (weight < 1) {
+      throw new IllegalArgumentException("weight must be at least 1, was " + weight);
+    }
+    final Map<String, Integer> weights = new HashMap<>(weightByShare);
+    weights.put(share, weight);
+    return new FairShare(weights, groupByTask);
+  }
+
+  /** Let the tasks share one weight, instead of one each. */
+  public FairShare withGroup(String group, String... taskNames) {
+    final Map<String, String> groups = new HashMap<>(groupByTask);
+    for (String taskName : taskNames) {
+      groups.put(taskName, group);
+    }
+    return new FairShare(weightByShare, groups);
+  }
+
+  public int getWeight(String share) {
+    return weightByShare.getOrDefault(share, DEFAULT_WEIGHT);
+  }
+
+  public String getShare(String taskName) {
+    return groupByTask.getOrDefault(taskName, taskName);
+  }
+
+  /**
+   * Shares for the known tasks, leaving out those limited by concurrency-slots. They are bounded by
+   * their slots already.
+   */
+  List<Share> sharesFor(Collection<Task> knownTasks, List<ConcurrencySlots> slots) {
+    final Set<String> limited = new HashSet<>();
+    slots.forEach(s -> limited.addAll(s.getTaskNames()));
+
+    final Map<String, Set<String>> taskNamesByShare = new LinkedHashMap<>();
+    for (Task<?> task : knownTasks) {
+      if (!limited.contains(task.getName())) {
+        taskNamesByShare
+            .computeIfAbsent(getShare(task.getName()), s -> new HashSet<>())
+            .add(task.getName());
+      }
+    }
+    final List<Share> shares = new ArrayList<>(taskNamesByShare.size());
+    taskNamesByShare.forEach(
+        (share, names) -> shares.add(new Share(share, names, getWeight(share))));
+    return shares;
+  }
+
+  public String describe() {
+    return "weights="
+        + weightByShare
+        + ", groups="
+        + groupByTask.entrySet().stream()
+            .collect(
+                Collectors.groupingBy(
+                    Map.Entry::getValue,
+                    Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
+  }
+
+  /** Task-names sharing a weight of each poll. */
+  public static final class Share {
+    private final String name;
+    private final Set<String> taskNames;
+    private final int weight;
+
+    public Share(String name, Set<String> taskNames, int weight) {
+      this.name = name;
+      this.taskNames = Collections.unmodifiableSet(taskNames);
+      this.weight = weight;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Set<String> getTaskNames() {
+      return taskNames;
+    }
+
+    public int getWeight() {
+      return weight;
+    }
+
+    @Override
+    public String toString() {
+      return "Share{name=" + name + ", taskNames=" + taskNames + ", weight=" + weight + "}";
+    }
+  }
+}
@@ -20,10 +20,16 @@ import com.github.kagkarlsson.scheduler.event.SchedulerListeners;
 import com.github.kagkarlsson.scheduler.logging.ConfigurableLogger;
 import com.github.kagkarlsson.scheduler.task.Execution;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,10 +46,15 @@ public class FetchCandidates implements PollStrategy {
   private final Clock clock;
   private final PollingStrategyConfig pollingStrategyConfig;
   private final Runnable triggerCheckForNewExecutions;
+  private final Waiter executeDueWaiter;
   private HeartbeatConfig heartbeatConfig;
+  private final CompletionWriter completionWriter;
   AtomicInteger currentGenerationNumber = new AtomicInteger(0);
+  private final AtomicBoolean asyncLeftBehind = new AtomicBoolean(false);
   private final int lowerLimit;
   private final int upperLimit;
+  private final int pickBatchSize;
+  private final ConcurrencyLimiter concurrencyLimiter;
 
   public FetchCandidates(
       Executor executor,
@@ -58,7 +69,9 @@ public class FetchCandidates implements PollStrategy {
       Clock clock,
       PollingStrategyConfig pollingStrategyConfig,
       Runnable triggerCheckForNewExecutions,
-      HeartbeatConfig heartbeatConfig) {
+      Waiter executeDueWaiter,
+      HeartbeatConfig heartbeatConfig,
+      CompletionWriter completionWriter) {
     this.executor = executor;
     this.taskRepository = taskRepository;
     this.schedulerClient = schedulerClient;
@@ -70,11 +83,15 @@ public class FetchCandidates implements PollStrategy {
     this.clock = clock;
     this.pollingStrategyConfig = pollingStrategyConfig;
     this.triggerCheckForNewExecutions = triggerCheckForNewExecutions;
+    this.executeDueWaiter = executeDueWaiter;
     this.heartbeatConfig = heartbeatConfig;
+    this.completionWriter = completionWriter;
     lowerLimit = pollingStrategyConfig.getLowerLimit(threadpoolSize);
     // FIXLATER: this is not "upper limit", but rather nr of executions to get. those already in
     // queue will become stale
     upperLimit = pollingStrategyConfig.getUpperLimit(threadpoolSize);
+    pickBatchSize = Math.max(1, threadpoolSize);
+    concurrencyLimiter = new ConcurrencyLimiter(taskResolver, pollingStrategyConfig::polls);
   }
 
   @Override
@@ -82,63 +99,112 @@ public class FetchCandidates implements PollStrategy {
     Instant now = clock.now();
 
     // Fetch new candidates for execution. Old ones still in ExecutorService will become stale and
-    // be discarded
+    // be discarded. Until then they still hold their slot.
     final int executionsToFetch = upperLimit;
-    List<Execution> fetchedDueExecutions = taskRepository.getDue(now, executionsToFetch);
+    final List<ConcurrencySlots> slots =
+        concurrencyLimiter.freeSlots(
+            executor::getNumberInQueueOrProcessing, executor.getAvailableAsyncPermits());
+    List<Execution> fetchedDueExecutions =
+        taskRepository.getDue(now, executionsToFetch, slots, shares(slots));
     LOG.trace(
         "Fetched {} task instances due for execution at {}", fetchedDueExecutions.size(), now);
+    executeDueWaiter.onPollResult(fetchedDueExecutions.size(), executionsToFetch);
+
+    // async executions are only queued while permits are free, the rest are left for later polls
+    final List<Execution> dispatchable = new ArrayList<>();
+    for (Execution e : fetchedDueExecutions) {
+      if (!ExecutePicked.isAsync(taskResolver, e.taskInstance.getTaskName())
+          || executor.tryAcquireAsyncPermit()) {
+        dispatchable.add(e);
+      }
+    }
+    if (dispatchable.size() < fetchedDueExecutions.size()
+        || ConcurrencyLimiter.anyGroupFilled(slots, fetchedDueExecutions)) {
+      asyncLeftBehind.set(true);
+    }
 
     currentGenerationNumber.incrementAndGet();
     DueExecutionsBatch newDueBatch =
         new DueExecutionsBatch(
             currentGenerationNumber.get(),
-            fetchedDueExecutions.size(),
-            executionsToFetch == fetchedDueExecutions.size(),
+            dispatchable.size(),
+            executionsToFetch == fetchedDueExecutions.size()
+                || dispatchable.size() < fetchedDueExecutions.size()
+                || ConcurrencyLimiter.anyGroupFilled(slots, fetchedDueExecutions),
             (Integer leftInBatch) -> leftInBatch <= lowerLimit);
 
-    for (Execution e : fetchedDueExecutions) {
-      executor.addToQueue(
-          () -> {
-            final Optional<Execution> candidate = new PickDue(e, newDueBatch).call();
-            candidate.ifPresent(
-                picked ->
-                    new ExecutePicked(
-                            executor,
-                            taskRepository,
-                            schedulerClient,
-                            schedulerListeners,
-                            executionInterceptors,
-                            taskResolver,
-                            schedulerState,
-                            failureLogger,
-                            clock,
-                            heartbeatConfig,
-                            picked)
-                        .run());
-          },
+    final CandidatePicker candidatePicker = new CandidatePicker(dispatchable);
+    for (Execution e : dispatchable) {
+      // an async execution is done both when releasing the thread and when completed
+      final AtomicBoolean done = new AtomicBoolean(false);
+      executor.addToQueueAsync(
+          e.taskInstance.getTaskName(),
+          ExecutePicked.isAsync(taskResolver, e.taskInstance.getTaskName()),
+          () ->
+              new PickDue(e, newDueBatch, candidatePicker)
+                  .call()
+                  .map(
+                      picked ->
+                          new ExecutePicked(
+                                  executor,
+                                  taskRepository,
+                                  schedulerClient,
+                                  schedulerListeners,
+                                  executionInterceptors,
+                                  taskResolver,
+                                  schedulerState,
+                                  failureLogger,
+                                  clock,
+                                  heartbeatConfig,
+                                  completionWriter,
+                                  picked,
+                                  // set to the time picked when picking
+                                  picked.lastHeartbeat)
+                              .run())
+                  .orElse(CompletableFuture.completedFuture(null)),
           () -> {
-            newDueBatch.oneExecutionDone(triggerCheckForNewExecutions::run);
+            if (done.compareAndSet(false, true)) {
+              newDueBatch.oneExecutionDone(triggerCheckForNewExecutions::run);
+            } else if (asyncLeftBehind.compareAndSet(true, false)) {
+              // async execution completed, releasing a permit
+              triggerCheckForNewExecutions.run();
+            }
           });
     }
+    schedulerListeners.onPollResult(
+        fetchedDueExecutions.size(), executionsToFetch, executor.getNumberInQueueOrProcessing());
     schedulerListeners.onSchedulerEvent(SchedulerEventType.RAN_EXECUTE_DUE);
   }
 
+  private List<FairShare.Share> shares(List<ConcurrencySlots> slots) {
+    return pollingStrategyConfig.sharesFor(taskResolver.getKnownTasks(), slots);
+  }
+
   private class PickDue implements Callable<Optional<Execution>> {
     private final Execution candidate;
     private final DueExecutionsBatch addedDueExecutionsBatch;
+    private final CandidatePicker candidatePicker;
 
-    public PickDue(Execution candidate, DueExecutionsBatch dueExecutionsBatch) {
+    public PickDue(
+        Execution candidate,
+        DueExecutionsBatch dueExecutionsBatch,
+        CandidatePicker candidatePicker) {
       this.candidate = candidate;
       this.addedDueExecutionsBatch = dueExecutionsBatch;
+      this.candidatePicker = candidatePicker;
     }
 
     @Override
     public Optional<Execution> call() {
+      return candidatePicker.pick(candidate, this::shouldSkip);
+    }
+
+    private boolean shouldSkip() {
       if (schedulerState.isShuttingDown()) {
         LOG.info(
             "Scheduler has been shutdown. Skipping fetched due execution: "
                 + candidate.taskInstance.getTaskAndInstance());
-        return Optional.empty();
+        return true;
       }
 
       if (addedDueExecutionsBatch.isOlderGenerationThan(currentGenerationNumber.get())) {
@@ -149,19 +215,87 @@ public class FetchCandidates implements PollStrategy {
             "Skipping queued execution (current generationNumber: {}, execution generationNumber: {})",
             currentGenerationNumber,
             addedDueExecutionsBatch.getGenerationNumber());
-        return Optional.empty();
+        return true;
       }
+      return false;
+    }
+  }
 
-      final Optional<Execution> pickedExecution = taskRepository.pick(candidate, clock.now());
+  /**
+   * Picks candidates in batches, in queue-order. The first candidate of a batch to be executed also
+   * picks the following candidates (up to the number of threads), so they are already picked when
+   * they reach the head of the queue. Candidates picked ahead are executed even if the batch has
+   * become stale or the scheduler is shutting down, same as for lock-and-fetch.
+   */
+  private class CandidatePicker {
+    private final List<Execution> candidates;
+    private final Map<Execution, CompletableFuture<Optional<Execution>>> attempted =
+        new IdentityHashMap<>();
 
+    CandidatePicker(List<Execution> candidates) {
+      this.candidates = candidates;
+    }
+
+    Optional<Execution> pick(Execution candidate, BooleanSupplier shouldSkip) {
+      final List<Execution> toPick = new ArrayList<>();
+      final List<CompletableFuture<Optional<Execution>>> results = new ArrayList<>();
+      final CompletableFuture<Optional<Execution>> result;
+      synchronized (this) {
+        if (!attempted.containsKey(candidate)) {
+          if (shouldSkip.getAsBoolean()) {
+            return Optional.empty();
+          }
+          claimFrom(candidate, toPick, results);
+        }
+        result = attempted.get(candidate);
+      }
+
+      // picked outside the lock, candidates of the batch wait for the result
+      if (!toPick.isEmpty()) {
+        pickClaimed(toPick, results);
+      }
+      final Optional<Execution> pickedExecution = ExceptionUtils.join(result);
       if (!pickedExecution.isPresent()) {
         // someone else picked id
         LOG.debug("Execution picked by another scheduler. Continuing to next due execution.");
         schedulerListeners.onCandidateEvent(CandidateEventType.ALREADY_PICKED);
-        return Optional.empty();
       }
-
       return pickedExecution;
     }
+
+    private void claimFrom(
+        Execution candidate,
+        List<Execution> toPick,
+        List<CompletableFuture<Optional<Execution>>> results) {
+      for (int i = candidates.indexOf(candidate);
+          i < candidates.size() && toPick.size() < pickBatchSize;
+          i++) {
+        if (!attempted.containsKey(candidates.get(i))) {
+          final CompletableFuture<Optional<Execution>> result = new CompletableFuture<>();
+          attempted.put(candidates.get(i), result);
+          toPick.add(candidates.get(i));
+          results.add(result);
+        }
+      }
+    }
+
+    private void pickClaimed(
+        List<Execution> toPick, List<CompletableFuture<Optional<Execution>>> results) {
+      final List<Execution> picked;
+      try {
+        picked = taskRepository.pick(toPick, clock.now());
+      } catch (RuntimeException | Error e) {
+        results.forEach(r -> r.completeExceptionally(e));
+        return;
+      }
+      for (int i = 0, j = 0; i < toPick.size(); i++) {
+        // picked is the subset of toPick that was won, in the same order
+        if (j < picked.size() && toPick.get(i).taskInstance.equals(picked.get(j).taskInstance)) {
+          results.get(i).complete(Optional.of(picked.get(j++)));
+        } else {
+          results.get(i).complete(Optional.empty());
+        }
+      }
+    }
   }
 }
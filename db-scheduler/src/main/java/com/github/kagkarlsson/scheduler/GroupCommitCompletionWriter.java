@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler;
+
+import static com.github.kagkarlsson.scheduler.ExceptionUtils.describe;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.github.kagkarlsson.scheduler.event.SchedulerListener.SchedulerEventType;
+import com.github.kagkarlsson.scheduler.event.SchedulerListeners;
+import com.github.kagkarlsson.scheduler.task.Execution;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Queues completions and writes them in JDBC batches from a single writer-thread, flushing every
+ * {@code maxBatchSize} completions or when the oldest has waited {@code maxDelay}. The execution
+ * stays picked until written, so it will not be fetched by another scheduler in the meantime.
+ */
+class GroupCommitCompletionWriter implements CompletionWriter {
+  private static final Logger LOG = LoggerFactory.getLogger(GroupCommitCompletionWriter.class);
+  private static final long STOP_CHECK_INTERVAL_MS = 100;
+  private static final Runnable NOTHING = () -> {};
+  private final TaskRepository taskRepository;
+  private final SchedulerListeners schedulerListeners;
+  private final int maxBatchSize;
+  private final long maxDelayNanos;
+  private final BlockingQueue<PendingCompletion> queue;
+  // held as read-lock while queueing, so no completion is queued after the writer has stopped
+  private final ReadWriteLock stopLock = new ReentrantReadWriteLock();
+  private volatile boolean stopped = false;
+  private Thread writerThread;
+
+  GroupCommitCompletionWriter(
+      TaskRepository taskRepository,
+      SchedulerListeners schedulerListeners,
+      GroupCommitConfig groupCommitConfig) {
+    this.taskRepository = taskRepository;
+    this.schedulerListeners = schedulerListeners;
+    this.maxBatchSize = groupCommitConfig.maxBatchSize;
+    this.maxDelayNanos = groupCommitConfig.maxDelay.toNanos();
+    this.queue = new ArrayBlockingQueue<>(groupCommitConfig.queueCapacity);
+  }
+
+  @Override
+  public void start() {
+    writerThread =
+        ExecutorUtils.defaultThreadFactoryWithPrefix("db-scheduler-completion-writer-")
+            .newThread(this::writeUntilStopped);
+    writerThread.start();
+  }
+
+  @Override
+  public void stop() {
+    stopLock.writeLock().lock();
+    try {
+      stopped = true;
+    } finally {
+      stopLock.writeLock().unlock();
+    }
+
+    if (writerThread != null) {
+      try {
+        writerThread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    // not started, or interrupted while waiting for the writer
+    final List<PendingCompletion> remaining = new ArrayList<>();
+    queue.drainTo(remaining);
+    flush(remaining);
+  }
+
+  @Override
+  public void remove(Execution execution) {
+    remove(execution, NOTHING);
+  }
+
+  @Override
+  public void remove(Execution execution, Runnable onWritten) {
+    enqueue(new PendingCompletion(execution, null, onWritten));
+  }
+
+  @Override
+  public void reschedule(
+      Execution execution,
+      Instant nextExecutionTime,
+      Instant lastSuccess,
+      Instant lastFailure,
+      int consecutiveFailures) {
+    reschedule(
+        execution, nextExecutionTime, lastSuccess, lastFailure, consecutiveFailures, NOTHING);
+  }
+
+  @Override
+  public void reschedule(
+      Execution execution,
+      Instant nextExecutionTime,
+      Instant lastSuccess,
+      Instant lastFailure,
+      int consecutiveFailures,
+      Runnable onWritten) {
+    enqueue(
+        new PendingCompletion(
+            execution,
+            new RescheduleUpdate(
+                execution, nextExecutionTime, lastSuccess, lastFailure, consecutiveFailures),
+            onWritten));
+  }
+
+  private void enqueue(PendingCompletion completion) {
+    stopLock.readLock().lock();
+    try {
+      if (!stopped) {
+        queue.put(completion);
+        return;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      stopLock.readLock().unlock();
+    }
+    // writer has stopped, write it directly
+    flush(Collections.singletonList(completion));
+  }
+
+  private void writeUntilStopped() {
+    final List<PendingCompletion> batch = new ArrayList<>(maxBatchSize);
+    while (!stopped || !queue.isEmpty()) {
+      try {
+        final PendingCompletion first = queue.poll(STOP_CHECK_INTERVAL_MS, MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        final long deadline = System.nanoTime() + maxDelayNanos;
+        queue.drainTo(batch, maxBatchSize - batch.size());
+        while (batch.size() < maxBatchSize && !stopped) {
+          final PendingCompletion next = queue.poll(deadline - System.nanoTime(), NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+          queue.drainTo(batch, maxBatchSize - batch.size());
+        }
+      } catch (InterruptedException e) {
+        LOG.warn("Completion-writer interrupted. Writing remaining completions directly.");
+        stopAfterInterrupt();
+        Thread.currentThread().interrupt();
+        return;
+      } finally {
+        flush(batch);
+        batch.clear();
+      }
+    }
+  }
+
+  /** Stops queueing, so completions are written directly by the threads completing them. */
+  private void stopAfterInterrupt() {
+    final List<PendingCompletion> remaining = new ArrayList<>();
+    boolean locked = false;
+    while (!locked) {
+      // threads blocked on a full queue hold the read-lock until there is room
+      queue.drainTo(remaining);
+      flush(remaining);
+      remaining.clear();
+      try {
+        locked = stopLock.writeLock().tryLock(STOP_CHECK_INTERVAL_MS, MILLISECONDS);
+      } catch (InterruptedException e) {
+        // interrupted again, still stopping
+      }
+    }
+    try {
+      stopped = true;
+    } finally {
+      stopLock.writeLock().unlock();
+    }
+    queue.drainTo(remaining);
+    flush(remaining);
+  }
+
+  void flush(List<PendingCompletion> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    final List<Execution> removals = new ArrayList<>();
+    final List<RescheduleUpdate> reschedules = new ArrayList<>();
+    for (PendingCompletion completion : batch) {
+      if (completion.reschedule == null) {
+        removals.add(completion.execution);
+      } else {
+        reschedules.add(completion.reschedule);
+      }
+    }
+    LOG.trace("Writing {} removals and {} reschedules.", removals.size(), reschedules.size());
+
+    if (!removals.isEmpty()) {
+      try {
+        final boolean[] removed = taskRepository.remove(removals);
+        for (int i = 0; i < removals.size(); i++) {
+          if (!removed[i]) {
+            failed(removals.get(i), "it was updated by someone else (version conflict)", null);
+          }
+        }
+      } catch (RuntimeException e) {
+        removals.forEach(execution -> failed(execution, describe(e), e));
+      }
+    }
+
+    if (!reschedules.isEmpty()) {
+      try {
+        final boolean[] rescheduled = taskRepository.reschedule(reschedules);
+        for (int i = 0; i < reschedules.size(); i++) {
+          if (!rescheduled[i]) {
+            failed(
+                reschedules.get(i).execution,
+                "it was updated by someone else (version conflict)",
+                null);
+          }
+        }
+      } catch (RuntimeException e) {
+        reschedules.forEach(update -> failed(update.execution, describe(e), e));
+      }
+    }
+
+    for (PendingCompletion completion : batch) {
+      try {
+        completion.onWritten.run();
+      } catch (RuntimeException e) {
+        LOG.warn("Failed to run callback for written completion of {}.", completion.execution, e);
+      }
+    }
+  }
+
+  private void failed(Execution execution, String because, Throwable cause) {
+    schedulerListeners.onSchedulerEvent(SchedulerEventType.COMPLETIONHANDLER_ERROR);
+    schedulerListeners.onSchedulerEvent(SchedulerEventType.UNEXPECTED_ERROR);
+    LOG.error(
+        "Failed while completing execution {}, because {}. Execution will likely remain scheduled and locked/picked. "
+            + "The execution should be detected as dead after a while, and handled according to the tasks DeadExecutionHandler.",
+        execution,
+        because,
+        cause);
+  }
+
+  static class PendingCompletion {
+    final Execution execution;
+    final RescheduleUpdate reschedule;
+    final Runnable onWritten;
+
+    PendingCompletion(Execution execution, RescheduleUpdate reschedule, Runnable onWritten) {
+      this.execution = execution;
+      this.reschedule = reschedule;
+      this.onWritten = onWritten;
+    }
+  }
+}
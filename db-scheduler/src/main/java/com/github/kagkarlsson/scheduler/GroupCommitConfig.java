@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler;
+
+import java.time.Duration;
+
+public class GroupCommitConfig {
+
+  public static final GroupCommitConfig DISABLED = new GroupCommitConfig(1, Duration.ZERO);
+
+  public final int maxBatchSize;
+  public final Duration maxDelay;
+  public final int queueCapacity;
+
+  public GroupCommitConfig(int maxBatchSize, Duration maxDelay) {
+    this(maxBatchSize, maxDelay, maxBatchSize * 4);
+  }
+
+  /**
+   * @param maxBatchSize flush when this many completions are pending
+   * @param maxDelay flush when the oldest pending completion has waited this long
+   * @param queueCapacity max number of pending completions. When full, completing executions block
+   *     until there is room.
+   */
+  public GroupCommitConfig(int maxBatchSize, Duration maxDelay, int queueCapacity) {
+    this.maxBatchSize = maxBatchSize;
+    this.maxDelay = maxDelay;
+    this.queueCapacity = queueCapacity;
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("maxBatchSize must be at least 1");
+    }
+    if (maxDelay.isNegative()) {
+      throw new IllegalArgumentException("maxDelay must not be negative");
+    }
+    if (queueCapacity < maxBatchSize) {
+      throw new IllegalArgumentException("queueCapacity must be at least maxBatchSize");
+    }
+  }
+
+  public boolean isEnabled() {
+    return maxBatchSize > 1;
+  }
+
+  public String describe() {
+    return "group-commit(maxBatchSize=" + maxBatchSize + ", maxDelay=" + maxDelay + ")";
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timer wheel, used for parking executions until they are due. Deadlines are rounded up to
+ * the nearest tick, and each bucket may hold entries from multiple rotations of the wheel. Time is
+ * advanced explicitly using {@link #advanceTo(Instant)}, making it independent of the clock used.
+ */
+class HashedTimerWheel<T> {
+  private final long tickNanos;
+  private final int mask;
+  private final List<List<Entry<T>>> buckets;
+  private final Instant start;
+  private long currentTick = 0;
+  private int size = 0;
+
+  HashedTimerWheel(Duration tickDuration, int wheelSize, Instant start) {
+    if (tickDuration.isZero() || tickDuration.isNegative()) {
+      throw new IllegalArgumentException("tickDuration must be positive: " + tickDuration);
+    }
+    if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+      throw new IllegalArgumentException("wheelSize must be a power of two: " + wheelSize);
+    }
+    this.tickNanos = tickDuration.toNanos();
+    this.mask = wheelSize - 1;
+    this.start = start;
+    this.buckets = new ArrayList<>(wheelSize);
+    for (int i = 0; i < wheelSize; i++) {
+      buckets.add(new ArrayList<>());
+    }
+  }
+
+  synchronized void schedule(Instant deadline, T item) {
+    final long nanosFromStart = Duration.between(start, deadline).toNanos();
+    // round up, never fire early
+    final long deadlineTick =
+        Math.max((nanosFromStart + tickNanos - 1) / tickNanos, currentTick + 1);
+    buckets.get((int) (deadlineTick & mask)).add(new Entry<>(deadlineTick, deadline, item));
+    size++;
+  }
+
+  /** Advance the wheel and return all items with deadline up to and including {@code now}. */
+  synchronized List<T> advanceTo(Instant now) {
+    final long targetTick = Duration.between(start, now).toNanos() / tickNanos;
+    if (targetTick <= currentTick) {
+      return new ArrayList<>();
+    }
+
+    final List<Entry<T>> expired = new ArrayList<>();
+    // if advancing a full rotation or more, every bucket must be visited exactly once
+    final long lastTickToVisit = Math.min(targetTick, currentTick + mask + 1);
+    for (long tick = currentTick + 1; tick <= lastTickToVisit; tick++) {
+      final Iterator<Entry<T>> bucket = buckets.get((int) (tick & mask)).iterator();
+      while (bucket.hasNext()) {
+        final Entry<T> entry = bucket.next();
+        if (entry.deadlineTick <= targetTick) {
+          expired.add(entry);
+          bucket.remove();
+        }
+      }
+    }
+    currentTick = targetTick;
+    size -= expired.size();
+
+    expired.sort(Comparator.comparing(e -> e.deadline));
+    return toItems(expired);
+  }
+
+  /** Remove and return all items still in the wheel. */
+  synchronized List<T> drain() {
+    final List<Entry<T>> remaining = new ArrayList<>();
+    buckets.forEach(
+        bucket -> {
+          remaining.addAll(bucket);
+          bucket.clear();
+        });
+    size = 0;
+    remaining.sort(Comparator.comparing(e -> e.deadline));
+    return toItems(remaining);
+  }
+
+  synchronized int size() {
+    return size;
+  }
+
+  private static <T> List<T> toItems(List<Entry<T>> entries) {
+    final List<T> items = new ArrayList<>(entries.size());
+    entries.forEach(e -> items.add(e.item));
+    return items;
+  }
+
+  private static class Entry<T> {
+    private final long deadlineTick;
+    private final Instant deadline;
+    private final T item;
+
+    Entry(long deadlineTick, Instant deadline, T item) {
+      this.deadlineTick = deadlineTick;
+      this.deadline = deadline;
+      this.item = item;
+    }
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler;
+
+import com.github.kagkarlsson.scheduler.task.Execution;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Pages executions already read into memory, for implementations that cannot page in the database.
+ * The page token is the offset of the next page.
+ */
+final class InMemoryPages {
+  // same order as when paging in the database
+  static final Comparator<Execution> EXECUTION_ORDER =
+      Comparator.<Execution, Instant>comparing(e -> e.executionTime)
+          .thenComparing(e -> e.taskInstance.getTaskName())
+          .thenComparing(e -> e.taskInstance.getId());
+
+  static final Comparator<ScheduledExecution<?>> SCHEDULED_EXECUTION_ORDER =
+      Comparator.<ScheduledExecution<?>, Instant>comparing(ScheduledExecution::getExecutionTime)
+          .thenComparing(e -> e.getTaskInstance().getTaskName())
+          .thenComparing(e -> e.getTaskInstance().getId());
+
+  private InMemoryPages() {}
+
+  static <T> Optional<String> page(
+      List<T> all,
+      Comparator<? super T> order,
+      ScheduledExecutionsFilter filter,
+      Consumer<T> consumer) {
+    final List<T> sorted = new ArrayList<>(all);
+    sorted.sort(order);
+    final int from = filter.getPageToken().map(InMemoryPages::offset).orElse(0);
+    final int to = Math.min(from + filter.getPageSize(), sorted.size());
+    for (int i = from; i < to; i++) {
+      consumer.accept(sorted.get(i));
+    }
+    return to < sorted.size() ? Optional.of(String.valueOf(to)) : Optional.empty();
+  }
+
+  private static int offset(String pageToken) {
+    try {
+      final int offset = Integer.parseInt(pageToken);
+      if (offset >= 0) {
+        return offset;
+      }
+    } catch (NumberFormatException e) {
+      // fall through
+    }
+    throw new IllegalArgumentException("Invalid page token: " + pageToken);
+  }
+}
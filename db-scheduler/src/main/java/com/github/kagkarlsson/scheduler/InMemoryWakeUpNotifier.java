@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Delivers hints to all subscribers in the same JVM. Intended for tests, or for running multiple
+ * schedulers in one JVM.
+ */
+public class InMemoryWakeUpNotifier implements WakeUpNotifier {
+  private static final Logger LOG = LoggerFactory.getLogger(InMemoryWakeUpNotifier.class);
+  private final List<Consumer<Instant>> subscribers = new CopyOnWriteArrayList<>();
+
+  @Override
+  public void notifyDue(Instant executionTime) {
+    subscribers.forEach(
+        subscriber -> {
+          try {
+            subscriber.accept(executionTime);
+          } catch (RuntimeException e) {
+            LOG.warn("Subscriber failed to handle wake-up hint.", e);
+          }
+        });
+  }
+
+  @Override
+  public void subscribe(Consumer<Instant> onDue) {
+    subscribers.add(onDue);
+  }
+
+  @Override
+  public void unsubscribe(Consumer<Instant> onDue) {
+    subscribers.remove(onDue);
+  }
+}
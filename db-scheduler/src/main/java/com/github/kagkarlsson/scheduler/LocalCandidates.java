@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler;
+
+import com.github.kagkarlsson.scheduler.event.SchedulerListener.CandidateEventType;
+import com.github.kagkarlsson.scheduler.event.SchedulerListeners;
+import com.github.kagkarlsson.scheduler.task.Execution;
+import com.github.kagkarlsson.scheduler.task.TaskInstance;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded set of fetched candidates held locally, keyed by task-instance and in queue-order.
+ * Whether a candidate is still valid is decided by its version when picked. Held candidates are
+ * excluded when fetching, so each due execution is read once while held.
+ *
+ * <p>Candidates are picked in batches. The first candidate of a batch to be executed also picks the
+ * following candidates (up to {@code pickBatchSize}), so they are already picked when they reach
+ * the head of the queue. Candidates picked ahead are executed even if the scheduler is shutting
+ * down, same as for lock-and-fetch.
+ */
+class LocalCandidates {
+  private static final Logger LOG = LoggerFactory.getLogger(LocalCandidates.class);
+  private final TaskRepository taskRepository;
+  private final SchedulerListeners schedulerListeners;
+  private final SchedulerState schedulerState;
+  private final Clock clock;
+  private final int maxHeld;
+  private final int pickBatchSize;
+  private final LinkedHashMap<TaskInstance<?>, Execution> unpicked = new LinkedHashMap<>();
+  // completed when the batch they were claimed by has been picked
+  private final Map<TaskInstance<?>, CompletableFuture<Optional<Execution>>> pickedAhead =
+      new HashMap<>();
+
+  LocalCandidates(
+      TaskRepository taskRepository,
+      SchedulerListeners schedulerListeners,
+      SchedulerState schedulerState,
+      Clock clock,
+      int maxHeld,
+      int pickBatchSize) {
+    this.taskRepository = taskRepository;
+    this.schedulerListeners = schedulerListeners;
+    this.schedulerState = schedulerState;
+    this.clock = clock;
+    this.maxHeld = maxHeld;
+    this.pickBatchSize = pickBatchSize;
+  }
+
+  /**
+   * @param added instances not held before, to be queued by the caller
+   * @return true if any of the fetched executions could not be held because the set is full
+   */
+  synchronized boolean merge(List<Execution> fetched, List<TaskInstance<?>> added) {
+    boolean leftBehind = false;
+    for (Execution e : fetched) {
+      if (unpicked.containsKey(e.taskInstance) || pickedAhead.containsKey(e.taskInstance)) {
+        continue;
+      }
+      if (size() < maxHeld) {
+        unpicked.put(e.taskInstance, e);
+        added.add(e.taskInstance);
+      } else {
+        leftBehind = true;
+      }
+    }
+    return leftBehind;
+  }
+
+  synchronized int size() {
+    return unpicked.size() + pickedAhead.size();
+  }
+
+  /** Instances held, whether picked ahead or not, to exclude when fetching. */
+  synchronized Set<TaskInstance<?>> held() {
+    final Set<TaskInstance<?>> held = new HashSet<>(unpicked.keySet());
+    held.addAll(pickedAhead.keySet());
+    return held;
+  }
+
+  /**
+   * Picks the queued candidate, unless lost to another scheduler. The candidate is released from
+   * the set either way.
+   */
+  Optional<Execution> pick(TaskInstance<?> taskInstance) {
+    final List<Execution> toPick = new ArrayList<>();
+    final List<CompletableFuture<Optional<Execution>>> results = new ArrayList<>();
+    final CompletableFuture<Optional<Execution>> result;
+    synchronized (this) {
+      if (!pickedAhead.containsKey(taskInstance)) {
+        final Execution candidate = unpicked.remove(taskInstance);
+        if (candidate == null) {
+          throw new IllegalStateException(
+              "Queued candidate not found among local candidates. Indicates a bug: "
+                  + taskInstance.getTaskAndInstance());
+        }
+
+        if (schedulerState.isShuttingDown()) {
+          LOG.info(
+              "Scheduler has been shutdown. Skipping fetched due execution: "
+                  + taskInstance.getTaskAndInstance());
+          return Optional.empty();
+        }
+        claimFrom(candidate, toPick, results);
+      }
+      result = pickedAhead.remove(taskInstance);
+    }
+
+    // picked outside the lock, candidates of the batch wait for the result
+    if (!toPick.isEmpty()) {
+      pickClaimed(toPick, results);
+    }
+    final Optional<Execution> pickedExecution = ExceptionUtils.join(result);
+    if (!pickedExecution.isPresent()) {
+      // someone else picked id
+      LOG.debug("Execution picked by another scheduler. Continuing to next due execution.");
+      schedulerListeners.onCandidateEvent(CandidateEventType.ALREADY_PICKED);
+    }
+    return pickedExecution;
+  }
+
+  private void claimFrom(
+      Execution candidate,
+      List<Execution> toPick,
+      List<CompletableFuture<Optional<Execution>>> results) {
+    claim(candidate, toPick, results);
+    final Iterator<Execution> next = unpicked.values().iterator();
+    while (next.hasNext() && toPick.size() < pickBatchSize) {
+      claim(next.next(), toPick, results);
+      next.remove();
+    }
+  }
+
+  private void claim(
+      Execution candidate,
+      List<Execution> toPick,
+      List<CompletableFuture<Optional<Execution>>> results) {
+    final CompletableFuture<Optional<Execution>> result = new CompletableFuture<>();
+    pickedAhead.put(candidate.taskInstance, result);
+    toPick.add(candidate);
+    results.add(result);
+  }
+
+  private void pickClaimed(
+      List<Execution> toPick, List<CompletableFuture<Optional<Execution>>> results) {
+    final Map<TaskInstance<?>, Execution> picked = new HashMap<>();
+    try {
+      taskRepository.pick(toPick, clock.now()).forEach(p -> picked.put(p.taskInstance, p));
+    } catch (RuntimeException | Error e) {
+      results.forEach(r -> r.completeExceptionally(e));
+      return;
+    }
+    for (int i = 0; i < toPick.size(); i++) {
+      results.get(i).complete(Optional.ofNullable(picked.get(toPick.get(i).taskInstance)));
+    }
+  }
+}
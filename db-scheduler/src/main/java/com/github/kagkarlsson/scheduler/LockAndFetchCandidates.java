@@ -18,14 +18,29 @@ import com.github.kagkarlsson.scheduler.event.SchedulerListener.SchedulerEventTy
 import com.github.kagkarlsson.scheduler.event.SchedulerListeners;
 import com.github.kagkarlsson.scheduler.logging.ConfigurableLogger;
 import com.github.kagkarlsson.scheduler.task.Execution;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class LockAndFetchCandidates implements PollStrategy {
   private static final Logger LOG = LoggerFactory.getLogger(LockAndFetchCandidates.class);
+  static final Duration LOOK_AHEAD_TICK = Duration.ofMillis(10);
+  private static final int LOOK_AHEAD_WHEEL_SIZE = 512;
+  // a single share without tasks, so only the concurrency-limited groups are fetched
+  private static final List<FairShare.Share> ONLY_SLOTS =
+      List.of(new FairShare.Share("none", Set.of(), 1));
   private final Executor executor;
   private final TaskRepository taskRepository;
   private final SchedulerClient schedulerClient;
@@ -37,10 +52,18 @@ public class LockAndFetchCandidates implements PollStrategy {
   private final Clock clock;
   private final PollingStrategyConfig pollingStrategyConfig;
   private final Runnable triggerCheckForNewExecutions;
+  private final Waiter executeDueWaiter;
   private HeartbeatConfig maxAgeBeforeConsideredDead;
+  private final CompletionWriter completionWriter;
   private final int lowerLimit;
   private final int upperLimit;
   private AtomicBoolean moreExecutionsInDatabase = new AtomicBoolean(false);
+  private final Duration lookAhead;
+  private final ConcurrencyLimiter concurrencyLimiter;
+  private final Map<String, AtomicInteger> parkedByTask = new ConcurrentHashMap<>();
+  private final AtomicInteger parkedAsync = new AtomicInteger(0);
+  private HashedTimerWheel<Parked> parkedExecutions;
+  private ScheduledExecutorService lookAheadTicker;
 
   public LockAndFetchCandidates(
       Executor executor,
@@ -55,7 +78,9 @@ public class LockAndFetchCandidates implements PollStrategy {
       Clock clock,
       PollingStrategyConfig pollingStrategyConfig,
       Runnable triggerCheckForNewExecutions,
-      HeartbeatConfig maxAgeBeforeConsideredDead) {
+      Waiter executeDueWaiter,
+      HeartbeatConfig maxAgeBeforeConsideredDead,
+      CompletionWriter completionWriter) {
     this.executor = executor;
     this.taskRepository = taskRepository;
     this.schedulerClient = schedulerClient;
@@ -67,59 +92,253 @@ public class LockAndFetchCandidates implements PollStrategy {
     this.clock = clock;
     this.pollingStrategyConfig = pollingStrategyConfig;
     this.triggerCheckForNewExecutions = triggerCheckForNewExecutions;
+    this.executeDueWaiter = executeDueWaiter;
     this.maxAgeBeforeConsideredDead = maxAgeBeforeConsideredDead;
+    this.completionWriter = completionWriter;
     lowerLimit = pollingStrategyConfig.getLowerLimit(threadpoolSize);
     upperLimit = pollingStrategyConfig.getUpperLimit(threadpoolSize);
+    lookAhead = pollingStrategyConfig.lookAhead;
+    concurrencyLimiter = new ConcurrencyLimiter(taskResolver, pollingStrategyConfig::polls);
+    if (pollingStrategyConfig.isLookAheadEnabled()) {
+      parkedExecutions =
+          new HashedTimerWheel<>(LOOK_AHEAD_TICK, LOOK_AHEAD_WHEEL_SIZE, clock.now());
+    }
   }
 
   @Override
   public void run() {
     Instant now = clock.now();
 
-    int executionsToFetch = upperLimit - executor.getNumberInQueueOrProcessing();
+    // parked executions hold a slot until started or released
+    final ToIntFunction<String> heldByTask =
+        taskName -> executor.getNumberInQueueOrProcessing(taskName) + numberParked(taskName);
+    // async executions are bounded by async permits rather than threads, parked ones hold a permit
+    final int threadCapacity =
+        upperLimit
+            - executor.getNumberInQueueOrProcessing()
+            - (numberOfParkedExecutions() - parkedAsync.get());
+    final boolean asyncPolled = concurrencyLimiter.anyAsync();
 
     // Might happen if upperLimit == threads and all threads are busy
-    if (executionsToFetch <= 0) {
+    if (threadCapacity <= 0 && !asyncPolled) {
       LOG.trace("No executions to fetch.");
       return;
     }
 
-    // FIXLATER: should it fetch here if not under lowerLimit? probably
-    List<Execution> pickedExecutions = taskRepository.lockAndGetDue(now, executionsToFetch);
-    LOG.trace("Picked {} taskinstances due for execution", pickedExecutions.size());
+    int executionsToFetch = 0;
+    int picked = 0;
+    boolean more = false;
+
+    if (asyncPolled) {
+      // permits are claimed before picking, so no execution is picked that cannot be started
+      final int permits = executor.tryAcquireAsyncPermits(Integer.MAX_VALUE);
+      final List<ConcurrencySlots> slots = concurrencyLimiter.asyncSlots(heldByTask, permits);
+      final int limit = slots.stream().mapToInt(ConcurrencySlots::getFree).sum();
+      final List<Execution> pickedAsync =
+          limit > 0
+              ? taskRepository.lockAndGetDue(now.plus(lookAhead), limit, slots, ONLY_SLOTS)
+              : Collections.emptyList();
+      executor.releaseAsyncPermits(permits - pickedAsync.size());
+      executionsToFetch += limit;
+      picked += pickedAsync.size();
+      more = ConcurrencyLimiter.anyGroupFilled(slots, pickedAsync);
+      start(pickedAsync, now, true);
+    }
+
+    if (threadCapacity > 0) {
+      final List<ConcurrencySlots> syncSlots = concurrencyLimiter.syncSlots(heldByTask);
+      final List<ConcurrencySlots> slots = concurrencyLimiter.excludingAsync(syncSlots);
+      // FIXLATER: should it fetch here if not under lowerLimit? probably
+      final List<Execution> pickedSync =
+          taskRepository.lockAndGetDue(now.plus(lookAhead), threadCapacity, slots, shares(slots));
+      executionsToFetch += threadCapacity;
+      picked += pickedSync.size();
+      more =
+          more
+              || pickedSync.size() == threadCapacity
+              || ConcurrencyLimiter.anyGroupFilled(syncSlots, pickedSync);
+      start(pickedSync, now, false);
+    }
+    if (executionsToFetch == 0) {
+      // all threads busy and no async permits free
+      LOG.trace("No executions to fetch.");
+      return;
+    }
+    LOG.trace("Picked {} taskinstances due for execution", picked);
 
     // Shared indicator for if there are more due executions in the database.
     // As soon as we know there are not more executions in the database, we can stop triggering
     // checks for more (and vice versa)
-    moreExecutionsInDatabase.set(pickedExecutions.size() == executionsToFetch);
-
-    if (pickedExecutions.size() == 0) {
-      // No picked executions to execute
+    moreExecutionsInDatabase.set(more);
+    executeDueWaiter.onPollResult(picked, executionsToFetch);
+    schedulerListeners.onPollResult(
+        picked, executionsToFetch, executor.getNumberInQueueOrProcessing());
+    if (picked == 0) {
       LOG.trace("No executions due.");
       return;
     }
+    schedulerListeners.onSchedulerEvent(SchedulerEventType.RAN_EXECUTE_DUE);
+  }
 
+  /**
+   * @param holdAsyncPermits whether a permit was claimed for each of the executions
+   */
+  private void start(List<Execution> pickedExecutions, Instant now, boolean holdAsyncPermits) {
     for (Execution picked : pickedExecutions) {
-      executor.addToQueue(
-          new ExecutePicked(
-              executor,
-              taskRepository,
-              schedulerClient,
-              schedulerListeners,
-              executionInterceptors,
-              taskResolver,
-              schedulerState,
-              failureLogger,
-              clock,
-              maxAgeBeforeConsideredDead,
-              picked),
-          () -> {
-            if (moreExecutionsInDatabase.get()
-                && executor.getNumberInQueueOrProcessing() <= lowerLimit) {
-              triggerCheckForNewExecutions.run();
-            }
-          });
+      if (picked.executionTime.isAfter(now)) {
+        // claimed by look-ahead, start when due
+        park(picked, now, holdAsyncPermits);
+      } else {
+        addToQueue(picked, now, holdAsyncPermits);
+      }
+    }
+  }
+
+  private List<FairShare.Share> shares(List<ConcurrencySlots> slots) {
+    return pollingStrategyConfig.sharesFor(taskResolver.getKnownTasks(), slots);
+  }
+
+  @Override
+  public void stop() {
+    final ScheduledExecutorService lookAheadTicker;
+    synchronized (this) {
+      lookAheadTicker = this.lookAheadTicker;
+    }
+    if (lookAheadTicker == null) {
+      return;
+    }
+    lookAheadTicker.shutdownNow();
+    if (!ExecutorUtils.awaitTermination(lookAheadTicker, Duration.ofSeconds(5))) {
+      LOG.warn("Failed to shutdown look-ahead ticker properly.");
+    }
+    parkedExecutions
+        .drain()
+        .forEach(
+            parked -> {
+              unpark(parked);
+              release(parked);
+            });
+  }
+
+  private synchronized void park(Execution picked, Instant timePicked, boolean holdsAsyncPermit) {
+    if (lookAheadTicker == null) {
+      // only running while there are parked executions
+      lookAheadTicker =
+          Executors.newSingleThreadScheduledExecutor(
+              ExecutorUtils.defaultThreadFactoryWithPrefix("db-scheduler-look-ahead-"));
+      lookAheadTicker.scheduleAtFixedRate(
+          new RunAndLogErrors(this::startParkedExecutionsDue, schedulerListeners),
+          LOOK_AHEAD_TICK.toMillis(),
+          LOOK_AHEAD_TICK.toMillis(),
+          TimeUnit.MILLISECONDS);
+    }
+    parkedByTask
+        .computeIfAbsent(picked.taskInstance.getTaskName(), n -> new AtomicInteger(0))
+        .incrementAndGet();
+    if (holdsAsyncPermit) {
+      parkedAsync.incrementAndGet();
+    }
+    parkedExecutions.schedule(
+        picked.executionTime, new Parked(picked, timePicked, holdsAsyncPermit));
+  }
+
+  private void unpark(Parked parked) {
+    final AtomicInteger parkedForTask =
+        parkedByTask.get(parked.execution.taskInstance.getTaskName());
+    if (parkedForTask != null) {
+      parkedForTask.decrementAndGet();
+    }
+    if (parked.holdsAsyncPermit) {
+      parkedAsync.decrementAndGet();
+    }
+  }
+
+  private int numberOfParkedExecutions() {
+    return parkedExecutions != null ? parkedExecutions.size() : 0;
+  }
+
+  private int numberParked(String taskName) {
+    final AtomicInteger parkedForTask = parkedByTask.get(taskName);
+    return parkedForTask != null ? parkedForTask.get() : 0;
+  }
+
+  private void startParkedExecutionsDue() {
+    final Instant now = clock.now();
+    for (Parked parked : parkedExecutions.advanceTo(now)) {
+      unpark(parked);
+      if (schedulerState.isShuttingDown()) {
+        release(parked);
+      } else {
+        addToQueue(parked.execution, parked.timePicked, parked.holdsAsyncPermit);
+      }
+    }
+    stopTickerIfNothingParked();
+  }
+
+  private synchronized void stopTickerIfNothingParked() {
+    // parking is synchronized as well, so no execution is parked without a running ticker
+    if (lookAheadTicker != null && parkedExecutions.size() == 0) {
+      lookAheadTicker.shutdown();
+      lookAheadTicker = null;
+    }
+  }
+
+  /** Hands a parked execution, not started, back to the database unchanged. */
+  private void release(Parked parked) {
+    final Execution picked = parked.execution;
+    LOG.debug("Releasing picked execution: {}", picked);
+    if (parked.holdsAsyncPermit) {
+      executor.releaseAsyncPermits(1);
+    }
+    try {
+      taskRepository.reschedule(
+          picked,
+          picked.executionTime,
+          picked.lastSuccess,
+          picked.lastFailure,
+          picked.consecutiveFailures);
+    } catch (RuntimeException e) {
+      LOG.warn("Failed to release picked execution. It will be detected as dead: {}", picked, e);
+    }
+  }
+
+  private void addToQueue(Execution picked, Instant timePicked, boolean holdsAsyncPermit) {
+    final ExecutePicked executePicked =
+        new ExecutePicked(
+            executor,
+            taskRepository,
+            schedulerClient,
+            schedulerListeners,
+            executionInterceptors,
+            taskResolver,
+            schedulerState,
+            failureLogger,
+            clock,
+            maxAgeBeforeConsideredDead,
+            completionWriter,
+            picked,
+            timePicked);
+    executor.addToQueueAsync(
+        picked.taskInstance.getTaskName(),
+        holdsAsyncPermit,
+        executePicked::run,
+        () -> {
+          if (moreExecutionsInDatabase.get()
+              && executor.getNumberInQueueOrProcessing() <= lowerLimit) {
+            triggerCheckForNewExecutions.run();
+          }
+        });
+  }
+
+  private static class Parked {
+    private final Execution execution;
+    private final Instant timePicked;
+    private final boolean holdsAsyncPermit;
+
+    Parked(Execution execution, Instant timePicked, boolean holdsAsyncPermit) {
+      this.execution = execution;
+      this.timePicked = timePicked;
+      this.holdsAsyncPermit = holdsAsyncPermit;
     }
-    schedulerListeners.onSchedulerEvent(SchedulerEventType.RAN_EXECUTE_DUE);
   }
 }
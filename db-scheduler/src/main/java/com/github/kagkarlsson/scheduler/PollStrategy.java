@@ -13,4 +13,8 @@
  */
 package com.github.kagkarlsson.scheduler;
 
-public interface PollStrategy extends Runnable {}
+public interface PollStrategy extends Runnable {
+
+  /** Called when the scheduler is stopping, after the last call to {@link #run()}. */
+  default void stop() {}
+}
@@ -13,6 +13,15 @@
  */
 package com.github.kagkarlsson.scheduler;
 
+import com.github.kagkarlsson.scheduler.task.Task;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 public class PollingStrategyConfig {
 
   public static final PollingStrategyConfig DEFAULT_FETCH =
@@ -37,12 +46,98 @@ public class PollingStrategyConfig {
   public final Type type;
   public final double lowerLimitFractionOfThreads;
   public final double upperLimitFractionOfThreads;
+  public final Duration lookAhead;
+  public final AdaptivePollingInterval adaptiveInterval;
+  public final FairShare fairShare;
+  public final Set<String> taskNames;
+  public final boolean reuseCandidates;
 
   public PollingStrategyConfig(
       Type type, double lowerLimitFractionOfThreads, double upperLimitFractionOfThreads) {
+    this(type, lowerLimitFractionOfThreads, upperLimitFractionOfThreads, Duration.ZERO, null);
+  }
+
+  public PollingStrategyConfig(
+      Type type,
+      double lowerLimitFractionOfThreads,
+      double upperLimitFractionOfThreads,
+      Duration lookAhead,
+      AdaptivePollingInterval adaptiveInterval) {
+    this(
+        type,
+        lowerLimitFractionOfThreads,
+        upperLimitFractionOfThreads,
+        lookAhead,
+        adaptiveInterval,
+        null);
+  }
+
+  public PollingStrategyConfig(
+      Type type,
+      double lowerLimitFractionOfThreads,
+      double upperLimitFractionOfThreads,
+      Duration lookAhead,
+      AdaptivePollingInterval adaptiveInterval,
+      FairShare fairShare) {
+    this(
+        type,
+        lowerLimitFractionOfThreads,
+        upperLimitFractionOfThreads,
+        lookAhead,
+        adaptiveInterval,
+        fairShare,
+        null);
+  }
+
+  public PollingStrategyConfig(
+      Type type,
+      double lowerLimitFractionOfThreads,
+      double upperLimitFractionOfThreads,
+      Duration lookAhead,
+      AdaptivePollingInterval adaptiveInterval,
+      FairShare fairShare,
+      Set<String> taskNames) {
+    this(
+        type,
+        lowerLimitFractionOfThreads,
+        upperLimitFractionOfThreads,
+        lookAhead,
+        adaptiveInterval,
+        fairShare,
+        taskNames,
+        false);
+  }
+
+  /**
+   * @param lookAhead claim executions due within this duration and start them locally when due.
+   *     Only supported for {@link Type#LOCK_AND_FETCH}. {@link Duration#ZERO} disables look-ahead.
+   * @param adaptiveInterval adapt the polling-interval to the result of each poll. {@code null}
+   *     keeps the fixed polling-interval.
+   * @param fairShare split each poll between task-names by weight. {@code null} fetches the
+   *     executions that have been due the longest.
+   * @param taskNames only fetch executions of these tasks, e.g. for an {@link ExecutorLane}. {@code
+   *     null} fetches executions of all known tasks.
+   * @param reuseCandidates keep fetched candidates across polls, and only fetch those not already
+   *     held. Only supported for {@link Type#FETCH}. {@code false} discards candidates of previous
+   *     polls as stale.
+   */
+  public PollingStrategyConfig(
+      Type type,
+      double lowerLimitFractionOfThreads,
+      double upperLimitFractionOfThreads,
+      Duration lookAhead,
+      AdaptivePollingInterval adaptiveInterval,
+      FairShare fairShare,
+      Set<String> taskNames,
+      boolean reuseCandidates) {
     this.type = type;
     this.lowerLimitFractionOfThreads = lowerLimitFractionOfThreads;
     this.upperLimitFractionOfThreads = upperLimitFractionOfThreads;
+    this.lookAhead = lookAhead;
+    this.adaptiveInterval = adaptiveInterval;
+    this.fairShare = fairShare;
+    this.taskNames = taskNames != null ? Collections.unmodifiableSet(taskNames) : null;
+    this.reuseCandidates = reuseCandidates;
     if (lowerLimitFractionOfThreads >= upperLimitFractionOfThreads) {
       throw new IllegalArgumentException(
           "lowerLimitFractionOfThreads should be lower than upperLimitFractionOfThreads");
@@ -52,6 +147,137 @@ public class PollingStrategyConfig {
       throw new IllegalArgumentException(
           "upperLimit should be equals to number of threads or higher, i.e. fraction higher than 1");
     }
+
+    if (lookAhead.isNegative()) {
+      throw new IllegalArgumentException("lookAhead must not be negative");
+    }
+
+    if (isLookAheadEnabled() && type != Type.LOCK_AND_FETCH) {
+      throw new IllegalArgumentException(
+          "lookAhead requires polling-strategy LOCK_AND_FETCH, since executions must be claimed before they are due");
+    }
+
+    if (reuseCandidates && type != Type.FETCH) {
+      throw new IllegalArgumentException(
+          "reuseCandidates requires polling-strategy FETCH, since lock-and-fetch holds no unpicked candidates");
+    }
+  }
+
+  public boolean isLookAheadEnabled() {
+    return !lookAhead.isZero();
+  }
+
+  public boolean isAdaptiveInterval() {
+    return adaptiveInterval != null;
+  }
+
+  public boolean isFairShare() {
+    return fairShare != null;
+  }
+
+  public boolean isTaskNameFiltered() {
+    return taskNames != null;
+  }
+
+  boolean polls(String taskName) {
+    return taskNames == null || taskNames.contains(taskName);
+  }
+
+  public PollingStrategyConfig withLookAhead(Duration lookAhead) {
+    return new PollingStrategyConfig(
+        type,
+        lowerLimitFractionOfThreads,
+        upperLimitFractionOfThreads,
+        lookAhead,
+        adaptiveInterval,
+        fairShare,
+        taskNames,
+        reuseCandidates);
+  }
+
+  public PollingStrategyConfig withAdaptiveInterval(AdaptivePollingInterval adaptiveInterval) {
+    return new PollingStrategyConfig(
+        type,
+        lowerLimitFractionOfThreads,
+        upperLimitFractionOfThreads,
+        lookAhead,
+        adaptiveInterval,
+        fairShare,
+        taskNames,
+        reuseCandidates);
+  }
+
+  public PollingStrategyConfig withFairShare(FairShare fairShare) {
+    return new PollingStrategyConfig(
+        type,
+        lowerLimitFractionOfThreads,
+        upperLimitFractionOfThreads,
+        lookAhead,
+        adaptiveInterval,
+        fairShare,
+        taskNames,
+        reuseCandidates);
+  }
+
+  public PollingStrategyConfig withLimits(
+      double lowerLimitFractionOfThreads, double upperLimitFractionOfThreads) {
+    return new PollingStrategyConfig(
+        type,
+        lowerLimitFractionOfThreads,
+        upperLimitFractionOfThreads,
+        lookAhead,
+        adaptiveInterval,
+        fairShare,
+        taskNames,
+        reuseCandidates);
+  }
+
+  public PollingStrategyConfig withTaskNames(Set<String> taskNames) {
+    return new PollingStrategyConfig(
+        type,
+        lowerLimitFractionOfThreads,
+        upperLimitFractionOfThreads,
+        lookAhead,
+        adaptiveInterval,
+        fairShare,
+        new HashSet<>(taskNames),
+        reuseCandidates);
+  }
+
+  public PollingStrategyConfig withReuseCandidates(boolean reuseCandidates) {
+    return new PollingStrategyConfig(
+        type,
+        lowerLimitFractionOfThreads,
+        upperLimitFractionOfThreads,
+        lookAhead,
+        adaptiveInterval,
+        fairShare,
+        taskNames,
+        reuseCandidates);
+  }
+
+  /**
+   * Shares to split each poll between, see {@link TaskRepository#getDue(java.time.Instant, int,
+   * List, List)}. Besides the concurrency-limited groups, only executions of tasks in the shares
+   * are fetched, so when filtering by task-name there is always at least one share.
+   */
+  List<FairShare.Share> sharesFor(Collection<Task> knownTasks, List<ConcurrencySlots> slots) {
+    if (!isTaskNameFiltered()) {
+      return isFairShare() ? fairShare.sharesFor(knownTasks, slots) : Collections.emptyList();
+    }
+
+    final List<Task> polled = new ArrayList<>();
+    knownTasks.stream().filter(t -> polls(t.getName())).forEach(polled::add);
+    final List<FairShare.Share> shares =
+        (isFairShare()
+                ? fairShare
+                : FairShare.equalWeights().withGroup("polled", taskNames.toArray(new String[0])))
+            .sharesFor(polled, slots);
+    if (shares.isEmpty()) {
+      // all tasks polled are limited, an empty share keeps the rest from being fetched
+      return List.of(new FairShare.Share("polled", Set.of(), 1));
+    }
+    return shares;
   }
 
   public String describe() {
@@ -60,6 +286,11 @@ public class PollingStrategyConfig {
         + ", lowerLimit="
         + lowerLimitFractionOfThreads
         + ", upperLimit="
-        + upperLimitFractionOfThreads;
+        + upperLimitFractionOfThreads
+        + (isLookAheadEnabled() ? ", lookAhead=" + lookAhead : "")
+        + (isAdaptiveInterval() ? ", adaptiveInterval=(" + adaptiveInterval.describe() + ")" : "")
+        + (isFairShare() ? ", fairShare=(" + fairShare.describe() + ")" : "")
+        + (isTaskNameFiltered() ? ", taskNames=" + taskNames : "")
+        + (reuseCandidates ? ", reuseCandidates=true" : "");
   }
 }
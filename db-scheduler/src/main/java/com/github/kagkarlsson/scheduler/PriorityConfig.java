@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler;
+
+import java.time.Duration;
+
+/**
+ * Fetch due executions by priority, highest first, and then by execution-time. Requires the {@code
+ * priority} column.
+ *
+ * <p>Optionally, priority ages with time overdue, so executions of low priority are not starved by
+ * a steady stream of higher priority. Aging prevents the {@code (priority, execution_time)} index
+ * from being used for ordering.
+ */
+public class PriorityConfig {
+
+  public static final PriorityConfig DISABLED = new PriorityConfig(false, Duration.ZERO, 0);
+  static final int MAX_AGING_STEPS = 100;
+
+  public final boolean enabled;
+  public final Duration agingStep;
+  public final int maxAgingSteps;
+
+  private PriorityConfig(boolean enabled, Duration agingStep, int maxAgingSteps) {
+    this.enabled = enabled;
+    this.agingStep = agingStep;
+    this.maxAgingSteps = maxAgingSteps;
+  }
+
+  public static PriorityConfig enabled() {
+    return new PriorityConfig(true, Duration.ZERO, 0);
+  }
+
+  /**
+   * Raise priority by one for every {@code step} an execution is overdue, by at most {@code
+   * maxSteps}. Each step adds a term to the ordering of the due-query, so keep {@code maxSteps}
+   * low.
+   */
+  public PriorityConfig withAging(Duration step, int maxSteps) {
+    if (!enabled) {
+      throw new IllegalStateException("Aging requires priority to be enabled");
+    }
+    if (step.isNegative() || step.isZero()) {
+      throw new IllegalArgumentException("step must be positive");
+    }
+    if (maxSteps < 1 || maxSteps > MAX_AGING_STEPS) {
+      throw new IllegalArgumentException("maxSteps must be between 1 and " + MAX_AGING_STEPS);
+    }
+    return new PriorityConfig(true, step, maxSteps);
+  }
+
+  public boolean isAging() {
+    return maxAgingSteps > 0;
+  }
+
+  public String describe() {
+    if (!enabled) {
+      return "priority(disabled)";
+    }
+    return isAging()
+        ? "priority(agingStep=" + agingStep + ", maxAgingSteps=" + maxAgingSteps + ")"
+        : "priority";
+  }
+}
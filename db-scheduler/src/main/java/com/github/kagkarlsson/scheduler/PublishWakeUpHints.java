@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler;
+
+import com.github.kagkarlsson.scheduler.event.AbstractSchedulerListener;
+import com.github.kagkarlsson.scheduler.task.TaskInstanceId;
+import java.time.Duration;
+import java.time.Instant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class PublishWakeUpHints extends AbstractSchedulerListener {
+  private static final Logger LOG = LoggerFactory.getLogger(PublishWakeUpHints.class);
+  private final WakeUpNotifier wakeUpNotifier;
+  private final Clock clock;
+  private final Duration notifyWhenDueWithin;
+
+  PublishWakeUpHints(WakeUpNotifier wakeUpNotifier, Clock clock, Duration notifyWhenDueWithin) {
+    this.wakeUpNotifier = wakeUpNotifier;
+    this.clock = clock;
+    this.notifyWhenDueWithin = notifyWhenDueWithin;
+  }
+
+  @Override
+  public void onExecutionScheduled(
+      TaskInstanceId taskInstanceId, Instant scheduledToExecutionTime) {
+    // Executions due later than this will be found by regular polling anyway
+    if (scheduledToExecutionTime.isAfter(clock.now().plus(notifyWhenDueWithin))) {
+      return;
+    }
+
+    LOG.debug(
+        "Publishing wake-up hint for execution (task: '{}', id: '{}') due at {}.",
+        taskInstanceId.getTaskName(),
+        taskInstanceId.getId(),
+        scheduledToExecutionTime);
+    try {
+      wakeUpNotifier.notifyDue(scheduledToExecutionTime);
+    } catch (RuntimeException e) {
+      LOG.warn(
+          "Failed to publish wake-up hint. Execution will be picked up by regular polling.", e);
+    }
+  }
+}
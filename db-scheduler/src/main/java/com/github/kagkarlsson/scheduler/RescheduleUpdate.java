@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler;
+
+import com.github.kagkarlsson.scheduler.task.Execution;
+import java.time.Instant;
+
+/** A reschedule of a picked execution, guarded by the version of the execution. */
+public final class RescheduleUpdate {
+  public final Execution execution;
+  public final Instant nextExecutionTime;
+  public final Instant lastSuccess;
+  public final Instant lastFailure;
+  public final int consecutiveFailures;
+
+  public RescheduleUpdate(
+      Execution execution,
+      Instant nextExecutionTime,
+      Instant lastSuccess,
+      Instant lastFailure,
+      int consecutiveFailures) {
+    this.execution = execution;
+    this.nextExecutionTime = nextExecutionTime;
+    this.lastSuccess = lastSuccess;
+    this.lastFailure = lastFailure;
+    this.consecutiveFailures = consecutiveFailures;
+  }
+
+  @Override
+  public String toString() {
+    return "RescheduleUpdate{"
+        + "execution="
+        + execution
+        + ", nextExecutionTime="
+        + nextExecutionTime
+        + '}';
+  }
+}
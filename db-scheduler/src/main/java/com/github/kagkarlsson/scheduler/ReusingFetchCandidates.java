@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler;
+
+import com.github.kagkarlsson.scheduler.event.ExecutionInterceptor;
+import com.github.kagkarlsson.scheduler.event.SchedulerListener.SchedulerEventType;
+import com.github.kagkarlsson.scheduler.event.SchedulerListeners;
+import com.github.kagkarlsson.scheduler.logging.ConfigurableLogger;
+import com.github.kagkarlsson.scheduler.task.Execution;
+import com.github.kagkarlsson.scheduler.task.TaskInstance;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fetch-and-lock-on-execute keeping fetched candidates across polls, see {@link LocalCandidates}.
+ * Each poll only fetches due executions not already held, up to the number of candidates that may
+ * be held.
+ */
+public class ReusingFetchCandidates implements PollStrategy {
+  private static final Logger LOG = LoggerFactory.getLogger(ReusingFetchCandidates.class);
+  private final Executor executor;
+  private final TaskRepository taskRepository;
+  private final SchedulerClient schedulerClient;
+  private final SchedulerListeners schedulerListeners;
+  private final List<ExecutionInterceptor> executionInterceptors;
+  private final SchedulerState schedulerState;
+  private final ConfigurableLogger failureLogger;
+  private final TaskResolver taskResolver;
+  private final Clock clock;
+  private final PollingStrategyConfig pollingStrategyConfig;
+  private final Runnable triggerCheckForNewExecutions;
+  private final Waiter executeDueWaiter;
+  private HeartbeatConfig heartbeatConfig;
+  private final CompletionWriter completionWriter;
+  private final int lowerLimit;
+  private final int upperLimit;
+  private final LocalCandidates localCandidates;
+  private final AtomicBoolean moreExecutionsInDatabase = new AtomicBoolean(false);
+  private final ConcurrencyLimiter concurrencyLimiter;
+
+  public ReusingFetchCandidates(
+      Executor executor,
+      TaskRepository taskRepository,
+      SchedulerClient schedulerClient,
+      int threadpoolSize,
+      SchedulerListeners schedulerListeners,
+      List<ExecutionInterceptor> executionInterceptors,
+      SchedulerState schedulerState,
+      ConfigurableLogger failureLogger,
+      TaskResolver taskResolver,
+      Clock clock,
+      PollingStrategyConfig pollingStrategyConfig,
+      Runnable triggerCheckForNewExecutions,
+      Waiter executeDueWaiter,
+      HeartbeatConfig heartbeatConfig,
+      CompletionWriter completionWriter) {
+    this.executor = executor;
+    this.taskRepository = taskRepository;
+    this.schedulerClient = schedulerClient;
+    this.schedulerListeners = schedulerListeners;
+    this.executionInterceptors = executionInterceptors;
+    this.schedulerState = schedulerState;
+    this.failureLogger = failureLogger;
+    this.taskResolver = taskResolver;
+    this.clock = clock;
+    this.pollingStrategyConfig = pollingStrategyConfig;
+    this.triggerCheckForNewExecutions = triggerCheckForNewExecutions;
+    this.executeDueWaiter = executeDueWaiter;
+    this.heartbeatConfig = heartbeatConfig;
+    this.completionWriter = completionWriter;
+    lowerLimit = pollingStrategyConfig.getLowerLimit(threadpoolSize);
+    // max number of candidates held locally, not yet started
+    upperLimit = pollingStrategyConfig.getUpperLimit(threadpoolSize);
+    localCandidates =
+        new LocalCandidates(
+            taskRepository,
+            schedulerListeners,
+            schedulerState,
+            clock,
+            upperLimit,
+            Math.max(1, threadpoolSize));
+    concurrencyLimiter = new ConcurrencyLimiter(taskResolver, pollingStrategyConfig::polls);
+  }
+
+  @Override
+  public void run() {
+    Instant now = clock.now();
+
+    // Candidates already held locally are not fetched again, only executions beyond them
+    final Set<TaskInstance<?>> held = localCandidates.held();
+    final int executionsToFetch = upperLimit - held.size();
+    if (executionsToFetch <= 0) {
+      LOG.trace("No executions to fetch, {} candidates held locally.", held.size());
+      return;
+    }
+    // candidates held locally are queued, so they already hold a slot
+    final List<ConcurrencySlots> slots =
+        concurrencyLimiter.freeSlots(
+            executor::getNumberInQueueOrProcessing, executor.getAvailableAsyncPermits());
+    List<Execution> fetchedDueExecutions =
+        taskRepository.getDue(now, executionsToFetch, slots, shares(slots), held);
+    LOG.trace(
+        "Fetched {} task instances due for execution at {}", fetchedDueExecutions.size(), now);
+    executeDueWaiter.onPollResult(fetchedDueExecutions.size(), executionsToFetch);
+
+    // async executions are only held while permits are free, the rest are left for later polls.
+    // Permits are claimed before merging, since held candidates may be picked ahead at any time.
+    final List<Execution> dispatchable = new ArrayList<>();
+    for (Execution e : fetchedDueExecutions) {
+      if (!ExecutePicked.isAsync(taskResolver, e.taskInstance.getTaskName())
+          || executor.tryAcquireAsyncPermit()) {
+        dispatchable.add(e);
+      }
+    }
+
+    final List<TaskInstance<?>> added = new ArrayList<>();
+    final boolean leftBehind = localCandidates.merge(dispatchable, added);
+    releasePermitsNotAdded(dispatchable, added);
+    // due executions not held locally must be fetched again once the queue is drained
+    moreExecutionsInDatabase.set(
+        fetchedDueExecutions.size() == executionsToFetch
+            || leftBehind
+            || dispatchable.size() < fetchedDueExecutions.size()
+            || ConcurrencyLimiter.anyGroupFilled(slots, fetchedDueExecutions));
+    LOG.trace("Added {} new candidates, {} held locally.", added.size(), localCandidates.size());
+
+    for (TaskInstance<?> candidate : added) {
+      executor.addToQueueAsync(
+          candidate.getTaskName(),
+          ExecutePicked.isAsync(taskResolver, candidate.getTaskName()),
+          () ->
+              localCandidates
+                  .pick(candidate)
+                  .map(
+                      picked ->
+                          new ExecutePicked(
+                                  executor,
+                                  taskRepository,
+                                  schedulerClient,
+                                  schedulerListeners,
+                                  executionInterceptors,
+                                  taskResolver,
+                                  schedulerState,
+                                  failureLogger,
+                                  clock,
+                                  heartbeatConfig,
+                                  completionWriter,
+                                  picked,
+                                  // set to the time picked when picking
+                                  picked.lastHeartbeat)
+                              .run())
+                  .orElse(CompletableFuture.completedFuture(null)),
+          () -> {
+            if (moreExecutionsInDatabase.get()
+                && executor.getNumberInQueueOrProcessing() <= lowerLimit) {
+              triggerCheckForNewExecutions.run();
+            }
+          });
+    }
+    schedulerListeners.onPollResult(
+        fetchedDueExecutions.size(), executionsToFetch, executor.getNumberInQueueOrProcessing());
+    schedulerListeners.onSchedulerEvent(SchedulerEventType.RAN_EXECUTE_DUE);
+  }
+
+  private void releasePermitsNotAdded(List<Execution> dispatchable, List<TaskInstance<?>> added) {
+    final Set<TaskInstance<?>> addedSet = new HashSet<>(added);
+    for (Execution e : dispatchable) {
+      if (!addedSet.contains(e.taskInstance)
+          && ExecutePicked.isAsync(taskResolver, e.taskInstance.getTaskName())) {
+        executor.releaseAsyncPermits(1);
+      }
+    }
+  }
+
+  private List<FairShare.Share> shares(List<ConcurrencySlots> slots) {
+    return pollingStrategyConfig.sharesFor(taskResolver.getKnownTasks(), slots);
+  }
+}
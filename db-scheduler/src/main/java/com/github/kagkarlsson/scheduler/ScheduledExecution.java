@@ -73,6 +73,11 @@ public class ScheduledExecution<DATA_TYPE> {
     return execution.consecutiveFailures;
   }
 
+  /** 0 unless the scheduler-table has the priority-column. */
+  public int getPriority() {
+    return execution.priority;
+  }
+
   public boolean isPicked() {
     return execution.picked;
   }
@@ -16,9 +16,14 @@ package com.github.kagkarlsson.scheduler;
 import java.util.Optional;
 
 public class ScheduledExecutionsFilter {
+  public static final int DEFAULT_PAGE_SIZE = 1000;
 
   private Boolean pickedValue;
   private boolean includeUnresolved = false;
+  private Integer pageSize;
+  private String pageToken;
+  private Integer fetchSize;
+  private boolean includeTaskData = true;
 
   private ScheduledExecutionsFilter() {}
 
@@ -40,6 +45,49 @@ public class ScheduledExecutionsFilter {
     return this;
   }
 
+  /**
+   * Fetch a single page of executions, ordered by execution-time, task-name and instance-id. The
+   * token for the next page is returned when fetching a page.
+   *
+   * @see SchedulerClient#getScheduledExecutionsPage(ScheduledExecutionsFilter)
+   */
+  public ScheduledExecutionsFilter withPageSize(int pageSize) {
+    if (pageSize < 1) {
+      throw new IllegalArgumentException("pageSize must be positive: " + pageSize);
+    }
+    this.pageSize = pageSize;
+    return this;
+  }
+
+  /**
+   * Continue after the last execution of a previous page.
+   *
+   * @param pageToken token returned with the previous page
+   */
+  public ScheduledExecutionsFilter withPageToken(String pageToken) {
+    this.pageToken = pageToken;
+    return this;
+  }
+
+  /**
+   * Stream executions from the database in chunks of {@code fetchSize}, rather than reading the
+   * whole result before the first is delivered. The query is run in a transaction, since drivers
+   * such as PostgreSQL's only use a cursor when auto-commit is disabled.
+   */
+  public ScheduledExecutionsFilter withFetchSize(int fetchSize) {
+    this.fetchSize = fetchSize;
+    return this;
+  }
+
+  /**
+   * Whether task-data should be read with the executions. If not, it is loaded for an execution
+   * when first accessed, which saves reading and transferring large data when listing.
+   */
+  public ScheduledExecutionsFilter withIncludeTaskData(boolean includeTaskData) {
+    this.includeTaskData = includeTaskData;
+    return this;
+  }
+
   public Optional<Boolean> getPickedValue() {
     return Optional.ofNullable(pickedValue);
   }
@@ -47,4 +95,24 @@ public class ScheduledExecutionsFilter {
   public boolean getIncludeUnresolved() {
     return includeUnresolved;
   }
+
+  public boolean isPaged() {
+    return pageSize != null || pageToken != null;
+  }
+
+  public int getPageSize() {
+    return Optional.ofNullable(pageSize).orElse(DEFAULT_PAGE_SIZE);
+  }
+
+  public Optional<String> getPageToken() {
+    return Optional.ofNullable(pageToken);
+  }
+
+  public boolean getIncludeTaskData() {
+    return includeTaskData;
+  }
+
+  public Optional<Integer> getFetchSize() {
+    return Optional.ofNullable(fetchSize);
+  }
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A page of scheduled executions.
+ *
+ * @see SchedulerClient#getScheduledExecutionsPage(ScheduledExecutionsFilter)
+ */
+public class ScheduledExecutionsPage<T> {
+  private final List<ScheduledExecution<T>> executions;
+  private final String nextPageToken;
+
+  public ScheduledExecutionsPage(List<ScheduledExecution<T>> executions, String nextPageToken) {
+    this.executions = executions;
+    this.nextPageToken = nextPageToken;
+  }
+
+  public List<ScheduledExecution<T>> getExecutions() {
+    return executions;
+  }
+
+  /**
+   * @return token for fetching the next page using {@link
+   *     ScheduledExecutionsFilter#withPageToken(String)}, empty if this was the last page
+   */
+  public Optional<String> getNextPageToken() {
+    return Optional.ofNullable(nextPageToken);
+  }
+
+  public boolean hasNextPage() {
+    return nextPageToken != null;
+  }
+}
@@ -15,6 +15,7 @@ package com.github.kagkarlsson.scheduler;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 
 import com.github.kagkarlsson.scheduler.SchedulerState.SettableSchedulerState;
 import com.github.kagkarlsson.scheduler.event.ExecutionInterceptor;
@@ -33,11 +34,20 @@ import com.github.kagkarlsson.scheduler.task.TaskInstance;
 import com.github.kagkarlsson.scheduler.task.TaskInstanceId;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.function.Consumer;
 import javax.sql.DataSource;
 import org.slf4j.Logger;
@@ -69,6 +79,17 @@ public class Scheduler implements SchedulerClient {
   private final Waiter heartbeatWaiter;
   final SettableSchedulerState schedulerState = new SettableSchedulerState();
   final ConfigurableLogger failureLogger;
+  private final WakeUpNotifier wakeUpNotifier;
+  private final CompletionWriter completionWriter;
+  private final boolean nodeLivenessEnabled;
+  // only touched by the heartbeat-thread
+  private Instant lastExecutionHeartbeats = Instant.EPOCH;
+  private final BacklogSampler backlogSampler;
+  private final Consumer<Instant> wakeUpHintSubscriber = this::onWakeUpHint;
+  private final Object pendingWakeUpLock = new Object();
+  private ScheduledFuture<?> pendingWakeUp;
+  private Instant pendingWakeUpTime;
+  private final List<Lane> lanes = new ArrayList<>();
 
   protected Scheduler(
       Clock clock,
@@ -90,12 +111,80 @@ public class Scheduler implements SchedulerClient {
       boolean logStackTrace,
       List<OnStartup> onStartup,
       ExecutorService dueExecutor,
-      ScheduledExecutorService housekeeperExecutor) {
+      ScheduledExecutorService housekeeperExecutor,
+      WakeUpNotifier wakeUpNotifier,
+      GroupCommitConfig groupCommitConfig,
+      boolean nodeLivenessEnabled,
+      BacklogSampler backlogSampler) {
+    this(
+        clock,
+        schedulerTaskRepository,
+        clientTaskRepository,
+        taskResolver,
+        threadpoolSize,
+        executorService,
+        schedulerName,
+        executeDueWaiter,
+        heartbeatInterval,
+        numberOfMissedHeartbeatsBeforeDead,
+        schedulerListeners,
+        executionInterceptors,
+        pollingStrategyConfig,
+        deleteUnresolvedAfter,
+        shutdownMaxWait,
+        logLevel,
+        logStackTrace,
+        onStartup,
+        dueExecutor,
+        housekeeperExecutor,
+        wakeUpNotifier,
+        groupCommitConfig,
+        nodeLivenessEnabled,
+        backlogSampler,
+        Collections.emptyList(),
+        Executor.DEFAULT_MAX_ASYNC_EXECUTIONS);
+  }
+
+  /**
+   * @param executorLanes groups of tasks with threads and polling of their own. The remaining tasks
+   *     are executed by the default lane, using {@code executorService} and {@code dueExecutor}.
+   * @param maxAsyncExecutions max number of executions of {@link
+   *     com.github.kagkarlsson.scheduler.task.AsyncExecutionHandler} in flight per lane
+   */
+  protected Scheduler(
+      Clock clock,
+      TaskRepository schedulerTaskRepository,
+      TaskRepository clientTaskRepository,
+      TaskResolver taskResolver,
+      int threadpoolSize,
+      ExecutorService executorService,
+      SchedulerName schedulerName,
+      Waiter executeDueWaiter,
+      Duration heartbeatInterval,
+      int numberOfMissedHeartbeatsBeforeDead,
+      List<SchedulerListener> schedulerListeners,
+      List<ExecutionInterceptor> executionInterceptors,
+      PollingStrategyConfig pollingStrategyConfig,
+      Duration deleteUnresolvedAfter,
+      Duration shutdownMaxWait,
+      LogLevel logLevel,
+      boolean logStackTrace,
+      List<OnStartup> onStartup,
+      ExecutorService dueExecutor,
+      ScheduledExecutorService housekeeperExecutor,
+      WakeUpNotifier wakeUpNotifier,
+      GroupCommitConfig groupCommitConfig,
+      boolean nodeLivenessEnabled,
+      BacklogSampler backlogSampler,
+      List<ExecutorLane> executorLanes,
+      int maxAsyncExecutions) {
     this.clock = clock;
+    this.nodeLivenessEnabled = nodeLivenessEnabled;
+    this.backlogSampler = backlogSampler;
     this.schedulerTaskRepository = schedulerTaskRepository;
     this.taskResolver = taskResolver;
     this.threadpoolSize = threadpoolSize;
-    this.executor = new Executor(executorService, clock);
+    this.executor = new Executor(executorService, clock, maxAsyncExecutions);
     this.executeDueWaiter = executeDueWaiter;
     this.deleteUnresolvedAfter = deleteUnresolvedAfter;
     this.shutdownMaxWait = shutdownMaxWait;
@@ -110,47 +199,183 @@ public class Scheduler implements SchedulerClient {
     this.schedulerListeners = new SchedulerListeners(schedulerListeners);
     this.dueExecutor = dueExecutor;
     this.housekeeperExecutor = housekeeperExecutor;
+    this.wakeUpNotifier = wakeUpNotifier;
     delegate = new StandardSchedulerClient(clientTaskRepository, this.schedulerListeners, clock);
     this.failureLogger = ConfigurableLogger.create(LOG, logLevel, logStackTrace);
+    this.completionWriter =
+        groupCommitConfig.isEnabled()
+            ? new GroupCommitCompletionWriter(
+                schedulerTaskRepository, this.schedulerListeners, groupCommitConfig)
+            : CompletionWriter.direct(schedulerTaskRepository);
 
     if (pollingStrategyConfig.type == PollingStrategyConfig.Type.LOCK_AND_FETCH) {
       schedulerTaskRepository.verifySupportsLockAndFetch();
-      executeDueStrategy =
-          new LockAndFetchCandidates(
-              executor,
-              schedulerTaskRepository,
-              this,
-              threadpoolSize,
-              this.schedulerListeners,
-              executionInterceptors,
-              schedulerState,
-              failureLogger,
-              taskResolver,
+    }
+    final Map<String, String> laneByTask = laneByTask(executorLanes);
+    final PollingStrategyConfig defaultLanePollingStrategy =
+        executorLanes.isEmpty()
+            ? pollingStrategyConfig
+            : pollingStrategyConfig.withTaskNames(tasksNotIn(laneByTask));
+    executeDueStrategy =
+        createPollStrategy(
+            executor,
+            threadpoolSize,
+            executionInterceptors,
+            defaultLanePollingStrategy,
+            executeDueWaiter);
+    lanes.add(new Lane("default", executor, executeDueStrategy, executeDueWaiter, dueExecutor));
+
+    for (ExecutorLane executorLane : executorLanes) {
+      final Executor laneExecutor =
+          new Executor(
+              Executors.newFixedThreadPool(
+                  executorLane.getThreads(),
+                  ExecutorUtils.defaultThreadFactoryWithPrefix(
+                      THREAD_PREFIX + "-" + executorLane.getName() + "-")),
               clock,
-              pollingStrategyConfig,
-              this::triggerCheckForDueExecutions,
-              heartbeatConfig);
+              maxAsyncExecutions);
+      final Waiter laneWaiter =
+          pollingStrategyConfig.isAdaptiveInterval()
+              ? new AdaptiveWaiter(pollingStrategyConfig.adaptiveInterval, clock)
+              : new Waiter(executeDueWaiter.getWaitDuration(), clock);
+      lanes.add(
+          new Lane(
+              executorLane.getName(),
+              laneExecutor,
+              createPollStrategy(
+                  laneExecutor,
+                  executorLane.getThreads(),
+                  executionInterceptors,
+                  executorLane.pollingStrategyFor(pollingStrategyConfig),
+                  laneWaiter),
+              laneWaiter,
+              Executors.newSingleThreadExecutor(
+                  ExecutorUtils.defaultThreadFactoryWithPrefix(
+                      THREAD_PREFIX + "-execute-due-" + executorLane.getName() + "-"))));
+      LOG.info("Using executor-lane: " + executorLane.describe());
+    }
+    LOG.info("Using polling-strategy: " + pollingStrategyConfig.describe());
+    if (groupCommitConfig.isEnabled()) {
+      LOG.info("Writing completions using " + groupCommitConfig.describe());
+    }
+  }
+
+  private PollStrategy createPollStrategy(
+      Executor executor,
+      int threads,
+      List<ExecutionInterceptor> executionInterceptors,
+      PollingStrategyConfig pollingStrategyConfig,
+      Waiter executeDueWaiter) {
+    if (pollingStrategyConfig.type == PollingStrategyConfig.Type.LOCK_AND_FETCH) {
+      return new LockAndFetchCandidates(
+          executor,
+          schedulerTaskRepository,
+          this,
+          threads,
+          this.schedulerListeners,
+          executionInterceptors,
+          schedulerState,
+          failureLogger,
+          taskResolver,
+          clock,
+          pollingStrategyConfig,
+          executeDueWaiter::wakeOrSkipNextWait,
+          executeDueWaiter,
+          heartbeatConfig,
+          completionWriter);
+    } else if (pollingStrategyConfig.type == PollingStrategyConfig.Type.FETCH
+        && pollingStrategyConfig.reuseCandidates) {
+      return new ReusingFetchCandidates(
+          executor,
+          schedulerTaskRepository,
+          this,
+          threads,
+          this.schedulerListeners,
+          executionInterceptors,
+          schedulerState,
+          failureLogger,
+          taskResolver,
+          clock,
+          pollingStrategyConfig,
+          executeDueWaiter::wakeOrSkipNextWait,
+          executeDueWaiter,
+          heartbeatConfig,
+          completionWriter);
     } else if (pollingStrategyConfig.type == PollingStrategyConfig.Type.FETCH) {
-      executeDueStrategy =
-          new FetchCandidates(
-              executor,
-              schedulerTaskRepository,
-              this,
-              threadpoolSize,
-              this.schedulerListeners,
-              executionInterceptors,
-              schedulerState,
-              failureLogger,
-              taskResolver,
-              clock,
-              pollingStrategyConfig,
-              this::triggerCheckForDueExecutions,
-              heartbeatConfig);
+      return new FetchCandidates(
+          executor,
+          schedulerTaskRepository,
+          this,
+          threads,
+          this.schedulerListeners,
+          executionInterceptors,
+          schedulerState,
+          failureLogger,
+          taskResolver,
+          clock,
+          pollingStrategyConfig,
+          executeDueWaiter::wakeOrSkipNextWait,
+          executeDueWaiter,
+          heartbeatConfig,
+          completionWriter);
     } else {
       throw new IllegalArgumentException(
           "Unknown polling-strategy type: " + pollingStrategyConfig.type);
     }
-    LOG.info("Using polling-strategy: " + pollingStrategyConfig.describe());
+  }
+
+  /**
+   * Lane of each task in a lane. Tasks sharing a concurrency-limit must be in the same lane, since
+   * each lane only counts the executions it holds itself.
+   */
+  private Map<String, String> laneByTask(List<ExecutorLane> executorLanes) {
+    final Map<String, String> laneByTask = new HashMap<>();
+    for (ExecutorLane lane : executorLanes) {
+      for (String taskName : lane.getTaskNames()) {
+        final String previous = laneByTask.put(taskName, lane.getName());
+        if (previous != null) {
+          throw new IllegalArgumentException(
+              "Task '"
+                  + taskName
+                  + "' is in both lane '"
+                  + previous
+                  + "' and '"
+                  + lane.getName()
+                  + "'");
+        }
+      }
+    }
+
+    final Map<String, String> laneByConcurrencyGroup = new HashMap<>();
+    for (Task<?> task : taskResolver.getKnownTasks()) {
+      final String lane = laneByTask.getOrDefault(task.getName(), "default");
+      task.getConcurrencyLimit()
+          .ifPresent(
+              limit -> {
+                final String previous = laneByConcurrencyGroup.putIfAbsent(limit.getGroup(), lane);
+                if (previous != null && !previous.equals(lane)) {
+                  throw new IllegalArgumentException(
+                      "Tasks of concurrency-group '"
+                          + limit.getGroup()
+                          + "' must be in the same lane, found in '"
+                          + previous
+                          + "' and '"
+                          + lane
+                          + "'");
+                }
+              });
+    }
+    return laneByTask;
+  }
+
+  private Set<String> tasksNotIn(Map<String, String> laneByTask) {
+    final Set<String> taskNames = new HashSet<>();
+    for (Task<?> task : taskResolver.getKnownTasks()) {
+      if (!laneByTask.containsKey(task.getName())) {
+        taskNames.add(task.getName());
+      }
+    }
+    return taskNames;
   }
 
   public void registerSchedulerListener(SchedulerListener listener) {
@@ -162,9 +387,14 @@ public class Scheduler implements SchedulerClient {
 
     executeOnStartup();
 
-    dueExecutor.submit(
-        new RunUntilShutdown(
-            executeDueStrategy, executeDueWaiter, schedulerState, schedulerListeners));
+    wakeUpNotifier.subscribe(wakeUpHintSubscriber);
+
+    completionWriter.start();
+
+    for (Lane lane : lanes) {
+      lane.dueExecutor.submit(
+          new RunUntilShutdown(lane.strategy, lane.waiter, schedulerState, schedulerListeners));
+    }
 
     housekeeperExecutor.scheduleWithFixedDelay(
         new RunAndLogErrors(this::detectDeadExecutions, schedulerListeners),
@@ -176,6 +406,13 @@ public class Scheduler implements SchedulerClient {
         0,
         heartbeatWaiter.getWaitDuration().toMillis(),
         MILLISECONDS);
+    if (backlogSampler != null) {
+      housekeeperExecutor.scheduleWithFixedDelay(
+          new RunAndLogErrors(backlogSampler, schedulerListeners),
+          0,
+          backlogSampler.getInterval().toMillis(),
+          MILLISECONDS);
+    }
 
     schedulerState.setStarted();
   }
@@ -212,21 +449,35 @@ public class Scheduler implements SchedulerClient {
     schedulerState.setIsShuttingDown();
     LOG.info("Shutting down Scheduler.");
 
-    if (executeDueWaiter.isWaiting()) {
-      // Sleeping => interrupt
-      dueExecutor.shutdownNow();
-      if (!ExecutorUtils.awaitTermination(dueExecutor, utilExecutorsWaitAfterInterrupt)) {
-        LOG.warn("Failed to shutdown due-executor properly.");
-      }
-    } else {
-      // If currently running, i.e. checking for due, do not interrupt (try normal shutdown first)
-      if (!ExecutorUtils.shutdownAndAwaitTermination(
-          dueExecutor, utilExecutorsWaitBeforeInterrupt, utilExecutorsWaitAfterInterrupt)) {
-        LOG.warn("Failed to shutdown due-executor properly.");
+    wakeUpNotifier.unsubscribe(wakeUpHintSubscriber);
+    cancelPendingWakeUp();
+
+    for (Lane lane : lanes) {
+      if (lane.waiter.isWaiting()) {
+        // Sleeping => interrupt
+        lane.dueExecutor.shutdownNow();
+        if (!ExecutorUtils.awaitTermination(lane.dueExecutor, utilExecutorsWaitAfterInterrupt)) {
+          LOG.warn("Failed to shutdown due-executor of lane {} properly.", lane.name);
+        }
+      } else {
+        // If currently running, i.e. checking for due, do not interrupt (try normal shutdown first)
+        if (!ExecutorUtils.shutdownAndAwaitTermination(
+            lane.dueExecutor, utilExecutorsWaitBeforeInterrupt, utilExecutorsWaitAfterInterrupt)) {
+          LOG.warn("Failed to shutdown due-executor of lane {} properly.", lane.name);
+        }
       }
     }
 
-    executor.stop(shutdownMaxWait);
+    for (Lane lane : lanes) {
+      lane.strategy.stop();
+    }
+
+    for (Lane lane : lanes) {
+      lane.executor.stop(shutdownMaxWait);
+    }
+
+    // Write completions of the executions that finished during shutdown
+    completionWriter.stop();
 
     // Shutdown heartbeating thread last
     if (!ExecutorUtils.shutdownAndAwaitTermination(
@@ -264,6 +515,12 @@ public class Scheduler implements SchedulerClient {
     return this.delegate.scheduleIfNotExists(schedulableInstance);
   }
 
+  @Override
+  public boolean[] scheduleIfNotExistsBatch(
+      Collection<? extends SchedulableInstance<?>> schedulableInstances, int batchSize) {
+    return this.delegate.scheduleIfNotExistsBatch(schedulableInstances, batchSize);
+  }
+
   @Override
   public <T> void schedule(TaskInstance<T> taskInstance, Instant executionTime) {
     this.delegate.schedule(taskInstance, executionTime);
@@ -315,6 +572,18 @@ public class Scheduler implements SchedulerClient {
     this.delegate.fetchScheduledExecutionsForTask(taskName, dataClass, filter, consumer);
   }
 
+  @Override
+  public ScheduledExecutionsPage<Object> getScheduledExecutionsPage(
+      ScheduledExecutionsFilter filter) {
+    return this.delegate.getScheduledExecutionsPage(filter);
+  }
+
+  @Override
+  public <T> ScheduledExecutionsPage<T> getScheduledExecutionsPageForTask(
+      String taskName, Class<T> dataClass, ScheduledExecutionsFilter filter) {
+    return this.delegate.getScheduledExecutionsPageForTask(taskName, dataClass, filter);
+  }
+
   @Override
   public Optional<ScheduledExecution<Object>> getScheduledExecution(TaskInstanceId taskInstanceId) {
     return this.delegate.getScheduledExecution(taskInstanceId);
@@ -325,15 +594,67 @@ public class Scheduler implements SchedulerClient {
   }
 
   public void triggerCheckForDueExecutions() {
-    executeDueWaiter.wakeOrSkipNextWait();
+    for (Lane lane : lanes) {
+      lane.waiter.wakeOrSkipNextWait();
+    }
+  }
+
+  void onWakeUpHint(Instant executionTime) {
+    if (!schedulerState.isStarted() || schedulerState.isShuttingDown()) {
+      return;
+    }
+
+    final Duration untilDue = Duration.between(clock.now(), executionTime);
+    if (untilDue.isZero() || untilDue.isNegative()) {
+      LOG.debug("Received wake-up hint for due execution, triggering check for due executions.");
+      triggerCheckForDueExecutions();
+    } else if (untilDue.compareTo(executeDueWaiter.getWaitDuration()) < 0) {
+      // Due before next regular poll, wake up when it is due
+      scheduleWakeUp(executionTime, untilDue);
+    }
+  }
+
+  private void scheduleWakeUp(Instant executionTime, Duration untilDue) {
+    synchronized (pendingWakeUpLock) {
+      if (pendingWakeUp != null
+          && !pendingWakeUp.isDone()
+          && !executionTime.isBefore(pendingWakeUpTime)) {
+        // An earlier check is already pending, executions due after it are found by later polls
+        return;
+      }
+      if (pendingWakeUp != null) {
+        pendingWakeUp.cancel(false);
+      }
+      LOG.debug("Received wake-up hint for execution due in {}, scheduling check.", untilDue);
+      pendingWakeUpTime = executionTime;
+      pendingWakeUp =
+          housekeeperExecutor.schedule(
+              this::triggerCheckForDueExecutions, untilDue.toMillis(), MILLISECONDS);
+    }
+  }
+
+  private void cancelPendingWakeUp() {
+    synchronized (pendingWakeUpLock) {
+      if (pendingWakeUp != null) {
+        pendingWakeUp.cancel(false);
+        pendingWakeUp = null;
+      }
+    }
   }
 
   public List<CurrentlyExecuting> getCurrentlyExecuting() {
-    return executor.getCurrentlyExecuting();
+    if (lanes.size() == 1) {
+      return executor.getCurrentlyExecuting();
+    }
+    final List<CurrentlyExecuting> currentlyExecuting = new ArrayList<>();
+    for (Lane lane : lanes) {
+      currentlyExecuting.addAll(lane.executor.getCurrentlyExecuting());
+    }
+    return currentlyExecuting;
   }
 
   public List<CurrentlyExecuting> getCurrentlyExecutingWithStaleHeartbeat() {
-    return executor.getCurrentlyExecuting().stream()
+    return getCurrentlyExecuting().stream()
         .filter(c -> c.getHeartbeatState().hasStaleHeartbeat())
         .collect(toList());
   }
@@ -357,7 +678,10 @@ public class Scheduler implements SchedulerClient {
     LOG.debug("Checking for dead executions.");
     Instant now = clock.now();
     final Instant oldAgeLimit = now.minus(getMaxAgeBeforeConsideredDead());
-    List<Execution> oldExecutions = schedulerTaskRepository.getDeadExecutions(oldAgeLimit);
+    List<Execution> oldExecutions =
+        nodeLivenessEnabled
+            ? getDeadExecutionsByNodeLease(now, oldAgeLimit)
+            : schedulerTaskRepository.getDeadExecutions(oldAgeLimit);
 
     if (!oldExecutions.isEmpty()) {
       oldExecutions.forEach(
@@ -395,8 +719,23 @@ public class Scheduler implements SchedulerClient {
     schedulerListeners.onSchedulerEvent(SchedulerEventType.RAN_DETECT_DEAD);
   }
 
+  private List<Execution> getDeadExecutionsByNodeLease(Instant now, Instant oldAgeLimit) {
+    final Set<TaskInstance> stillExecuting =
+        getCurrentlyExecuting().stream()
+            .map(currentlyExecuting -> currentlyExecuting.getExecution().taskInstance)
+            .collect(toSet());
+    return schedulerTaskRepository.getDeadExecutionsByNodeLease(now, oldAgeLimit).stream()
+        .filter(execution -> !stillExecuting.contains(execution.taskInstance))
+        .collect(toList());
+  }
+
   void updateHeartbeats() {
-    final List<CurrentlyExecuting> currentlyProcessing = executor.getCurrentlyExecuting();
+    if (nodeLivenessEnabled) {
+      renewNodeLease();
+      return;
+    }
+
+    final List<CurrentlyExecuting> currentlyProcessing = getCurrentlyExecuting();
     if (currentlyProcessing.isEmpty()) {
       LOG.trace("No executions to update heartbeats for. Skipping.");
       return;
@@ -404,10 +743,76 @@ public class Scheduler implements SchedulerClient {
 
     LOG.debug("Updating heartbeats for {} executions being processed.", currentlyProcessing.size());
     Instant now = clock.now();
-    currentlyProcessing.forEach(execution -> updateHeartbeatForExecution(now, execution));
+    final List<Execution> executions =
+        currentlyProcessing.stream().map(CurrentlyExecuting::getExecution).collect(toList());
+    final boolean[] successfulHeartbeats;
+    try {
+      successfulHeartbeats = schedulerTaskRepository.updateHeartbeats(executions, now);
+    } catch (RuntimeException e) {
+      LOG.info("Failed to update heartbeats in batch. Updating one at a time.", e);
+      currentlyProcessing.forEach(execution -> updateHeartbeatForExecution(now, execution));
+      schedulerListeners.onSchedulerEvent(SchedulerEventType.RAN_UPDATE_HEARTBEATS);
+      return;
+    }
+
+    for (int i = 0; i < currentlyProcessing.size(); i++) {
+      final CurrentlyExecuting currentlyExecuting = currentlyProcessing.get(i);
+      try {
+        onHeartbeatResult(now, currentlyExecuting, successfulHeartbeats[i]);
+      } catch (Throwable ex) { // just-in-case to avoid any "poison-pills"
+        onUnexpectedHeartbeatFailure(currentlyExecuting, ex);
+      }
+    }
     schedulerListeners.onSchedulerEvent(SchedulerEventType.RAN_UPDATE_HEARTBEATS);
   }
 
+  private void renewNodeLease() {
+    final List<CurrentlyExecuting> currentlyProcessing = getCurrentlyExecuting();
+    Instant now = clock.now();
+    boolean renewed;
+    try {
+      schedulerTaskRepository.renewNodeLease(now.plus(getMaxAgeBeforeConsideredDead()));
+      renewed = true;
+    } catch (RuntimeException e) {
+      LOG.warn("Failed to renew lease of scheduler-node.", e);
+      renewed = false;
+    }
+
+    // the lease of the node covers all executions it has picked
+    for (CurrentlyExecuting currentlyExecuting : currentlyProcessing) {
+      try {
+        onHeartbeatResult(now, currentlyExecuting, renewed);
+      } catch (Throwable ex) { // just-in-case to avoid any "poison-pills"
+        onUnexpectedHeartbeatFailure(currentlyExecuting, ex);
+      }
+    }
+    updateHeartbeatsForNodesWithoutLiveness(now, currentlyProcessing);
+    schedulerListeners.onSchedulerEvent(SchedulerEventType.RAN_UPDATE_HEARTBEATS);
+  }
+
+  /**
+   * Scheduler-instances not having node liveness enabled, e.g. during a rolling upgrade, detect
+   * dead executions by their heartbeat only. It is kept fresh at a coarse interval, one
+   * heartbeat-interval short of the age when considered dead.
+   */
+  private void updateHeartbeatsForNodesWithoutLiveness(
+      Instant now, List<CurrentlyExecuting> currentlyProcessing) {
+    final Duration coarseInterval =
+        getMaxAgeBeforeConsideredDead().minus(heartbeatInterval.multipliedBy(2));
+    if (currentlyProcessing.isEmpty()
+        || now.isBefore(lastExecutionHeartbeats.plus(coarseInterval))) {
+      return;
+    }
+    final List<Execution> executions =
+        currentlyProcessing.stream().map(CurrentlyExecuting::getExecution).collect(toList());
+    try {
+      schedulerTaskRepository.updateHeartbeats(executions, now);
+      lastExecutionHeartbeats = now;
+    } catch (RuntimeException e) {
+      LOG.warn("Failed to update heartbeats of executions. Will retry next heartbeat.", e);
+    }
+  }
+
   protected void updateHeartbeatForExecution(Instant now, CurrentlyExecuting currentlyExecuting) {
     // There is a race-condition: the execution may have been deleted or updated, causing
     // this update to fail (or update 0 rows). This may happen once, but not multiple times.
@@ -417,29 +822,40 @@ public class Scheduler implements SchedulerClient {
 
     try {
       boolean successfulHeartbeat = schedulerTaskRepository.updateHeartbeatWithRetry(e, now, 3);
-      currentlyExecuting.heartbeat(successfulHeartbeat, now);
-
-      if (!successfulHeartbeat) {
-        schedulerListeners.onSchedulerEvent(SchedulerEventType.FAILED_HEARTBEAT);
-        schedulerListeners.onExecutionFailedHeartbeat(currentlyExecuting);
-      }
+      onHeartbeatResult(now, currentlyExecuting, successfulHeartbeat);
+    } catch (Throwable ex) { // just-in-case to avoid any "poison-pills"
+      onUnexpectedHeartbeatFailure(currentlyExecuting, ex);
+    }
+  }
 
-      HeartbeatState heartbeatState = currentlyExecuting.getHeartbeatState();
-      if (heartbeatState.getFailedHeartbeats() > 1) {
-        LOG.warn(
-            "Execution has more than 1 failed heartbeats. Should not happen. Risk of being"
-                + " considered dead. See heartbeat-state. Heartbeat-state={}, Execution={}",
-            heartbeatState.describe(),
-            e);
-        schedulerListeners.onSchedulerEvent(SchedulerEventType.FAILED_MULTIPLE_HEARTBEATS);
-      }
+  private void onHeartbeatResult(
+      Instant now, CurrentlyExecuting currentlyExecuting, boolean successfulHeartbeat) {
+    currentlyExecuting.heartbeat(successfulHeartbeat, now);
 
-    } catch (Throwable ex) { // just-in-case to avoid any "poison-pills"
-      LOG.error("Unexpteced failure while while updating heartbeat for execution {}.", e, ex);
+    if (!successfulHeartbeat) {
       schedulerListeners.onSchedulerEvent(SchedulerEventType.FAILED_HEARTBEAT);
-      schedulerListeners.onSchedulerEvent(SchedulerEventType.UNEXPECTED_ERROR);
       schedulerListeners.onExecutionFailedHeartbeat(currentlyExecuting);
     }
+
+    HeartbeatState heartbeatState = currentlyExecuting.getHeartbeatState();
+    if (heartbeatState.getFailedHeartbeats() > 1) {
+      LOG.warn(
+          "Execution has more than 1 failed heartbeats. Should not happen. Risk of being"
+              + " considered dead. See heartbeat-state. Heartbeat-state={}, Execution={}",
+          heartbeatState.describe(),
+          currentlyExecuting.getExecution());
+      schedulerListeners.onSchedulerEvent(SchedulerEventType.FAILED_MULTIPLE_HEARTBEATS);
+    }
+  }
+
+  private void onUnexpectedHeartbeatFailure(CurrentlyExecuting currentlyExecuting, Throwable ex) {
+    LOG.error(
+        "Unexpteced failure while while updating heartbeat for execution {}.",
+        currentlyExecuting.getExecution(),
+        ex);
+    schedulerListeners.onSchedulerEvent(SchedulerEventType.FAILED_HEARTBEAT);
+    schedulerListeners.onSchedulerEvent(SchedulerEventType.UNEXPECTED_ERROR);
+    schedulerListeners.onExecutionFailedHeartbeat(currentlyExecuting);
   }
 
   Duration getMaxAgeBeforeConsideredDead() {
@@ -453,4 +869,26 @@ public class Scheduler implements SchedulerClient {
   public static SchedulerBuilder create(DataSource dataSource, List<Task<?>> knownTasks) {
     return new SchedulerBuilder(dataSource, knownTasks);
   }
+
+  /** Executor and polling of a group of tasks, see {@link ExecutorLane}. */
+  private static class Lane {
+    private final String name;
+    private final Executor executor;
+    private final PollStrategy strategy;
+    private final Waiter waiter;
+    private final ExecutorService dueExecutor;
+
+    Lane(
+        String name,
+        Executor executor,
+        PollStrategy strategy,
+        Waiter waiter,
+        ExecutorService dueExecutor) {
+      this.name = name;
+      this.executor = executor;
+      this.strategy = strategy;
+      this.waiter = waiter;
+      this.dueExecutor = dueExecutor;
+    }
+  }
 }
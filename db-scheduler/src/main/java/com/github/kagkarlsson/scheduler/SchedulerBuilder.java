@@ -24,6 +24,7 @@ import com.github.kagkarlsson.scheduler.jdbc.JdbcCustomization;
 import com.github.kagkarlsson.scheduler.jdbc.JdbcTaskRepository;
 import com.github.kagkarlsson.scheduler.logging.LogLevel;
 import com.github.kagkarlsson.scheduler.serializer.Serializer;
+import com.github.kagkarlsson.scheduler.stats.InstrumentedTaskRepository;
 import com.github.kagkarlsson.scheduler.stats.StatsRegistry;
 import com.github.kagkarlsson.scheduler.stats.StatsRegistryAdapter;
 import com.github.kagkarlsson.scheduler.task.OnStartup;
@@ -64,6 +65,8 @@ public class SchedulerBuilder {
   protected Serializer serializer = Serializer.DEFAULT_JAVA_SERIALIZER;
   protected String tableName = JdbcTaskRepository.DEFAULT_TABLE_NAME;
   protected boolean enableImmediateExecution = false;
+  protected boolean enableNodeLiveness = false;
+  protected String nodesTableName = JdbcTaskRepository.DEFAULT_NODES_TABLE_NAME;
   protected ExecutorService executorService;
   protected ExecutorService dueExecutor;
   protected ScheduledExecutorService housekeeperExecutor;
@@ -79,6 +82,17 @@ public class SchedulerBuilder {
   private boolean alwaysPersistTimestampInUTC = false;
   private List<SchedulerListener> schedulerListeners = new ArrayList<>();
   private List<ExecutionInterceptor> executionInterceptors = new ArrayList<>();
+  private WakeUpNotifier wakeUpNotifier = WakeUpNotifier.NOOP;
+  private Duration lookAhead = Duration.ZERO;
+  private AdaptivePollingInterval adaptivePollingInterval = null;
+  private FairShare fairShare = null;
+  private boolean reuseFetchedCandidates = false;
+  private GroupCommitConfig groupCommitConfig = GroupCommitConfig.DISABLED;
+  private PriorityConfig priorityConfig = PriorityConfig.DISABLED;
+  private final List<ExecutorLane> executorLanes = new ArrayList<>();
+  private int maxAsyncExecutions = Executor.DEFAULT_MAX_ASYNC_EXECUTIONS;
+  private Duration backlogSamplingInterval = null;
+  private boolean instrumentTaskRepository = false;
 
   public SchedulerBuilder(DataSource dataSource, List<Task<?>> knownTasks) {
     this.dataSource = dataSource;
@@ -166,6 +180,25 @@ public class SchedulerBuilder {
     return this;
   }
 
+  /**
+   * Detect dead executions using a lease per scheduler-node, renewed every heartbeat-interval,
+   * instead of updating the heartbeat of every executing instance. Requires the {@link
+   * #nodesTableName(String)} table.
+   *
+   * <p>Heartbeats of executions are still updated, but only once per {@link
+   * #missedHeartbeatsLimit(int)} minus two heartbeat-intervals, so that instances without node
+   * liveness do not consider them dead.
+   */
+  public SchedulerBuilder enableNodeLiveness() {
+    this.enableNodeLiveness = true;
+    return this;
+  }
+
+  public SchedulerBuilder nodesTableName(String nodesTableName) {
+    this.nodesTableName = nodesTableName;
+    return this;
+  }
+
   public SchedulerBuilder enableImmediateExecution() {
     this.enableImmediateExecution = true;
     return this;
@@ -216,6 +249,111 @@ public class SchedulerBuilder {
     return this;
   }
 
+  /**
+   * Claim executions due within {@code lookAhead} and start them locally when due, rather than on
+   * the first poll after they are due. Requires {@link #pollUsingLockAndFetch(double, double)}.
+   */
+  public SchedulerBuilder lookAhead(Duration lookAhead) {
+    this.lookAhead = lookAhead;
+    return this;
+  }
+
+  /**
+   * Keep fetched candidates across polls rather than discarding them as stale on the next poll.
+   * Each poll then only fetches executions not already held, so the same due executions are not
+   * read again and again on a large backlog. Requires {@link
+   * #pollUsingFetchAndLockOnExecute(double, double)}.
+   */
+  public SchedulerBuilder reuseFetchedCandidates(boolean reuseFetchedCandidates) {
+    this.reuseFetchedCandidates = reuseFetchedCandidates;
+    return this;
+  }
+
+  /**
+   * Adapt the polling-interval to the amount of due executions, replacing the fixed {@link
+   * #pollingInterval(Duration)}.
+   */
+  public SchedulerBuilder adaptivePollingInterval(AdaptivePollingInterval adaptivePollingInterval) {
+    this.adaptivePollingInterval = adaptivePollingInterval;
+    return this;
+  }
+
+  /**
+   * Split each poll between task-names by weight, so a backlog for one task does not starve tasks
+   * becoming due later. Costs one query per share and poll.
+   */
+  public SchedulerBuilder fairShare(FairShare fairShare) {
+    this.fairShare = fairShare;
+    return this;
+  }
+
+  /**
+   * Fetch due executions by priority, highest first, rather than by execution-time only. Requires
+   * the {@code priority} column, and clients scheduling executions should have priority enabled as
+   * well.
+   */
+  public SchedulerBuilder priority(PriorityConfig priorityConfig) {
+    this.priorityConfig = priorityConfig;
+    return this;
+  }
+
+  /**
+   * Max number of executions of {@link com.github.kagkarlsson.scheduler.task.AsyncExecutionHandler}
+   * in flight, per lane. They do not hold a thread while in flight, so this may be much higher than
+   * {@link #threads(int)}.
+   */
+  public SchedulerBuilder maxAsyncExecutions(int maxAsyncExecutions) {
+    if (maxAsyncExecutions < 1) {
+      throw new IllegalArgumentException(
+          "maxAsyncExecutions must be at least 1, was " + maxAsyncExecutions);
+    }
+    this.maxAsyncExecutions = maxAsyncExecutions;
+    return this;
+  }
+
+  /**
+   * Execute the tasks of the lane on threads of their own, polled independently of the other tasks.
+   * Tasks not in any lane are executed by the default {@link #threads(int)}.
+   */
+  public SchedulerBuilder lane(ExecutorLane lane) {
+    for (ExecutorLane existing : executorLanes) {
+      if (existing.getName().equals(lane.getName())) {
+        throw new IllegalArgumentException("Lane '" + lane.getName() + "' already added");
+      }
+    }
+    this.executorLanes.add(lane);
+    return this;
+  }
+
+  /**
+   * Write the outcome of executions (remove/reschedule) in batches from a separate thread, rather
+   * than one statement per execution on the executing thread.
+   */
+  public SchedulerBuilder groupCommitCompletions(int maxBatchSize, Duration maxDelay) {
+    this.groupCommitConfig = new GroupCommitConfig(maxBatchSize, maxDelay);
+    return this;
+  }
+
+  /**
+   * Periodically sample the backlog of the whole cluster (due executions per task, age of the
+   * oldest due execution and picked executions per scheduler) using aggregate queries, and publish
+   * it to the {@link StatsRegistry}. Each sample is three queries, so keep the interval reasonably
+   * long for large tables.
+   */
+  public SchedulerBuilder sampleBacklog(Duration interval) {
+    this.backlogSamplingInterval = interval;
+    return this;
+  }
+
+  /**
+   * Time every operation of the task-repository, and report duration, number of rows and failures
+   * to the {@link StatsRegistry}, tagged by operation and database.
+   */
+  public SchedulerBuilder instrumentTaskRepository() {
+    this.instrumentTaskRepository = true;
+    return this;
+  }
+
   public SchedulerBuilder failureLogging(LogLevel logLevel, boolean logStackTrace) {
     if (logLevel == null) {
       throw new IllegalArgumentException("Log level must not be null");
@@ -225,11 +363,25 @@ public class SchedulerBuilder {
     return this;
   }
 
+  public SchedulerBuilder wakeUpNotifier(WakeUpNotifier wakeUpNotifier) {
+    this.wakeUpNotifier = wakeUpNotifier;
+    return this;
+  }
+
   public SchedulerBuilder registerShutdownHook() {
     this.registerShutdownHook = true;
     return this;
   }
 
+  private TaskRepository instrumented(
+      TaskRepository taskRepository, JdbcCustomization jdbcCustomization) {
+    if (!instrumentTaskRepository || statsRegistry == null) {
+      return taskRepository;
+    }
+    return new InstrumentedTaskRepository(
+        taskRepository, statsRegistry, jdbcCustomization.getName());
+  }
+
   public Scheduler build() {
     if (schedulerName == null) {
       schedulerName = new SchedulerName.Hostname();
@@ -240,26 +392,34 @@ public class SchedulerBuilder {
         ofNullable(this.jdbcCustomization)
             .orElseGet(
                 () -> new AutodetectJdbcCustomization(dataSource, alwaysPersistTimestampInUTC));
-    final JdbcTaskRepository schedulerTaskRepository =
-        new JdbcTaskRepository(
-            dataSource,
-            true,
-            jdbcCustomization,
-            tableName,
-            taskResolver,
-            schedulerName,
-            serializer,
-            clock);
-    final JdbcTaskRepository clientTaskRepository =
-        new JdbcTaskRepository(
-            dataSource,
-            commitWhenAutocommitDisabled,
-            jdbcCustomization,
-            tableName,
-            taskResolver,
-            schedulerName,
-            serializer,
-            clock);
+    final TaskRepository schedulerTaskRepository =
+        instrumented(
+            new JdbcTaskRepository(
+                dataSource,
+                true,
+                jdbcCustomization,
+                tableName,
+                nodesTableName,
+                taskResolver,
+                schedulerName,
+                serializer,
+                priorityConfig,
+                clock),
+            jdbcCustomization);
+    final TaskRepository clientTaskRepository =
+        instrumented(
+            new JdbcTaskRepository(
+                dataSource,
+                commitWhenAutocommitDisabled,
+                jdbcCustomization,
+                tableName,
+                nodesTableName,
+                taskResolver,
+                schedulerName,
+                serializer,
+                priorityConfig,
+                clock),
+            jdbcCustomization);
 
     ExecutorService candidateExecutorService = executorService;
     if (candidateExecutorService == null) {
@@ -282,14 +442,46 @@ public class SchedulerBuilder {
               3, defaultThreadFactoryWithPrefix(THREAD_PREFIX + "-housekeeper-"));
     }
 
+    PollingStrategyConfig effectivePollingStrategy =
+        lookAhead.isZero() ? pollingStrategyConfig : pollingStrategyConfig.withLookAhead(lookAhead);
+    if (adaptivePollingInterval != null) {
+      effectivePollingStrategy =
+          effectivePollingStrategy.withAdaptiveInterval(adaptivePollingInterval);
+    }
+    if (fairShare != null) {
+      effectivePollingStrategy = effectivePollingStrategy.withFairShare(fairShare);
+    }
+    if (reuseFetchedCandidates) {
+      effectivePollingStrategy = effectivePollingStrategy.withReuseCandidates(true);
+    }
+    final Waiter executeDueWaiter =
+        effectivePollingStrategy.isAdaptiveInterval()
+            ? new AdaptiveWaiter(effectivePollingStrategy.adaptiveInterval, clock)
+            : waiter;
+    if (effectivePollingStrategy.lookAhead.compareTo(heartbeatInterval) >= 0) {
+      // parked executions are not heartbeated
+      throw new IllegalArgumentException(
+          "lookAhead must be shorter than heartbeatInterval (" + heartbeatInterval + ")");
+    }
+
     if (statsRegistry != null) {
       addSchedulerListener(new StatsRegistryAdapter(statsRegistry));
     }
 
+    final BacklogSampler backlogSampler =
+        backlogSamplingInterval != null && statsRegistry != null
+            ? new BacklogSampler(
+                schedulerTaskRepository,
+                statsRegistry,
+                clock,
+                backlogSamplingInterval,
+                BacklogSampler.DEFAULT_MAX_GROUPS)
+            : null;
+
     LOG.info(
         "Creating scheduler with configuration: threads={}, pollInterval={}s, heartbeat={}s enable-immediate-execution={}, table-name={}, name={}",
         executorThreads,
-        waiter.getWaitDuration().getSeconds(),
+        executeDueWaiter.getWaitDuration().getSeconds(),
         heartbeatInterval.getSeconds(),
         enableImmediateExecution,
         tableName,
@@ -304,24 +496,40 @@ public class SchedulerBuilder {
             executorThreads,
             candidateExecutorService,
             schedulerName,
-            waiter,
+            executeDueWaiter,
             heartbeatInterval,
             numberOfMissedHeartbeatsBeforeDead,
             schedulerListeners,
             executionInterceptors,
-            pollingStrategyConfig,
+            effectivePollingStrategy,
             deleteUnresolvedAfter,
             shutdownMaxWait,
             logLevel,
             logStackTrace,
             startTasks,
             candidateDueExecutor,
-            candidateHousekeeperExecutor);
+            candidateHousekeeperExecutor,
+            wakeUpNotifier,
+            groupCommitConfig,
+            enableNodeLiveness,
+            backlogSampler,
+            executorLanes,
+            maxAsyncExecutions);
 
     if (enableImmediateExecution) {
       scheduler.registerSchedulerListener(new ImmediateCheckForDueExecutions(scheduler, clock));
     }
 
+    if (wakeUpNotifier != WakeUpNotifier.NOOP) {
+      scheduler.registerSchedulerListener(
+          new PublishWakeUpHints(
+              wakeUpNotifier,
+              clock,
+              effectivePollingStrategy.isAdaptiveInterval()
+                  ? effectivePollingStrategy.adaptiveInterval.maxInterval
+                  : executeDueWaiter.getWaitDuration()));
+    }
+
     if (registerShutdownHook) {
       Runtime.getRuntime()
           .addShutdownHook(
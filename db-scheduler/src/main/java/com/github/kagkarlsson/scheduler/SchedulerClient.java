@@ -28,11 +28,14 @@ import com.github.kagkarlsson.scheduler.task.SchedulableInstance;
 import com.github.kagkarlsson.scheduler.task.Task;
 import com.github.kagkarlsson.scheduler.task.TaskInstance;
 import com.github.kagkarlsson.scheduler.task.TaskInstanceId;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.function.Consumer;
 import javax.sql.DataSource;
 import org.slf4j.Logger;
@@ -40,6 +43,8 @@ import org.slf4j.LoggerFactory;
 
 public interface SchedulerClient {
 
+  int DEFAULT_SCHEDULE_BATCH_SIZE = 1000;
+
   /**
    * Schedule a new execution if task instance does not already exists.
    *
@@ -78,6 +83,62 @@ public interface SchedulerClient {
    */
   <T> boolean scheduleIfNotExists(SchedulableInstance<T> schedulableInstance);
 
+  /**
+   * Schedule new executions for the task instances that do not already exist, using JDBC batches of
+   * {@link #DEFAULT_SCHEDULE_BATCH_SIZE}.
+   *
+   * @param schedulableInstances Task-instances and times they should run
+   * @return for each instance, in order, whether it was scheduled
+   * @see #scheduleIfNotExistsBatch(Collection, int)
+   */
+  default boolean[] scheduleIfNotExistsBatch(
+      Collection<? extends SchedulableInstance<?>> schedulableInstances) {
+    return scheduleIfNotExistsBatch(schedulableInstances, DEFAULT_SCHEDULE_BATCH_SIZE);
+  }
+
+  /**
+   * Schedule new executions for the task instances that do not already exist. Instances are
+   * inserted in JDBC batches, ignoring conflicts if the database supports it. Listeners are
+   * notified once, for the earliest of the scheduled executions.
+   *
+   * <p>The default implementation schedules one instance at a time.
+   *
+   * @param schedulableInstances Task-instances and times they should run
+   * @param batchSize max number of instances per JDBC batch
+   * @return for each instance, in order, whether it was scheduled
+   */
+  default boolean[] scheduleIfNotExistsBatch(
+      Collection<? extends SchedulableInstance<?>> schedulableInstances, int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+    }
+    final boolean[] scheduled = new boolean[schedulableInstances.size()];
+    int i = 0;
+    for (SchedulableInstance<?> instance : schedulableInstances) {
+      scheduled[i++] = scheduleIfNotExists(instance);
+    }
+    return scheduled;
+  }
+
+  /**
+   * Schedule new executions, ignoring task instances that already exist.
+   *
+   * @see #scheduleIfNotExistsBatch(Collection)
+   */
+  default void scheduleBatch(Collection<? extends SchedulableInstance<?>> schedulableInstances) {
+    scheduleIfNotExistsBatch(schedulableInstances);
+  }
+
+  /**
+   * Schedule new executions, ignoring task instances that already exist.
+   *
+   * @see #scheduleIfNotExistsBatch(Collection, int)
+   */
+  default void scheduleBatch(
+      Collection<? extends SchedulableInstance<?>> schedulableInstances, int batchSize) {
+    scheduleIfNotExistsBatch(schedulableInstances, batchSize);
+  }
+
   /**
    * Update an existing execution to a new execution-time. If the execution does not exist or if it
    * is currently running, an exception is thrown.
@@ -129,6 +190,42 @@ public interface SchedulerClient {
   void fetchScheduledExecutions(
       ScheduledExecutionsFilter filter, Consumer<ScheduledExecution<Object>> consumer);
 
+  /**
+   * Gets a page of scheduled executions, ordered by execution-time, task-name and instance-id. Page
+   * size and the token of the previous page are set on the filter. Pages are keyed on the last
+   * execution of the previous page, so are cheap to fetch regardless of how far into the table.
+   *
+   * <p>The default implementation reads all executions matching the filter and pages them in
+   * memory.
+   *
+   * @see ScheduledExecutionsFilter#withPageSize(int)
+   * @see ScheduledExecutionsFilter#withPageToken(String)
+   */
+  default ScheduledExecutionsPage<Object> getScheduledExecutionsPage(
+      ScheduledExecutionsFilter filter) {
+    final List<ScheduledExecution<Object>> all = new ArrayList<>();
+    fetchScheduledExecutions(filter, all::add);
+    final List<ScheduledExecution<Object>> executions = new ArrayList<>();
+    final Optional<String> nextPageToken =
+        InMemoryPages.page(all, InMemoryPages.SCHEDULED_EXECUTION_ORDER, filter, executions::add);
+    return new ScheduledExecutionsPage<>(executions, nextPageToken.orElse(null));
+  }
+
+  /**
+   * Gets a page of scheduled executions for a task.
+   *
+   * @see #getScheduledExecutionsPage(ScheduledExecutionsFilter)
+   */
+  default <T> ScheduledExecutionsPage<T> getScheduledExecutionsPageForTask(
+      String taskName, Class<T> dataClass, ScheduledExecutionsFilter filter) {
+    final List<ScheduledExecution<T>> all = new ArrayList<>();
+    fetchScheduledExecutionsForTask(taskName, dataClass, filter, all::add);
+    final List<ScheduledExecution<T>> executions = new ArrayList<>();
+    final Optional<String> nextPageToken =
+        InMemoryPages.page(all, InMemoryPages.SCHEDULED_EXECUTION_ORDER, filter, executions::add);
+    return new ScheduledExecutionsPage<>(executions, nextPageToken.orElse(null));
+  }
+
   /**
    * @see #fetchScheduledExecutions(Consumer)
    */
@@ -213,6 +310,9 @@ public interface SchedulerClient {
     private Serializer serializer = Serializer.DEFAULT_JAVA_SERIALIZER;
     private String tableName = JdbcTaskRepository.DEFAULT_TABLE_NAME;
     private JdbcCustomization jdbcCustomization;
+    private WakeUpNotifier wakeUpNotifier;
+    private Duration notifyWhenDueWithin = SchedulerBuilder.DEFAULT_POLLING_INTERVAL;
+    private PriorityConfig priorityConfig = PriorityConfig.DISABLED;
 
     private Builder(DataSource dataSource, List<Task<?>> knownTasks) {
       this.dataSource = dataSource;
@@ -242,6 +342,28 @@ public interface SchedulerClient {
       return this;
     }
 
+    /**
+     * Publish wake-up hints to schedulers when executions due soon are scheduled.
+     *
+     * @param wakeUpNotifier the notifier the schedulers subscribe to
+     * @param notifyWhenDueWithin only publish for executions due within this duration, typically
+     *     the polling-interval of the schedulers
+     */
+    public Builder wakeUpNotifier(WakeUpNotifier wakeUpNotifier, Duration notifyWhenDueWithin) {
+      this.wakeUpNotifier = wakeUpNotifier;
+      this.notifyWhenDueWithin = notifyWhenDueWithin;
+      return this;
+    }
+
+    /**
+     * Write the priority of executions scheduled, see {@link SchedulerBuilder#priority}. Requires
+     * the {@code priority} column.
+     */
+    public Builder priority(PriorityConfig priorityConfig) {
+      this.priorityConfig = priorityConfig;
+      return this;
+    }
+
     public SchedulerClient build() {
       TaskResolver taskResolver = new TaskResolver(StatsRegistry.NOOP, knownTasks);
       final SystemClock clock = new SystemClock();
@@ -256,11 +378,19 @@ public interface SchedulerClient {
               false,
               jdbcCustomization,
               tableName,
+              JdbcTaskRepository.DEFAULT_NODES_TABLE_NAME,
               taskResolver,
               new SchedulerClientName(),
               serializer,
+              priorityConfig,
               clock);
 
+      if (wakeUpNotifier != null) {
+        final SchedulerListeners schedulerListeners =
+            new SchedulerListeners(
+                List.of(new PublishWakeUpHints(wakeUpNotifier, clock, notifyWhenDueWithin)));
+        return new StandardSchedulerClient(taskRepository, schedulerListeners, clock);
+      }
       return new StandardSchedulerClient(taskRepository, clock);
     }
   }
@@ -291,26 +421,73 @@ public interface SchedulerClient {
 
     @Override
     public <T> boolean scheduleIfNotExists(TaskInstance<T> taskInstance, Instant executionTime) {
-      boolean success =
-          taskRepository.createIfNotExists(SchedulableInstance.of(taskInstance, executionTime));
+      return scheduleIfNotExists(SchedulableInstance.of(taskInstance, executionTime));
+    }
+
+    @Override
+    public <T> boolean scheduleIfNotExists(SchedulableInstance<T> schedulableInstance) {
+      final SchedulableInstance<T> toSchedule = atFixedTime(schedulableInstance, clock.now());
+      boolean success = taskRepository.createIfNotExists(toSchedule);
       if (success) {
-        schedulerListeners.onExecutionScheduled(taskInstance, executionTime);
+        final Instant executionTime = toSchedule.getNextExecutionTime(clock.now());
+        schedulerListeners.onExecutionScheduled(toSchedule.getTaskInstance(), executionTime);
       }
       return success;
     }
 
+    /** Resolves the execution-time once, keeping the priority of the instance if set. */
+    private static <T> SchedulableInstance<T> atFixedTime(
+        SchedulableInstance<T> schedulableInstance, Instant now) {
+      final SchedulableInstance<T> fixed =
+          SchedulableInstance.of(
+              schedulableInstance.getTaskInstance(), schedulableInstance.getNextExecutionTime(now));
+      final OptionalInt priority = schedulableInstance.getPriority();
+      return priority.isPresent() ? fixed.withPriority(priority.getAsInt()) : fixed;
+    }
+
     @Override
-    public <T> boolean scheduleIfNotExists(SchedulableInstance<T> schedulableInstance) {
-      return scheduleIfNotExists(
-          schedulableInstance.getTaskInstance(),
-          schedulableInstance.getNextExecutionTime(clock.now()));
+    public boolean[] scheduleIfNotExistsBatch(
+        Collection<? extends SchedulableInstance<?>> schedulableInstances, int batchSize) {
+      if (batchSize < 1) {
+        throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+      }
+      final Instant now = clock.now();
+      final List<SchedulableInstance<?>> toSchedule = new ArrayList<>();
+      for (SchedulableInstance<?> instance : schedulableInstances) {
+        toSchedule.add(atFixedTime(instance, now));
+      }
+
+      final boolean[] scheduled = new boolean[toSchedule.size()];
+      SchedulableInstance<?> earliestScheduled = null;
+      for (int from = 0; from < toSchedule.size(); from += batchSize) {
+        final List<SchedulableInstance<?>> chunk =
+            toSchedule.subList(from, Math.min(from + batchSize, toSchedule.size()));
+        final boolean[] chunkScheduled = taskRepository.createIfNotExists(chunk);
+        for (int i = 0; i < chunk.size(); i++) {
+          scheduled[from + i] = chunkScheduled[i];
+          if (chunkScheduled[i]
+              && (earliestScheduled == null
+                  || chunk
+                      .get(i)
+                      .getNextExecutionTime(now)
+                      .isBefore(earliestScheduled.getNextExecutionTime(now)))) {
+            earliestScheduled = chunk.get(i);
+          }
+        }
+      }
+
+      if (earliestScheduled != null) {
+        // a single hint is enough for schedulers to check for due executions
+        schedulerListeners.onExecutionScheduled(
+            earliestScheduled.getTaskInstance(), earliestScheduled.getNextExecutionTime(now));
+      }
+      return scheduled;
     }
 
     @Override
     public <T> void schedule(SchedulableInstance<T> schedulableInstance) {
-      schedule(
-          schedulableInstance.getTaskInstance(),
-          schedulableInstance.getNextExecutionTime(clock.now()));
+      // ignore result even if failed to schedule due to duplicates for backwards-compatibility
+      scheduleIfNotExists(schedulableInstance);
     }
 
     @Override
@@ -380,6 +557,29 @@ public interface SchedulerClient {
           filter, execution -> consumer.accept(new ScheduledExecution<>(Object.class, execution)));
     }
 
+    @Override
+    public ScheduledExecutionsPage<Object> getScheduledExecutionsPage(
+        ScheduledExecutionsFilter filter) {
+      final List<ScheduledExecution<Object>> executions = new ArrayList<>();
+      final Optional<String> nextPageToken =
+          taskRepository.getScheduledExecutionsPage(
+              filter,
+              execution -> executions.add(new ScheduledExecution<>(Object.class, execution)));
+      return new ScheduledExecutionsPage<>(executions, nextPageToken.orElse(null));
+    }
+
+    @Override
+    public <T> ScheduledExecutionsPage<T> getScheduledExecutionsPageForTask(
+        String taskName, Class<T> dataClass, ScheduledExecutionsFilter filter) {
+      final List<ScheduledExecution<T>> executions = new ArrayList<>();
+      final Optional<String> nextPageToken =
+          taskRepository.getScheduledExecutionsPage(
+              filter,
+              taskName,
+              execution -> executions.add(new ScheduledExecution<>(dataClass, execution)));
+      return new ScheduledExecutionsPage<>(executions, nextPageToken.orElse(null));
+    }
+
     @Override
     public <T> void fetchScheduledExecutionsForTask(
         String taskName, Class<T> dataClass, Consumer<ScheduledExecution<T>> consumer) {
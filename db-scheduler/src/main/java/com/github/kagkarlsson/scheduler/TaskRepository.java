@@ -13,21 +13,81 @@
  */
 package com.github.kagkarlsson.scheduler;
 
+import com.github.kagkarlsson.scheduler.exceptions.ExecutionException;
+import com.github.kagkarlsson.scheduler.stats.BacklogSample;
 import com.github.kagkarlsson.scheduler.task.Execution;
 import com.github.kagkarlsson.scheduler.task.SchedulableInstance;
+import com.github.kagkarlsson.scheduler.task.TaskInstance;
 import com.github.kagkarlsson.scheduler.task.TaskInstanceId;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 public interface TaskRepository {
 
   boolean createIfNotExists(SchedulableInstance execution);
 
+  /**
+   * Create multiple executions in one round-trip, skipping those that already exist.
+   *
+   * <p>The default implementation creates one execution at a time.
+   *
+   * @return for each instance, in order, whether the execution was created
+   */
+  default boolean[] createIfNotExists(List<SchedulableInstance<?>> executions) {
+    final boolean[] created = new boolean[executions.size()];
+    for (int i = 0; i < executions.size(); i++) {
+      created[i] = createIfNotExists(executions.get(i));
+    }
+    return created;
+  }
+
   List<Execution> getDue(Instant now, int limit);
 
+  /**
+   * As {@link #getDue(Instant, int)}, but fetching no more executions for a group of tasks than it
+   * has free slots. Tasks not part of any group are fetched as usual.
+   */
+  default List<Execution> getDue(Instant now, int limit, List<ConcurrencySlots> slots) {
+    return getDue(now, limit, slots, Collections.emptyList());
+  }
+
+  /**
+   * As {@link #getDue(Instant, int, List)}, and splitting the rest of the limit between the shares
+   * by weight. Capacity not used by a share is redistributed between the others.
+   */
+  List<Execution> getDue(
+      Instant now, int limit, List<ConcurrencySlots> slots, List<FairShare.Share> shares);
+
+  /**
+   * As {@link #getDue(Instant, int, List, List)}, but not fetching the given instances, e.g.
+   * candidates already held locally. Repositories not able to exclude them in the query fetch past
+   * them instead.
+   */
+  default List<Execution> getDue(
+      Instant now,
+      int limit,
+      List<ConcurrencySlots> slots,
+      List<FairShare.Share> shares,
+      Set<TaskInstance<?>> excluded) {
+    if (excluded.isEmpty()) {
+      return getDue(now, limit, slots, shares);
+    }
+    return getDue(now, limit + excluded.size(), slots, shares).stream()
+        .filter(e -> !excluded.contains(e.taskInstance))
+        .limit(limit)
+        .collect(Collectors.toList());
+  }
+
   Instant replace(Execution toBeReplaced, SchedulableInstance newInstance);
 
   void getScheduledExecutions(ScheduledExecutionsFilter filter, Consumer<Execution> consumer);
@@ -35,10 +95,52 @@ public interface TaskRepository {
   void getScheduledExecutions(
       ScheduledExecutionsFilter filter, String taskName, Consumer<Execution> consumer);
 
+  /**
+   * Deliver a single page of executions, as configured by {@link
+   * ScheduledExecutionsFilter#withPageSize(int)} and {@link
+   * ScheduledExecutionsFilter#withPageToken(String)}.
+   *
+   * <p>The default implementation reads all executions matching the filter and pages them in
+   * memory.
+   *
+   * @return token for the next page, if the page was full
+   */
+  default Optional<String> getScheduledExecutionsPage(
+      ScheduledExecutionsFilter filter, Consumer<Execution> consumer) {
+    final List<Execution> all = new ArrayList<>();
+    getScheduledExecutions(filter, all::add);
+    return InMemoryPages.page(all, InMemoryPages.EXECUTION_ORDER, filter, consumer);
+  }
+
+  /**
+   * @see #getScheduledExecutionsPage(ScheduledExecutionsFilter, Consumer)
+   */
+  default Optional<String> getScheduledExecutionsPage(
+      ScheduledExecutionsFilter filter, String taskName, Consumer<Execution> consumer) {
+    final List<Execution> all = new ArrayList<>();
+    getScheduledExecutions(filter, taskName, all::add);
+    return InMemoryPages.page(all, InMemoryPages.EXECUTION_ORDER, filter, consumer);
+  }
+
   List<Execution> lockAndFetchGeneric(Instant now, int limit);
 
   List<Execution> lockAndGetDue(Instant now, int limit);
 
+  /**
+   * As {@link #lockAndGetDue(Instant, int)}, but picking no more executions for a group of tasks
+   * than it has free slots. Tasks not part of any group are picked as usual.
+   */
+  default List<Execution> lockAndGetDue(Instant now, int limit, List<ConcurrencySlots> slots) {
+    return lockAndGetDue(now, limit, slots, Collections.emptyList());
+  }
+
+  /**
+   * As {@link #lockAndGetDue(Instant, int, List)}, and splitting the rest of the limit between the
+   * shares by weight. Capacity not used by a share is redistributed between the others.
+   */
+  List<Execution> lockAndGetDue(
+      Instant now, int limit, List<ConcurrencySlots> slots, List<FairShare.Share> shares);
+
   void remove(Execution execution);
 
   boolean reschedule(
@@ -56,16 +158,147 @@ public interface TaskRepository {
       Instant lastFailure,
       int consecutiveFailures);
 
+  /**
+   * Remove multiple executions in one round-trip. Each removal is guarded by the version of the
+   * execution.
+   *
+   * <p>The default implementation removes one execution at a time.
+   *
+   * @return for each execution, in order, whether it was removed
+   */
+  default boolean[] remove(List<Execution> executions) {
+    final boolean[] removed = new boolean[executions.size()];
+    for (int i = 0; i < executions.size(); i++) {
+      try {
+        remove(executions.get(i));
+        removed[i] = true;
+      } catch (ExecutionException e) {
+        // version no longer matching
+        removed[i] = false;
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * Reschedule multiple executions in one round-trip. Each update is guarded by the version of the
+   * execution.
+   *
+   * <p>The default implementation reschedules one execution at a time.
+   *
+   * @return for each update, in order, whether the execution was rescheduled
+   */
+  default boolean[] reschedule(List<RescheduleUpdate> updates) {
+    final boolean[] rescheduled = new boolean[updates.size()];
+    for (int i = 0; i < updates.size(); i++) {
+      final RescheduleUpdate update = updates.get(i);
+      rescheduled[i] =
+          reschedule(
+              update.execution,
+              update.nextExecutionTime,
+              update.lastSuccess,
+              update.lastFailure,
+              update.consecutiveFailures);
+    }
+    return rescheduled;
+  }
+
   Optional<Execution> pick(Execution e, Instant timePicked);
 
+  /**
+   * Pick multiple candidates in one round-trip. Candidates already picked, or updated since they
+   * were fetched, are lost to another scheduler and not returned.
+   *
+   * <p>The default implementation picks one candidate at a time.
+   *
+   * @return the candidates actually picked, updated to picked-state
+   */
+  default List<Execution> pick(List<Execution> candidates, Instant timePicked) {
+    final List<Execution> picked = new ArrayList<>(candidates.size());
+    for (Execution candidate : candidates) {
+      pick(candidate, timePicked).ifPresent(picked::add);
+    }
+    return picked;
+  }
+
   List<Execution> getDeadExecutions(Instant olderThan);
 
+  /**
+   * Dead executions when using node liveness, i.e. executions picked by a scheduler-node whose
+   * lease has expired. Executions picked by a node not in the node-registry are dead if their
+   * heartbeat is older than {@code heartbeatOlderThan}.
+   *
+   * <p>Also returns executions picked by this node with a heartbeat older than {@code
+   * heartbeatOlderThan}, since the lease of this node is still valid. The caller must exclude the
+   * ones still executing.
+   *
+   * <p>The default implementation, for repositories without a node-registry, detects dead
+   * executions by heartbeat only.
+   */
+  default List<Execution> getDeadExecutionsByNodeLease(Instant now, Instant heartbeatOlderThan) {
+    return getDeadExecutions(heartbeatOlderThan);
+  }
+
+  /**
+   * Register this scheduler-node in the node-registry, or extend its lease. The default
+   * implementation, for repositories without a node-registry, does nothing.
+   */
+  default void renewNodeLease(Instant leaseExpires) {}
+
   boolean updateHeartbeatWithRetry(Execution execution, Instant newHeartbeat, int tries);
 
   boolean updateHeartbeat(Execution execution, Instant heartbeatTime);
 
+  /**
+   * Update the heartbeat of multiple executions in as few round-trips as possible. Each update is
+   * guarded by the version of the execution.
+   *
+   * <p>The default implementation updates one heartbeat at a time.
+   *
+   * @return for each execution, in order, whether the heartbeat was updated
+   */
+  default boolean[] updateHeartbeats(List<Execution> executions, Instant heartbeatTime) {
+    final boolean[] updated = new boolean[executions.size()];
+    for (int i = 0; i < executions.size(); i++) {
+      updated[i] = updateHeartbeat(executions.get(i), heartbeatTime);
+    }
+    return updated;
+  }
+
   List<Execution> getExecutionsFailingLongerThan(Duration interval);
 
+  /**
+   * Sample the backlog of the whole cluster using aggregate queries.
+   *
+   * <p>The default implementation reads all executions of known tasks and counts them in memory.
+   *
+   * @param maxGroups max number of task-names and schedulers to read counts for
+   */
+  default BacklogSample sampleBacklog(Instant now, int maxGroups) {
+    final Map<String, Long> dueByTask = new HashMap<>();
+    final Map<String, Long> pickedByScheduler = new HashMap<>();
+    final AtomicReference<Instant> oldestDue = new AtomicReference<>();
+    getScheduledExecutions(
+        ScheduledExecutionsFilter.onlyResolved().withIncludeTaskData(false),
+        execution -> {
+          if (execution.picked) {
+            countTowards(pickedByScheduler, String.valueOf(execution.pickedBy), maxGroups);
+          } else if (!execution.executionTime.isAfter(now)) {
+            countTowards(dueByTask, execution.taskInstance.getTaskName(), maxGroups);
+            oldestDue.accumulateAndGet(
+                execution.executionTime,
+                (oldest, time) -> oldest == null || time.isBefore(oldest) ? time : oldest);
+          }
+        });
+    return new BacklogSample(now, dueByTask, oldestDue.get(), pickedByScheduler);
+  }
+
+  private static void countTowards(Map<String, Long> counts, String group, int maxGroups) {
+    if (counts.containsKey(group) || counts.size() < maxGroups) {
+      counts.merge(group, 1L, Long::sum);
+    }
+  }
+
   Optional<Execution> getExecution(String taskName, String taskInstanceId);
 
   default Optional<Execution> getExecution(TaskInstanceId taskInstance) {
@@ -75,6 +75,10 @@ public class TaskResolver {
     taskMap.put(task.getName(), task);
   }
 
+  public List<Task> getKnownTasks() {
+    return new ArrayList<>(taskMap.values());
+  }
+
   public List<UnresolvedTask> getUnresolved() {
     return new ArrayList<>(unresolvedTasks.values());
   }
@@ -43,7 +43,7 @@ public class Waiter {
   }
 
   public void doWait() throws InterruptedException {
-    long millis = duration.toMillis();
+    long millis = nextWaitDuration().toMillis();
 
     if (millis > 0) {
       Instant waitUntil = clock.now().plusMillis(millis);
@@ -95,6 +95,13 @@ public class Waiter {
     }
   }
 
+  /** Called by the polling-strategy after each poll for due executions. */
+  public void onPollResult(int fetched, int limit) {}
+
+  protected Duration nextWaitDuration() {
+    return duration;
+  }
+
   public Duration getWaitDuration() {
     return duration;
   }
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler;
+
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Cluster-wide hint that an execution is due soon. Publishing is done when executions are scheduled
+ * or rescheduled, and every started <code>Scheduler</code> subscribes to wake up its polling-thread
+ * earlier than the polling-interval would.
+ *
+ * <p>Hints are best-effort. A missed hint only means the execution is picked up by regular polling.
+ */
+public interface WakeUpNotifier {
+
+  /**
+   * Publish a hint that an execution is due at the given time.
+   *
+   * @param executionTime execution-time of the execution scheduled, possibly in the past
+   */
+  void notifyDue(Instant executionTime);
+
+  /**
+   * Subscribe to hints published by any node (including this one).
+   *
+   * @param onDue called with the execution-time of the hint
+   */
+  void subscribe(Consumer<Instant> onDue);
+
+  /**
+   * Stop delivering hints to the subscriber. Resources held for receiving hints should be released
+   * when there are no subscribers left.
+   *
+   * @param onDue a previously subscribed consumer
+   */
+  void unsubscribe(Consumer<Instant> onDue);
+
+  WakeUpNotifier NOOP = new NoopWakeUpNotifier();
+
+  class NoopWakeUpNotifier implements WakeUpNotifier {
+
+    @Override
+    public void notifyDue(Instant executionTime) {}
+
+    @Override
+    public void subscribe(Consumer<Instant> onDue) {}
+
+    @Override
+    public void unsubscribe(Consumer<Instant> onDue) {}
+  }
+}
@@ -85,6 +85,16 @@ public interface SchedulerListener {
    */
   void onCandidateEvent(CandidateEventType type);
 
+  /**
+   * Scheduler polled the database for due executions. Runs in the polling thread.
+   *
+   * @param executionsFetched number of executions fetched or picked
+   * @param executionsToFetch max number of executions asked for
+   * @param numberInQueueOrProcessing executions queued or executing locally, after the poll
+   */
+  default void onPollResult(
+      int executionsFetched, int executionsToFetch, int numberInQueueOrProcessing) {}
+
   enum SchedulerEventType {
     UNEXPECTED_ERROR(SchedulerStatsEvent.UNEXPECTED_ERROR),
     FAILED_HEARTBEAT(SchedulerStatsEvent.FAILED_HEARTBEAT),
@@ -104,6 +104,20 @@ public class SchedulerListeners implements SchedulerListener {
         });
   }
 
+  @Override
+  public void onPollResult(
+      int executionsFetched, int executionsToFetch, int numberInQueueOrProcessing) {
+    schedulerListeners.forEach(
+        listener -> {
+          fireAndLogErrors(
+              listener,
+              "onPollResult",
+              () ->
+                  listener.onPollResult(
+                      executionsFetched, executionsToFetch, numberInQueueOrProcessing));
+        });
+  }
+
   public void fireAndLogErrors(SchedulerListener listener, String method, Runnable r) {
     try {
       r.run();
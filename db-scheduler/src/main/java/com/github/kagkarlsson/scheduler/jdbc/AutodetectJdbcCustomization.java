@@ -60,20 +60,34 @@ public class AutodetectJdbcCustomization implements JdbcCustomization {
       } else if (databaseProductName.contains(ORACLE)) {
         LOG.info("Using Oracle jdbc-overrides.");
         detectedCustomization = new OracleJdbcCustomization(persistTimestampInUTC);
-      } else if (databaseProductName.contains(MARIADB)) {
-        LOG.info("Using MariaDB jdbc-overrides.");
+      } else if (databaseProductName.contains(MARIADB)
+          || c.getMetaData().getDatabaseProductVersion().contains(MARIADB)) {
+        String dbVersion = c.getMetaData().getDatabaseProductVersion();
+        boolean supportsSkipLocked = MariaDBJdbcCustomization.supportsSkipLocked(dbVersion);
+        LOG.info(
+            "Using MariaDB jdbc-overrides. (v {}, lock-and-fetch supported: {})",
+            dbVersion,
+            supportsSkipLocked);
         logWarningIfNotUTC("MariaDB", persistTimestampInUTC);
-        detectedCustomization = new MariaDBJdbcCustomization(persistTimestampInUTC);
+        detectedCustomization =
+            new MariaDBJdbcCustomization(
+                persistTimestampInUTC,
+                supportsSkipLocked,
+                useAffectedRows(c.getMetaData().getURL()));
       } else if (databaseProductName.contains(MYSQL)) {
         int databaseMajorVersion = c.getMetaData().getDatabaseMajorVersion();
         String dbVersion = c.getMetaData().getDatabaseProductVersion();
         logWarningIfNotUTC("MySQL", persistTimestampInUTC);
         if (databaseMajorVersion >= 8) {
           LOG.info("Using MySQL jdbc-overrides version 8 and later. (v {})", dbVersion);
-          detectedCustomization = new MySQL8JdbcCustomization(persistTimestampInUTC);
+          detectedCustomization =
+              new MySQL8JdbcCustomization(
+                  persistTimestampInUTC, useAffectedRows(c.getMetaData().getURL()));
         } else {
           LOG.info("Using MySQL jdbc-overrides for version older than 8. (v {})", dbVersion);
-          detectedCustomization = new MySQLJdbcCustomization(persistTimestampInUTC);
+          detectedCustomization =
+              new MySQLJdbcCustomization(
+                  persistTimestampInUTC, useAffectedRows(c.getMetaData().getURL()));
         }
       } else {
         if (persistTimestampInUTC) {
@@ -105,6 +119,11 @@ public class AutodetectJdbcCustomization implements JdbcCustomization {
     return jdbcCustomization.getInstant(rs, columnName);
   }
 
+  @Override
+  public Instant getInstant(ResultSet rs, int columnIndex) throws SQLException {
+    return jdbcCustomization.getInstant(rs, columnIndex);
+  }
+
   @Override
   public void setTaskData(PreparedStatement p, int index, byte[] value) throws SQLException {
     jdbcCustomization.setTaskData(p, index, value);
@@ -115,6 +134,11 @@ public class AutodetectJdbcCustomization implements JdbcCustomization {
     return jdbcCustomization.getTaskData(rs, columnName);
   }
 
+  @Override
+  public byte[] getTaskData(ResultSet rs, int columnIndex) throws SQLException {
+    return jdbcCustomization.getTaskData(rs, columnIndex);
+  }
+
   @Override
   public boolean supportsExplicitQueryLimitPart() {
     return jdbcCustomization.supportsExplicitQueryLimitPart();
@@ -148,16 +172,37 @@ public class AutodetectJdbcCustomization implements JdbcCustomization {
         tableName, limit, requiredAndCondition);
   }
 
+  @Override
+  public String createGenericSelectForUpdateQuery(
+      String tableName, int limit, String requiredAndCondition, String orderBy) {
+    return jdbcCustomization.createGenericSelectForUpdateQuery(
+        tableName, limit, requiredAndCondition, orderBy);
+  }
+
   @Override
   public String createSelectDueQuery(String tableName, int limit, String andCondition) {
     return jdbcCustomization.createSelectDueQuery(tableName, limit, andCondition);
   }
 
+  @Override
+  public String createSelectDueQuery(
+      String tableName, int limit, String andCondition, String orderBy) {
+    return jdbcCustomization.createSelectDueQuery(tableName, limit, andCondition, orderBy);
+  }
+
   @Override
   public String getName() {
     return jdbcCustomization.getName();
   }
 
+  /**
+   * Whether the MySQL or MariaDB driver is set to report affected rows, going by the url. Drivers
+   * report found rows by default.
+   */
+  static boolean useAffectedRows(String jdbcUrl) {
+    return jdbcUrl != null && jdbcUrl.toLowerCase().contains("useaffectedrows=true");
+  }
+
   private void logWarningIfNotUTC(String database, boolean persistTimestampInUTC) {
     if (!persistTimestampInUTC) {
       SILENCABLE_LOG.warn(
@@ -171,4 +216,30 @@ public class AutodetectJdbcCustomization implements JdbcCustomization {
           database);
     }
   }
+
+  @Override
+  public boolean supportsSingleStatementHeartbeats() {
+    return jdbcCustomization.supportsSingleStatementHeartbeats();
+  }
+
+  @Override
+  public boolean[] updateHeartbeatsSingleStatement(
+      JdbcTaskRepositoryContext ctx, List<Execution> executions, Instant newHeartbeat) {
+    return jdbcCustomization.updateHeartbeatsSingleStatement(ctx, executions, newHeartbeat);
+  }
+
+  @Override
+  public boolean supportsSingleStatementInsertIfNotExists() {
+    return jdbcCustomization.supportsSingleStatementInsertIfNotExists();
+  }
+
+  @Override
+  public String createInsertIfNotExistsQuery(String tableName) {
+    return jdbcCustomization.createInsertIfNotExistsQuery(tableName);
+  }
+
+  @Override
+  public String createInsertIfNotExistsQuery(String tableName, boolean withPriority) {
+    return jdbcCustomization.createInsertIfNotExistsQuery(tableName, withPriority);
+  }
 }
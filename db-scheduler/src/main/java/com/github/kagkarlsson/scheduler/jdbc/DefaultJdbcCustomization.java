@@ -61,6 +61,19 @@ public class DefaultJdbcCustomization implements JdbcCustomization {
     }
   }
 
+  @Override
+  public Instant getInstant(ResultSet rs, int columnIndex) throws SQLException {
+    if (persistTimestampInUTC) {
+      return Optional.ofNullable(rs.getTimestamp(columnIndex, UTC))
+          .map(Timestamp::toInstant)
+          .orElse(null);
+    } else {
+      return Optional.ofNullable(rs.getTimestamp(columnIndex))
+          .map(Timestamp::toInstant)
+          .orElse(null);
+    }
+  }
+
   @Override
   public void setTaskData(PreparedStatement p, int index, byte[] value) throws SQLException {
     p.setObject(index, value);
@@ -71,6 +84,11 @@ public class DefaultJdbcCustomization implements JdbcCustomization {
     return rs.getBytes(columnName);
   }
 
+  @Override
+  public byte[] getTaskData(ResultSet rs, int columnIndex) throws SQLException {
+    return rs.getBytes(columnIndex);
+  }
+
   @Override
   public boolean supportsExplicitQueryLimitPart() {
     return true;
@@ -107,12 +125,20 @@ public class DefaultJdbcCustomization implements JdbcCustomization {
 
   @Override
   public String createSelectDueQuery(String tableName, int limit, String andCondition) {
+    return createSelectDueQuery(tableName, limit, andCondition, Queries.ORDER_BY_EXECUTION_TIME);
+  }
+
+  @Override
+  public String createSelectDueQuery(
+      String tableName, int limit, String andCondition, String orderBy) {
     final String explicitLimit = supportsExplicitQueryLimitPart() ? getQueryLimitPart(limit) : "";
     return "select * from "
         + tableName
         + " where picked = ? and execution_time <= ? "
         + andCondition
-        + " order by execution_time asc "
+        + " order by "
+        + orderBy
+        + " "
         + explicitLimit;
   }
 
@@ -120,4 +146,27 @@ public class DefaultJdbcCustomization implements JdbcCustomization {
   public String getName() {
     return "Default";
   }
+
+  @Override
+  public boolean supportsSingleStatementHeartbeats() {
+    return false;
+  }
+
+  @Override
+  public boolean[] updateHeartbeatsSingleStatement(
+      JdbcTaskRepositoryContext ctx, List<Execution> executions, Instant newHeartbeat) {
+    throw new UnsupportedOperationException(
+        "Single-statement heartbeats not supported for " + this.getClass().getName());
+  }
+
+  @Override
+  public boolean supportsSingleStatementInsertIfNotExists() {
+    return false;
+  }
+
+  @Override
+  public String createInsertIfNotExistsQuery(String tableName) {
+    throw new UnsupportedOperationException(
+        "Single-statement insert-if-not-exists not supported for " + this.getClass().getName());
+  }
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler.jdbc;
+
+import com.github.kagkarlsson.scheduler.PriorityConfig;
+import com.github.kagkarlsson.scheduler.task.Execution;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Order in which due executions are fetched. By execution-time, or if priority is enabled, by
+ * priority and then execution-time.
+ *
+ * <p>Aging is expressed as one {@code CASE} term per step rather than by date-arithmetic, which
+ * differs between databases. Each term takes the time an execution must be due before to gain that
+ * step as parameter.
+ */
+class DueOrder {
+  static final DueOrder EXECUTION_TIME = new DueOrder(PriorityConfig.DISABLED);
+
+  private final PriorityConfig priority;
+
+  DueOrder(PriorityConfig priority) {
+    this.priority = priority;
+  }
+
+  boolean isByPriority() {
+    return priority.enabled;
+  }
+
+  String orderBy() {
+    if (!priority.enabled) {
+      return Queries.ORDER_BY_EXECUTION_TIME;
+    }
+    if (!priority.isAging()) {
+      return "priority DESC, execution_time ASC";
+    }
+    return "(priority"
+        + IntStream.range(0, priority.maxAgingSteps)
+            .mapToObj(i -> " + CASE WHEN execution_time <= ? THEN 1 ELSE 0 END")
+            .collect(Collectors.joining())
+        + ") DESC, execution_time ASC";
+  }
+
+  /** Sets the parameters of {@link #orderBy()}, if any. */
+  int setParameters(
+      PreparedStatement ps, int index, Instant now, JdbcCustomization jdbcCustomization)
+      throws SQLException {
+    for (int step = 1; step <= priority.maxAgingSteps; step++) {
+      jdbcCustomization.setInstant(ps, index++, now.minus(priority.agingStep.multipliedBy(step)));
+    }
+    return index;
+  }
+
+  /**
+   * Same order as {@link #orderBy()}, for executions fetched by several queries or by statements
+   * not preserving the order.
+   */
+  Comparator<Execution> comparator(Instant now) {
+    final Comparator<Execution> byExecutionTime = Comparator.comparing(e -> e.executionTime);
+    if (!priority.enabled) {
+      return byExecutionTime;
+    }
+    return Comparator.<Execution>comparingInt(e -> effectivePriority(e, now))
+        .reversed()
+        .thenComparing(byExecutionTime);
+  }
+
+  private int effectivePriority(Execution execution, Instant now) {
+    if (!priority.isAging() || execution.executionTime.isAfter(now)) {
+      return execution.priority;
+    }
+    final long overdueSteps =
+        Duration.between(execution.executionTime, now).dividedBy(priority.agingStep);
+    return execution.priority + (int) Math.min(overdueSteps, priority.maxAgingSteps);
+  }
+}
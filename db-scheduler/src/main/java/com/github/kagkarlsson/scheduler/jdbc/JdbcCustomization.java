@@ -17,6 +17,7 @@ import com.github.kagkarlsson.scheduler.task.Execution;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.List;
 
@@ -28,10 +29,19 @@ public interface JdbcCustomization {
 
   Instant getInstant(ResultSet rs, String columnName) throws SQLException;
 
+  default Instant getInstant(ResultSet rs, int columnIndex) throws SQLException {
+    final Timestamp timestamp = rs.getTimestamp(columnIndex);
+    return timestamp != null ? timestamp.toInstant() : null;
+  }
+
   void setTaskData(PreparedStatement p, int index, byte[] value) throws SQLException;
 
   byte[] getTaskData(ResultSet rs, String columnName) throws SQLException;
 
+  default byte[] getTaskData(ResultSet rs, int columnIndex) throws SQLException {
+    return rs.getBytes(columnIndex);
+  }
+
   boolean supportsExplicitQueryLimitPart();
 
   String getQueryLimitPart(int limit);
@@ -46,5 +56,75 @@ public interface JdbcCustomization {
   String createGenericSelectForUpdateQuery(
       String tableName, int limit, String requiredAndCondition);
 
+  /**
+   * As {@link #createGenericSelectForUpdateQuery(String, int, String)}, ordering due executions by
+   * {@code orderBy} rather than by execution-time. Needed for priority, see {@link
+   * com.github.kagkarlsson.scheduler.PriorityConfig}.
+   */
+  default String createGenericSelectForUpdateQuery(
+      String tableName, int limit, String requiredAndCondition, String orderBy) {
+    if (Queries.ORDER_BY_EXECUTION_TIME.equals(orderBy)) {
+      return createGenericSelectForUpdateQuery(tableName, limit, requiredAndCondition);
+    }
+    throw new UnsupportedOperationException(
+        "Ordering due executions by priority not supported for " + getName());
+  }
+
   String createSelectDueQuery(String tableName, int limit, String andCondition);
+
+  /**
+   * As {@link #createSelectDueQuery(String, int, String)}, ordering due executions by {@code
+   * orderBy} rather than by execution-time. Needed for priority, see {@link
+   * com.github.kagkarlsson.scheduler.PriorityConfig}.
+   */
+  default String createSelectDueQuery(
+      String tableName, int limit, String andCondition, String orderBy) {
+    if (Queries.ORDER_BY_EXECUTION_TIME.equals(orderBy)) {
+      return createSelectDueQuery(tableName, limit, andCondition);
+    }
+    throw new UnsupportedOperationException(
+        "Ordering due executions by priority not supported for " + getName());
+  }
+
+  default boolean supportsSingleStatementHeartbeats() {
+    return false;
+  }
+
+  /**
+   * Update the heartbeat of multiple executions in one statement, each guarded by the version of
+   * the execution.
+   *
+   * @return for each execution, in order, whether the heartbeat was updated
+   */
+  default boolean[] updateHeartbeatsSingleStatement(
+      JdbcTaskRepositoryContext ctx, List<Execution> executions, Instant newHeartbeat) {
+    throw new UnsupportedOperationException(
+        "Single-statement heartbeats not supported for " + getName());
+  }
+
+  default boolean supportsSingleStatementInsertIfNotExists() {
+    return false;
+  }
+
+  /**
+   * Insert a new execution unless one with the same task-name and instance-id already exists. The
+   * query must take the parameters {@code task_name, task_instance, task_data, execution_time,
+   * picked, version}, in that order, and report one updated row only if the execution was created.
+   */
+  default String createInsertIfNotExistsQuery(String tableName) {
+    throw new UnsupportedOperationException(
+        "Single-statement insert-if-not-exists not supported for " + getName());
+  }
+
+  /**
+   * As {@link #createInsertIfNotExistsQuery(String)}, if {@code withPriority} also taking the
+   * parameter {@code priority} last.
+   */
+  default String createInsertIfNotExistsQuery(String tableName, boolean withPriority) {
+    if (!withPriority) {
+      return createInsertIfNotExistsQuery(tableName);
+    }
+    throw new UnsupportedOperationException(
+        "Single-statement insert-if-not-exists with priority not supported for " + getName());
+  }
 }
@@ -19,9 +19,14 @@ import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 
 import com.github.kagkarlsson.jdbc.JdbcRunner;
+import com.github.kagkarlsson.jdbc.PreparedStatementSetter;
 import com.github.kagkarlsson.jdbc.ResultSetMapper;
 import com.github.kagkarlsson.jdbc.SQLRuntimeException;
 import com.github.kagkarlsson.scheduler.Clock;
+import com.github.kagkarlsson.scheduler.ConcurrencySlots;
+import com.github.kagkarlsson.scheduler.FairShare;
+import com.github.kagkarlsson.scheduler.PriorityConfig;
+import com.github.kagkarlsson.scheduler.RescheduleUpdate;
 import com.github.kagkarlsson.scheduler.ScheduledExecutionsFilter;
 import com.github.kagkarlsson.scheduler.SchedulerName;
 import com.github.kagkarlsson.scheduler.TaskRepository;
@@ -30,18 +35,32 @@ import com.github.kagkarlsson.scheduler.TaskResolver.UnresolvedTask;
 import com.github.kagkarlsson.scheduler.exceptions.ExecutionException;
 import com.github.kagkarlsson.scheduler.exceptions.TaskInstanceException;
 import com.github.kagkarlsson.scheduler.serializer.Serializer;
+import com.github.kagkarlsson.scheduler.stats.BacklogSample;
 import com.github.kagkarlsson.scheduler.task.Execution;
 import com.github.kagkarlsson.scheduler.task.SchedulableInstance;
 import com.github.kagkarlsson.scheduler.task.Task;
 import com.github.kagkarlsson.scheduler.task.TaskInstance;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -54,15 +73,38 @@ import org.slf4j.LoggerFactory;
 public class JdbcTaskRepository implements TaskRepository {
 
   public static final String DEFAULT_TABLE_NAME = "scheduled_tasks";
+  public static final String DEFAULT_NODES_TABLE_NAME = "scheduler_nodes";
 
   private static final Logger LOG = LoggerFactory.getLogger(JdbcTaskRepository.class);
+  // keeps the number of bind-parameters of single-statement heartbeats within driver-limits
+  private static final int MAX_HEARTBEATS_PER_STATEMENT = 500;
+  // Oracle allows at most 1000 items in an IN-list, and SQL Server 2100 bind-parameters
+  static final int MAX_EXCLUDED_INSTANCES_IN_QUERY = 1000;
+  // all columns but task_data, which is then loaded on first access of the data
+  private static final List<String> COLUMNS_WITHOUT_TASK_DATA =
+      Arrays.asList(
+          "task_name",
+          "task_instance",
+          "execution_time",
+          "picked",
+          "picked_by",
+          "last_success",
+          "last_failure",
+          "consecutive_failures",
+          "last_heartbeat",
+          "version");
   private final TaskResolver taskResolver;
   private final SchedulerName schedulerSchedulerName;
+  private final String nodesTableName;
   private final JdbcRunner jdbcRunner;
   private final Serializer serializer;
   private final String tableName;
   private final JdbcCustomization jdbcCustomization;
+  private final PriorityConfig priority;
+  private final DueOrder dueOrder;
   private final Clock clock;
+  // set when the driver reports SUCCESS_NO_INFO for batches, then creating one by one
+  private volatile boolean batchCountsUnknown = false;
 
   public JdbcTaskRepository(
       DataSource dataSource,
@@ -111,29 +153,126 @@ public class JdbcTaskRepository implements TaskRepository {
       Serializer serializer,
       Clock clock) {
     this(
+        dataSource,
+        commitWhenAutocommitDisabled,
+        jdbcCustomization,
+        tableName,
+        DEFAULT_NODES_TABLE_NAME,
+        taskResolver,
+        schedulerSchedulerName,
+        serializer,
+        clock);
+  }
+
+  public JdbcTaskRepository(
+      DataSource dataSource,
+      boolean commitWhenAutocommitDisabled,
+      JdbcCustomization jdbcCustomization,
+      String tableName,
+      String nodesTableName,
+      TaskResolver taskResolver,
+      SchedulerName schedulerSchedulerName,
+      Serializer serializer,
+      Clock clock) {
+    this(
+        dataSource,
+        commitWhenAutocommitDisabled,
         jdbcCustomization,
         tableName,
+        nodesTableName,
+        taskResolver,
+        schedulerSchedulerName,
+        serializer,
+        PriorityConfig.DISABLED,
+        clock);
+  }
+
+  /**
+   * @param priority whether executions are written with, and fetched by, priority. Requires the
+   *     {@code priority} column.
+   */
+  public JdbcTaskRepository(
+      DataSource dataSource,
+      boolean commitWhenAutocommitDisabled,
+      JdbcCustomization jdbcCustomization,
+      String tableName,
+      String nodesTableName,
+      TaskResolver taskResolver,
+      SchedulerName schedulerSchedulerName,
+      Serializer serializer,
+      PriorityConfig priority,
+      Clock clock) {
+    this(
+        jdbcCustomization,
+        tableName,
+        nodesTableName,
         taskResolver,
         schedulerSchedulerName,
         serializer,
         new JdbcRunner(dataSource, commitWhenAutocommitDisabled),
+        priority,
+        clock);
+  }
+
+  protected JdbcTaskRepository(
+      JdbcCustomization jdbcCustomization,
+      String tableName,
+      TaskResolver taskResolver,
+      SchedulerName schedulerSchedulerName,
+      Serializer serializer,
+      JdbcRunner jdbcRunner,
+      Clock clock) {
+    this(
+        jdbcCustomization,
+        tableName,
+        DEFAULT_NODES_TABLE_NAME,
+        taskResolver,
+        schedulerSchedulerName,
+        serializer,
+        jdbcRunner,
+        clock);
+  }
+
+  protected JdbcTaskRepository(
+      JdbcCustomization jdbcCustomization,
+      String tableName,
+      String nodesTableName,
+      TaskResolver taskResolver,
+      SchedulerName schedulerSchedulerName,
+      Serializer serializer,
+      JdbcRunner jdbcRunner,
+      Clock clock) {
+    this(
+        jdbcCustomization,
+        tableName,
+        nodesTableName,
+        taskResolver,
+        schedulerSchedulerName,
+        serializer,
+        jdbcRunner,
+        PriorityConfig.DISABLED,
         clock);
   }
 
   protected JdbcTaskRepository(
       JdbcCustomization jdbcCustomization,
       String tableName,
+      String nodesTableName,
       TaskResolver taskResolver,
       SchedulerName schedulerSchedulerName,
       Serializer serializer,
       JdbcRunner jdbcRunner,
+      PriorityConfig priority,
       Clock clock) {
     this.tableName = tableName;
+    this.nodesTableName = nodesTableName;
     this.taskResolver = taskResolver;
     this.schedulerSchedulerName = schedulerSchedulerName;
     this.jdbcRunner = jdbcRunner;
     this.serializer = serializer;
     this.jdbcCustomization = jdbcCustomization;
+    this.priority = priority;
+    this.dueOrder = new DueOrder(priority);
     this.clock = clock;
   }
 
@@ -142,7 +281,19 @@ public class JdbcTaskRepository implements TaskRepository {
   public boolean createIfNotExists(SchedulableInstance instance) {
     final TaskInstance taskInstance = instance.getTaskInstance();
     try {
-      Optional<Execution> existingExecution = getExecution(taskInstance);
+      if (jdbcCustomization.supportsSingleStatementInsertIfNotExists()) {
+        final int inserted =
+            jdbcRunner.execute(
+                jdbcCustomization.createInsertIfNotExistsQuery(tableName, priority.enabled),
+                insertExecutionParameters(instance));
+        if (inserted == 0) {
+          LOG.debug("Execution not created, it already exists.");
+          return false;
+        }
+        return true;
+      }
+
+      Optional<Execution> existingExecution = getExecutionState(taskInstance);
       if (existingExecution.isPresent()) {
         LOG.debug(
             "Execution not created, it already exists. Due: {}",
@@ -153,20 +304,15 @@ public class JdbcTaskRepository implements TaskRepository {
       jdbcRunner.execute(
           "insert into "
               + tableName
-              + "(task_name, task_instance, task_data, execution_time, picked, version) values(?, ?, ?, ?, ?, ?)",
-          (PreparedStatement p) -> {
-            p.setString(1, taskInstance.getTaskName());
-            p.setString(2, taskInstance.getId());
-            jdbcCustomization.setTaskData(p, 3, serializer.serialize(taskInstance.getData()));
-            jdbcCustomization.setInstant(p, 4, instance.getNextExecutionTime(clock.now()));
-            p.setBoolean(5, false);
-            p.setLong(6, 1L);
-          });
+              + Queries.insertColumns(priority.enabled)
+              + " values"
+              + Queries.insertValues(priority.enabled),
+          insertExecutionParameters(instance));
       return true;
 
     } catch (SQLRuntimeException e) {
       LOG.debug("Exception when inserting execution. Assuming it to be a constraint violation.", e);
-      Optional<Execution> existingExecution = getExecution(taskInstance);
+      Optional<Execution> existingExecution = getExecutionState(taskInstance);
       if (!existingExecution.isPresent()) {
         throw new TaskInstanceException(
             "Failed to add new execution.", instance.getTaskName(), instance.getId(), e);
@@ -176,6 +322,79 @@ public class JdbcTaskRepository implements TaskRepository {
     }
   }
 
+  @Override
+  public boolean[] createIfNotExists(List<SchedulableInstance<?>> instances) {
+    if (instances.isEmpty()) {
+      return new boolean[0];
+    }
+    if (!jdbcCustomization.supportsSingleStatementInsertIfNotExists() || batchCountsUnknown) {
+      return createOneByOne(instances);
+    }
+
+    try {
+      // in a transaction, so nothing of a failed batch is left when retrying one by one
+      return jdbcRunner.inTransaction(
+          txRunner -> {
+            final int[] inserted =
+                txRunner.executeBatch(
+                    jdbcCustomization.createInsertIfNotExistsQuery(tableName, priority.enabled),
+                    instances,
+                    (instance, ps) -> insertExecutionParameters(instance).setParameters(ps));
+
+            final boolean[] created = new boolean[instances.size()];
+            for (int i = 0; i < instances.size(); i++) {
+              if (inserted[i] == Statement.SUCCESS_NO_INFO) {
+                throw new BatchCountsUnknownException();
+              }
+              created[i] = inserted[i] == 1;
+            }
+            return created;
+          });
+    } catch (BatchCountsUnknownException e) {
+      LOG.info("Driver does not report update-counts for batches. Creating executions one by one.");
+      batchCountsUnknown = true;
+      return createOneByOne(instances);
+    } catch (SQLRuntimeException e) {
+      // e.g. a constraint violation from a concurrent insert, retry one by one
+      LOG.debug("Exception when inserting batch of executions. Retrying one by one.", e);
+      return createOneByOne(instances);
+    }
+  }
+
+  private boolean[] createOneByOne(List<SchedulableInstance<?>> instances) {
+    final boolean[] created = new boolean[instances.size()];
+    for (int i = 0; i < instances.size(); i++) {
+      created[i] = createIfNotExists(instances.get(i));
+    }
+    return created;
+  }
+
+  private PreparedStatementSetter insertExecutionParameters(SchedulableInstance instance) {
+    final TaskInstance taskInstance = instance.getTaskInstance();
+    return (PreparedStatement p) -> {
+      p.setString(1, taskInstance.getTaskName());
+      p.setString(2, taskInstance.getId());
+      jdbcCustomization.setTaskData(p, 3, serializer.serialize(taskInstance.getData()));
+      jdbcCustomization.setInstant(p, 4, instance.getNextExecutionTime(clock.now()));
+      p.setBoolean(5, false);
+      p.setLong(6, 1L);
+      if (priority.enabled) {
+        p.setInt(7, priorityOf(instance));
+      }
+    };
+  }
+
+  /** Priority of the instance if set, otherwise the default of its task. */
+  private int priorityOf(SchedulableInstance<?> instance) {
+    if (instance.getPriority().isPresent()) {
+      return instance.getPriority().getAsInt();
+    }
+    return taskResolver
+        .resolve(instance.getTaskName(), false)
+        .map(Task::getDefaultPriority)
+        .orElse(0);
+  }
+
   /**
    * Instead of doing delete+insert, we allow updating an existing execution will all new fields
    *
@@ -202,6 +421,7 @@ public class JdbcTaskRepository implements TaskRepository {
                 + "consecutive_failures = ?, "
                 + "execution_time = ?, "
                 + "task_data = ?, "
+                + (priority.enabled ? "priority = ?, " : "")
                 + "version = 1 "
                 + "where task_name = ? "
                 + "and task_instance = ? "
@@ -220,6 +440,9 @@ public class JdbcTaskRepository implements TaskRepository {
               // may cause datbase-specific problems, might have to use setNull instead
               jdbcCustomization.setTaskData(
                   ps, index++, serializer.serialize(newData)); // task_data
+              if (priority.enabled) {
+                ps.setInt(index++, priorityOf(newInstance)); // priority
+              }
               ps.setString(index++, toBeReplaced.taskInstance.getTaskName()); // task_name
               ps.setString(index++, toBeReplaced.taskInstance.getId()); // task_instance
               ps.setLong(index++, toBeReplaced.version); // version
@@ -244,42 +467,172 @@ public class JdbcTaskRepository implements TaskRepository {
   @Override
   public void getScheduledExecutions(
       ScheduledExecutionsFilter filter, Consumer<Execution> consumer) {
-    UnresolvedFilter unresolvedFilter = new UnresolvedFilter(taskResolver.getUnresolved());
+    getScheduledExecutions(filter, queryForFilter(filter), consumer);
+  }
 
-    QueryBuilder q = queryForFilter(filter);
-    if (unresolvedFilter.isActive() && !filter.getIncludeUnresolved()) {
-      q.andCondition(unresolvedFilter);
-    }
+  @Override
+  public void getScheduledExecutions(
+      ScheduledExecutionsFilter filter, String taskName, Consumer<Execution> consumer) {
+    getScheduledExecutions(
+        filter, queryForFilter(filter).andCondition(new TaskCondition(taskName)), consumer);
+  }
 
-    jdbcRunner.query(
-        q.getQuery(),
-        q.getPreparedStatementSetter(),
-        new ExecutionResultSetConsumer(consumer, filter.getIncludeUnresolved(), false));
+  @Override
+  public Optional<String> getScheduledExecutionsPage(
+      ScheduledExecutionsFilter filter, Consumer<Execution> consumer) {
+    return getScheduledExecutionsPage(filter, queryForFilter(filter), consumer);
   }
 
   @Override
-  public void getScheduledExecutions(
+  public Optional<String> getScheduledExecutionsPage(
       ScheduledExecutionsFilter filter, String taskName, Consumer<Execution> consumer) {
+    return getScheduledExecutionsPage(
+        filter, queryForFilter(filter).andCondition(new TaskCondition(taskName)), consumer);
+  }
+
+  private void getScheduledExecutions(
+      ScheduledExecutionsFilter filter, QueryBuilder q, Consumer<Execution> consumer) {
+    if (filter.isPaged()) {
+      getScheduledExecutionsPage(filter, q, consumer);
+      return;
+    }
     UnresolvedFilter unresolvedFilter = new UnresolvedFilter(taskResolver.getUnresolved());
+    if (unresolvedFilter.isActive() && !filter.getIncludeUnresolved()) {
+      q.andCondition(unresolvedFilter);
+    }
+    q.orderBy("execution_time asc");
+    queryScheduledExecutions(
+        filter,
+        q,
+        new ExecutionResultSetConsumer(consumer, filter.getIncludeUnresolved(), false),
+        null);
+  }
 
-    QueryBuilder q = queryForFilter(filter);
+  private Optional<String> getScheduledExecutionsPage(
+      ScheduledExecutionsFilter filter, QueryBuilder q, Consumer<Execution> consumer) {
+    UnresolvedFilter unresolvedFilter = new UnresolvedFilter(taskResolver.getUnresolved());
     if (unresolvedFilter.isActive() && !filter.getIncludeUnresolved()) {
       q.andCondition(unresolvedFilter);
     }
-    q.andCondition(new TaskCondition(taskName));
 
-    jdbcRunner.query(
-        q.getQuery(),
-        q.getPreparedStatementSetter(),
-        new ExecutionResultSetConsumer(consumer, filter.getIncludeUnresolved(), false));
+    final int pageSize = filter.getPageSize();
+    filter
+        .getPageToken()
+        .map(PageToken::decode)
+        .ifPresent(after -> q.andCondition(new AfterPageTokenCondition(after)));
+    q.orderBy("execution_time asc, task_name asc, task_instance asc");
+    if (jdbcCustomization.supportsExplicitQueryLimitPart()) {
+      q.limit(jdbcCustomization.getQueryLimitPart(pageSize));
+    }
+
+    // rows for tasks found to be unresolved are not delivered, but still count towards the page
+    final AtomicInteger read = new AtomicInteger();
+    final AtomicReference<Execution> last = new AtomicReference<>();
+    queryScheduledExecutions(
+        filter,
+        q,
+        new ExecutionResultSetConsumer(
+            execution -> {
+              read.incrementAndGet();
+              last.set(execution);
+              if (filter.getIncludeUnresolved()
+                  || taskResolver
+                      .resolve(execution.taskInstance.getTaskName(), false)
+                      .isPresent()) {
+                consumer.accept(execution);
+              }
+            },
+            true,
+            false),
+        pageSize);
+
+    if (read.get() < pageSize) {
+      return Optional.empty();
+    }
+    return Optional.of(PageToken.after(last.get()).encode());
+  }
+
+  private void queryScheduledExecutions(
+      ScheduledExecutionsFilter filter,
+      QueryBuilder q,
+      ExecutionResultSetConsumer resultSetConsumer,
+      Integer maxRows) {
+    final PreparedStatementSetter setter =
+        (PreparedStatement p) -> {
+          q.getPreparedStatementSetter().setParameters(p);
+          if (maxRows != null && !jdbcCustomization.supportsExplicitQueryLimitPart()) {
+            p.setMaxRows(maxRows);
+          }
+          if (filter.getFetchSize().isPresent()) {
+            p.setFetchSize(filter.getFetchSize().get());
+          }
+        };
+
+    if (filter.getFetchSize().isPresent()) {
+      jdbcRunner.inTransaction(txRunner -> txRunner.query(q.getQuery(), setter, resultSetConsumer));
+    } else {
+      jdbcRunner.query(q.getQuery(), setter, resultSetConsumer);
+    }
   }
 
   @Override
   public List<Execution> getDue(Instant now, int limit) {
+    return getDue(now, limit, Collections.emptyList(), Collections.emptyList());
+  }
+
+  @Override
+  public List<Execution> getDue(
+      Instant now, int limit, List<ConcurrencySlots> slots, List<FairShare.Share> shares) {
+    return getDue(now, limit, slots, shares, Collections.emptySet());
+  }
+
+  @Override
+  public List<Execution> getDue(
+      Instant now,
+      int limit,
+      List<ConcurrencySlots> slots,
+      List<FairShare.Share> shares,
+      Set<TaskInstance<?>> excluded) {
+    if (excluded.size() <= MAX_EXCLUDED_INSTANCES_IN_QUERY) {
+      return fetchDue(
+          now,
+          limit,
+          slots,
+          shares,
+          excluded,
+          false,
+          (toFetch, filter) -> getDue(now, toFetch, filter));
+    }
+
+    // instances not fitting in the query are fetched past and filtered out instead
+    final Set<TaskInstance<?>> excludedInQuery = new HashSet<>();
+    final Set<TaskInstance<?>> fetchedPast = new HashSet<>();
+    for (TaskInstance<?> instance : excluded) {
+      if (excludedInQuery.size() < MAX_EXCLUDED_INSTANCES_IN_QUERY) {
+        excludedInQuery.add(instance);
+      } else {
+        fetchedPast.add(instance);
+      }
+    }
+    return fetchDue(
+            now,
+            limit + fetchedPast.size(),
+            slots,
+            shares,
+            excludedInQuery,
+            false,
+            (toFetch, filter) -> getDue(now, toFetch, filter))
+        .stream()
+        .filter(e -> !fetchedPast.contains(e.taskInstance))
+        .limit(limit)
+        .collect(toList());
+  }
+
+  private List<Execution> getDue(Instant now, int limit, DueFilter dueFilter) {
     LOG.trace("Using generic fetch-then-lock query");
-    final UnresolvedFilter unresolvedFilter = new UnresolvedFilter(taskResolver.getUnresolved());
     String selectDueQuery =
-        jdbcCustomization.createSelectDueQuery(tableName, limit, unresolvedFilter.andCondition());
+        jdbcCustomization.createSelectDueQuery(
+            tableName, limit, dueFilter.andCondition(), dueOrder.orderBy());
 
     return jdbcRunner.query(
         selectDueQuery,
@@ -287,7 +640,8 @@ public class JdbcTaskRepository implements TaskRepository {
           int index = 1;
           p.setBoolean(index++, false);
           jdbcCustomization.setInstant(p, index++, now);
-          unresolvedFilter.setParameters(p, index);
+          index = dueFilter.setParameters(p, index);
+          dueOrder.setParameters(p, index, now, jdbcCustomization);
           if (!jdbcCustomization.supportsExplicitQueryLimitPart()) {
             p.setMaxRows(limit);
           }
@@ -295,15 +649,143 @@ public class JdbcTaskRepository implements TaskRepository {
         new ExecutionResultSetMapper(false, true));
   }
 
+  /**
+   * Executions of concurrency-limited groups are fetched one query per group with free slots,
+   * bounded by its slots. The remaining executions are then fetched in one query excluding all
+   * limited tasks, so executions that cannot be run are never fetched. Or, if there are shares, in
+   * one query per share. Executions fetched are ordered by {@link DueOrder}, highest priority first
+   * if enabled.
+   *
+   * @param excluded instances not to fetch, e.g. candidates already held
+   * @param locking whether fetched executions are picked, and so not fetched again
+   */
+  private List<Execution> fetchDue(
+      Instant now,
+      int limit,
+      List<ConcurrencySlots> slots,
+      List<FairShare.Share> shares,
+      Set<TaskInstance<?>> excluded,
+      boolean locking,
+      BiFunction<Integer, DueFilter, List<Execution>> fetch) {
+    final List<UnresolvedTask> unresolved = taskResolver.getUnresolved();
+    if (slots.isEmpty() && shares.isEmpty()) {
+      final List<Execution> due =
+          fetch.apply(limit, DueFilter.resolved(unresolved).withoutInstances(excluded));
+      if (!dueOrder.isByPriority()) {
+        return due;
+      }
+      // single-statement lock-and-fetch may not return executions in order
+      final List<Execution> ordered = new ArrayList<>(due);
+      ordered.sort(dueOrder.comparator(now));
+      return ordered;
+    }
+
+    final List<Execution> fetched = new ArrayList<>();
+    final Set<String> limitedTasks = new HashSet<>();
+    for (ConcurrencySlots group : slots) {
+      limitedTasks.addAll(group.getTaskNames());
+      final int toFetch = Math.min(group.getFree(), limit - fetched.size());
+      if (toFetch > 0) {
+        fetched.addAll(
+            fetch.apply(toFetch, DueFilter.only(group.getTaskNames()).withoutInstances(excluded)));
+      }
+    }
+    if (fetched.size() < limit) {
+      fetched.addAll(
+          shares.isEmpty()
+              ? fetch.apply(
+                  limit - fetched.size(),
+                  DueFilter.excluding(unresolved, limitedTasks).withoutInstances(excluded))
+              : fetchFairShare(
+                  limit - fetched.size(), shares, limitedTasks, excluded, locking, fetch));
+    }
+    fetched.sort(dueOrder.comparator(now));
+    return fetched;
+  }
+
+  /**
+   * Splits the limit between the shares by weight, at least one each, one query per share. Capacity
+   * left by shares with fewer due executions than their quota is split between the shares that
+   * filled theirs, until the limit is reached or no share has more.
+   */
+  private List<Execution> fetchFairShare(
+      int limit,
+      List<FairShare.Share> shares,
+      Set<String> limitedTasks,
+      Set<TaskInstance<?>> excluded,
+      boolean locking,
+      BiFunction<Integer, DueFilter, List<Execution>> fetch) {
+    List<ShareFetch> active = new ArrayList<>();
+    for (FairShare.Share share : shares) {
+      final Set<String> taskNames = new HashSet<>(share.getTaskNames());
+      taskNames.removeAll(limitedTasks);
+      if (!taskNames.isEmpty()) {
+        active.add(new ShareFetch(taskNames, share.getWeight()));
+      }
+    }
+
+    final Map<TaskInstance<?>, Execution> fetched = new LinkedHashMap<>();
+    while (fetched.size() < limit && !active.isEmpty()) {
+      final int capacity = limit - fetched.size();
+      final int totalWeight = active.stream().mapToInt(s -> s.weight).sum();
+      final List<ShareFetch> mayHaveMore = new ArrayList<>();
+      int allotted = 0;
+      for (ShareFetch share : active) {
+        final int quota =
+            Math.min(Math.max(1, capacity * share.weight / totalWeight), capacity - allotted);
+        if (quota <= 0) {
+          // capacity used up by the rounding, may get some of what is left by others
+          mayHaveMore.add(share);
+          continue;
+        }
+        allotted += quota;
+
+        // without locking the executions fetched so far are fetched again, so skip past them
+        final List<Execution> due =
+            fetch.apply(
+                locking ? quota : share.fetched + quota,
+                DueFilter.only(share.taskNames).withoutInstances(excluded));
+        int added = 0;
+        for (Execution execution : due) {
+          if (fetched.putIfAbsent(execution.taskInstance, execution) == null) {
+            added++;
+          }
+        }
+        share.fetched += added;
+        if (added >= quota) {
+          mayHaveMore.add(share);
+        }
+      }
+      active = mayHaveMore;
+    }
+    return new ArrayList<>(fetched.values());
+  }
+
+  /** Rolls back a batch where it is not known which statements created an execution. */
+  private static class BatchCountsUnknownException extends RuntimeException {}
+
+  private static class ShareFetch {
+    private final Set<String> taskNames;
+    private final int weight;
+    private int fetched = 0;
+
+    ShareFetch(Set<String> taskNames, int weight) {
+      this.taskNames = taskNames;
+      this.weight = weight;
+    }
+  }
+
   @Override
   public List<Execution> lockAndFetchGeneric(Instant now, int limit) {
+    return lockAndFetchGeneric(now, limit, DueFilter.resolved(taskResolver.getUnresolved()));
+  }
+
+  private List<Execution> lockAndFetchGeneric(Instant now, int limit, DueFilter dueFilter) {
     return jdbcRunner.inTransaction(
         txRunner -> {
-          final UnresolvedFilter unresolvedFilter =
-              new UnresolvedFilter(taskResolver.getUnresolved());
           String selectForUpdateQuery =
               jdbcCustomization.createGenericSelectForUpdateQuery(
-                  tableName, limit, unresolvedFilter.andCondition());
+                  tableName, limit, dueFilter.andCondition(), dueOrder.orderBy());
           List<Execution> candidates =
               txRunner.query(
                   selectForUpdateQuery,
@@ -311,7 +793,8 @@ public class JdbcTaskRepository implements TaskRepository {
                     int index = 1;
                     p.setBoolean(index++, false);
                     jdbcCustomization.setInstant(p, index++, now);
-                    unresolvedFilter.setParameters(p, index);
+                    index = dueFilter.setParameters(p, index);
+                    dueOrder.setParameters(p, index, now, jdbcCustomization);
                     if (!jdbcCustomization.supportsExplicitQueryLimitPart()) {
                       p.setMaxRows(limit);
                     }
@@ -387,12 +870,30 @@ public class JdbcTaskRepository implements TaskRepository {
 
   @Override
   public List<Execution> lockAndGetDue(Instant now, int limit) {
+    return lockAndGetDue(now, limit, Collections.emptyList(), Collections.emptyList());
+  }
+
+  @Override
+  public List<Execution> lockAndGetDue(
+      Instant now, int limit, List<ConcurrencySlots> slots, List<FairShare.Share> shares) {
+    return fetchDue(
+        now,
+        limit,
+        slots,
+        shares,
+        Collections.emptySet(),
+        true,
+        (toFetch, filter) -> lockAndGetDue(now, toFetch, filter));
+  }
+
+  private List<Execution> lockAndGetDue(Instant now, int limit, DueFilter dueFilter) {
     if (jdbcCustomization.supportsSingleStatementLockAndFetch()) {
       LOG.trace("Using single-statement lock-and-fetch");
-      return jdbcCustomization.lockAndFetchSingleStatement(getTaskRespositoryContext(), now, limit);
+      return jdbcCustomization.lockAndFetchSingleStatement(
+          getTaskRespositoryContext(dueFilter), now, limit);
     } else if (jdbcCustomization.supportsGenericLockAndFetch()) {
       LOG.trace("Using generic transaction-based lock-and-fetch");
-      return lockAndFetchGeneric(now, limit);
+      return lockAndFetchGeneric(now, limit, dueFilter);
     } else {
       throw new UnsupportedOperationException(
           "The JdbcCustomization in use for the database "
@@ -422,6 +923,93 @@ public class JdbcTaskRepository implements TaskRepository {
     }
   }
 
+  @Override
+  public boolean[] remove(List<Execution> executions) {
+    if (executions.isEmpty()) {
+      return new boolean[0];
+    }
+
+    final int[] removed =
+        jdbcRunner.executeBatch(
+            "delete from "
+                + tableName
+                + " where task_name = ? and task_instance = ? and version = ?",
+            executions,
+            (execution, ps) -> {
+              ps.setString(1, execution.taskInstance.getTaskName());
+              ps.setString(2, execution.taskInstance.getId());
+              ps.setLong(3, execution.version);
+            });
+
+    final boolean[] result = new boolean[executions.size()];
+    for (int i = 0; i < executions.size(); i++) {
+      final Execution execution = executions.get(i);
+      if (removed[i] == Statement.SUCCESS_NO_INFO) {
+        // some drivers do not report per-statement counts for batches, verify the outcome
+        result[i] =
+            !getExecutionState(execution.taskInstance)
+                .filter(current -> current.version == execution.version)
+                .isPresent();
+      } else {
+        result[i] = removed[i] == 1;
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public boolean[] reschedule(List<RescheduleUpdate> updates) {
+    if (updates.isEmpty()) {
+      return new boolean[0];
+    }
+
+    final int[] updated =
+        jdbcRunner.executeBatch(
+            "update "
+                + tableName
+                + " set "
+                + "picked = ?, "
+                + "picked_by = ?, "
+                + "last_heartbeat = ?, "
+                + "last_success = ?, "
+                + "last_failure = ?, "
+                + "consecutive_failures = ?, "
+                + "execution_time = ?, "
+                + "version = version + 1 "
+                + "where task_name = ? "
+                + "and task_instance = ? "
+                + "and version = ?",
+            updates,
+            (update, ps) -> {
+              int index = 1;
+              ps.setBoolean(index++, false);
+              ps.setString(index++, null);
+              jdbcCustomization.setInstant(ps, index++, null);
+              jdbcCustomization.setInstant(ps, index++, update.lastSuccess);
+              jdbcCustomization.setInstant(ps, index++, update.lastFailure);
+              ps.setInt(index++, update.consecutiveFailures);
+              jdbcCustomization.setInstant(ps, index++, update.nextExecutionTime);
+              ps.setString(index++, update.execution.taskInstance.getTaskName());
+              ps.setString(index++, update.execution.taskInstance.getId());
+              ps.setLong(index++, update.execution.version);
+            });
+
+    final boolean[] result = new boolean[updates.size()];
+    for (int i = 0; i < updates.size(); i++) {
+      final Execution execution = updates.get(i).execution;
+      if (updated[i] == Statement.SUCCESS_NO_INFO) {
+        // some drivers do not report per-statement counts for batches, verify the outcome
+        result[i] =
+            getExecutionState(execution.taskInstance)
+                .filter(current -> !current.isPicked() && current.version == execution.version + 1)
+                .isPresent();
+      } else {
+        result[i] = updated[i] == 1;
+      }
+    }
+    return result;
+  }
+
   @Override
   public boolean reschedule(
       Execution execution,
@@ -543,11 +1131,70 @@ public class JdbcTaskRepository implements TaskRepository {
     }
   }
 
+  @Override
+  public List<Execution> pick(List<Execution> candidates, Instant timePicked) {
+    if (candidates.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    final String pickedBy = truncate(schedulerSchedulerName.getName(), 50);
+    final int[] updated =
+        jdbcRunner.executeBatch(
+            "update "
+                + tableName
+                + " set picked = ?, picked_by = ?, last_heartbeat = ?, version = version + 1 "
+                + "where picked = ? "
+                + "and task_name = ? "
+                + "and task_instance = ? "
+                + "and version = ?",
+            candidates,
+            (candidate, ps) -> {
+              ps.setBoolean(1, true);
+              ps.setString(2, pickedBy);
+              jdbcCustomization.setInstant(ps, 3, timePicked);
+              ps.setBoolean(4, false);
+              ps.setString(5, candidate.taskInstance.getTaskName());
+              ps.setString(6, candidate.taskInstance.getId());
+              ps.setLong(7, candidate.version);
+            });
+
+    final List<Execution> picked = new ArrayList<>();
+    for (int i = 0; i < candidates.size(); i++) {
+      final Execution candidate = candidates.get(i);
+      if (updated[i] == Statement.SUCCESS_NO_INFO) {
+        // some drivers do not report per-statement counts for batches, verify the outcome
+        if (isPickedBy(candidate, pickedBy)) {
+          picked.add(candidate.updateToPicked(pickedBy, timePicked));
+        }
+      } else if (updated[i] == 1) {
+        picked.add(candidate.updateToPicked(pickedBy, timePicked));
+      } else if (updated[i] > 1) {
+        throw new IllegalStateException(
+            "Updated multiple rows when picking single execution. Should never happen since name and id is primary key. Execution: "
+                + candidate);
+      }
+    }
+    LOG.trace("Picked {} of {} candidates in batch.", picked.size(), candidates.size());
+    return picked;
+  }
+
+  private boolean isPickedBy(Execution candidate, String pickedBy) {
+    return getExecutionState(candidate.taskInstance)
+        .filter(
+            current ->
+                current.isPicked()
+                    && pickedBy.equals(current.pickedBy)
+                    && current.version == candidate.version + 1)
+        .isPresent();
+  }
+
   @Override
   public List<Execution> getDeadExecutions(Instant olderThan) {
     final UnresolvedFilter unresolvedFilter = new UnresolvedFilter(taskResolver.getUnresolved());
     return jdbcRunner.query(
-        "select * from "
+        "select "
+            + columnsWithoutTaskData("")
+            + " from "
             + tableName
             + " where picked = ? and last_heartbeat <= ? "
             + unresolvedFilter.andCondition()
@@ -561,6 +1208,78 @@ public class JdbcTaskRepository implements TaskRepository {
         new ExecutionResultSetMapper(false, true));
   }
 
+  @Override
+  public List<Execution> getDeadExecutionsByNodeLease(Instant now, Instant heartbeatOlderThan) {
+    final UnresolvedFilter unresolvedFilter = new UnresolvedFilter(taskResolver.getUnresolved());
+    return jdbcRunner.query(
+        "select "
+            + columnsWithoutTaskData("st.")
+            + " from "
+            + tableName
+            + " st left join "
+            + nodesTableName
+            + " n on st.picked_by = n.node_name "
+            + " where st.picked = ? "
+            + " and ((n.node_name is not null and n.lease_expires <= ?) "
+            // picked by a node not registered (yet), fall back to the heartbeat of the execution
+            + "   or (n.node_name is null and st.last_heartbeat <= ?) "
+            // picked by this node long ago, the caller checks if they are still executing
+            + "   or (st.picked_by = ? and st.last_heartbeat <= ?)) "
+            + unresolvedFilter.andCondition()
+            + " order by st.last_heartbeat asc",
+        (PreparedStatement p) -> {
+          int index = 1;
+          p.setBoolean(index++, true);
+          jdbcCustomization.setInstant(p, index++, now);
+          jdbcCustomization.setInstant(p, index++, heartbeatOlderThan);
+          p.setString(index++, truncate(schedulerSchedulerName.getName(), 50));
+          jdbcCustomization.setInstant(p, index++, heartbeatOlderThan);
+          unresolvedFilter.setParameters(p, index);
+        },
+        new ExecutionResultSetMapper(false, true));
+  }
+
+  @Override
+  public void renewNodeLease(Instant leaseExpires) {
+    final String nodeName = truncate(schedulerSchedulerName.getName(), 50);
+    final Instant now = clock.now();
+    if (updateNodeLease(nodeName, now, leaseExpires)) {
+      return;
+    }
+
+    try {
+      jdbcRunner.execute(
+          "insert into "
+              + nodesTableName
+              + "(node_name, last_renewed, lease_expires) values(?, ?, ?)",
+          (PreparedStatement p) -> {
+            p.setString(1, nodeName);
+            jdbcCustomization.setInstant(p, 2, now);
+            jdbcCustomization.setInstant(p, 3, leaseExpires);
+          });
+      LOG.info("Registered scheduler-node '{}' in {}.", nodeName, nodesTableName);
+    } catch (SQLRuntimeException e) {
+      LOG.debug("Exception when inserting node. Assuming it to be a constraint violation.", e);
+      if (!updateNodeLease(nodeName, now, leaseExpires)) {
+        throw new IllegalStateException("Failed to renew lease of scheduler-node " + nodeName, e);
+      }
+    }
+  }
+
+  private boolean updateNodeLease(String nodeName, Instant now, Instant leaseExpires) {
+    final int updated =
+        jdbcRunner.execute(
+            "update "
+                + nodesTableName
+                + " set last_renewed = ?, lease_expires = ? where node_name = ?",
+            (PreparedStatement p) -> {
+              jdbcCustomization.setInstant(p, 1, now);
+              jdbcCustomization.setInstant(p, 2, leaseExpires);
+              p.setString(3, nodeName);
+            });
+    return updated > 0;
+  }
+
   @Override
   public boolean updateHeartbeatWithRetry(Execution execution, Instant newHeartbeat, int tries) {
 
@@ -618,11 +1337,74 @@ public class JdbcTaskRepository implements TaskRepository {
     }
   }
 
+  @Override
+  public boolean[] updateHeartbeats(List<Execution> executions, Instant newHeartbeat) {
+    final boolean[] updated = new boolean[executions.size()];
+    for (int from = 0; from < executions.size(); from += MAX_HEARTBEATS_PER_STATEMENT) {
+      final int to = Math.min(from + MAX_HEARTBEATS_PER_STATEMENT, executions.size());
+      final List<Execution> chunk = executions.subList(from, to);
+      final boolean[] chunkUpdated =
+          jdbcCustomization.supportsSingleStatementHeartbeats()
+              ? jdbcCustomization.updateHeartbeatsSingleStatement(
+                  getTaskRespositoryContext(DueFilter.resolved(taskResolver.getUnresolved())),
+                  chunk,
+                  newHeartbeat)
+              : updateHeartbeatsBatch(chunk, newHeartbeat);
+      System.arraycopy(chunkUpdated, 0, updated, from, chunkUpdated.length);
+    }
+
+    for (int i = 0; i < executions.size(); i++) {
+      if (!updated[i]) {
+        // See updateHeartbeat(..) for why this race-condition may occur
+        LOG.warn(
+            "Did not update heartbeat. Execution must have been removed or rescheduled. "
+                + "task-instance={}",
+            executions.get(i).taskInstance);
+      }
+    }
+    return updated;
+  }
+
+  private boolean[] updateHeartbeatsBatch(List<Execution> executions, Instant newHeartbeat) {
+    final int[] updated =
+        jdbcRunner.executeBatch(
+            "update "
+                + tableName
+                + " set last_heartbeat = ? "
+                + "where task_name = ? "
+                + "and task_instance = ? "
+                + "and version = ?",
+            executions,
+            (e, ps) -> {
+              jdbcCustomization.setInstant(ps, 1, newHeartbeat);
+              ps.setString(2, e.taskInstance.getTaskName());
+              ps.setString(3, e.taskInstance.getId());
+              ps.setLong(4, e.version);
+            });
+
+    final boolean[] result = new boolean[executions.size()];
+    for (int i = 0; i < executions.size(); i++) {
+      final Execution execution = executions.get(i);
+      if (updated[i] == Statement.SUCCESS_NO_INFO) {
+        // some drivers do not report per-statement counts for batches, verify the outcome
+        result[i] =
+            getExecutionState(execution.taskInstance)
+                .filter(current -> current.version == execution.version)
+                .isPresent();
+      } else {
+        result[i] = updated[i] >= 1;
+      }
+    }
+    return result;
+  }
+
   @Override
   public List<Execution> getExecutionsFailingLongerThan(Duration interval) {
     UnresolvedFilter unresolvedFilter = new UnresolvedFilter(taskResolver.getUnresolved());
     return jdbcRunner.query(
-        "select * from "
+        "select "
+            + columnsWithoutTaskData("")
+            + " from "
             + tableName
             + " where "
             + "    ((last_success is null and last_failure is not null)"
@@ -636,14 +1418,87 @@ public class JdbcTaskRepository implements TaskRepository {
         new ExecutionResultSetMapper(false, false));
   }
 
+  @Override
+  public BacklogSample sampleBacklog(Instant now, int maxGroups) {
+    final Map<String, Long> dueByTask =
+        jdbcRunner.query(
+            "select task_name, count(*) from "
+                + tableName
+                + " where picked = ? and execution_time <= ? group by task_name",
+            (PreparedStatement p) -> {
+              p.setBoolean(1, false);
+              jdbcCustomization.setInstant(p, 2, now);
+              p.setMaxRows(maxGroups);
+            },
+            countsByGroup());
+
+    // executions of unresolved tasks are never picked, and would hide the lag of the others
+    final UnresolvedFilter unresolvedFilter = new UnresolvedFilter(taskResolver.getUnresolved());
+    final Instant oldestDue =
+        jdbcRunner.query(
+            "select min(execution_time) from "
+                + tableName
+                + " where picked = ? and execution_time <= ? "
+                + unresolvedFilter.andCondition(),
+            (PreparedStatement p) -> {
+              int index = 1;
+              p.setBoolean(index++, false);
+              jdbcCustomization.setInstant(p, index++, now);
+              unresolvedFilter.setParameters(p, index);
+            },
+            oldestInstant());
+
+    final Map<String, Long> pickedByScheduler =
+        jdbcRunner.query(
+            "select picked_by, count(*) from " + tableName + " where picked = ? group by picked_by",
+            (PreparedStatement p) -> {
+              p.setBoolean(1, true);
+              p.setMaxRows(maxGroups);
+            },
+            countsByGroup());
+
+    return new BacklogSample(now, dueByTask, oldestDue, pickedByScheduler);
+  }
+
+  private static ResultSetMapper<Map<String, Long>> countsByGroup() {
+    return rs -> {
+      final Map<String, Long> counts = new HashMap<>();
+      while (rs.next()) {
+        counts.put(String.valueOf(rs.getString(1)), rs.getLong(2));
+      }
+      return counts;
+    };
+  }
+
+  private ResultSetMapper<Instant> oldestInstant() {
+    return rs -> rs.next() ? jdbcCustomization.getInstant(rs, 1) : null;
+  }
+
   public Optional<Execution> getExecution(TaskInstance taskInstance) {
     return getExecution(taskInstance.getTaskName(), taskInstance.getId());
   }
 
   public Optional<Execution> getExecution(String taskName, String taskInstanceId) {
+    return getExecution(taskName, taskInstanceId, true);
+  }
+
+  /**
+   * Without task-data, for when only the state of the execution is of interest. The data is loaded
+   * if accessed.
+   */
+  private Optional<Execution> getExecutionState(TaskInstance taskInstance) {
+    return getExecution(taskInstance.getTaskName(), taskInstance.getId(), false);
+  }
+
+  private Optional<Execution> getExecution(
+      String taskName, String taskInstanceId, boolean withTaskData) {
     final List<Execution> executions =
         jdbcRunner.query(
-            "select * from " + tableName + " where task_name = ? and task_instance = ?",
+            "select "
+                + (withTaskData ? "*" : columnsWithoutTaskData(""))
+                + " from "
+                + tableName
+                + " where task_name = ? and task_instance = ?",
             (PreparedStatement p) -> {
               p.setString(1, taskName);
               p.setString(2, taskInstanceId);
@@ -679,17 +1534,24 @@ public class JdbcTaskRepository implements TaskRepository {
     }
   }
 
-  private JdbcTaskRepositoryContext getTaskRespositoryContext() {
+  private JdbcTaskRepositoryContext getTaskRespositoryContext(DueFilter dueFilter) {
     return new JdbcTaskRepositoryContext(
         taskResolver,
         tableName,
         schedulerSchedulerName,
         jdbcRunner,
-        () -> new ExecutionResultSetMapper(false, true));
+        () -> new ExecutionResultSetMapper(false, true),
+        ExecutionResultSetConsumer::new,
+        dueFilter,
+        dueOrder,
+        clock);
   }
 
   private QueryBuilder queryForFilter(ScheduledExecutionsFilter filter) {
     final QueryBuilder q = QueryBuilder.selectFromTable(tableName);
+    if (!filter.getIncludeTaskData()) {
+      q.columns(columnsWithoutTaskData(""));
+    }
 
     filter
         .getPickedValue()
@@ -697,8 +1559,6 @@ public class JdbcTaskRepository implements TaskRepository {
             value -> {
               q.andCondition(new PickedCondition(value));
             });
-
-    q.orderBy("execution_time asc");
     return q;
   }
 
@@ -745,9 +1605,10 @@ public class JdbcTaskRepository implements TaskRepository {
 
     @Override
     public Void map(ResultSet rs) throws SQLException {
+      final ExecutionColumns columns = new ExecutionColumns(rs);
 
       while (rs.next()) {
-        String taskName = rs.getString("task_name");
+        String taskName = rs.getString(columns.taskName);
         Optional<Task> task = taskResolver.resolve(taskName, addUnresolvedToExclusionFilter);
 
         if (!task.isPresent() && !includeUnresolved) {
@@ -761,30 +1622,35 @@ public class JdbcTaskRepository implements TaskRepository {
           continue;
         }
 
-        String instanceId = rs.getString("task_instance");
-        byte[] data = jdbcCustomization.getTaskData(rs, "task_data");
+        String instanceId = rs.getString(columns.taskInstance);
+        // not selected by queries not needing it, then loaded on first access
+        byte[] data =
+            columns.hasTaskData() ? jdbcCustomization.getTaskData(rs, columns.taskData) : null;
 
-        Instant executionTime = jdbcCustomization.getInstant(rs, "execution_time");
+        Instant executionTime = jdbcCustomization.getInstant(rs, columns.executionTime);
 
-        boolean picked = rs.getBoolean("picked");
-        final String pickedBy = rs.getString("picked_by");
-        Instant lastSuccess = jdbcCustomization.getInstant(rs, "last_success");
-        Instant lastFailure = jdbcCustomization.getInstant(rs, "last_failure");
-        int consecutiveFailures =
-            rs.getInt("consecutive_failures"); // null-value is returned as 0 which is the preferred
-        // default
-        Instant lastHeartbeat = jdbcCustomization.getInstant(rs, "last_heartbeat");
-        long version = rs.getLong("version");
+        boolean picked = rs.getBoolean(columns.picked);
+        final String pickedBy = rs.getString(columns.pickedBy);
+        Instant lastSuccess = jdbcCustomization.getInstant(rs, columns.lastSuccess);
+        Instant lastFailure = jdbcCustomization.getInstant(rs, columns.lastFailure);
+        // null-value is returned as 0 which is the preferred default
+        int consecutiveFailures = rs.getInt(columns.consecutiveFailures);
+        Instant lastHeartbeat = jdbcCustomization.getInstant(rs, columns.lastHeartbeat);
+        long version = rs.getLong(columns.version);
+        // only present in tables having the priority-column
+        int priority = columns.hasPriority() ? rs.getInt(columns.priority) : 0;
 
         Supplier dataSupplier =
             memoize(
                 () -> {
+                  final byte[] bytes =
+                      columns.hasTaskData() ? data : loadTaskData(taskName, instanceId);
                   if (!task.isPresent()) {
                     // return the data raw if the type is not known
                     //  a case for standalone clients, with no "known tasks"
-                    return data;
+                    return bytes;
                   }
-                  return serializer.deserialize(task.get().getDataClass(), data);
+                  return serializer.deserialize(task.get().getDataClass(), bytes);
                 });
         this.consumer.accept(
             new Execution(
@@ -796,13 +1662,94 @@ public class JdbcTaskRepository implements TaskRepository {
                 lastFailure,
                 consecutiveFailures,
                 lastHeartbeat,
-                version));
+                version,
+                priority));
       }
 
       return null;
     }
   }
 
+  /**
+   * Column-indexes of an execution-result, resolved once per result rather than by name for every
+   * row. Queries may select only a subset of the columns, task_data being optional.
+   */
+  private static class ExecutionColumns {
+    private final int taskName;
+    private final int taskInstance;
+    private final int taskData;
+    private final int executionTime;
+    private final int picked;
+    private final int pickedBy;
+    private final int lastSuccess;
+    private final int lastFailure;
+    private final int consecutiveFailures;
+    private final int lastHeartbeat;
+    private final int version;
+    private final int priority;
+
+    ExecutionColumns(ResultSet rs) throws SQLException {
+      final ResultSetMetaData metaData = rs.getMetaData();
+      final Map<String, Integer> indexes = new HashMap<>();
+      for (int i = metaData.getColumnCount(); i >= 1; i--) {
+        // first occurrence wins, labels are upper-case for some databases
+        indexes.put(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+      }
+      taskName = required(indexes, "task_name");
+      taskInstance = required(indexes, "task_instance");
+      taskData = indexes.getOrDefault("task_data", -1);
+      executionTime = required(indexes, "execution_time");
+      picked = required(indexes, "picked");
+      pickedBy = required(indexes, "picked_by");
+      lastSuccess = required(indexes, "last_success");
+      lastFailure = required(indexes, "last_failure");
+      consecutiveFailures = required(indexes, "consecutive_failures");
+      lastHeartbeat = required(indexes, "last_heartbeat");
+      version = required(indexes, "version");
+      priority = indexes.getOrDefault("priority", -1);
+    }
+
+    boolean hasTaskData() {
+      return taskData > 0;
+    }
+
+    boolean hasPriority() {
+      return priority > 0;
+    }
+
+    private static int required(Map<String, Integer> indexes, String column) throws SQLException {
+      final Integer index = indexes.get(column);
+      if (index == null) {
+        throw new SQLException("Column '" + column + "' not found in result.");
+      }
+      return index;
+    }
+  }
+
+  private byte[] loadTaskData(String taskName, String taskInstanceId) {
+    return jdbcRunner.query(
+        "select task_data from " + tableName + " where task_name = ? and task_instance = ?",
+        (PreparedStatement p) -> {
+          p.setString(1, taskName);
+          p.setString(2, taskInstanceId);
+        },
+        taskDataMapper(taskName, taskInstanceId));
+  }
+
+  private ResultSetMapper<byte[]> taskDataMapper(String taskName, String taskInstanceId) {
+    return rs -> {
+      if (!rs.next()) {
+        throw new TaskInstanceException(
+            "Unable to load data of execution, it no longer exists.", taskName, taskInstanceId);
+      }
+      return jdbcCustomization.getTaskData(rs, 1);
+    };
+  }
+
+  private static String columnsWithoutTaskData(String alias) {
+    return COLUMNS_WITHOUT_TASK_DATA.stream().map(c -> alias + c).collect(joining(", "));
+  }
+
   private static <T> Supplier<T> memoize(Supplier<T> original) {
     return new Supplier<T>() {
       boolean initialized;
@@ -863,6 +1810,97 @@ public class JdbcTaskRepository implements TaskRepository {
     }
   }
 
+  /**
+   * Restricts due executions to resolved tasks, optionally excluding further task-names. Or, when
+   * fetching for a group of known tasks, to only those task-names. Single instances may also be
+   * excluded, e.g. candidates already held by the scheduler.
+   */
+  static class DueFilter implements AndCondition {
+    private final List<String> excluded;
+    private final List<String> included;
+    private final Map<String, List<String>> excludedInstances;
+
+    private DueFilter(List<String> excluded, List<String> included) {
+      this(excluded, included, Collections.emptyMap());
+    }
+
+    private DueFilter(
+        List<String> excluded, List<String> included, Map<String, List<String>> excludedInstances) {
+      this.excluded = excluded;
+      this.included = included;
+      this.excludedInstances = excludedInstances;
+    }
+
+    static DueFilter resolved(List<UnresolvedTask> unresolved) {
+      return excluding(unresolved, Collections.emptySet());
+    }
+
+    static DueFilter excluding(List<UnresolvedTask> unresolved, Set<String> taskNames) {
+      final List<String> excluded =
+          unresolved.stream().map(UnresolvedTask::getTaskName).collect(toList());
+      excluded.addAll(taskNames);
+      return new DueFilter(excluded, Collections.emptyList());
+    }
+
+    static DueFilter only(Set<String> taskNames) {
+      return new DueFilter(Collections.emptyList(), new ArrayList<>(taskNames));
+    }
+
+    /** Instances of task-names not matched by this filter are left out of the query. */
+    DueFilter withoutInstances(Set<TaskInstance<?>> instances) {
+      final Map<String, List<String>> byTask = new LinkedHashMap<>();
+      for (TaskInstance<?> instance : instances) {
+        final String taskName = instance.getTaskName();
+        if (!excluded.contains(taskName) && (included.isEmpty() || included.contains(taskName))) {
+          byTask.computeIfAbsent(taskName, n -> new ArrayList<>()).add(instance.getId());
+        }
+      }
+      return new DueFilter(excluded, included, byTask);
+    }
+
+    public String andCondition() {
+      return excluded.isEmpty() && included.isEmpty() && excludedInstances.isEmpty()
+          ? ""
+          : "and " + getQueryPart();
+    }
+
+    @Override
+    public String getQueryPart() {
+      final List<String> parts = new ArrayList<>();
+      if (!excluded.isEmpty()) {
+        parts.add(
+            "task_name not in (" + excluded.stream().map(n -> "?").collect(joining(",")) + ")");
+      }
+      if (!included.isEmpty()) {
+        parts.add("task_name in (" + included.stream().map(n -> "?").collect(joining(",")) + ")");
+      }
+      excludedInstances.forEach(
+          (taskName, ids) ->
+              parts.add(
+                  "not (task_name = ? and task_instance in ("
+                      + ids.stream().map(id -> "?").collect(joining(","))
+                      + "))"));
+      return String.join(" and ", parts);
+    }
+
+    @Override
+    public int setParameters(PreparedStatement p, int index) throws SQLException {
+      for (String taskName : excluded) {
+        p.setString(index++, taskName);
+      }
+      for (String taskName : included) {
+        p.setString(index++, taskName);
+      }
+      for (Map.Entry<String, List<String>> instances : excludedInstances.entrySet()) {
+        p.setString(index++, instances.getKey());
+        for (String id : instances.getValue()) {
+          p.setString(index++, id);
+        }
+      }
+      return index;
+    }
+  }
+
   private static class PickedCondition implements AndCondition {
     private final boolean value;
 
@@ -900,4 +1938,29 @@ public class JdbcTaskRepository implements TaskRepository {
       return index;
     }
   }
+
+  private class AfterPageTokenCondition implements AndCondition {
+    private final PageToken after;
+
+    public AfterPageTokenCondition(PageToken after) {
+      this.after = after;
+    }
+
+    @Override
+    public String getQueryPart() {
+      // row-value comparison is not supported by all databases
+      return "(execution_time > ? or (execution_time = ? and (task_name > ? "
+          + "or (task_name = ? and task_instance > ?))))";
+    }
+
+    @Override
+    public int setParameters(PreparedStatement p, int index) throws SQLException {
+      jdbcCustomization.setInstant(p, index++, after.executionTime);
+      jdbcCustomization.setInstant(p, index++, after.executionTime);
+      p.setString(index++, after.taskName);
+      p.setString(index++, after.taskName);
+      p.setString(index++, after.taskInstance);
+      return index;
+    }
+  }
 }
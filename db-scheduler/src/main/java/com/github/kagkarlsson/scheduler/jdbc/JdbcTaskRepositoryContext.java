@@ -15,10 +15,13 @@ package com.github.kagkarlsson.scheduler.jdbc;
 
 import com.github.kagkarlsson.jdbc.JdbcRunner;
 import com.github.kagkarlsson.jdbc.ResultSetMapper;
+import com.github.kagkarlsson.scheduler.Clock;
 import com.github.kagkarlsson.scheduler.SchedulerName;
 import com.github.kagkarlsson.scheduler.TaskResolver;
 import com.github.kagkarlsson.scheduler.task.Execution;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 public class JdbcTaskRepositoryContext {
@@ -28,16 +31,42 @@ public class JdbcTaskRepositoryContext {
   public final JdbcRunner jdbcRunner;
   public final Supplier<ResultSetMapper<List<Execution>>> resultSetMapper;
 
+  /**
+   * Maps rows to executions, handing each to the consumer while the result set is still positioned
+   * on its row. For reading additional columns alongside the execution.
+   */
+  public final Function<Consumer<Execution>, ResultSetMapper<Void>> resultSetConsumer;
+
+  /** Restricts due executions to the task-names that may be fetched. */
+  final JdbcTaskRepository.DueFilter dueFilter;
+
+  /** Order in which due executions are fetched. */
+  final DueOrder dueOrder;
+
+  /**
+   * For the time picked. The {@code now} given when fetching may be ahead of the clock when
+   * claiming executions before they are due.
+   */
+  final Clock clock;
+
   JdbcTaskRepositoryContext(
       TaskResolver taskResolver,
       String tableName,
       SchedulerName schedulerName,
       JdbcRunner jdbcRunner,
-      Supplier<ResultSetMapper<List<Execution>>> resultSetMapper) {
+      Supplier<ResultSetMapper<List<Execution>>> resultSetMapper,
+      Function<Consumer<Execution>, ResultSetMapper<Void>> resultSetConsumer,
+      JdbcTaskRepository.DueFilter dueFilter,
+      DueOrder dueOrder,
+      Clock clock) {
     this.taskResolver = taskResolver;
     this.tableName = tableName;
     this.schedulerName = schedulerName;
     this.jdbcRunner = jdbcRunner;
     this.resultSetMapper = resultSetMapper;
+    this.resultSetConsumer = resultSetConsumer;
+    this.dueFilter = dueFilter;
+    this.dueOrder = dueOrder;
+    this.clock = clock;
   }
 }
@@ -13,16 +13,53 @@
  */
 package com.github.kagkarlsson.scheduler.jdbc;
 
-import static com.github.kagkarlsson.scheduler.jdbc.Queries.selectForUpdate;
+import static com.github.kagkarlsson.scheduler.jdbc.Queries.selectForUpdateLimitFirst;
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class MariaDBJdbcCustomization extends DefaultJdbcCustomization {
   private static final Logger LOG = LoggerFactory.getLogger(MariaDBJdbcCustomization.class);
+  private static final Pattern VERSION = Pattern.compile("^(\\d+)\\.(\\d+)");
+
+  private final boolean supportsSkipLocked;
+  private final boolean useAffectedRows;
 
   public MariaDBJdbcCustomization(boolean persistTimestampInUTC) {
+    this(persistTimestampInUTC, false);
+  }
+
+  /**
+   * @param supportsSkipLocked {@code SELECT .. FOR UPDATE SKIP LOCKED} is supported from MariaDB
+   *     10.6, enables polling-strategy lock-and-fetch
+   */
+  public MariaDBJdbcCustomization(boolean persistTimestampInUTC, boolean supportsSkipLocked) {
+    this(persistTimestampInUTC, supportsSkipLocked, false);
+  }
+
+  /**
+   * @param useAffectedRows the driver reports affected rather than found rows, enables
+   *     single-statement insert-if-not-exists
+   */
+  public MariaDBJdbcCustomization(
+      boolean persistTimestampInUTC, boolean supportsSkipLocked, boolean useAffectedRows) {
     super(persistTimestampInUTC);
+    this.supportsSkipLocked = supportsSkipLocked;
+    this.useAffectedRows = useAffectedRows;
+  }
+
+  /** Whether the version, as reported by {@code getDatabaseProductVersion()}, is 10.6 or later. */
+  public static boolean supportsSkipLocked(String databaseProductVersion) {
+    // MySQL-drivers report e.g. '5.5.5-10.6.12-MariaDB', for compatibility with old MySQL-clients
+    final Matcher version = VERSION.matcher(databaseProductVersion.replaceFirst("^5\\.5\\.5-", ""));
+    if (!version.find()) {
+      return false;
+    }
+    final int major = Integer.parseInt(version.group(1));
+    final int minor = Integer.parseInt(version.group(2));
+    return major > 10 || (major == 10 && minor >= 6);
   }
 
   @Override
@@ -37,18 +74,40 @@ public class MariaDBJdbcCustomization extends DefaultJdbcCustomization {
 
   @Override
   public boolean supportsGenericLockAndFetch() {
-    // FIXLATER: fix syntax and enable it for versions of MariaDB that supports it
-    return false;
+    return supportsSkipLocked;
   }
 
   @Override
   public String createGenericSelectForUpdateQuery(
       String tableName, int limit, String requiredAndCondition) {
-    return selectForUpdate(
+    return createGenericSelectForUpdateQuery(
+        tableName, limit, requiredAndCondition, Queries.ORDER_BY_EXECUTION_TIME);
+  }
+
+  @Override
+  public String createGenericSelectForUpdateQuery(
+      String tableName, int limit, String requiredAndCondition, String orderBy) {
+    return selectForUpdateLimitFirst(
         tableName,
         Queries.postgresSqlLimitPart(limit),
         requiredAndCondition,
-        " FOR UPDATE SKIP LOCKED ",
-        null);
+        orderBy,
+        " FOR UPDATE SKIP LOCKED ");
+  }
+
+  @Override
+  public boolean supportsSingleStatementInsertIfNotExists() {
+    // with found rows, an existing row is counted as updated and cannot be told from an insert
+    return useAffectedRows;
+  }
+
+  @Override
+  public String createInsertIfNotExistsQuery(String tableName) {
+    return Queries.insertOnDuplicateKeyKeepExisting(tableName);
+  }
+
+  @Override
+  public String createInsertIfNotExistsQuery(String tableName, boolean withPriority) {
+    return Queries.insertOnDuplicateKeyKeepExisting(tableName, withPriority);
   }
 }
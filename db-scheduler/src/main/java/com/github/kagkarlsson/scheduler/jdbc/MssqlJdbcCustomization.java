@@ -13,8 +13,16 @@
  */
 package com.github.kagkarlsson.scheduler.jdbc;
 
+import static com.github.kagkarlsson.scheduler.StringUtils.truncate;
+import static com.github.kagkarlsson.scheduler.jdbc.Queries.executionKeyValues;
+import static com.github.kagkarlsson.scheduler.jdbc.Queries.matchReturnedKeys;
 import static com.github.kagkarlsson.scheduler.jdbc.Queries.selectForUpdate;
+import static com.github.kagkarlsson.scheduler.jdbc.Queries.setExecutionKeyValues;
 
+import com.github.kagkarlsson.scheduler.task.Execution;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,30 +50,138 @@ public class MssqlJdbcCustomization extends DefaultJdbcCustomization {
 
   @Override
   public boolean supportsGenericLockAndFetch() {
-    // Currently supported, but not recommended because of deadlock issues
+    // Currently supported, but not recommended because of deadlock issues. Single-statement
+    // lock-and-fetch is used when available.
     return true;
   }
 
+  @Override
+  public boolean supportsSingleStatementLockAndFetch() {
+    return true;
+  }
+
+  @Override
+  public List<Execution> lockAndFetchSingleStatement(
+      JdbcTaskRepositoryContext ctx, Instant now, int limit) {
+    final JdbcTaskRepository.DueFilter dueFilter = ctx.dueFilter;
+    final DueOrder dueOrder = ctx.dueOrder;
+    final Instant timePicked = ctx.clock.now();
+
+    // Updatable CTE since UPDATE TOP(n) does not support ORDER BY. READPAST skips rows locked by
+    // other schedulers, and UPDLOCK avoids the shared-to-update lock conversions that deadlock.
+    String selectForUpdateQuery =
+        "WITH due AS ("
+            + " SELECT TOP ("
+            + limit
+            + ") * FROM "
+            + ctx.tableName
+            + " WITH (READPAST, UPDLOCK, ROWLOCK) "
+            + " WHERE picked = ? AND execution_time <= ? "
+            + dueFilter.andCondition()
+            + " ORDER BY "
+            + dueOrder.orderBy()
+            + ")"
+            + " UPDATE due SET picked = ?, picked_by = ?, last_heartbeat = ?, version = version + 1 "
+            + " OUTPUT inserted.*";
+
+    return ctx.jdbcRunner.query(
+        selectForUpdateQuery,
+        ps -> {
+          int index = 1;
+          // CTE
+          ps.setBoolean(index++, false); // picked (old)
+          setInstant(ps, index++, now); // execution_time
+          index = dueFilter.setParameters(ps, index);
+          index = dueOrder.setParameters(ps, index, now, this);
+          // Update
+          ps.setBoolean(index++, true); // picked (new)
+          ps.setString(index++, truncate(ctx.schedulerName.getName(), 50)); // picked_by
+          setInstant(ps, index++, timePicked); // last_heartbeat
+        },
+        ctx.resultSetMapper.get());
+  }
+
   @Override
   public String createSelectDueQuery(String tableName, int limit, String andCondition) {
+    return createSelectDueQuery(tableName, limit, andCondition, Queries.ORDER_BY_EXECUTION_TIME);
+  }
+
+  @Override
+  public String createSelectDueQuery(
+      String tableName, int limit, String andCondition, String orderBy) {
     return "SELECT "
         + " * FROM "
         + tableName
         // try reading past locked rows to see if that helps on deadlock-warnings
         + " WITH (READPAST) WHERE picked = ? AND execution_time <= ? "
         + andCondition
-        + " ORDER BY execution_time ASC "
+        + " ORDER BY "
+        + orderBy
+        + " "
         + getQueryLimitPart(limit);
   }
 
   @Override
   public String createGenericSelectForUpdateQuery(
       String tableName, int limit, String requiredAndCondition) {
+    return createGenericSelectForUpdateQuery(
+        tableName, limit, requiredAndCondition, Queries.ORDER_BY_EXECUTION_TIME);
+  }
+
+  @Override
+  public String createGenericSelectForUpdateQuery(
+      String tableName, int limit, String requiredAndCondition, String orderBy) {
     return selectForUpdate(
         tableName,
         Queries.ansiSqlLimitPart(limit),
         requiredAndCondition,
+        orderBy,
         null,
         " WITH (READPAST,ROWLOCK) ");
   }
+
+  @Override
+  public boolean supportsSingleStatementHeartbeats() {
+    return true;
+  }
+
+  @Override
+  public boolean[] updateHeartbeatsSingleStatement(
+      JdbcTaskRepositoryContext ctx, List<Execution> executions, Instant newHeartbeat) {
+    final String updateHeartbeatsQuery =
+        "UPDATE st SET last_heartbeat = ? "
+            + " OUTPUT inserted.task_name, inserted.task_instance "
+            + " FROM "
+            + ctx.tableName
+            + " st INNER JOIN "
+            + executionKeyValues(executions.size(), "?")
+            + " ON st.task_name = hb.task_name AND st.task_instance = hb.task_instance "
+            + " AND st.version = hb.version";
+
+    final Set<List<String>> updated =
+        ctx.jdbcRunner.query(
+            updateHeartbeatsQuery,
+            ps -> {
+              setInstant(ps, 1, newHeartbeat);
+              setExecutionKeyValues(ps, 2, executions);
+            },
+            Queries.returnedKeys());
+    return matchReturnedKeys(executions, updated);
+  }
+
+  @Override
+  public boolean supportsSingleStatementInsertIfNotExists() {
+    return true;
+  }
+
+  @Override
+  public String createInsertIfNotExistsQuery(String tableName) {
+    return createInsertIfNotExistsQuery(tableName, false);
+  }
+
+  @Override
+  public String createInsertIfNotExistsQuery(String tableName, boolean withPriority) {
+    // statement-terminator is mandatory for MERGE
+    return Queries.mergeInsertIfNotExists(tableName, "", "WITH (HOLDLOCK)", withPriority) + ";";
+  }
 }
@@ -13,7 +13,7 @@
  */
 package com.github.kagkarlsson.scheduler.jdbc;
 
-import static com.github.kagkarlsson.scheduler.jdbc.Queries.selectForUpdate;
+import static com.github.kagkarlsson.scheduler.jdbc.Queries.selectForUpdateLimitFirst;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,8 +21,19 @@ import org.slf4j.LoggerFactory;
 public class MySQL8JdbcCustomization extends DefaultJdbcCustomization {
   private static final Logger LOG = LoggerFactory.getLogger(MySQL8JdbcCustomization.class);
 
+  private final boolean useAffectedRows;
+
   public MySQL8JdbcCustomization(boolean persistTimestampInUTC) {
+    this(persistTimestampInUTC, false);
+  }
+
+  /**
+   * @param useAffectedRows the driver reports affected rather than found rows, enables
+   *     single-statement insert-if-not-exists
+   */
+  public MySQL8JdbcCustomization(boolean persistTimestampInUTC, boolean useAffectedRows) {
     super(persistTimestampInUTC);
+    this.useAffectedRows = useAffectedRows;
   }
 
   @Override
@@ -37,18 +48,41 @@ public class MySQL8JdbcCustomization extends DefaultJdbcCustomization {
 
   @Override
   public boolean supportsGenericLockAndFetch() {
-    // FIXLATER: fix syntax and enable
-    return false;
+    // SKIP LOCKED is supported from 8.0.1
+    return true;
   }
 
   @Override
   public String createGenericSelectForUpdateQuery(
       String tableName, int limit, String requiredAndCondition) {
-    return selectForUpdate(
+    return createGenericSelectForUpdateQuery(
+        tableName, limit, requiredAndCondition, Queries.ORDER_BY_EXECUTION_TIME);
+  }
+
+  @Override
+  public String createGenericSelectForUpdateQuery(
+      String tableName, int limit, String requiredAndCondition, String orderBy) {
+    return selectForUpdateLimitFirst(
         tableName,
         Queries.postgresSqlLimitPart(limit),
         requiredAndCondition,
-        " FOR UPDATE SKIP LOCKED ",
-        null);
+        orderBy,
+        " FOR UPDATE SKIP LOCKED ");
+  }
+
+  @Override
+  public boolean supportsSingleStatementInsertIfNotExists() {
+    // with found rows, an existing row is counted as updated and cannot be told from an insert
+    return useAffectedRows;
+  }
+
+  @Override
+  public String createInsertIfNotExistsQuery(String tableName) {
+    return Queries.insertOnDuplicateKeyKeepExisting(tableName);
+  }
+
+  @Override
+  public String createInsertIfNotExistsQuery(String tableName, boolean withPriority) {
+    return Queries.insertOnDuplicateKeyKeepExisting(tableName, withPriority);
   }
 }
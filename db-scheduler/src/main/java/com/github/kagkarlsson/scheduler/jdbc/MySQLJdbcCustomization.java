@@ -19,8 +19,19 @@ import org.slf4j.LoggerFactory;
 public class MySQLJdbcCustomization extends DefaultJdbcCustomization {
   private static final Logger LOG = LoggerFactory.getLogger(MySQLJdbcCustomization.class);
 
+  private final boolean useAffectedRows;
+
   public MySQLJdbcCustomization(boolean persistTimestampInUTC) {
+    this(persistTimestampInUTC, false);
+  }
+
+  /**
+   * @param useAffectedRows the driver reports affected rather than found rows, enables
+   *     single-statement insert-if-not-exists
+   */
+  public MySQLJdbcCustomization(boolean persistTimestampInUTC, boolean useAffectedRows) {
     super(persistTimestampInUTC);
+    this.useAffectedRows = useAffectedRows;
   }
 
   @Override
@@ -32,4 +43,20 @@ public class MySQLJdbcCustomization extends DefaultJdbcCustomization {
   public String getQueryLimitPart(int limit) {
     return Queries.postgresSqlLimitPart(limit);
   }
+
+  @Override
+  public boolean supportsSingleStatementInsertIfNotExists() {
+    // with found rows, an existing row is counted as updated and cannot be told from an insert
+    return useAffectedRows;
+  }
+
+  @Override
+  public String createInsertIfNotExistsQuery(String tableName) {
+    return Queries.insertOnDuplicateKeyKeepExisting(tableName);
+  }
+
+  @Override
+  public String createInsertIfNotExistsQuery(String tableName, boolean withPriority) {
+    return Queries.insertOnDuplicateKeyKeepExisting(tableName, withPriority);
+  }
 }
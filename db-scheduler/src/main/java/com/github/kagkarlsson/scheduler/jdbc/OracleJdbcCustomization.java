@@ -13,9 +13,24 @@
  */
 package com.github.kagkarlsson.scheduler.jdbc;
 
+import static com.github.kagkarlsson.scheduler.StringUtils.truncate;
 import static com.github.kagkarlsson.scheduler.jdbc.Queries.selectForUpdate;
 
+import com.github.kagkarlsson.jdbc.ResultSetMapper;
+import com.github.kagkarlsson.jdbc.SQLRuntimeException;
+import com.github.kagkarlsson.scheduler.task.Execution;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 public class OracleJdbcCustomization extends DefaultJdbcCustomization {
+  private static final Logger LOG = LoggerFactory.getLogger(OracleJdbcCustomization.class);
 
   public OracleJdbcCustomization(boolean persistTimestampInUTC) {
     super(persistTimestampInUTC);
@@ -35,11 +50,130 @@ public class OracleJdbcCustomization extends DefaultJdbcCustomization {
   @Override
   public String createGenericSelectForUpdateQuery(
       String tableName, int limit, String requiredAndCondition) {
+    return createGenericSelectForUpdateQuery(
+        tableName, limit, requiredAndCondition, Queries.ORDER_BY_EXECUTION_TIME);
+  }
+
+  @Override
+  public String createGenericSelectForUpdateQuery(
+      String tableName, int limit, String requiredAndCondition, String orderBy) {
     return selectForUpdate(
         tableName,
         Queries.ansiSqlLimitPart(limit),
         requiredAndCondition,
+        orderBy,
         " FOR UPDATE SKIP LOCKED ",
         null);
   }
+
+  @Override
+  public boolean supportsSingleStatementLockAndFetch() {
+    return true;
+  }
+
+  /**
+   * Oracle does not allow {@code FETCH FIRST n ROWS} together with {@code FOR UPDATE}. Instead, a
+   * cursor over all due executions is opened with {@code SKIP LOCKED} and only the first {@code
+   * limit} rows are fetched, which are the only rows locked. These are then updated by ROWID in a
+   * single batch, i.e. one round-trip using array binding.
+   */
+  @Override
+  public List<Execution> lockAndFetchSingleStatement(
+      JdbcTaskRepositoryContext ctx, Instant now, int limit) {
+    final JdbcTaskRepository.DueFilter dueFilter = ctx.dueFilter;
+    final DueOrder dueOrder = ctx.dueOrder;
+
+    final String selectForUpdateQuery =
+        "SELECT st.ROWID AS row_id, st.* FROM "
+            + ctx.tableName
+            + " st WHERE picked = ? AND execution_time <= ? "
+            + dueFilter.andCondition()
+            + " ORDER BY "
+            + dueOrder.orderBy()
+            + " FOR UPDATE SKIP LOCKED";
+
+    return ctx.jdbcRunner.inTransaction(
+        txRunner -> {
+          final Map<String, Execution> lockedByRowId =
+              txRunner.query(
+                  selectForUpdateQuery,
+                  (PreparedStatement ps) -> {
+                    int index = 1;
+                    ps.setBoolean(index++, false);
+                    setInstant(ps, index++, now);
+                    index = dueFilter.setParameters(ps, index);
+                    dueOrder.setParameters(ps, index, now, this);
+                    ps.setMaxRows(limit);
+                    ps.setFetchSize(limit);
+                  },
+                  lockedByRowId(ctx));
+
+          if (lockedByRowId.isEmpty()) {
+            return new ArrayList<>();
+          }
+
+          final String pickedBy = truncate(ctx.schedulerName.getName(), 50);
+          final Instant timePicked = ctx.clock.now();
+          final List<String> rowIds = new ArrayList<>(lockedByRowId.keySet());
+          final int[] updated =
+              txRunner.executeBatch(
+                  "UPDATE "
+                      + ctx.tableName
+                      + " SET picked = ?, picked_by = ?, last_heartbeat = ?, version = version + 1 "
+                      + " WHERE ROWID = ?",
+                  rowIds,
+                  (rowId, ps) -> {
+                    ps.setBoolean(1, true);
+                    ps.setString(2, pickedBy);
+                    setInstant(ps, 3, timePicked);
+                    ps.setString(4, rowId);
+                  });
+
+          // rows are locked, so all should be updated. the driver may not report counts per row
+          final List<Execution> picked = new ArrayList<>();
+          for (int i = 0; i < rowIds.size(); i++) {
+            if (updated[i] == 0) {
+              LOG.warn(
+                  "Locked execution was not updated when picking: {}",
+                  lockedByRowId.get(rowIds.get(i)));
+              continue;
+            }
+            picked.add(lockedByRowId.get(rowIds.get(i)).updateToPicked(pickedBy, timePicked));
+          }
+          return picked;
+        });
+  }
+
+  private static ResultSetMapper<Map<String, Execution>> lockedByRowId(
+      JdbcTaskRepositoryContext ctx) {
+    return rs -> {
+      final Map<String, Execution> locked = new LinkedHashMap<>();
+      ctx.resultSetConsumer
+          .apply(
+              execution -> {
+                try {
+                  locked.put(rs.getString("row_id"), execution);
+                } catch (SQLException e) {
+                  throw new SQLRuntimeException(e);
+                }
+              })
+          .map(rs);
+      return locked;
+    };
+  }
+
+  @Override
+  public boolean supportsSingleStatementInsertIfNotExists() {
+    return true;
+  }
+
+  @Override
+  public String createInsertIfNotExistsQuery(String tableName) {
+    return createInsertIfNotExistsQuery(tableName, false);
+  }
+
+  @Override
+  public String createInsertIfNotExistsQuery(String tableName, boolean withPriority) {
+    return Queries.mergeInsertIfNotExists(tableName, "FROM dual", "", withPriority);
+  }
 }
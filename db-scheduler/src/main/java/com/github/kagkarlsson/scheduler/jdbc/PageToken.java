@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler.jdbc;
+
+import com.github.kagkarlsson.scheduler.task.Execution;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Base64;
+
+/** Opaque key of the last execution of a page, i.e. (execution_time, task_name, task_instance). */
+final class PageToken {
+  private static final byte VERSION = 1;
+
+  final Instant executionTime;
+  final String taskName;
+  final String taskInstance;
+
+  private PageToken(Instant executionTime, String taskName, String taskInstance) {
+    this.executionTime = executionTime;
+    this.taskName = taskName;
+    this.taskInstance = taskInstance;
+  }
+
+  static PageToken after(Execution last) {
+    return new PageToken(
+        last.executionTime, last.taskInstance.getTaskName(), last.taskInstance.getId());
+  }
+
+  String encode() {
+    try {
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      final DataOutputStream out = new DataOutputStream(bytes);
+      out.writeByte(VERSION);
+      out.writeLong(executionTime.getEpochSecond());
+      out.writeInt(executionTime.getNano());
+      out.writeUTF(taskName);
+      out.writeUTF(taskInstance);
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  static PageToken decode(String token) {
+    try {
+      final DataInputStream in =
+          new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)));
+      if (in.readByte() != VERSION) {
+        throw new IllegalArgumentException("Unsupported page token: " + token);
+      }
+      final Instant executionTime = Instant.ofEpochSecond(in.readLong(), in.readInt());
+      return new PageToken(executionTime, in.readUTF(), in.readUTF());
+    } catch (IOException | IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid page token: " + token, e);
+    }
+  }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler.jdbc;
+
+import com.github.kagkarlsson.jdbc.SQLRuntimeException;
+import com.github.kagkarlsson.scheduler.Clock;
+import com.github.kagkarlsson.scheduler.SystemClock;
+import com.github.kagkarlsson.scheduler.serializer.Serializer;
+import com.github.kagkarlsson.scheduler.task.SchedulableInstance;
+import com.github.kagkarlsson.scheduler.task.TaskInstance;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bulk-import of new executions for PostgreSQL, using <code>COPY .. FROM STDIN (FORMAT binary)
+ * </code>. Rows are streamed to a temporary table, serializing task-data on the fly, and then
+ * inserted using <code>INSERT .. ON CONFLICT DO NOTHING</code>, so executions that already exist
+ * are left untouched.
+ *
+ * <p>Column types must be those of the bundled table definition, i.e. <code>text</code>, <code>
+ * bytea</code>, <code>timestamp with time zone</code>, <code>boolean</code> and <code>bigint</code>
+ * .
+ *
+ * <p>Schedulers are not notified, executions loaded are picked up on the next poll.
+ */
+public class PostgreSqlBulkLoader {
+  private static final Logger LOG = LoggerFactory.getLogger(PostgreSqlBulkLoader.class);
+  private static final String TEMP_TABLE_NAME = "db_scheduler_bulk_load";
+  private static final String COLUMNS =
+      "(task_name, task_instance, task_data, execution_time, picked, version)";
+  private static final byte[] COPY_SIGNATURE =
+      "PGCOPY\n\377\r\n\0".getBytes(StandardCharsets.ISO_8859_1);
+  private static final long POSTGRES_EPOCH_MICROS =
+      Instant.parse("2000-01-01T00:00:00Z").getEpochSecond() * 1_000_000L;
+  private static final int FLUSH_THRESHOLD_BYTES = 64 * 1024;
+
+  private final DataSource dataSource;
+  private final String tableName;
+  private final Serializer serializer;
+  private final Clock clock;
+
+  public PostgreSqlBulkLoader(DataSource dataSource) {
+    this(dataSource, JdbcTaskRepository.DEFAULT_TABLE_NAME, Serializer.DEFAULT_JAVA_SERIALIZER);
+  }
+
+  public PostgreSqlBulkLoader(DataSource dataSource, String tableName, Serializer serializer) {
+    this(dataSource, tableName, serializer, new SystemClock());
+  }
+
+  PostgreSqlBulkLoader(
+      DataSource dataSource, String tableName, Serializer serializer, Clock clock) {
+    this.dataSource = dataSource;
+    this.tableName = tableName;
+    this.serializer = serializer;
+    this.clock = clock;
+  }
+
+  /**
+   * @return number of executions created
+   */
+  public long load(Stream<? extends SchedulableInstance<?>> instances) {
+    try (instances) {
+      return load(instances.iterator());
+    }
+  }
+
+  /**
+   * Load all instances in one transaction.
+   *
+   * @return number of executions created
+   */
+  public long load(Iterator<? extends SchedulableInstance<?>> instances) {
+    try (Connection c = dataSource.getConnection()) {
+      final boolean autoCommit = c.getAutoCommit();
+      c.setAutoCommit(false);
+      try {
+        final long created = load(c, instances);
+        c.commit();
+        return created;
+      } catch (SQLException | IOException | RuntimeException e) {
+        c.rollback();
+        throw e;
+      } finally {
+        c.setAutoCommit(autoCommit);
+      }
+    } catch (SQLException e) {
+      throw new SQLRuntimeException("Failed to bulk-load executions.", e);
+    } catch (IOException e) {
+      // only writing to an in-memory buffer
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private long load(Connection c, Iterator<? extends SchedulableInstance<?>> instances)
+      throws SQLException, IOException {
+    try (Statement s = c.createStatement()) {
+      s.execute(
+          "CREATE TEMPORARY TABLE "
+              + TEMP_TABLE_NAME
+              + " (LIKE "
+              + tableName
+              + " INCLUDING DEFAULTS) ON COMMIT DROP");
+    }
+
+    final CopyIn copyIn =
+        c.unwrap(PGConnection.class)
+            .getCopyAPI()
+            .copyIn("COPY " + TEMP_TABLE_NAME + COLUMNS + " FROM STDIN (FORMAT binary)");
+    final long copied;
+    try {
+      copied = copy(copyIn, instances);
+    } finally {
+      if (copyIn.isActive()) {
+        copyIn.cancelCopy();
+      }
+    }
+
+    try (Statement s = c.createStatement()) {
+      final long created =
+          s.executeUpdate(
+              "INSERT INTO "
+                  + tableName
+                  + COLUMNS
+                  + " SELECT "
+                  + COLUMNS.substring(1, COLUMNS.length() - 1)
+                  + " FROM "
+                  + TEMP_TABLE_NAME
+                  + " ON CONFLICT DO NOTHING");
+      LOG.debug("Bulk-loaded {} executions, {} already existed.", created, copied - created);
+      return created;
+    }
+  }
+
+  private long copy(CopyIn copyIn, Iterator<? extends SchedulableInstance<?>> instances)
+      throws SQLException, IOException {
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream(FLUSH_THRESHOLD_BYTES * 2);
+    final DataOutputStream out = new DataOutputStream(buffer);
+    out.write(COPY_SIGNATURE);
+    out.writeInt(0); // flags
+    out.writeInt(0); // header extension length
+
+    final Instant now = clock.now();
+    long rows = 0;
+    while (instances.hasNext()) {
+      final SchedulableInstance<?> instance = instances.next();
+      final TaskInstance<?> taskInstance = instance.getTaskInstance();
+      out.writeShort(6);
+      writeBytes(out, taskInstance.getTaskName().getBytes(StandardCharsets.UTF_8));
+      writeBytes(out, taskInstance.getId().getBytes(StandardCharsets.UTF_8));
+      writeBytes(out, serializer.serialize(taskInstance.getData()));
+      out.writeInt(8);
+      out.writeLong(toPostgresMicros(instance.getNextExecutionTime(now)));
+      out.writeInt(1);
+      out.writeBoolean(false); // picked
+      out.writeInt(8);
+      out.writeLong(1L); // version
+      rows++;
+
+      if (buffer.size() >= FLUSH_THRESHOLD_BYTES) {
+        copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+        buffer.reset();
+      }
+    }
+    out.writeShort(-1); // trailer
+    copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+    return copyIn.endCopy();
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+    } else {
+      out.writeInt(value.length);
+      out.write(value);
+    }
+  }
+
+  static long toPostgresMicros(Instant instant) {
+    return instant.getEpochSecond() * 1_000_000L
+        + instant.getNano() / 1_000
+        - POSTGRES_EPOCH_MICROS;
+  }
+}
@@ -14,11 +14,15 @@
 package com.github.kagkarlsson.scheduler.jdbc;
 
 import static com.github.kagkarlsson.scheduler.StringUtils.truncate;
+import static com.github.kagkarlsson.scheduler.jdbc.Queries.executionKeyValues;
+import static com.github.kagkarlsson.scheduler.jdbc.Queries.matchReturnedKeys;
 import static com.github.kagkarlsson.scheduler.jdbc.Queries.selectForUpdate;
+import static com.github.kagkarlsson.scheduler.jdbc.Queries.setExecutionKeyValues;
 
 import com.github.kagkarlsson.scheduler.task.Execution;
 import java.time.Instant;
 import java.util.List;
+import java.util.Set;
 
 public class PostgreSqlJdbcCustomization extends DefaultJdbcCustomization {
   private final boolean useGenericLockAndFetch;
@@ -52,10 +56,18 @@ public class PostgreSqlJdbcCustomization extends DefaultJdbcCustomization {
   @Override
   public String createGenericSelectForUpdateQuery(
       String tableName, int limit, String requiredAndCondition) {
+    return createGenericSelectForUpdateQuery(
+        tableName, limit, requiredAndCondition, Queries.ORDER_BY_EXECUTION_TIME);
+  }
+
+  @Override
+  public String createGenericSelectForUpdateQuery(
+      String tableName, int limit, String requiredAndCondition, String orderBy) {
     return selectForUpdate(
         tableName,
         getQueryLimitPart(limit),
         requiredAndCondition,
+        orderBy,
         " FOR UPDATE SKIP LOCKED ",
         null);
   }
@@ -63,8 +75,9 @@ public class PostgreSqlJdbcCustomization extends DefaultJdbcCustomization {
   @Override
   public List<Execution> lockAndFetchSingleStatement(
       JdbcTaskRepositoryContext ctx, Instant now, int limit) {
-    final JdbcTaskRepository.UnresolvedFilter unresolvedFilter =
-        new JdbcTaskRepository.UnresolvedFilter(ctx.taskResolver.getUnresolved());
+    final JdbcTaskRepository.DueFilter dueFilter = ctx.dueFilter;
+    final DueOrder dueOrder = ctx.dueOrder;
+    final Instant timePicked = ctx.clock.now();
 
     String selectForUpdateQuery =
         " UPDATE "
@@ -75,8 +88,10 @@ public class PostgreSqlJdbcCustomization extends DefaultJdbcCustomization {
             + ctx.tableName
             + " st2 "
             + " WHERE picked = ? and execution_time <= ? "
-            + unresolvedFilter.andCondition()
-            + " ORDER BY execution_time ASC FOR UPDATE SKIP LOCKED "
+            + dueFilter.andCondition()
+            + " ORDER BY "
+            + dueOrder.orderBy()
+            + " FOR UPDATE SKIP LOCKED "
             + getQueryLimitPart(limit)
             + ")"
             + " RETURNING st1.*";
@@ -88,12 +103,61 @@ public class PostgreSqlJdbcCustomization extends DefaultJdbcCustomization {
           // Update
           ps.setBoolean(index++, true); // picked (new)
           ps.setString(index++, truncate(ctx.schedulerName.getName(), 50)); // picked_by
-          setInstant(ps, index++, now); // last_heartbeat
+          setInstant(ps, index++, timePicked); // last_heartbeat
           // Inner select
           ps.setBoolean(index++, false); // picked (old)
           setInstant(ps, index++, now); // execution_time
-          index = unresolvedFilter.setParameters(ps, index);
+          index = dueFilter.setParameters(ps, index);
+          index = dueOrder.setParameters(ps, index, now, this);
         },
         ctx.resultSetMapper.get());
   }
+
+  @Override
+  public boolean supportsSingleStatementHeartbeats() {
+    return true;
+  }
+
+  @Override
+  public boolean[] updateHeartbeatsSingleStatement(
+      JdbcTaskRepositoryContext ctx, List<Execution> executions, Instant newHeartbeat) {
+    final String updateHeartbeatsQuery =
+        " UPDATE "
+            + ctx.tableName
+            + " st SET last_heartbeat = ? FROM "
+            + executionKeyValues(executions.size(), "CAST(? AS BIGINT)")
+            + " WHERE st.task_name = hb.task_name AND st.task_instance = hb.task_instance "
+            + " AND st.version = hb.version "
+            + " RETURNING st.task_name, st.task_instance";
+
+    final Set<List<String>> updated =
+        ctx.jdbcRunner.query(
+            updateHeartbeatsQuery,
+            ps -> {
+              setInstant(ps, 1, newHeartbeat);
+              setExecutionKeyValues(ps, 2, executions);
+            },
+            Queries.returnedKeys());
+    return matchReturnedKeys(executions, updated);
+  }
+
+  @Override
+  public boolean supportsSingleStatementInsertIfNotExists() {
+    return true;
+  }
+
+  @Override
+  public String createInsertIfNotExistsQuery(String tableName) {
+    return createInsertIfNotExistsQuery(tableName, false);
+  }
+
+  @Override
+  public String createInsertIfNotExistsQuery(String tableName, boolean withPriority) {
+    return "INSERT INTO "
+        + tableName
+        + Queries.insertColumns(withPriority)
+        + " VALUES "
+        + Queries.insertValues(withPriority)
+        + " ON CONFLICT DO NOTHING";
+  }
 }
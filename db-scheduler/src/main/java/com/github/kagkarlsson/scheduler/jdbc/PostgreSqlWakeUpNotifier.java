@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler.jdbc;
+
+import com.github.kagkarlsson.jdbc.JdbcRunner;
+import com.github.kagkarlsson.jdbc.ResultSetMapper;
+import com.github.kagkarlsson.scheduler.WakeUpNotifier;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link WakeUpNotifier} using PostgreSQL <code>LISTEN/NOTIFY</code>. Hints are received on a
+ * dedicated connection, held for as long as the notifier is subscribed. The payload is the
+ * execution-time in epoch-millis.
+ */
+public class PostgreSqlWakeUpNotifier implements WakeUpNotifier {
+  public static final String DEFAULT_CHANNEL = "db_scheduler_due";
+  private static final Logger LOG = LoggerFactory.getLogger(PostgreSqlWakeUpNotifier.class);
+  private static final int RECEIVE_TIMEOUT_MILLIS = 1_000;
+  private static final Duration RECONNECT_DELAY = Duration.ofSeconds(5);
+
+  private final DataSource dataSource;
+  private final String channel;
+  private final JdbcRunner jdbcRunner;
+  private final List<Consumer<Instant>> subscribers = new CopyOnWriteArrayList<>();
+  private volatile Thread listenerThread;
+
+  public PostgreSqlWakeUpNotifier(DataSource dataSource) {
+    this(dataSource, DEFAULT_CHANNEL, false);
+  }
+
+  public PostgreSqlWakeUpNotifier(
+      DataSource dataSource, String channel, boolean commitWhenAutocommitDisabled) {
+    if (!channel.matches("[a-z_][a-z0-9_]*")) {
+      throw new IllegalArgumentException(
+          "Channel must be a lower-case unquoted PostgreSQL identifier: " + channel);
+    }
+    this.dataSource = dataSource;
+    this.channel = channel;
+    this.jdbcRunner = new JdbcRunner(dataSource, commitWhenAutocommitDisabled);
+  }
+
+  @Override
+  public void notifyDue(Instant executionTime) {
+    // pg_notify returns void, so the statement must be run as a query
+    jdbcRunner.query(
+        "select pg_notify(?, ?)",
+        ps -> {
+          ps.setString(1, channel);
+          ps.setString(2, String.valueOf(executionTime.toEpochMilli()));
+        },
+        (ResultSetMapper<Void>) rs -> null);
+  }
+
+  @Override
+  public synchronized void subscribe(Consumer<Instant> onDue) {
+    subscribers.add(onDue);
+    if (listenerThread == null) {
+      listenerThread = new Thread(this::listenUntilStopped, "db-scheduler-wakeup-listener");
+      listenerThread.setDaemon(true);
+      listenerThread.start();
+    }
+  }
+
+  @Override
+  public synchronized void unsubscribe(Consumer<Instant> onDue) {
+    subscribers.remove(onDue);
+    if (subscribers.isEmpty() && listenerThread != null) {
+      // Dedicated connection is released by the listener-thread when it notices
+      listenerThread.interrupt();
+      listenerThread = null;
+    }
+  }
+
+  private boolean isStopped() {
+    return listenerThread != Thread.currentThread();
+  }
+
+  private void listenUntilStopped() {
+    while (!isStopped()) {
+      try (Connection c = dataSource.getConnection()) {
+        c.setAutoCommit(true);
+        try (Statement s = c.createStatement()) {
+          s.execute("LISTEN " + channel);
+        }
+        LOG.debug("Listening for wake-up hints on channel '{}'.", channel);
+
+        final PGConnection pgConnection = c.unwrap(PGConnection.class);
+        while (!isStopped()) {
+          final PGNotification[] notifications =
+              pgConnection.getNotifications(RECEIVE_TIMEOUT_MILLIS);
+          if (notifications != null) {
+            for (PGNotification notification : notifications) {
+              deliver(notification.getParameter());
+            }
+          }
+        }
+      } catch (SQLException e) {
+        if (isStopped()) {
+          return;
+        }
+        LOG.warn(
+            "Failed while listening for wake-up hints. Will reconnect in {}.", RECONNECT_DELAY, e);
+        try {
+          Thread.sleep(RECONNECT_DELAY.toMillis());
+        } catch (InterruptedException interrupted) {
+          return;
+        }
+      }
+    }
+  }
+
+  private void deliver(String payload) {
+    final Instant executionTime;
+    try {
+      executionTime = Instant.ofEpochMilli(Long.parseLong(payload));
+    } catch (NumberFormatException e) {
+      LOG.warn("Ignoring wake-up hint with unexpected payload '{}'.", payload);
+      return;
+    }
+
+    subscribers.forEach(
+        subscriber -> {
+          try {
+            subscriber.accept(executionTime);
+          } catch (RuntimeException e) {
+            LOG.warn("Subscriber failed to handle wake-up hint.", e);
+          }
+        });
+  }
+}
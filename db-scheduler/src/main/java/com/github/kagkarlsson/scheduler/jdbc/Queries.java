@@ -13,14 +13,43 @@
  */
 package com.github.kagkarlsson.scheduler.jdbc;
 
+import com.github.kagkarlsson.jdbc.ResultSetMapper;
+import com.github.kagkarlsson.scheduler.task.Execution;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class Queries {
 
+  /** Default order of due executions, see {@link JdbcCustomization#createSelectDueQuery}. */
+  public static final String ORDER_BY_EXECUTION_TIME = "execution_time ASC";
+
+  public static String selectForUpdate(
+      String tableName,
+      String limitPart,
+      String requiredAndCondition,
+      String postgresOracleStyleForUpdate,
+      String sqlServerStyleForUpdate) {
+    return selectForUpdate(
+        tableName,
+        limitPart,
+        requiredAndCondition,
+        ORDER_BY_EXECUTION_TIME,
+        postgresOracleStyleForUpdate,
+        sqlServerStyleForUpdate);
+  }
+
   public static String selectForUpdate(
       String tableName,
       String limitPart,
       String requiredAndCondition,
+      String orderBy,
       String postgresOracleStyleForUpdate,
       String sqlServerStyleForUpdate) {
     return "SELECT * FROM "
@@ -28,11 +57,94 @@ public class Queries {
         + Optional.ofNullable(sqlServerStyleForUpdate).orElse("")
         + " WHERE picked = ? AND execution_time <= ? "
         + requiredAndCondition
-        + " ORDER BY execution_time ASC "
+        + " ORDER BY "
+        + orderBy
+        + " "
         + Optional.ofNullable(postgresOracleStyleForUpdate).orElse("")
         + limitPart;
   }
 
+  /**
+   * For databases requiring the limit to come before the locking clause, e.g. {@code LIMIT n FOR
+   * UPDATE SKIP LOCKED} for MySQL and MariaDB.
+   */
+  public static String selectForUpdateLimitFirst(
+      String tableName, String limitPart, String requiredAndCondition, String forUpdate) {
+    return selectForUpdateLimitFirst(
+        tableName, limitPart, requiredAndCondition, ORDER_BY_EXECUTION_TIME, forUpdate);
+  }
+
+  public static String selectForUpdateLimitFirst(
+      String tableName,
+      String limitPart,
+      String requiredAndCondition,
+      String orderBy,
+      String forUpdate) {
+    return selectForUpdate(
+        tableName, "", requiredAndCondition, orderBy, limitPart + forUpdate, null);
+  }
+
+  public static final String INSERT_COLUMNS =
+      "(task_name, task_instance, task_data, execution_time, picked, version)";
+
+  public static final String INSERT_COLUMNS_WITH_PRIORITY =
+      "(task_name, task_instance, task_data, execution_time, picked, version, priority)";
+
+  public static String insertColumns(boolean withPriority) {
+    return withPriority ? INSERT_COLUMNS_WITH_PRIORITY : INSERT_COLUMNS;
+  }
+
+  /** Placeholders for {@link #insertColumns(boolean)}. */
+  public static String insertValues(boolean withPriority) {
+    return withPriority ? "(?, ?, ?, ?, ?, ?, ?)" : "(?, ?, ?, ?, ?, ?)";
+  }
+
+  /**
+   * {@code MERGE} inserting the execution when not matched, for {@link
+   * JdbcCustomization#createInsertIfNotExistsQuery(String)}.
+   *
+   * @param sourceSuffix e.g. {@code FROM dual} for Oracle
+   * @param tableHint e.g. {@code WITH (HOLDLOCK)} for SQL Server, to serialize concurrent merges
+   */
+  public static String mergeInsertIfNotExists(
+      String tableName, String sourceSuffix, String tableHint) {
+    return mergeInsertIfNotExists(tableName, sourceSuffix, tableHint, false);
+  }
+
+  public static String mergeInsertIfNotExists(
+      String tableName, String sourceSuffix, String tableHint, boolean withPriority) {
+    return "MERGE INTO "
+        + tableName
+        + " "
+        + tableHint
+        + " st USING (SELECT ? AS task_name, ? AS task_instance "
+        + sourceSuffix
+        + ") src ON (st.task_name = src.task_name AND st.task_instance = src.task_instance) "
+        + "WHEN NOT MATCHED THEN INSERT "
+        + insertColumns(withPriority)
+        + " VALUES (src.task_name, src.task_instance, ?, ?, ?, ?"
+        + (withPriority ? ", ?)" : ")");
+  }
+
+  /**
+   * Insert for MySQL and MariaDB leaving an existing row unchanged on duplicate key. Unlike {@code
+   * INSERT IGNORE}, other errors are not downgraded to warnings. Counted as one updated row if
+   * inserted, and zero if it already existed, but only if the driver reports affected rows rather
+   * than found rows ({@code useAffectedRows=true}).
+   */
+  public static String insertOnDuplicateKeyKeepExisting(String tableName) {
+    return insertOnDuplicateKeyKeepExisting(tableName, false);
+  }
+
+  public static String insertOnDuplicateKeyKeepExisting(String tableName, boolean withPriority) {
+    return "INSERT INTO "
+        + tableName
+        + insertColumns(withPriority)
+        + " VALUES "
+        + insertValues(withPriority)
+        + " ON DUPLICATE KEY UPDATE task_name = task_name";
+  }
+
   public static String postgresSqlLimitPart(int limit) {
     return " LIMIT " + limit;
   }
@@ -40,4 +152,47 @@ public class Queries {
   public static String ansiSqlLimitPart(int limit) {
     return " OFFSET 0 ROWS FETCH FIRST " + limit + " ROWS ONLY ";
   }
+
+  /** Rows {@code (task_name, task_instance, version)} for joining executions to the table. */
+  public static String executionKeyValues(int rows, String versionPlaceholder) {
+    return "(VALUES "
+        + IntStream.range(0, rows)
+            .mapToObj(i -> "(?, ?, " + versionPlaceholder + ")")
+            .collect(Collectors.joining(", "))
+        + ") AS hb(task_name, task_instance, version)";
+  }
+
+  public static int setExecutionKeyValues(
+      PreparedStatement ps, int index, List<Execution> executions) throws SQLException {
+    for (Execution execution : executions) {
+      ps.setString(index++, execution.taskInstance.getTaskName());
+      ps.setString(index++, execution.taskInstance.getId());
+      ps.setLong(index++, execution.version);
+    }
+    return index;
+  }
+
+  /** Maps returned {@code (task_name, task_instance)} back to the executions, in order. */
+  public static boolean[] matchReturnedKeys(
+      List<Execution> executions, Set<List<String>> returnedKeys) {
+    final boolean[] result = new boolean[executions.size()];
+    for (int i = 0; i < executions.size(); i++) {
+      final Execution execution = executions.get(i);
+      result[i] =
+          returnedKeys.contains(
+              Arrays.asList(execution.taskInstance.getTaskName(), execution.taskInstance.getId()));
+    }
+    return result;
+  }
+
+  /** Collects returned {@code (task_name, task_instance)}. */
+  public static ResultSetMapper<Set<List<String>>> returnedKeys() {
+    return rs -> {
+      final Set<List<String>> keys = new HashSet<>();
+      while (rs.next()) {
+        keys.add(Arrays.asList(rs.getString("task_name"), rs.getString("task_instance")));
+      }
+      return keys;
+    };
+  }
 }
@@ -24,7 +24,9 @@ import java.util.Optional;
 class QueryBuilder {
   private final String tableName;
   private final List<AndCondition> andConditions = new ArrayList<>();
+  private String columns = "*";
   private Optional<String> orderBy = empty();
+  private Optional<String> limitPart = empty();
 
   QueryBuilder(String tableName) {
     this.tableName = tableName;
@@ -34,6 +36,11 @@ class QueryBuilder {
     return new QueryBuilder(tableName);
   }
 
+  QueryBuilder columns(String columns) {
+    this.columns = columns;
+    return this;
+  }
+
   QueryBuilder andCondition(AndCondition andCondition) {
     andConditions.add(andCondition);
     return this;
@@ -44,9 +51,14 @@ class QueryBuilder {
     return this;
   }
 
+  QueryBuilder limit(String limitPart) {
+    this.limitPart = Optional.of(limitPart);
+    return this;
+  }
+
   String getQuery() {
     StringBuilder s = new StringBuilder();
-    s.append("select * from ").append(tableName);
+    s.append("select ").append(columns).append(" from ").append(tableName);
 
     if (!andConditions.isEmpty()) {
       s.append(" where ");
@@ -54,6 +66,7 @@ class QueryBuilder {
     }
 
     orderBy.ifPresent(o -> s.append(" order by ").append(o));
+    limitPart.ifPresent(s::append);
 
     return s.toString();
   }
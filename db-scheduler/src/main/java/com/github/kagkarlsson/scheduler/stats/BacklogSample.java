@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler.stats;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+/** Cluster-wide state of the executions table, sampled periodically using aggregate queries. */
+public class BacklogSample {
+  private final Instant sampledAt;
+  private final Map<String, Long> dueByTask;
+  private final Instant oldestDue;
+  private final Map<String, Long> pickedByScheduler;
+
+  public BacklogSample(
+      Instant sampledAt,
+      Map<String, Long> dueByTask,
+      Instant oldestDue,
+      Map<String, Long> pickedByScheduler) {
+    this.sampledAt = sampledAt;
+    this.dueByTask = Collections.unmodifiableMap(dueByTask);
+    this.oldestDue = oldestDue;
+    this.pickedByScheduler = Collections.unmodifiableMap(pickedByScheduler);
+  }
+
+  public Instant getSampledAt() {
+    return sampledAt;
+  }
+
+  /** Number of executions due but not yet picked, per task-name. */
+  public Map<String, Long> getDueByTask() {
+    return dueByTask;
+  }
+
+  /** Execution-time of the oldest execution due but not yet picked, if any. */
+  public Optional<Instant> getOldestDue() {
+    return Optional.ofNullable(oldestDue);
+  }
+
+  /** How far behind the cluster is, i.e. for how long the oldest due execution has been waiting. */
+  public Duration getLag() {
+    return getOldestDue()
+        .map(oldest -> Duration.between(oldest, sampledAt))
+        .filter(lag -> !lag.isNegative())
+        .orElse(Duration.ZERO);
+  }
+
+  /** Number of picked executions, per scheduler (picked_by). */
+  public Map<String, Long> getPickedByScheduler() {
+    return pickedByScheduler;
+  }
+
+  @Override
+  public String toString() {
+    return "BacklogSample{"
+        + "sampledAt="
+        + sampledAt
+        + ", dueByTask="
+        + dueByTask
+        + ", oldestDue="
+        + oldestDue
+        + ", pickedByScheduler="
+        + pickedByScheduler
+        + '}';
+  }
+}
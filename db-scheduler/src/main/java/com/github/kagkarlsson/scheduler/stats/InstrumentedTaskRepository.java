@@ -0,0 +1,353 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler.stats;
+
+import com.github.kagkarlsson.scheduler.ConcurrencySlots;
+import com.github.kagkarlsson.scheduler.FairShare;
+import com.github.kagkarlsson.scheduler.RescheduleUpdate;
+import com.github.kagkarlsson.scheduler.ScheduledExecutionsFilter;
+import com.github.kagkarlsson.scheduler.TaskRepository;
+import com.github.kagkarlsson.scheduler.task.Execution;
+import com.github.kagkarlsson.scheduler.task.SchedulableInstance;
+import com.github.kagkarlsson.scheduler.task.TaskInstance;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Decorator timing every operation of a {@link TaskRepository}, reporting duration, number of rows
+ * and failures to the {@link StatsRegistry}, tagged by operation and database.
+ */
+@SuppressWarnings("rawtypes")
+public class InstrumentedTaskRepository implements TaskRepository {
+  private static final int ROWS_UNKNOWN = -1;
+
+  private final TaskRepository delegate;
+  private final StatsRegistry statsRegistry;
+  private final String databaseName;
+
+  public InstrumentedTaskRepository(
+      TaskRepository delegate, StatsRegistry statsRegistry, String databaseName) {
+    this.delegate = delegate;
+    this.statsRegistry = statsRegistry;
+    this.databaseName = databaseName;
+  }
+
+  @Override
+  public boolean createIfNotExists(SchedulableInstance execution) {
+    return timed("createIfNotExists", () -> delegate.createIfNotExists(execution), this::count);
+  }
+
+  @Override
+  public boolean[] createIfNotExists(List<SchedulableInstance<?>> executions) {
+    return timed(
+        "createIfNotExistsBatch", () -> delegate.createIfNotExists(executions), this::count);
+  }
+
+  @Override
+  public List<Execution> getDue(Instant now, int limit) {
+    return timed("getDue", () -> delegate.getDue(now, limit), List::size);
+  }
+
+  @Override
+  public List<Execution> getDue(
+      Instant now, int limit, List<ConcurrencySlots> slots, List<FairShare.Share> shares) {
+    return timed("getDue", () -> delegate.getDue(now, limit, slots, shares), List::size);
+  }
+
+  @Override
+  public List<Execution> getDue(
+      Instant now,
+      int limit,
+      List<ConcurrencySlots> slots,
+      List<FairShare.Share> shares,
+      Set<TaskInstance<?>> excluded) {
+    return timed("getDue", () -> delegate.getDue(now, limit, slots, shares, excluded), List::size);
+  }
+
+  @Override
+  public Instant replace(Execution toBeReplaced, SchedulableInstance newInstance) {
+    return timed(
+        "replace", () -> delegate.replace(toBeReplaced, newInstance), ignored -> ROWS_UNKNOWN);
+  }
+
+  @Override
+  public void getScheduledExecutions(
+      ScheduledExecutionsFilter filter, Consumer<Execution> consumer) {
+    final AtomicInteger rows = new AtomicInteger();
+    timed(
+        "getScheduledExecutions",
+        () -> {
+          delegate.getScheduledExecutions(
+              filter,
+              e -> {
+                rows.incrementAndGet();
+                consumer.accept(e);
+              });
+          return null;
+        },
+        ignored -> rows.get());
+  }
+
+  @Override
+  public void getScheduledExecutions(
+      ScheduledExecutionsFilter filter, String taskName, Consumer<Execution> consumer) {
+    final AtomicInteger rows = new AtomicInteger();
+    timed(
+        "getScheduledExecutions",
+        () -> {
+          delegate.getScheduledExecutions(
+              filter,
+              taskName,
+              e -> {
+                rows.incrementAndGet();
+                consumer.accept(e);
+              });
+          return null;
+        },
+        ignored -> rows.get());
+  }
+
+  @Override
+  public Optional<String> getScheduledExecutionsPage(
+      ScheduledExecutionsFilter filter, Consumer<Execution> consumer) {
+    final AtomicInteger rows = new AtomicInteger();
+    return timed(
+        "getScheduledExecutionsPage",
+        () ->
+            delegate.getScheduledExecutionsPage(
+                filter,
+                e -> {
+                  rows.incrementAndGet();
+                  consumer.accept(e);
+                }),
+        ignored -> rows.get());
+  }
+
+  @Override
+  public Optional<String> getScheduledExecutionsPage(
+      ScheduledExecutionsFilter filter, String taskName, Consumer<Execution> consumer) {
+    final AtomicInteger rows = new AtomicInteger();
+    return timed(
+        "getScheduledExecutionsPage",
+        () ->
+            delegate.getScheduledExecutionsPage(
+                filter,
+                taskName,
+                e -> {
+                  rows.incrementAndGet();
+                  consumer.accept(e);
+                }),
+        ignored -> rows.get());
+  }
+
+  @Override
+  public List<Execution> lockAndFetchGeneric(Instant now, int limit) {
+    return timed("lockAndFetchGeneric", () -> delegate.lockAndFetchGeneric(now, limit), List::size);
+  }
+
+  @Override
+  public List<Execution> lockAndGetDue(Instant now, int limit) {
+    return timed("lockAndGetDue", () -> delegate.lockAndGetDue(now, limit), List::size);
+  }
+
+  @Override
+  public List<Execution> lockAndGetDue(
+      Instant now, int limit, List<ConcurrencySlots> slots, List<FairShare.Share> shares) {
+    return timed(
+        "lockAndGetDue", () -> delegate.lockAndGetDue(now, limit, slots, shares), List::size);
+  }
+
+  @Override
+  public void remove(Execution execution) {
+    timed("remove", () -> delegate.remove(execution));
+  }
+
+  @Override
+  public boolean reschedule(
+      Execution execution,
+      Instant nextExecutionTime,
+      Instant lastSuccess,
+      Instant lastFailure,
+      int consecutiveFailures) {
+    return timed(
+        "reschedule",
+        () ->
+            delegate.reschedule(
+                execution, nextExecutionTime, lastSuccess, lastFailure, consecutiveFailures),
+        this::count);
+  }
+
+  @Override
+  public boolean reschedule(
+      Execution execution,
+      Instant nextExecutionTime,
+      Object newData,
+      Instant lastSuccess,
+      Instant lastFailure,
+      int consecutiveFailures) {
+    return timed(
+        "reschedule",
+        () ->
+            delegate.reschedule(
+                execution,
+                nextExecutionTime,
+                newData,
+                lastSuccess,
+                lastFailure,
+                consecutiveFailures),
+        this::count);
+  }
+
+  @Override
+  public boolean[] remove(List<Execution> executions) {
+    return timed("removeBatch", () -> delegate.remove(executions), this::count);
+  }
+
+  @Override
+  public boolean[] reschedule(List<RescheduleUpdate> updates) {
+    return timed("rescheduleBatch", () -> delegate.reschedule(updates), this::count);
+  }
+
+  @Override
+  public Optional<Execution> pick(Execution e, Instant timePicked) {
+    return timed("pick", () -> delegate.pick(e, timePicked), picked -> picked.isPresent() ? 1 : 0);
+  }
+
+  @Override
+  public List<Execution> pick(List<Execution> candidates, Instant timePicked) {
+    return timed("pickBatch", () -> delegate.pick(candidates, timePicked), List::size);
+  }
+
+  @Override
+  public List<Execution> getDeadExecutions(Instant olderThan) {
+    return timed("getDeadExecutions", () -> delegate.getDeadExecutions(olderThan), List::size);
+  }
+
+  @Override
+  public List<Execution> getDeadExecutionsByNodeLease(Instant now, Instant heartbeatOlderThan) {
+    return timed(
+        "getDeadExecutionsByNodeLease",
+        () -> delegate.getDeadExecutionsByNodeLease(now, heartbeatOlderThan),
+        List::size);
+  }
+
+  @Override
+  public void renewNodeLease(Instant leaseExpires) {
+    timed("renewNodeLease", () -> delegate.renewNodeLease(leaseExpires));
+  }
+
+  @Override
+  public boolean updateHeartbeatWithRetry(Execution execution, Instant newHeartbeat, int tries) {
+    return timed(
+        "updateHeartbeatWithRetry",
+        () -> delegate.updateHeartbeatWithRetry(execution, newHeartbeat, tries),
+        this::count);
+  }
+
+  @Override
+  public boolean updateHeartbeat(Execution execution, Instant heartbeatTime) {
+    return timed(
+        "updateHeartbeat", () -> delegate.updateHeartbeat(execution, heartbeatTime), this::count);
+  }
+
+  @Override
+  public boolean[] updateHeartbeats(List<Execution> executions, Instant heartbeatTime) {
+    return timed(
+        "updateHeartbeats",
+        () -> delegate.updateHeartbeats(executions, heartbeatTime),
+        this::count);
+  }
+
+  @Override
+  public List<Execution> getExecutionsFailingLongerThan(Duration interval) {
+    return timed(
+        "getExecutionsFailingLongerThan",
+        () -> delegate.getExecutionsFailingLongerThan(interval),
+        List::size);
+  }
+
+  @Override
+  public BacklogSample sampleBacklog(Instant now, int maxGroups) {
+    return timed(
+        "sampleBacklog", () -> delegate.sampleBacklog(now, maxGroups), ignored -> ROWS_UNKNOWN);
+  }
+
+  @Override
+  public Optional<Execution> getExecution(String taskName, String taskInstanceId) {
+    return timed(
+        "getExecution",
+        () -> delegate.getExecution(taskName, taskInstanceId),
+        execution -> execution.isPresent() ? 1 : 0);
+  }
+
+  @Override
+  public int removeExecutions(String taskName) {
+    return timed("removeExecutions", () -> delegate.removeExecutions(taskName), removed -> removed);
+  }
+
+  @Override
+  public void verifySupportsLockAndFetch() {
+    delegate.verifySupportsLockAndFetch();
+  }
+
+  private void timed(String operation, Runnable runnable) {
+    timed(
+        operation,
+        () -> {
+          runnable.run();
+          return null;
+        },
+        ignored -> ROWS_UNKNOWN);
+  }
+
+  private <T> T timed(String operation, Supplier<T> supplier, ToIntFunction<T> rows) {
+    final long start = System.nanoTime();
+    final T result;
+    try {
+      result = supplier.get();
+    } catch (RuntimeException e) {
+      statsRegistry.registerRepositoryOperation(
+          operation, databaseName, Duration.ofNanos(System.nanoTime() - start), ROWS_UNKNOWN, true);
+      throw e;
+    }
+    statsRegistry.registerRepositoryOperation(
+        operation,
+        databaseName,
+        Duration.ofNanos(System.nanoTime() - start),
+        rows.applyAsInt(result),
+        false);
+    return result;
+  }
+
+  private int count(boolean success) {
+    return success ? 1 : 0;
+  }
+
+  private int count(boolean[] successes) {
+    int count = 0;
+    for (boolean success : successes) {
+      if (success) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
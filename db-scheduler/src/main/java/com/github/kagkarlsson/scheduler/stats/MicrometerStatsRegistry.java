@@ -16,15 +16,24 @@ package com.github.kagkarlsson.scheduler.stats;
 import com.github.kagkarlsson.scheduler.task.ExecutionComplete;
 import com.github.kagkarlsson.scheduler.task.Task;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
-import java.util.HashMap;
+import java.time.Duration;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 public class MicrometerStatsRegistry implements StatsRegistry {
 
@@ -32,43 +41,131 @@ public class MicrometerStatsRegistry implements StatsRegistry {
   private static final String RESULT_FAILURE = "failed";
   private final MeterRegistry meterRegistry;
 
-  private Map<String, MetricsHolder> metricsMap = new HashMap<>();
+  private final Map<String, MetricsHolder> metricsMap = new ConcurrentHashMap<>();
+  private final Map<String, AtomicLong> dueByTask = new ConcurrentHashMap<>();
+  private final MultiGauge pickedByScheduler;
+  private final AtomicReference<Double> backlogLag = new AtomicReference<>((double) 0);
+  private final AtomicBoolean backlogLagRegistered = new AtomicBoolean(false);
+  private final Map<SchedulerStatsEvent, Counter> schedulerEvents =
+      new EnumMap<>(SchedulerStatsEvent.class);
+  private final Map<CandidateStatsEvent, Counter> candidateEvents =
+      new EnumMap<>(CandidateStatsEvent.class);
+  private final Map<ExecutionStatsEvent, Counter> executionEvents =
+      new EnumMap<>(ExecutionStatsEvent.class);
+  private final AtomicInteger lastPollFetched = new AtomicInteger();
+  private final AtomicInteger lastPollLimit = new AtomicInteger();
+  private final AtomicInteger inQueueOrProcessing = new AtomicInteger();
+  private final Map<String, Timer> repositoryTimers = new ConcurrentHashMap<>();
+  private final Map<String, DistributionSummary> repositoryRows = new ConcurrentHashMap<>();
 
   public MicrometerStatsRegistry(
       MeterRegistry meterRegistry, List<? extends Task<?>> expectedTasks) {
     this.meterRegistry = meterRegistry;
+    this.pickedByScheduler =
+        MultiGauge.builder("dbscheduler_backlog_picked")
+            .description("Number of picked executions, by the scheduler that picked them")
+            .register(meterRegistry);
     initializeMetricsForAllTasks(expectedTasks);
+    initializeEventCounters();
+    initializePollGauges();
   }
 
   private void initializeMetricsForAllTasks(List<? extends Task<?>> expectedTasks) {
     expectedTasks.forEach(task -> getOrInitMetricHolder(task.getName()));
   }
 
-  private MetricsHolder getOrInitMetricHolder(String taskName) {
-    MetricsHolder preSynchronizedValue = metricsMap.get(taskName);
-    if (preSynchronizedValue != null) {
-      return preSynchronizedValue;
-    } else {
-      // Thread-safe init
-      synchronized (this) {
-        MetricsHolder currentValue = metricsMap.get(taskName);
-        if (currentValue == null) {
-          currentValue = new MetricsHolder(taskName);
-          metricsMap.put(taskName, currentValue);
-        }
-        return currentValue;
-      }
+  private void initializeEventCounters() {
+    for (SchedulerStatsEvent event : SchedulerStatsEvent.values()) {
+      schedulerEvents.put(
+          event, eventCounter("dbscheduler_scheduler_events", "Internal scheduler events", event));
+    }
+    for (CandidateStatsEvent event : CandidateStatsEvent.values()) {
+      candidateEvents.put(
+          event,
+          eventCounter("dbscheduler_candidate_events", "Outcome of due executions fetched", event));
     }
+    for (ExecutionStatsEvent event : ExecutionStatsEvent.values()) {
+      executionEvents.put(
+          event,
+          eventCounter("dbscheduler_execution_events", "Completed and failed executions", event));
+    }
+  }
+
+  private Counter eventCounter(String name, String description, Enum<?> event) {
+    return Counter.builder(name)
+        .description(description)
+        .tag("event", event.name().toLowerCase(Locale.ROOT))
+        .register(meterRegistry);
+  }
+
+  private void initializePollGauges() {
+    Gauge.builder("dbscheduler_poll_last_fetched", lastPollFetched::get)
+        .description("Number of due executions fetched by the last poll")
+        .register(meterRegistry);
+    Gauge.builder("dbscheduler_poll_last_limit", lastPollLimit::get)
+        .description("Max number of due executions asked for by the last poll")
+        .register(meterRegistry);
+    Gauge.builder("dbscheduler_executor_in_queue_or_processing", inQueueOrProcessing::get)
+        .description("Executions queued or executing locally, as of the last poll")
+        .register(meterRegistry);
+  }
+
+  private MetricsHolder getOrInitMetricHolder(String taskName) {
+    return metricsMap.computeIfAbsent(taskName, MetricsHolder::new);
   }
 
   @Override
-  public void register(SchedulerStatsEvent e) {}
+  public void register(SchedulerStatsEvent e) {
+    schedulerEvents.get(e).increment();
+  }
+
+  @Override
+  public void register(CandidateStatsEvent e) {
+    candidateEvents.get(e).increment();
+  }
 
   @Override
-  public void register(CandidateStatsEvent e) {}
+  public void register(ExecutionStatsEvent e) {
+    executionEvents.get(e).increment();
+  }
+
+  @Override
+  public void registerPollResult(
+      int executionsFetched, int executionsToFetch, int numberInQueueOrProcessing) {
+    lastPollFetched.set(executionsFetched);
+    lastPollLimit.set(executionsToFetch);
+    inQueueOrProcessing.set(numberInQueueOrProcessing);
+  }
 
   @Override
-  public void register(ExecutionStatsEvent e) {}
+  public void registerRepositoryOperation(
+      String operation, String databaseName, Duration duration, int rows, boolean failed) {
+    final String result = failed ? RESULT_FAILURE : RESULT_SUCCESS;
+    repositoryTimers
+        .computeIfAbsent(
+            operation + "|" + databaseName + "|" + result,
+            ignored ->
+                Timer.builder("dbscheduler_repository_operation")
+                    .description("Duration of task-repository operations")
+                    .tag("operation", operation)
+                    .tag("database", databaseName)
+                    .tag("result", result)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry))
+        .record(duration);
+    if (rows >= 0) {
+      repositoryRows
+          .computeIfAbsent(
+              operation + "|" + databaseName,
+              ignored ->
+                  DistributionSummary.builder("dbscheduler_repository_rows")
+                      .description("Executions returned or affected by task-repository operations")
+                      .tag("operation", operation)
+                      .tag("database", databaseName)
+                      .register(meterRegistry))
+          .record(rows);
+    }
+  }
 
   @Override
   public void registerSingleCompletedExecution(ExecutionComplete completeEvent) {
@@ -77,12 +174,67 @@ public class MicrometerStatsRegistry implements StatsRegistry {
     metrics.registerExecution(completeEvent);
   }
 
+  @Override
+  public void registerBacklogSample(BacklogSample sample) {
+    if (backlogLagRegistered.compareAndSet(false, true)) {
+      Gauge.builder("dbscheduler_backlog_lag_seconds", backlogLag::get)
+          .description("Age of the oldest due execution not yet picked, cluster-wide")
+          .register(meterRegistry);
+    }
+    backlogLag.set(sample.getLag().toNanos() / 1E9);
+
+    updateGauges(
+        dueByTask,
+        sample.getDueByTask(),
+        "dbscheduler_backlog_due",
+        "Number of due executions not yet picked, cluster-wide",
+        "task");
+    // scheduler-names come and go, e.g. with pods, so those absent from the sample are removed
+    pickedByScheduler.register(
+        sample.getPickedByScheduler().entrySet().stream()
+            .map(e -> MultiGauge.Row.of(Tags.of("scheduler", e.getKey()), e.getValue()))
+            .collect(Collectors.toList()),
+        true);
+  }
+
+  private void updateGauges(
+      Map<String, AtomicLong> gauges,
+      Map<String, Long> sampled,
+      String name,
+      String description,
+      String tag) {
+    sampled.forEach(
+        (tagValue, count) ->
+            gauges
+                .computeIfAbsent(
+                    tagValue,
+                    ignored -> {
+                      final AtomicLong value = new AtomicLong();
+                      Gauge.builder(name, value::get)
+                          .description(description)
+                          .tag(tag, tagValue)
+                          .register(meterRegistry);
+                      return value;
+                    })
+                .set(count));
+    // absent from the sample means none
+    gauges.forEach(
+        (tagValue, value) -> {
+          if (!sampled.containsKey(tagValue)) {
+            value.set(0);
+          }
+        });
+  }
+
   private class MetricsHolder {
     private final AtomicReference<Double> lastDurationForTask = new AtomicReference<>((double) 0);
     private final AtomicLong lastRunTimestampForTask = new AtomicLong(0);
     private final Counter successesForTask;
     private final Counter failuresForTask;
     private final Timer durationsForTask;
+    private final Timer scheduleLagForTask;
+    private final Timer queueWaitForTask;
+    private final Timer completionWriteForTask;
 
     MetricsHolder(String taskName) {
       Gauge.builder("dbscheduler_task_last_run_duration", lastDurationForTask::get)
@@ -113,6 +265,29 @@ public class MicrometerStatsRegistry implements StatsRegistry {
           Timer.builder("dbscheduler_task_duration")
               .description("Duration of executions")
               .tag("task", taskName)
+              .publishPercentileHistogram()
+              .register(meterRegistry);
+
+      scheduleLagForTask =
+          Timer.builder("dbscheduler_task_schedule_lag")
+              .description("Time from execution-time until picked")
+              .tag("task", taskName)
+              .publishPercentileHistogram()
+              .register(meterRegistry);
+
+      queueWaitForTask =
+          Timer.builder("dbscheduler_task_queue_wait")
+              .description("Time from picked until started, waiting for a thread")
+              .tag("task", taskName)
+              .publishPercentileHistogram()
+              .register(meterRegistry);
+
+      completionWriteForTask =
+          Timer.builder("dbscheduler_task_completion_write")
+              .description(
+                  "Time writing the outcome of executions, i.e. completion-handlers and group-commit")
+              .tag("task", taskName)
+              .publishPercentileHistogram()
               .register(meterRegistry);
     }
 
@@ -121,6 +296,9 @@ public class MicrometerStatsRegistry implements StatsRegistry {
       lastRunTimestampForTask.set(completeEvent.getTimeDone().getEpochSecond());
 
       durationsForTask.record(completeEvent.getDuration().toMillis(), TimeUnit.MILLISECONDS);
+      completeEvent.getScheduleLag().ifPresent(scheduleLagForTask::record);
+      completeEvent.getQueueWait().ifPresent(queueWaitForTask::record);
+      completeEvent.getCompletionWriteDuration().ifPresent(completionWriteForTask::record);
       if (completeEvent.getResult() == ExecutionComplete.Result.OK) {
         successesForTask.increment();
       } else {
@@ -14,6 +14,7 @@
 package com.github.kagkarlsson.scheduler.stats;
 
 import com.github.kagkarlsson.scheduler.task.ExecutionComplete;
+import java.time.Duration;
 
 public interface StatsRegistry {
 
@@ -49,6 +50,31 @@ public interface StatsRegistry {
 
   void registerSingleCompletedExecution(ExecutionComplete completeEvent);
 
+  /**
+   * Backlog of the whole cluster, sampled periodically if enabled using {@code
+   * SchedulerBuilder.sampleBacklog(..)}. Runs on a housekeeper-thread.
+   */
+  default void registerBacklogSample(BacklogSample sample) {}
+
+  /**
+   * Result of polling for due executions, and the number of executions queued or executing locally
+   * after the poll. Runs in the polling thread.
+   */
+  default void registerPollResult(
+      int executionsFetched, int executionsToFetch, int numberInQueueOrProcessing) {}
+
+  /**
+   * Operation of the TaskRepository, if instrumented using {@code
+   * SchedulerBuilder.instrumentTaskRepository()}.
+   *
+   * @param operation name of the repository-method
+   * @param databaseName name of the jdbc-customization in use
+   * @param rows number of executions returned or affected, or negative if not applicable
+   * @param failed whether the operation threw an exception
+   */
+  default void registerRepositoryOperation(
+      String operation, String databaseName, Duration duration, int rows, boolean failed) {}
+
   StatsRegistry NOOP = new DefaultStatsRegistry();
 
   class DefaultStatsRegistry implements StatsRegistry {
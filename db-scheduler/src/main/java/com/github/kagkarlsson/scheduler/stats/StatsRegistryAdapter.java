@@ -71,4 +71,14 @@ public class StatsRegistryAdapter implements SchedulerListener {
     }
     statsRegistry.register(type.toStatsRegistryEvent());
   }
+
+  @Override
+  public void onPollResult(
+      int executionsFetched, int executionsToFetch, int numberInQueueOrProcessing) {
+    if (statsRegistry == null) {
+      return;
+    }
+    statsRegistry.registerPollResult(
+        executionsFetched, executionsToFetch, numberInQueueOrProcessing);
+  }
 }
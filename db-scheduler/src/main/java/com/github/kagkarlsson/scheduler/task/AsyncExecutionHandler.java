@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler.task;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * ExecutionHandler not holding a thread while executing. The scheduler thread is released when
+ * {@link #executeAsync(TaskInstance, ExecutionContext)} returns, and the execution is completed
+ * when the returned stage completes. Until then it is heartbeated as currently executing, and holds
+ * one of the scheduler's async permits.
+ *
+ * <p>The {@link CompletionHandler} (or {@link FailureHandler}) is invoked on the thread completing
+ * the stage, so it should not be completed on threads that must not block on the database.
+ */
+public interface AsyncExecutionHandler<T> extends ExecutionHandler<T> {
+
+  CompletionStage<CompletionHandler<T>> executeAsync(
+      TaskInstance<T> taskInstance, ExecutionContext executionContext);
+
+  /** Blocking execution, waiting for the stage to complete. */
+  @Override
+  default CompletionHandler<T> execute(
+      TaskInstance<T> taskInstance, ExecutionContext executionContext) {
+    try {
+      return executeAsync(taskInstance, executionContext).toCompletableFuture().join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      } else if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e;
+    }
+  }
+}
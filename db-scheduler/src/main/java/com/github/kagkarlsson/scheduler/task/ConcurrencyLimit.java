@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) Gustav Karlsson
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.kagkarlsson.scheduler.task;
+
+import java.util.Objects;
+
+/**
+ * Upper bound on the number of executions of a group of tasks held by one scheduler at a time,
+ * queued or running. Tasks declaring the same group share the limit. The scheduler does not fetch
+ * executions for a group with no free slots, so they stay available for other schedulers.
+ */
+public final class ConcurrencyLimit {
+  private final String group;
+  private final int maxConcurrent;
+
+  private ConcurrencyLimit(String group, int maxConcurrent) {
+    if (maxConcurrent < 1) {
+      throw new IllegalArgumentException(
+          "Concurrency limit must be at least 1, was " + maxConcurrent + " for group " + group);
+    }
+    this.group = Objects.requireNonNull(group, "group");
+    this.maxConcurrent = maxConcurrent;
+  }
+
+  public static ConcurrencyLimit of(String group, int maxConcurrent) {
+    return new ConcurrencyLimit(group, maxConcurrent);
+  }
+
+  public String getGroup() {
+    return group;
+  }
+
+  public int getMaxConcurrent() {
+    return maxConcurrent;
+  }
+
+  @Override
+  public String toString() {
+    return "ConcurrencyLimit{group=" + group + ", maxConcurrent=" + maxConcurrent + "}";
+  }
+}
@@ -28,6 +28,9 @@ public final class Execution implements TaskInstanceId {
   public final Instant lastFailure;
   public final Instant lastSuccess;
 
+  /** Higher is fetched first. 0 unless read from a table with a priority-column. */
+  public final int priority;
+
   public Execution(Instant executionTime, TaskInstance taskInstance) {
     this(executionTime, taskInstance, false, null, null, null, 0, null, 1L);
   }
@@ -42,6 +45,30 @@ public final class Execution implements TaskInstanceId {
       int consecutiveFailures,
       Instant lastHeartbeat,
       long version) {
+    this(
+        executionTime,
+        taskInstance,
+        picked,
+        pickedBy,
+        lastSuccess,
+        lastFailure,
+        consecutiveFailures,
+        lastHeartbeat,
+        version,
+        0);
+  }
+
+  public Execution(
+      Instant executionTime,
+      TaskInstance taskInstance,
+      boolean picked,
+      String pickedBy,
+      Instant lastSuccess,
+      Instant lastFailure,
+      int consecutiveFailures,
+      Instant lastHeartbeat,
+      long version,
+      int priority) {
     this.executionTime = executionTime;
     this.taskInstance = taskInstance;
     this.picked = picked;
@@ -51,6 +78,7 @@ public final class Execution implements TaskInstanceId {
     this.consecutiveFailures = consecutiveFailures;
     this.lastHeartbeat = lastHeartbeat;
     this.version = version;
+    this.priority = priority;
   }
 
   public Instant getExecutionTime() {
@@ -71,8 +99,8 @@ public final class Execution implements TaskInstanceId {
         lastFailure,
         consecutiveFailures,
         newLastHeartbeat,
-        version + 1 // since this was incremented in the database when picked
-        );
+        version + 1, // since this was incremented in the database when picked
+        priority);
   }
 
   @Override
@@ -19,14 +19,29 @@ import java.util.Optional;
 
 public class ExecutionComplete {
   private final Execution execution;
+  private final Instant timePicked;
   private final Instant timeStarted;
   private final Instant timeDone;
+  private final Instant timeCompletionWritten;
   private final Result result;
   private final Throwable cause;
 
   ExecutionComplete(
       Execution execution, Instant timeStarted, Instant timeDone, Result result, Throwable cause) {
+    this(execution, null, timeStarted, timeDone, null, result, cause);
+  }
+
+  private ExecutionComplete(
+      Execution execution,
+      Instant timePicked,
+      Instant timeStarted,
+      Instant timeDone,
+      Instant timeCompletionWritten,
+      Result result,
+      Throwable cause) {
+    this.timePicked = timePicked;
     this.timeStarted = timeStarted;
+    this.timeCompletionWritten = timeCompletionWritten;
     this.cause = cause;
     if (result == Result.OK && cause != null) {
       throw new IllegalArgumentException("Result 'OK' should never have a cause.");
@@ -46,6 +61,28 @@ public class ExecutionComplete {
     return new ExecutionComplete(execution, timeStarted, timeDone, Result.FAILED, cause);
   }
 
+  public static ExecutionComplete success(
+      Execution execution, Instant timePicked, Instant timeStarted, Instant timeDone) {
+    return new ExecutionComplete(
+        execution, timePicked, timeStarted, timeDone, null, Result.OK, null);
+  }
+
+  public static ExecutionComplete failure(
+      Execution execution,
+      Instant timePicked,
+      Instant timeStarted,
+      Instant timeDone,
+      Throwable cause) {
+    return new ExecutionComplete(
+        execution, timePicked, timeStarted, timeDone, null, Result.FAILED, cause);
+  }
+
+  /** Copy of this event, with the time the outcome of the execution was written. */
+  public ExecutionComplete withCompletionWritten(Instant timeCompletionWritten) {
+    return new ExecutionComplete(
+        execution, timePicked, timeStarted, timeDone, timeCompletionWritten, result, cause);
+  }
+
   /** Simulated ExecutionComplete used to generate first execution-time from a Schedule. */
   public static ExecutionComplete simulatedSuccess(Instant timeDone) {
     TaskInstance nonExistingTaskInstance = new TaskInstance("non-existing-task", "non-existing-id");
@@ -76,6 +113,39 @@ public class ExecutionComplete {
     return Duration.between(timeStarted, timeDone);
   }
 
+  /**
+   * Time from when the execution was due until it was picked. Zero if picked ahead of time, e.g. by
+   * look-ahead.
+   */
+  public Optional<Duration> getScheduleLag() {
+    return Optional.ofNullable(timePicked)
+        .map(picked -> nonNegative(Duration.between(execution.executionTime, picked)));
+  }
+
+  /**
+   * Time waiting in the local queue, from when the execution was picked (or due, if picked ahead of
+   * time) until it was started.
+   */
+  public Optional<Duration> getQueueWait() {
+    return Optional.ofNullable(timePicked)
+        .map(picked -> picked.isBefore(execution.executionTime) ? execution.executionTime : picked)
+        .map(readyAt -> nonNegative(Duration.between(readyAt, timeStarted)));
+  }
+
+  /**
+   * Time spent writing the outcome of the execution, i.e. running the completion- or
+   * failure-handler and, with group-commit, until the batch holding its write was flushed. Only
+   * known for events passed to {@code SchedulerListener.onExecutionComplete}.
+   */
+  public Optional<Duration> getCompletionWriteDuration() {
+    return Optional.ofNullable(timeCompletionWritten)
+        .map(written -> Duration.between(timeDone, written));
+  }
+
+  private static Duration nonNegative(Duration duration) {
+    return duration.isNegative() ? Duration.ZERO : duration;
+  }
+
   public Result getResult() {
     return result;
   }
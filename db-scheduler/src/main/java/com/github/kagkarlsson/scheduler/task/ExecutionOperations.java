@@ -13,6 +13,7 @@
  */
 package com.github.kagkarlsson.scheduler.task;
 
+import com.github.kagkarlsson.scheduler.CompletionWriter;
 import com.github.kagkarlsson.scheduler.TaskRepository;
 import com.github.kagkarlsson.scheduler.event.SchedulerListeners;
 import java.time.Instant;
@@ -22,12 +23,22 @@ public class ExecutionOperations<T> {
   private final TaskRepository taskRepository;
   private final SchedulerListeners schedulerListeners;
   private final Execution execution;
+  private final CompletionWriter completionWriter;
 
   public ExecutionOperations(
       TaskRepository taskRepository, SchedulerListeners schedulerListeners, Execution execution) {
+    this(taskRepository, schedulerListeners, execution, CompletionWriter.direct(taskRepository));
+  }
+
+  public ExecutionOperations(
+      TaskRepository taskRepository,
+      SchedulerListeners schedulerListeners,
+      Execution execution,
+      CompletionWriter completionWriter) {
     this.taskRepository = taskRepository;
     this.schedulerListeners = schedulerListeners;
     this.execution = execution;
+    this.completionWriter = completionWriter;
   }
 
   public void stop() {
@@ -35,7 +46,7 @@ public class ExecutionOperations<T> {
   }
 
   public void remove() {
-    taskRepository.remove(execution);
+    completionWriter.remove(execution);
   }
 
   public void removeAndScheduleNew(SchedulableInstance<T> schedulableInstance) {
@@ -44,18 +55,21 @@ public class ExecutionOperations<T> {
   }
 
   public void reschedule(ExecutionComplete completed, Instant nextExecutionTime) {
+    // the writer may write later, and the new execution-time is not visible to others until then
+    final Runnable hint =
+        () -> hintExecutionScheduled(completed.getExecution().taskInstance, nextExecutionTime);
     if (completed.getResult() == ExecutionComplete.Result.OK) {
-      taskRepository.reschedule(
-          execution, nextExecutionTime, completed.getTimeDone(), execution.lastFailure, 0);
+      completionWriter.reschedule(
+          execution, nextExecutionTime, completed.getTimeDone(), execution.lastFailure, 0, hint);
     } else {
-      taskRepository.reschedule(
+      completionWriter.reschedule(
           execution,
           nextExecutionTime,
           execution.lastSuccess,
           completed.getTimeDone(),
-          execution.consecutiveFailures + 1);
+          execution.consecutiveFailures + 1,
+          hint);
     }
-    hintExecutionScheduled(completed.getExecution().taskInstance, nextExecutionTime);
   }
 
   public void reschedule(ExecutionComplete completed, Instant nextExecutionTime, T newData) {
@@ -14,6 +14,7 @@
 package com.github.kagkarlsson.scheduler.task;
 
 import java.time.Instant;
+import java.util.OptionalInt;
 
 public interface SchedulableInstance<T> extends TaskInstanceId {
 
@@ -21,6 +22,22 @@ public interface SchedulableInstance<T> extends TaskInstanceId {
 
   Instant getNextExecutionTime(Instant currentTime);
 
+  /**
+   * @return priority of this execution, if set. Otherwise that of the task is used, see {@link
+   *     Task#getDefaultPriority()}
+   */
+  default OptionalInt getPriority() {
+    return OptionalInt.empty();
+  }
+
+  /**
+   * Higher priorities are fetched first when the scheduler has priority enabled. Must fit in the
+   * {@code SMALLINT} priority-column.
+   */
+  default SchedulableInstance<T> withPriority(int priority) {
+    return new SchedulableTaskInstance<>(getTaskInstance(), this::getNextExecutionTime, priority);
+  }
+
   default String getTaskName() {
     return getTaskInstance().getTaskName();
   }
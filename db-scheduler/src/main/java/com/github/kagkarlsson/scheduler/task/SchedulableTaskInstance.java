@@ -14,19 +14,34 @@
 package com.github.kagkarlsson.scheduler.task;
 
 import java.time.Instant;
+import java.util.OptionalInt;
 
 public class SchedulableTaskInstance<T> implements SchedulableInstance<T> {
   private final TaskInstance<T> taskInstance;
   NextExecutionTime executionTime;
+  private final OptionalInt priority;
 
   public SchedulableTaskInstance(TaskInstance<T> taskInstance, NextExecutionTime executionTime) {
     this.taskInstance = taskInstance;
     this.executionTime = executionTime;
+    this.priority = OptionalInt.empty();
+  }
+
+  public SchedulableTaskInstance(
+      TaskInstance<T> taskInstance, NextExecutionTime executionTime, int priority) {
+    if (priority < Short.MIN_VALUE || priority > Short.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          "Priority must be between " + Short.MIN_VALUE + " and " + Short.MAX_VALUE);
+    }
+    this.taskInstance = taskInstance;
+    this.executionTime = executionTime;
+    this.priority = OptionalInt.of(priority);
   }
 
   public SchedulableTaskInstance(TaskInstance<T> taskInstance, Instant executionTime) {
     this.taskInstance = taskInstance;
     this.executionTime = (_ignored) -> executionTime;
+    this.priority = OptionalInt.empty();
   }
 
   @Override
@@ -38,4 +53,9 @@ public class SchedulableTaskInstance<T> implements SchedulableInstance<T> {
   public Instant getNextExecutionTime(Instant currentTime) {
     return executionTime.getNextExecutionTime(currentTime);
   }
+
+  @Override
+  public OptionalInt getPriority() {
+    return priority;
+  }
 }
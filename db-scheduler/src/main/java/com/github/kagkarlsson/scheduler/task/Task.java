@@ -13,6 +13,8 @@
  */
 package com.github.kagkarlsson.scheduler.task;
 
+import java.util.Optional;
+
 public interface Task<T> extends ExecutionHandler<T>, HasTaskName {
   String getName();
 
@@ -35,6 +37,20 @@ public interface Task<T> extends ExecutionHandler<T>, HasTaskName {
 
   DeadExecutionHandler<T> getDeadExecutionHandler();
 
+  /**
+   * @return limit on concurrent executions of this task per scheduler, if any
+   */
+  default Optional<ConcurrencyLimit> getConcurrencyLimit() {
+    return Optional.empty();
+  }
+
+  /**
+   * @return priority of executions not setting one, see {@link SchedulableInstance#getPriority()}
+   */
+  default int getDefaultPriority() {
+    return 0;
+  }
+
   @Override
   default String getTaskName() {
     return getName();
@@ -19,6 +19,8 @@ import com.github.kagkarlsson.scheduler.task.*;
 import com.github.kagkarlsson.scheduler.task.schedule.Schedule;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
 import java.util.function.Function;
 
 public class Tasks {
@@ -79,6 +81,7 @@ public class Tasks {
     private FailureHandler<T> onFailure;
     private DeadExecutionHandler<T> onDeadExecution;
     private ScheduleRecurringOnStartup<T> scheduleOnStartup;
+    private int defaultPriority = 0;
 
     public RecurringTaskBuilder(String name, Schedule schedule, Class<T> dataClass) {
       this.name = name;
@@ -131,9 +134,22 @@ public class Tasks {
       return this;
     }
 
+    /**
+     * Priority of executions not setting one. Higher priorities are fetched first when the
+     * scheduler has priority enabled.
+     */
+    public RecurringTaskBuilder<T> defaultPriority(int priority) {
+      this.defaultPriority = checkPriority(priority);
+      return this;
+    }
+
     public RecurringTask<T> execute(VoidExecutionHandler<T> executionHandler) {
       return new RecurringTask<T>(
           name, schedule, dataClass, scheduleOnStartup, onFailure, onDeadExecution) {
+        @Override
+        public int getDefaultPriority() {
+          return defaultPriority;
+        }
 
         @Override
         public void executeRecurringly(
@@ -146,6 +162,10 @@ public class Tasks {
     public RecurringTask<T> executeStateful(StateReturningExecutionHandler<T> executionHandler) {
       return new RecurringTask<T>(
           name, schedule, dataClass, scheduleOnStartup, onFailure, onDeadExecution) {
+        @Override
+        public int getDefaultPriority() {
+          return defaultPriority;
+        }
 
         @Override
         public CompletionHandler<T> execute(
@@ -168,6 +188,8 @@ public class Tasks {
     private final Class<T> dataClass;
     private FailureHandler<T> onFailure =
         new FailureHandler.OnFailureRescheduleUsingTaskDataSchedule<>();
+    private ConcurrencyLimit concurrencyLimit;
+    private int defaultPriority = 0;
 
     public RecurringTaskWithPersistentScheduleBuilder(String name, Class<T> dataClass) {
       this.name = name;
@@ -180,9 +202,43 @@ public class Tasks {
       return this;
     }
 
+    /** Limit the number of concurrent executions of this task per scheduler. */
+    public RecurringTaskWithPersistentScheduleBuilder<T> maxConcurrency(int maxConcurrent) {
+      return maxConcurrency(name, maxConcurrent);
+    }
+
+    /**
+     * Limit the number of concurrent executions per scheduler, shared by all tasks declaring the
+     * same group.
+     */
+    public RecurringTaskWithPersistentScheduleBuilder<T> maxConcurrency(
+        String group, int maxConcurrent) {
+      this.concurrencyLimit = ConcurrencyLimit.of(group, maxConcurrent);
+      return this;
+    }
+
+    /**
+     * Priority of executions not setting one. Higher priorities are fetched first when the
+     * scheduler has priority enabled.
+     */
+    public RecurringTaskWithPersistentScheduleBuilder<T> defaultPriority(int priority) {
+      this.defaultPriority = checkPriority(priority);
+      return this;
+    }
+
     public RecurringTaskWithPersistentSchedule<T> execute(
         VoidExecutionHandler<T> executionHandler) {
       return new RecurringTaskWithPersistentSchedule<T>(name, dataClass, onFailure) {
+        @Override
+        public Optional<ConcurrencyLimit> getConcurrencyLimit() {
+          return Optional.ofNullable(concurrencyLimit);
+        }
+
+        @Override
+        public int getDefaultPriority() {
+          return defaultPriority;
+        }
+
         @Override
         public CompletionHandler<T> execute(
             TaskInstance<T> taskInstance, ExecutionContext executionContext) {
@@ -200,6 +256,15 @@ public class Tasks {
     public RecurringTaskWithPersistentSchedule<T> executeStateful(
         StateReturningExecutionHandler<T> executionHandler) {
       return new RecurringTaskWithPersistentSchedule<T>(name, dataClass, onFailure) {
+        @Override
+        public Optional<ConcurrencyLimit> getConcurrencyLimit() {
+          return Optional.ofNullable(concurrencyLimit);
+        }
+
+        @Override
+        public int getDefaultPriority() {
+          return defaultPriority;
+        }
 
         @Override
         public CompletionHandler<T> execute(
@@ -222,6 +287,8 @@ public class Tasks {
     private final Class<T> dataClass;
     private FailureHandler<T> onFailure;
     private DeadExecutionHandler<T> onDeadExecution;
+    private ConcurrencyLimit concurrencyLimit;
+    private int defaultPriority = 0;
 
     public OneTimeTaskBuilder(String name, Class<T> dataClass) {
       this.name = name;
@@ -250,8 +317,41 @@ public class Tasks {
       return this;
     }
 
+    /** Limit the number of concurrent executions of this task per scheduler. */
+    public OneTimeTaskBuilder<T> maxConcurrency(int maxConcurrent) {
+      return maxConcurrency(name, maxConcurrent);
+    }
+
+    /**
+     * Limit the number of concurrent executions per scheduler, shared by all tasks declaring the
+     * same group.
+     */
+    public OneTimeTaskBuilder<T> maxConcurrency(String group, int maxConcurrent) {
+      this.concurrencyLimit = ConcurrencyLimit.of(group, maxConcurrent);
+      return this;
+    }
+
+    /**
+     * Priority of executions not setting one. Higher priorities are fetched first when the
+     * scheduler has priority enabled.
+     */
+    public OneTimeTaskBuilder<T> defaultPriority(int priority) {
+      this.defaultPriority = checkPriority(priority);
+      return this;
+    }
+
     public OneTimeTask<T> execute(VoidExecutionHandler<T> executionHandler) {
       return new OneTimeTask<T>(name, dataClass, onFailure, onDeadExecution) {
+        @Override
+        public Optional<ConcurrencyLimit> getConcurrencyLimit() {
+          return Optional.ofNullable(concurrencyLimit);
+        }
+
+        @Override
+        public int getDefaultPriority() {
+          return defaultPriority;
+        }
+
         @Override
         public void executeOnce(TaskInstance<T> taskInstance, ExecutionContext executionContext) {
           executionHandler.execute(taskInstance, executionContext);
@@ -267,6 +367,8 @@ public class Tasks {
     private DeadExecutionHandler<T> onDeadExecution;
     private ScheduleOnStartup<T> onStartup;
     private Function<Instant, Instant> defaultExecutionTime = Function.identity();
+    private ConcurrencyLimit concurrencyLimit;
+    private int defaultPriority = 0;
 
     public TaskBuilder(String name, Class<T> dataClass) {
       this.name = name;
@@ -315,9 +417,42 @@ public class Tasks {
       return this;
     }
 
+    /** Limit the number of concurrent executions of this task per scheduler. */
+    public TaskBuilder<T> maxConcurrency(int maxConcurrent) {
+      return maxConcurrency(name, maxConcurrent);
+    }
+
+    /**
+     * Limit the number of concurrent executions per scheduler, shared by all tasks declaring the
+     * same group.
+     */
+    public TaskBuilder<T> maxConcurrency(String group, int maxConcurrent) {
+      this.concurrencyLimit = ConcurrencyLimit.of(group, maxConcurrent);
+      return this;
+    }
+
+    /**
+     * Priority of executions not setting one. Higher priorities are fetched first when the
+     * scheduler has priority enabled.
+     */
+    public TaskBuilder<T> defaultPriority(int priority) {
+      this.defaultPriority = checkPriority(priority);
+      return this;
+    }
+
     public CustomTask<T> execute(ExecutionHandler<T> executionHandler) {
       return new CustomTask<T>(
           name, dataClass, onStartup, defaultExecutionTime, onFailure, onDeadExecution) {
+        @Override
+        public Optional<ConcurrencyLimit> getConcurrencyLimit() {
+          return Optional.ofNullable(concurrencyLimit);
+        }
+
+        @Override
+        public int getDefaultPriority() {
+          return defaultPriority;
+        }
+
         @Override
         public CompletionHandler<T> execute(
             TaskInstance<T> taskInstance, ExecutionContext executionContext) {
@@ -325,5 +460,38 @@ public class Tasks {
         }
       };
     }
+
+    /**
+     * Execute without holding a scheduler thread until the returned stage completes, see {@link
+     * AsyncExecutionHandler}.
+     */
+    public AsyncCustomTask<T> executeAsync(AsyncExecutionHandler<T> executionHandler) {
+      return new AsyncCustomTask<T>(
+          name, dataClass, onStartup, defaultExecutionTime, onFailure, onDeadExecution) {
+        @Override
+        public Optional<ConcurrencyLimit> getConcurrencyLimit() {
+          return Optional.ofNullable(concurrencyLimit);
+        }
+
+        @Override
+        public int getDefaultPriority() {
+          return defaultPriority;
+        }
+
+        @Override
+        public CompletionStage<CompletionHandler<T>> executeAsync(
+            TaskInstance<T> taskInstance, ExecutionContext executionContext) {
+          return executionHandler.executeAsync(taskInstance, executionContext);
+        }
+      };
+    }
+  }
+
+  private static int checkPriority(int priority) {
+    if (priority < Short.MIN_VALUE || priority > Short.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          "Priority must be between " + Short.MIN_VALUE + " and " + Short.MAX_VALUE);
+    }
+    return priority;
   }
 }
@@ -69,7 +69,11 @@ public class ManualScheduler extends Scheduler {
         logStackTrace,
         onStartup,
         dueExecutor,
-        houseKeeperExecutor);
+        houseKeeperExecutor,
+        WakeUpNotifier.NOOP,
+        GroupCommitConfig.DISABLED,
+        false,
+        null);
     this.clock = clock;
   }
 
@@ -0,0 +1,72 @@
+package com.github.kagkarlsson.scheduler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.github.kagkarlsson.scheduler.testhelper.SettableClock;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveWaiterTest {
+
+  private static final Duration MIN = Duration.ofSeconds(1);
+  private static final Duration MAX = Duration.ofSeconds(10);
+
+  @Test
+  public void should_back_off_while_empty_and_cap_at_max() {
+    AdaptiveWaiter waiter = waiter(AdaptivePollingInterval.between(MIN, MAX).withJitter(0.0));
+    assertEquals(MIN, waiter.getWaitDuration());
+
+    waiter.onPollResult(0, 10);
+    assertEquals(Duration.ofSeconds(2), waiter.getWaitDuration());
+    waiter.onPollResult(0, 10);
+    assertEquals(Duration.ofSeconds(4), waiter.getWaitDuration());
+    waiter.onPollResult(0, 10);
+    waiter.onPollResult(0, 10);
+    assertEquals(MAX, waiter.getWaitDuration());
+  }
+
+  @Test
+  public void should_reset_to_min_on_full_batch() {
+    AdaptiveWaiter waiter = waiter(AdaptivePollingInterval.between(MIN, MAX).withJitter(0.0));
+    waiter.onPollResult(0, 10);
+    waiter.onPollResult(0, 10);
+
+    waiter.onPollResult(5, 10);
+    assertEquals(Duration.ofSeconds(4), waiter.getWaitDuration());
+
+    waiter.onPollResult(10, 10);
+    assertEquals(MIN, waiter.getWaitDuration());
+  }
+
+  @Test
+  public void should_jitter_wait_duration_within_fraction() {
+    AdaptiveWaiter waiter = waiter(AdaptivePollingInterval.between(MIN, MAX).withJitter(0.2));
+    for (int i = 0; i < 100; i++) {
+      assertThat(
+          waiter.nextWaitDuration(),
+          allOf(
+              greaterThanOrEqualTo(Duration.ofMillis(800)),
+              lessThanOrEqualTo(Duration.ofMillis(1200))));
+    }
+  }
+
+  @Test
+  public void should_validate_config() {
+    assertThrows(IllegalArgumentException.class, () -> AdaptivePollingInterval.between(MAX, MIN));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> AdaptivePollingInterval.between(MIN, MAX).withBackoffFactor(0.5));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> AdaptivePollingInterval.between(MIN, MAX).withJitter(1.0));
+  }
+
+  private AdaptiveWaiter waiter(AdaptivePollingInterval config) {
+    return new AdaptiveWaiter(config, new SettableClock());
+  }
+}
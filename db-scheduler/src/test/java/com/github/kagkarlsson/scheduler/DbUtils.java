@@ -1,6 +1,7 @@
 package com.github.kagkarlsson.scheduler;
 
 import static com.github.kagkarlsson.jdbc.PreparedStatementSetter.NOOP;
+import static com.github.kagkarlsson.scheduler.jdbc.JdbcTaskRepository.DEFAULT_NODES_TABLE_NAME;
 import static com.github.kagkarlsson.scheduler.jdbc.JdbcTaskRepository.DEFAULT_TABLE_NAME;
 
 import com.github.kagkarlsson.jdbc.JdbcRunner;
@@ -22,6 +23,11 @@ public class DbUtils {
     new JdbcRunner(dataSource, true).execute("delete from " + DEFAULT_TABLE_NAME, NOOP);
   }
 
+  public static void clearTablesAndNodes(DataSource dataSource) {
+    clearTables(dataSource);
+    new JdbcRunner(dataSource, true).execute("delete from " + DEFAULT_NODES_TABLE_NAME, NOOP);
+  }
+
   public static Consumer<DataSource> runSqlResource(String resource) {
     return runSqlResource(resource, false);
   }
@@ -24,7 +24,10 @@ public class EmbeddedPostgresqlExtension implements AfterEachCallback {
   private DataSource nonPooledDatasource;
 
   public EmbeddedPostgresqlExtension() {
-    this(DbUtils.runSqlResource("/postgresql_tables.sql"), DbUtils::clearTables);
+    this(
+        DbUtils.runSqlResource("/postgresql_tables.sql")
+            .andThen(DbUtils.runSqlResource("/postgresql_nodes_table.sql")),
+        DbUtils::clearTablesAndNodes);
   }
 
   public EmbeddedPostgresqlExtension(
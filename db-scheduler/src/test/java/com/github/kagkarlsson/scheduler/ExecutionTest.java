@@ -4,11 +4,13 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
 import com.github.kagkarlsson.scheduler.task.Execution;
+import com.github.kagkarlsson.scheduler.task.ExecutionComplete;
 import com.github.kagkarlsson.scheduler.task.helper.OneTimeTask;
 import com.github.kagkarlsson.scheduler.task.helper.RecurringTask;
 import com.github.kagkarlsson.scheduler.task.schedule.FixedDelay;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Optional;
 import org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 
@@ -41,4 +43,28 @@ public class ExecutionTest {
     assertNotEquals(
         new Execution(now, task.instance("id1")), new Execution(now, task2.instance("id1")));
   }
+
+  @Test
+  public void test_lifecycle_timings() {
+    Instant due = Instant.now();
+    OneTimeTask<Void> task = TestTasks.oneTime("OneTime", Void.class, TestTasks.DO_NOTHING);
+    Execution execution = new Execution(due, task.instance("id1"));
+
+    ExecutionComplete late =
+        ExecutionComplete.success(
+                execution, due.plusSeconds(2), due.plusSeconds(5), due.plusSeconds(6))
+            .withCompletionWritten(due.plusSeconds(7));
+    assertEquals(Optional.of(Duration.ofSeconds(2)), late.getScheduleLag());
+    assertEquals(Optional.of(Duration.ofSeconds(3)), late.getQueueWait());
+    assertEquals(Duration.ofSeconds(1), late.getDuration());
+    assertEquals(Optional.of(Duration.ofSeconds(1)), late.getCompletionWriteDuration());
+
+    // picked ahead of time, waiting until due is not queue-wait
+    ExecutionComplete pickedAhead =
+        ExecutionComplete.success(
+            execution, due.minusSeconds(1), due.plusSeconds(1), due.plusSeconds(2));
+    assertEquals(Optional.of(Duration.ZERO), pickedAhead.getScheduleLag());
+    assertEquals(Optional.of(Duration.ofSeconds(1)), pickedAhead.getQueueWait());
+    assertEquals(Optional.empty(), pickedAhead.getCompletionWriteDuration());
+  }
 }
@@ -0,0 +1,77 @@
+package com.github.kagkarlsson.scheduler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.github.kagkarlsson.scheduler.event.SchedulerListeners;
+import com.github.kagkarlsson.scheduler.task.Execution;
+import com.github.kagkarlsson.scheduler.task.TaskInstance;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class GroupCommitCompletionWriterTest {
+
+  private final AtomicInteger removed = new AtomicInteger();
+  private GroupCommitCompletionWriter writer;
+
+  @BeforeEach
+  public void setUp() {
+    final TaskRepository taskRepository = mock(TaskRepository.class);
+    when(taskRepository.remove(anyList()))
+        .thenAnswer(
+            invocation -> {
+              final List<Execution> removals = invocation.getArgument(0);
+              removed.addAndGet(removals.size());
+              return new boolean[removals.size()];
+            });
+    writer =
+        new GroupCommitCompletionWriter(
+            taskRepository,
+            mock(SchedulerListeners.class),
+            new GroupCommitConfig(2, Duration.ofMillis(10), 2));
+  }
+
+  @AfterEach
+  public void tearDown() {
+    writer.stop();
+  }
+
+  @Test
+  public void should_write_directly_when_writer_thread_is_interrupted() throws Exception {
+    writer.start();
+    final Thread writerThread = writerThread();
+    writerThread.interrupt();
+    writerThread.join();
+
+    // more than the queue holds
+    assertTimeoutPreemptively(
+        Duration.ofSeconds(5),
+        () -> {
+          for (int i = 0; i < 5; i++) {
+            writer.remove(execution(String.valueOf(i)));
+          }
+        });
+    assertThat(removed.get(), is(5));
+  }
+
+  private static Thread writerThread() {
+    return Thread.getAllStackTraces().keySet().stream()
+        .filter(t -> t.getName().startsWith("db-scheduler-completion-writer-"))
+        .filter(Thread::isAlive)
+        .findFirst()
+        .orElseThrow();
+  }
+
+  private static Execution execution(String id) {
+    return new Execution(Instant.now(), new TaskInstance<>("task", id));
+  }
+}
@@ -0,0 +1,87 @@
+package com.github.kagkarlsson.scheduler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class HashedTimerWheelTest {
+
+  private static final Duration TICK = Duration.ofMillis(10);
+  private Instant start;
+  private HashedTimerWheel<String> wheel;
+
+  @BeforeEach
+  public void setUp() {
+    start = Instant.parse("2023-01-01T00:00:00Z");
+    wheel = new HashedTimerWheel<>(TICK, 8, start);
+  }
+
+  @Test
+  public void should_not_fire_before_deadline() {
+    wheel.schedule(start.plusMillis(25), "a");
+
+    assertThat(wheel.advanceTo(start.plusMillis(20)), empty());
+    assertThat(wheel.advanceTo(start.plusMillis(30)), contains("a"));
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  public void should_fire_in_deadline_order() {
+    wheel.schedule(start.plusMillis(40), "c");
+    wheel.schedule(start.plusMillis(10), "a");
+    wheel.schedule(start.plusMillis(20), "b");
+
+    assertThat(wheel.advanceTo(start.plusMillis(50)), contains("a", "b", "c"));
+  }
+
+  @Test
+  public void should_handle_deadlines_beyond_one_rotation() {
+    // wheel covers 80ms per rotation
+    wheel.schedule(start.plusMillis(30), "a");
+    wheel.schedule(start.plusMillis(110), "b");
+
+    assertThat(wheel.advanceTo(start.plusMillis(30)), contains("a"));
+    assertThat(wheel.advanceTo(start.plusMillis(100)), empty());
+    assertThat(wheel.advanceTo(start.plusMillis(110)), contains("b"));
+  }
+
+  @Test
+  public void should_fire_everything_due_when_advancing_multiple_rotations() {
+    wheel.schedule(start.plusMillis(30), "a");
+    wheel.schedule(start.plusMillis(150), "b");
+    wheel.schedule(start.plusMillis(500), "c");
+
+    assertThat(wheel.advanceTo(start.plusMillis(200)), contains("a", "b"));
+    assertEquals(1, wheel.size());
+  }
+
+  @Test
+  public void should_fire_past_deadlines_on_next_tick() {
+    wheel.advanceTo(start.plusMillis(50));
+    wheel.schedule(start.plusMillis(10), "late");
+
+    assertThat(wheel.advanceTo(start.plusMillis(60)), contains("late"));
+  }
+
+  @Test
+  public void should_drain_remaining() {
+    wheel.schedule(start.plusMillis(300), "b");
+    wheel.schedule(start.plusMillis(30), "a");
+
+    assertThat(wheel.drain(), contains("a", "b"));
+    assertEquals(0, wheel.size());
+    assertThat(wheel.advanceTo(start.plusMillis(400)), empty());
+  }
+
+  @Test
+  public void should_require_wheel_size_power_of_two() {
+    assertThrows(IllegalArgumentException.class, () -> new HashedTimerWheel<>(TICK, 10, start));
+  }
+}
@@ -0,0 +1,67 @@
+package com.github.kagkarlsson.scheduler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.github.kagkarlsson.scheduler.task.Execution;
+import com.github.kagkarlsson.scheduler.task.TaskInstance;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+public class InMemoryPagesTest {
+  private final Instant now = Instant.now();
+
+  @Test
+  public void should_page_in_execution_order() {
+    final List<Execution> all =
+        List.of(
+            execution("b", "1", now),
+            execution("a", "2", now),
+            execution("a", "1", now),
+            execution("a", "0", now.plusSeconds(1)));
+
+    final List<String> page = new ArrayList<>();
+    final Optional<String> next =
+        InMemoryPages.page(
+            all,
+            InMemoryPages.EXECUTION_ORDER,
+            ScheduledExecutionsFilter.all().withPageSize(3),
+            e -> page.add(id(e)));
+    assertThat(page, contains("a/1", "a/2", "b/1"));
+
+    final List<String> lastPage = new ArrayList<>();
+    final Optional<String> afterLast =
+        InMemoryPages.page(
+            all,
+            InMemoryPages.EXECUTION_ORDER,
+            ScheduledExecutionsFilter.all().withPageSize(3).withPageToken(next.get()),
+            e -> lastPage.add(id(e)));
+    assertThat(lastPage, contains("a/0"));
+    assertThat(afterLast.isPresent(), is(false));
+  }
+
+  @Test
+  public void should_reject_invalid_page_token() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            InMemoryPages.page(
+                List.of(execution("a", "1", now)),
+                InMemoryPages.EXECUTION_ORDER,
+                ScheduledExecutionsFilter.all().withPageToken("not-an-offset"),
+                e -> {}));
+  }
+
+  private static Execution execution(String taskName, String id, Instant executionTime) {
+    return new Execution(executionTime, new TaskInstance<>(taskName, id));
+  }
+
+  private static String id(Execution execution) {
+    return execution.taskInstance.getTaskName() + "/" + execution.taskInstance.getId();
+  }
+}
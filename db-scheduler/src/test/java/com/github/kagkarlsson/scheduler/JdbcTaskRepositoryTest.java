@@ -3,12 +3,14 @@ package com.github.kagkarlsson.scheduler;
 import static com.github.kagkarlsson.scheduler.ScheduledExecutionsFilter.all;
 import static com.github.kagkarlsson.scheduler.ScheduledExecutionsFilter.onlyResolved;
 import static com.github.kagkarlsson.scheduler.jdbc.JdbcTaskRepository.DEFAULT_TABLE_NAME;
+import static java.util.Arrays.asList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -16,10 +18,14 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import co.unruly.matchers.OptionalMatchers;
 import com.github.kagkarlsson.scheduler.helper.TestableRegistry;
 import com.github.kagkarlsson.scheduler.helper.TimeHelper;
+import com.github.kagkarlsson.scheduler.jdbc.AutodetectJdbcCustomization;
 import com.github.kagkarlsson.scheduler.jdbc.JdbcTaskRepository;
+import com.github.kagkarlsson.scheduler.serializer.Serializer;
+import com.github.kagkarlsson.scheduler.stats.BacklogSample;
 import com.github.kagkarlsson.scheduler.stats.StatsRegistry.SchedulerStatsEvent;
 import com.github.kagkarlsson.scheduler.task.*;
 import com.github.kagkarlsson.scheduler.task.helper.OneTimeTask;
+import com.github.kagkarlsson.scheduler.task.helper.Tasks;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -27,8 +33,11 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -84,6 +93,24 @@ public class JdbcTaskRepositoryTest {
     assertTrue(taskRepository.createIfNotExists(new SchedulableTaskInstance<>(instance2, now)));
   }
 
+  @Test
+  public void createIfNotExists_batch_should_report_which_were_created() {
+    Instant now = TimeHelper.truncatedInstantNow();
+    taskRepository.createIfNotExists(SchedulableInstance.of(oneTimeTask.instance("id1"), now));
+    taskRepository.createIfNotExists(SchedulableInstance.of(oneTimeTask.instance("id3"), now));
+
+    final boolean[] created =
+        taskRepository.createIfNotExists(
+            List.of(
+                SchedulableInstance.of(oneTimeTask.instance("id1"), now),
+                SchedulableInstance.of(oneTimeTask.instance("id2"), now),
+                SchedulableInstance.of(oneTimeTask.instance("id3"), now),
+                SchedulableInstance.of(oneTimeTask.instance("id4"), now)));
+
+    assertArrayEquals(new boolean[] {false, true, false, true}, created);
+    assertThat(taskRepository.getDue(now, POLLING_LIMIT), hasSize(4));
+  }
+
   @Test
   public void test_replace() {
     Instant now = TimeHelper.truncatedInstantNow();
@@ -227,6 +254,97 @@ public class JdbcTaskRepositoryTest {
     assertThat(taskRepository.pick(pickedExecution.get(), now).isPresent(), is(false));
   }
 
+  @Test
+  public void batch_pick_should_only_return_candidates_won() {
+    Instant now = TimeHelper.truncatedInstantNow();
+    taskRepository.createIfNotExists(
+        new SchedulableTaskInstance<>(oneTimeTask.instance("id1"), now));
+    taskRepository.createIfNotExists(
+        new SchedulableTaskInstance<>(oneTimeTask.instance("id2"), now));
+    taskRepository.createIfNotExists(
+        new SchedulableTaskInstance<>(oneTimeTask.instance("id3"), now));
+
+    List<Execution> due = taskRepository.getDue(now, POLLING_LIMIT);
+    assertThat(due, hasSize(3));
+    // lost to another scheduler
+    assertThat(taskRepository.pick(due.get(1), now).isPresent(), is(true));
+
+    final List<Execution> picked = taskRepository.pick(due, now);
+    assertThat(picked, hasSize(2));
+    assertThat(picked.get(0).taskInstance, is(due.get(0).taskInstance));
+    assertThat(picked.get(1).taskInstance, is(due.get(2).taskInstance));
+    assertThat(picked.get(0).picked, is(true));
+    assertThat(picked.get(0).version, is(due.get(0).version + 1));
+    assertThat(taskRepository.getDue(now, POLLING_LIMIT), hasSize(0));
+
+    // picked executions must be usable for completion
+    taskRepository.remove(picked.get(0));
+    taskRepository.reschedule(picked.get(1), now.plusSeconds(1), now, null, 0);
+  }
+
+  @Test
+  public void batch_remove_and_reschedule_should_report_version_conflicts() {
+    Instant now = TimeHelper.truncatedInstantNow();
+    taskRepository.createIfNotExists(
+        new SchedulableTaskInstance<>(oneTimeTask.instance("id1"), now));
+    taskRepository.createIfNotExists(
+        new SchedulableTaskInstance<>(oneTimeTask.instance("id2"), now));
+    taskRepository.createIfNotExists(
+        new SchedulableTaskInstance<>(oneTimeTask.instance("id3"), now));
+    taskRepository.createIfNotExists(
+        new SchedulableTaskInstance<>(oneTimeTask.instance("id4"), now));
+
+    final List<Execution> picked =
+        taskRepository.pick(taskRepository.getDue(now, POLLING_LIMIT), now);
+    assertThat(picked, hasSize(4));
+    // outdated versions
+    final Execution removeConflict = picked.get(1).updateToPicked("other", now);
+    final Execution rescheduleConflict = picked.get(3).updateToPicked("other", now);
+
+    final boolean[] removed = taskRepository.remove(asList(picked.get(0), removeConflict));
+    assertThat(removed[0], is(true));
+    assertThat(removed[1], is(false));
+
+    final Instant nextExecutionTime = now.plusSeconds(60);
+    final boolean[] rescheduled =
+        taskRepository.reschedule(
+            asList(
+                new RescheduleUpdate(picked.get(2), nextExecutionTime, now, null, 0),
+                new RescheduleUpdate(rescheduleConflict, nextExecutionTime, now, null, 0)));
+    assertThat(rescheduled[0], is(true));
+    assertThat(rescheduled[1], is(false));
+
+    assertThat(taskRepository.getExecution(picked.get(0).taskInstance).isPresent(), is(false));
+    final Execution rescheduledExecution =
+        taskRepository.getExecution(picked.get(2).taskInstance).get();
+    assertThat(rescheduledExecution.isPicked(), is(false));
+    assertThat(rescheduledExecution.executionTime, is(nextExecutionTime));
+    assertThat(rescheduledExecution.lastSuccess, is(now));
+    assertThat(taskRepository.getExecution(picked.get(3).taskInstance).get().isPicked(), is(true));
+  }
+
+  @Test
+  public void batch_heartbeats_should_only_update_current_versions() {
+    Instant now = TimeHelper.truncatedInstantNow();
+    taskRepository.createIfNotExists(
+        new SchedulableTaskInstance<>(oneTimeTask.instance("id1"), now));
+    taskRepository.createIfNotExists(
+        new SchedulableTaskInstance<>(oneTimeTask.instance("id2"), now));
+
+    final List<Execution> picked =
+        taskRepository.pick(taskRepository.getDue(now, POLLING_LIMIT), now);
+    assertThat(picked, hasSize(2));
+    // completed just before the heartbeat
+    taskRepository.remove(picked.get(1));
+
+    final Instant heartbeat = now.plusSeconds(10);
+    final boolean[] updated = taskRepository.updateHeartbeats(picked, heartbeat);
+    assertThat(updated[0], is(true));
+    assertThat(updated[1], is(false));
+    assertThat(
+        taskRepository.getExecution(picked.get(0).taskInstance).get().lastHeartbeat, is(heartbeat));
+  }
+
   @Test
   public void reschedule_should_move_execution_in_time() {
     Instant now = TimeHelper.truncatedInstantNow();
@@ -311,6 +429,63 @@ public class JdbcTaskRepositoryTest {
     assertThat(taskRepository.getExecutionsFailingLongerThan(Duration.ofHours(1)), hasSize(0));
   }
 
+  @Test
+  public void dead_executions_should_load_data_when_accessed() {
+    Instant now = TimeHelper.truncatedInstantNow();
+    final Instant timeDied = now.minus(Duration.ofDays(5));
+    final TaskInstance<Integer> instance = oneTimeTaskWithData.instance("id1", 42);
+    taskRepository.createIfNotExists(new SchedulableTaskInstance<>(instance, timeDied));
+    final Execution picked = taskRepository.pick(getSingleDueExecution(), timeDied).get();
+    taskRepository.updateHeartbeat(picked, timeDied);
+
+    final List<Execution> dead = taskRepository.getDeadExecutions(now);
+    assertThat(dead, hasSize(1));
+    assertEquals(42, dead.get(0).taskInstance.getData());
+
+    taskRepository.reschedule(picked, now, null, now, 1);
+    final List<Execution> failing = taskRepository.getExecutionsFailingLongerThan(Duration.ZERO);
+    assertThat(failing, hasSize(1));
+    assertEquals(42, failing.get(0).taskInstance.getData());
+  }
+
+  @Test
+  public void get_scheduled_executions_without_task_data() {
+    Instant now = TimeHelper.truncatedInstantNow();
+    taskRepository.createIfNotExists(
+        new SchedulableTaskInstance<>(oneTimeTaskWithData.instance("id1", 1), now));
+
+    final List<Execution> executions =
+        getScheduledExecutions(all().withIncludeTaskData(false).withPageSize(10));
+    assertThat(executions, hasSize(1));
+    assertEquals(1, executions.get(0).taskInstance.getData());
+  }
+
+  @Test
+  public void sample_backlog_should_count_due_and_picked() {
+    Instant now = TimeHelper.truncatedInstantNow();
+    taskRepository.createIfNotExists(
+        new SchedulableTaskInstance<>(oneTimeTask.instance("id1"), now.minusSeconds(60)));
+    taskRepository.createIfNotExists(
+        new SchedulableTaskInstance<>(oneTimeTask.instance("id2"), now.minusSeconds(10)));
+    taskRepository.createIfNotExists(
+        new SchedulableTaskInstance<>(alternativeOneTimeTask.instance("id3"), now));
+    taskRepository.createIfNotExists(
+        new SchedulableTaskInstance<>(oneTimeTask.instance("future"), now.plusSeconds(60)));
+
+    BacklogSample sample = taskRepository.sampleBacklog(now, 100);
+    assertThat(sample.getDueByTask().get(oneTimeTask.getName()), is(2L));
+    assertThat(sample.getDueByTask().get(alternativeOneTimeTask.getName()), is(1L));
+    assertThat(sample.getLag(), is(Duration.ofSeconds(60)));
+    assertThat(sample.getPickedByScheduler().isEmpty(), is(true));
+
+    taskRepository.pick(taskRepository.getExecution(oneTimeTask.instance("id1")).get(), now);
+
+    sample = taskRepository.sampleBacklog(now, 100);
+    assertThat(sample.getDueByTask().get(oneTimeTask.getName()), is(1L));
+    assertThat(sample.getLag(), is(Duration.ofSeconds(10)));
+    assertThat(sample.getPickedByScheduler().get(SCHEDULER_NAME), is(1L));
+  }
+
   @Test
   public void get_scheduled_executions() {
     Instant now = TimeHelper.truncatedInstantNow();
@@ -433,6 +608,186 @@ public class JdbcTaskRepositoryTest {
     assertThat(taskRepository.pick(picked.get(0), now), OptionalMatchers.empty());
   }
 
+  @Test
+  public void lockAndGetDue_should_not_pick_more_than_free_slots() {
+    Instant now = TimeHelper.truncatedInstantNow();
+    IntStream.range(0, 5)
+        .forEach(
+            i -> {
+              taskRepository.createIfNotExists(
+                  new SchedulableTaskInstance<>(oneTimeTask.instance("id" + i), now));
+              taskRepository.createIfNotExists(
+                  new SchedulableTaskInstance<>(alternativeOneTimeTask.instance("id" + i), now));
+            });
+    final List<ConcurrencySlots> slots =
+        List.of(new ConcurrencySlots("limited", Set.of(oneTimeTask.getName()), 2));
+
+    List<Execution> picked = taskRepository.lockAndGetDue(now, POLLING_LIMIT, slots);
+    assertThat(picked, hasSize(7));
+    assertThat(
+        picked.stream().filter(e -> e.taskInstance.getTaskName().equals("OneTime")).count(),
+        is(2L));
+
+    final List<ConcurrencySlots> full =
+        List.of(new ConcurrencySlots("limited", Set.of(oneTimeTask.getName()), 0));
+    assertThat(taskRepository.lockAndGetDue(now, POLLING_LIMIT, full), hasSize(0));
+    assertThat(taskRepository.getDue(now, POLLING_LIMIT, full), hasSize(0));
+    assertThat(taskRepository.getDue(now, POLLING_LIMIT, slots), hasSize(2));
+  }
+
+  @Test
+  public void getDue_should_split_limit_between_shares_and_redistribute_leftover() {
+    Instant now = TimeHelper.truncatedInstantNow();
+    IntStream.range(0, 10)
+        .forEach(
+            i ->
+                taskRepository.createIfNotExists(
+                    new SchedulableTaskInstance<>(
+                        oneTimeTask.instance("id" + i), now.minusSeconds(60 - i))));
+    IntStream.range(0, 2)
+        .forEach(
+            i ->
+                taskRepository.createIfNotExists(
+                    new SchedulableTaskInstance<>(alternativeOneTimeTask.instance("id" + i), now)));
+    final List<FairShare.Share> shares =
+        FairShare.equalWeights().sharesFor(taskResolver.getKnownTasks(), List.of());
+
+    assertThat(
+        countByTask(taskRepository.getDue(now, 4, List.of(), shares)),
+        is(Map.of("OneTime", 2L, "AlternativeOneTime", 2L)));
+    assertThat(
+        countByTask(taskRepository.getDue(now, 6, List.of(), shares)),
+        is(Map.of("OneTime", 4L, "AlternativeOneTime", 2L)));
+
+    final List<FairShare.Share> weighted =
+        FairShare.equalWeights()
+            .withWeight("OneTime", 3)
+            .sharesFor(taskResolver.getKnownTasks(), List.of());
+    assertThat(
+        countByTask(taskRepository.lockAndGetDue(now, 4, List.of(), weighted)),
+        is(Map.of("OneTime", 3L, "AlternativeOneTime", 1L)));
+    assertThat(
+        countByTask(taskRepository.lockAndGetDue(now, 8, List.of(), weighted)),
+        is(Map.of("OneTime", 7L, "AlternativeOneTime", 1L)));
+  }
+
+  @Test
+  public void getDue_should_not_fetch_excluded_instances() {
+    Instant now = TimeHelper.truncatedInstantNow();
+    IntStream.range(0, 4)
+        .forEach(
+            i -> {
+              taskRepository.createIfNotExists(
+                  new SchedulableTaskInstance<>(
+                      oneTimeTask.instance("id" + i), now.minusSeconds(10 - i)));
+              taskRepository.createIfNotExists(
+                  new SchedulableTaskInstance<>(alternativeOneTimeTask.instance("id" + i), now));
+            });
+    final Set<TaskInstance<?>> held =
+        Set.of(
+            oneTimeTask.instance("id0"),
+            oneTimeTask.instance("id1"),
+            alternativeOneTimeTask.instance("id0"));
+
+    assertThat(
+        ids(taskRepository.getDue(now, 2, List.of(), List.of(), held)), is(List.of("id2", "id3")));
+    assertThat(taskRepository.getDue(now, POLLING_LIMIT, List.of(), List.of(), held), hasSize(5));
+
+    final List<FairShare.Share> shares =
+        FairShare.equalWeights().sharesFor(taskResolver.getKnownTasks(), List.of());
+    assertThat(
+        countByTask(taskRepository.getDue(now, POLLING_LIMIT, List.of(), shares, held)),
+        is(Map.of("OneTime", 2L, "AlternativeOneTime", 3L)));
+  }
+
+  @Test
+  public void getDue_should_exclude_more_instances_than_fit_in_query() {
+    Instant now = TimeHelper.truncatedInstantNow();
+    final List<SchedulableInstance<?>> instances =
+        IntStream.range(0, 1205)
+            .mapToObj(
+                i ->
+                    (SchedulableInstance<?>)
+                        SchedulableInstance.of(
+                            oneTimeTask.instance("id" + i), now.minusSeconds(2000 - i)))
+            .collect(Collectors.toList());
+    taskRepository.createIfNotExists(instances);
+    final Set<TaskInstance<?>> held =
+        IntStream.range(0, 1200)
+            .mapToObj(i -> oneTimeTask.instance("id" + i))
+            .collect(Collectors.toSet());
+
+    assertThat(
+        ids(taskRepository.getDue(now, 3, List.of(), List.of(), held)),
+        is(List.of("id1200", "id1201", "id1202")));
+    assertThat(taskRepository.getDue(now, POLLING_LIMIT, List.of(), List.of(), held), hasSize(5));
+  }
+
+  @Test
+  public void getDue_should_order_by_priority_when_enabled() {
+    Instant now = TimeHelper.truncatedInstantNow();
+    final OneTimeTask<Void> urgentTask =
+        Tasks.oneTime("Urgent").defaultPriority(5).execute(TestTasks.DO_NOTHING);
+    final JdbcTaskRepository repository =
+        repositoryWithPriority(PriorityConfig.enabled(), urgentTask);
+
+    repository.createIfNotExists(
+        SchedulableInstance.of(oneTimeTask.instance("old"), now.minusSeconds(60)));
+    repository.createIfNotExists(SchedulableInstance.of(urgentTask.instance("default"), now));
+    repository.createIfNotExists(
+        SchedulableInstance.of(oneTimeTask.instance("explicit"), now).withPriority(10));
+
+    assertThat(
+        ids(repository.getDue(now, POLLING_LIMIT)), is(List.of("explicit", "default", "old")));
+    assertThat(repository.getDue(now, POLLING_LIMIT).get(0).priority, is(10));
+    assertThat(ids(repository.lockAndGetDue(now, 2)), is(List.of("explicit", "default")));
+    assertThat(ids(repository.lockAndGetDue(now, 2)), is(List.of("old")));
+  }
+
+  @Test
+  public void getDue_should_age_priority_with_time_overdue() {
+    Instant now = TimeHelper.truncatedInstantNow();
+    final JdbcTaskRepository repository =
+        repositoryWithPriority(PriorityConfig.enabled().withAging(Duration.ofMinutes(1), 5));
+
+    // aged to 0 + 5
+    repository.createIfNotExists(
+        SchedulableInstance.of(oneTimeTask.instance("aged"), now.minus(Duration.ofMinutes(30))));
+    repository.createIfNotExists(
+        SchedulableInstance.of(oneTimeTask.instance("low"), now).withPriority(4));
+    repository.createIfNotExists(
+        SchedulableInstance.of(oneTimeTask.instance("high"), now).withPriority(6));
+
+    assertThat(ids(repository.getDue(now, POLLING_LIMIT)), is(List.of("high", "aged", "low")));
+    assertThat(ids(repository.lockAndGetDue(now, 2)), is(List.of("high", "aged")));
+  }
+
+  private JdbcTaskRepository repositoryWithPriority(PriorityConfig priority, Task<?>... tasks) {
+    final List<Task<?>> knownTasks =
+        new ArrayList<>(asList(oneTimeTask, oneTimeTaskWithData, alternativeOneTimeTask));
+    knownTasks.addAll(asList(tasks));
+    return new JdbcTaskRepository(
+        DB.getDataSource(),
+        false,
+        new AutodetectJdbcCustomization(DB.getDataSource()),
+        DEFAULT_TABLE_NAME,
+        JdbcTaskRepository.DEFAULT_NODES_TABLE_NAME,
+        new TaskResolver(testableRegistry, knownTasks),
+        new SchedulerName.Fixed(SCHEDULER_NAME),
+        Serializer.DEFAULT_JAVA_SERIALIZER,
+        priority,
+        new SystemClock());
+  }
+
+  private List<String> ids(List<Execution> executions) {
+    return executions.stream().map(e -> e.taskInstance.getId()).collect(Collectors.toList());
+  }
+
+  private Map<String, Long> countByTask(List<Execution> executions) {
+    return executions.stream()
+        .collect(Collectors.groupingBy(e -> e.taskInstance.getTaskName(), Collectors.counting()));
+  }
+
   @Test
   public void lockAndGetDue_should_not_include_previously_unresolved() {
     Instant now = TimeHelper.truncatedInstantNow();
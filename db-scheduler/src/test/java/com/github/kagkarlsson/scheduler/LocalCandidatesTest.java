@@ -0,0 +1,230 @@
+package com.github.kagkarlsson.scheduler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.kagkarlsson.scheduler.SchedulerState.SettableSchedulerState;
+import com.github.kagkarlsson.scheduler.event.SchedulerListener.CandidateEventType;
+import com.github.kagkarlsson.scheduler.event.SchedulerListeners;
+import com.github.kagkarlsson.scheduler.task.Execution;
+import com.github.kagkarlsson.scheduler.task.TaskInstance;
+import com.github.kagkarlsson.scheduler.testhelper.SettableClock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LocalCandidatesTest {
+
+  private TaskRepository taskRepository;
+  private SchedulerListeners schedulerListeners;
+  private SettableSchedulerState schedulerState;
+  private final SettableClock clock = new SettableClock();
+
+  @BeforeEach
+  public void setUp() {
+    taskRepository = mock(TaskRepository.class);
+    schedulerListeners = mock(SchedulerListeners.class);
+    schedulerState = new SettableSchedulerState();
+    // all candidates won
+    when(taskRepository.pick(anyList(), any(Instant.class)))
+        .thenAnswer(invocation -> new ArrayList<>(invocation.<List<Execution>>getArgument(0)));
+  }
+
+  @Test
+  public void merge_should_only_add_instances_not_already_held() {
+    LocalCandidates candidates = localCandidates(10, 1);
+
+    List<TaskInstance<?>> added = new ArrayList<>();
+    candidates.merge(List.of(execution("a", 1), execution("b", 1)), added);
+    assertThat(added, contains(instance("a"), instance("b")));
+
+    added.clear();
+    boolean leftBehind = candidates.merge(List.of(execution("a", 1), execution("c", 1)), added);
+    assertThat(added, contains(instance("c")));
+    assertThat(leftBehind, is(false));
+    assertThat(candidates.size(), is(3));
+  }
+
+  @Test
+  public void merge_should_leave_behind_when_full() {
+    LocalCandidates candidates = localCandidates(2, 1);
+
+    List<TaskInstance<?>> added = new ArrayList<>();
+    boolean leftBehind =
+        candidates.merge(List.of(execution("a", 1), execution("b", 1), execution("c", 1)), added);
+
+    assertThat(leftBehind, is(true));
+    assertThat(added, contains(instance("a"), instance("b")));
+    assertThat(candidates.held(), containsInAnyOrder(instance("a"), instance("b")));
+  }
+
+  @Test
+  public void pick_should_pick_following_candidates_ahead() {
+    LocalCandidates candidates = localCandidates(10, 2);
+    candidates.merge(
+        List.of(execution("a", 1), execution("b", 1), execution("c", 1)), new ArrayList<>());
+
+    assertThat(candidates.pick(instance("a")).isPresent(), is(true));
+    // b picked ahead, still held so not fetched again
+    assertThat(candidates.held(), containsInAnyOrder(instance("b"), instance("c")));
+    assertThat(candidates.pick(instance("b")).isPresent(), is(true));
+    verify(taskRepository, times(1)).pick(anyList(), any(Instant.class));
+
+    assertThat(candidates.pick(instance("c")).isPresent(), is(true));
+    verify(taskRepository, times(2)).pick(anyList(), any(Instant.class));
+    assertThat(candidates.held(), empty());
+  }
+
+  @Test
+  public void pick_should_release_candidates_lost_to_other_scheduler() {
+    when(taskRepository.pick(anyList(), any(Instant.class))).thenReturn(Collections.emptyList());
+    LocalCandidates candidates = localCandidates(10, 2);
+    candidates.merge(List.of(execution("a", 1), execution("b", 1)), new ArrayList<>());
+
+    assertThat(candidates.pick(instance("a")), is(Optional.empty()));
+    assertThat(candidates.pick(instance("b")), is(Optional.empty()));
+
+    verify(taskRepository, times(1)).pick(anyList(), any(Instant.class));
+    verify(schedulerListeners, times(2)).onCandidateEvent(CandidateEventType.ALREADY_PICKED);
+    assertThat(candidates.held(), empty());
+  }
+
+  @Test
+  public void pick_should_skip_unpicked_but_execute_picked_ahead_when_shutting_down() {
+    LocalCandidates candidates = localCandidates(10, 2);
+    candidates.merge(
+        List.of(execution("a", 1), execution("b", 1), execution("c", 1)), new ArrayList<>());
+    candidates.pick(instance("a"));
+
+    schedulerState.setIsShuttingDown();
+
+    assertThat(candidates.pick(instance("b")).isPresent(), is(true));
+    assertThat(candidates.pick(instance("c")), is(Optional.empty()));
+    verify(taskRepository, times(1)).pick(anyList(), any(Instant.class));
+    assertThat(candidates.held(), empty());
+  }
+
+  @Test
+  public void pick_should_fail_for_candidate_not_held() {
+    LocalCandidates candidates = localCandidates(10, 1);
+
+    assertThrows(IllegalStateException.class, () -> candidates.pick(instance("a")));
+  }
+
+  @Test
+  public void concurrent_picks_should_pick_each_candidate_once() throws Exception {
+    final int numberOfCandidates = 200;
+    final Set<TaskInstance<?>> attempted = ConcurrentHashMap.newKeySet();
+    final List<Execution> duplicates = Collections.synchronizedList(new ArrayList<>());
+    when(taskRepository.pick(anyList(), any(Instant.class)))
+        .thenAnswer(
+            invocation -> {
+              final List<Execution> toPick = invocation.getArgument(0);
+              toPick.stream().filter(e -> !attempted.add(e.taskInstance)).forEach(duplicates::add);
+              return new ArrayList<>(toPick);
+            });
+
+    LocalCandidates candidates = localCandidates(numberOfCandidates, 5);
+    final List<Execution> fetched =
+        IntStream.range(0, numberOfCandidates)
+            .mapToObj(i -> execution(String.valueOf(i), 1))
+            .collect(Collectors.toList());
+    final List<TaskInstance<?>> added = new ArrayList<>();
+    candidates.merge(fetched, added);
+
+    ExecutorService executorService = Executors.newFixedThreadPool(8);
+    try {
+      final List<Future<Optional<Execution>>> picks = new ArrayList<>();
+      for (TaskInstance<?> candidate : added) {
+        picks.add(executorService.submit(() -> candidates.pick(candidate)));
+      }
+      for (Future<Optional<Execution>> pick : picks) {
+        assertThat(pick.get().isPresent(), is(true));
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+
+    assertThat(duplicates, empty());
+    assertThat(attempted.size(), is(numberOfCandidates));
+    assertThat(candidates.held(), empty());
+  }
+
+  @Test
+  public void pick_should_not_hold_lock_while_picking_batch() throws Exception {
+    final CountDownLatch picking = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    when(taskRepository.pick(anyList(), any(Instant.class)))
+        .thenAnswer(
+            invocation -> {
+              picking.countDown();
+              release.await();
+              return new ArrayList<>(invocation.<List<Execution>>getArgument(0));
+            });
+    LocalCandidates candidates = localCandidates(10, 2);
+    candidates.merge(
+        List.of(execution("a", 1), execution("b", 1), execution("c", 1)), new ArrayList<>());
+
+    ExecutorService executorService = Executors.newFixedThreadPool(2);
+    try {
+      final Future<Optional<Execution>> pickA =
+          executorService.submit(() -> candidates.pick(instance("a")));
+      picking.await();
+      assertTimeoutPreemptively(
+          Duration.ofSeconds(5),
+          () -> {
+            assertThat(candidates.held(), containsInAnyOrder(instance("b"), instance("c")));
+            candidates.merge(List.of(execution("d", 1)), new ArrayList<>());
+          });
+
+      // b waits for the batch picked by a
+      final Future<Optional<Execution>> pickB =
+          executorService.submit(() -> candidates.pick(instance("b")));
+
+      release.countDown();
+      assertThat(pickA.get().isPresent(), is(true));
+      assertThat(pickB.get().isPresent(), is(true));
+      verify(taskRepository, times(1)).pick(anyList(), any(Instant.class));
+    } finally {
+      release.countDown();
+      executorService.shutdownNow();
+    }
+  }
+
+  private LocalCandidates localCandidates(int maxHeld, int pickBatchSize) {
+    return new LocalCandidates(
+        taskRepository, schedulerListeners, schedulerState, clock, maxHeld, pickBatchSize);
+  }
+
+  private static TaskInstance<Void> instance(String id) {
+    return new TaskInstance<>("task", id);
+  }
+
+  private static Execution execution(String id, long version) {
+    return new Execution(Instant.now(), instance(id), false, null, null, null, 0, null, version);
+  }
+}
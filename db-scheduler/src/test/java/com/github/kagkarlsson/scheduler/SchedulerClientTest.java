@@ -4,6 +4,7 @@ import static com.github.kagkarlsson.scheduler.SchedulerClient.Builder.create;
 import static java.time.Duration.ofSeconds;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -12,6 +13,7 @@ import co.unruly.matchers.OptionalMatchers;
 import com.github.kagkarlsson.scheduler.TestTasks.SavingHandler;
 import com.github.kagkarlsson.scheduler.serializer.JavaSerializer;
 import com.github.kagkarlsson.scheduler.task.ExecutionContext;
+import com.github.kagkarlsson.scheduler.task.SchedulableInstance;
 import com.github.kagkarlsson.scheduler.task.TaskInstance;
 import com.github.kagkarlsson.scheduler.task.TaskInstanceId;
 import com.github.kagkarlsson.scheduler.task.VoidExecutionHandler;
@@ -20,6 +22,8 @@ import com.github.kagkarlsson.scheduler.testhelper.ManualScheduler;
 import com.github.kagkarlsson.scheduler.testhelper.SettableClock;
 import com.github.kagkarlsson.scheduler.testhelper.TestHelper;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -96,6 +100,107 @@ public class SchedulerClientTest {
     assertThat(onetimeTaskHandlerA.timesExecuted.get(), CoreMatchers.is(2));
   }
 
+  @Test
+  public void client_should_be_able_to_schedule_executions_in_batches() {
+    SchedulerClient client = create(DB.getDataSource()).build();
+    client.scheduleIfNotExists(oneTimeTaskA.instance("2"), settableClock.now());
+
+    final boolean[] scheduled =
+        client.scheduleIfNotExistsBatch(
+            List.of(
+                SchedulableInstance.of(oneTimeTaskA.instance("1"), settableClock.now()),
+                SchedulableInstance.of(oneTimeTaskA.instance("2"), settableClock.now()),
+                SchedulableInstance.of(oneTimeTaskA.instance("3"), settableClock.now()),
+                SchedulableInstance.of(oneTimeTaskA.instance("1"), settableClock.now()),
+                SchedulableInstance.of(oneTimeTaskB.instance("1"), settableClock.now())),
+            2);
+    assertArrayEquals(new boolean[] {true, false, true, false, true}, scheduled);
+
+    scheduler.runAnyDueExecutions();
+    assertThat(onetimeTaskHandlerA.timesExecuted.get(), CoreMatchers.is(3));
+  }
+
+  @Test
+  public void client_should_keep_priority_of_scheduled_executions() {
+    SchedulerClient client =
+        create(DB.getDataSource(), oneTimeTaskA).priority(PriorityConfig.enabled()).build();
+
+    client.schedule(
+        SchedulableInstance.of(oneTimeTaskA.instance("1"), settableClock.now()).withPriority(1));
+    client.scheduleIfNotExists(
+        SchedulableInstance.of(oneTimeTaskA.instance("2"), settableClock.now()).withPriority(2));
+    client.scheduleIfNotExistsBatch(
+        List.of(
+            SchedulableInstance.of(oneTimeTaskA.instance("3"), settableClock.now()).withPriority(3),
+            SchedulableInstance.of(oneTimeTaskA.instance("4"), settableClock.now())));
+
+    assertThat(priorityOf(client, "1"), is(1));
+    assertThat(priorityOf(client, "2"), is(2));
+    assertThat(priorityOf(client, "3"), is(3));
+    // default of the task
+    assertThat(priorityOf(client, "4"), is(0));
+  }
+
+  private int priorityOf(SchedulerClient client, String id) {
+    return client
+        .getScheduledExecution(TaskInstanceId.of(oneTimeTaskA.getName(), id))
+        .get()
+        .getPriority();
+  }
+
+  @Test
+  public void client_should_be_able_to_fetch_executions_in_pages() {
+    SchedulerClient client = create(DB.getDataSource(), oneTimeTaskA, oneTimeTaskB).build();
+    for (int i = 0; i < 25; i++) {
+      // several executions sharing execution-time
+      client.scheduleIfNotExists(
+          oneTimeTaskA.instance(String.valueOf(i)), settableClock.now().plusSeconds(i / 3));
+    }
+    client.scheduleIfNotExists(oneTimeTaskB.instance("1"), settableClock.now());
+
+    final List<String> paged = new ArrayList<>();
+    ScheduledExecutionsPage<Void> page =
+        client.getScheduledExecutionsPageForTask(
+            oneTimeTaskA.getName(), Void.class, ScheduledExecutionsFilter.all().withPageSize(10));
+    List<Integer> pageSizes = new ArrayList<>();
+    while (true) {
+      pageSizes.add(page.getExecutions().size());
+      page.getExecutions().forEach(e -> paged.add(e.getTaskInstance().getId()));
+      if (!page.hasNextPage()) {
+        break;
+      }
+      page =
+          client.getScheduledExecutionsPageForTask(
+              oneTimeTaskA.getName(),
+              Void.class,
+              ScheduledExecutionsFilter.all()
+                  .withPageSize(10)
+                  .withPageToken(page.getNextPageToken().get()));
+    }
+    assertThat(pageSizes, contains(10, 10, 5));
+    assertThat(paged, hasSize(25));
+    assertThat(new HashSet<>(paged), hasSize(25));
+
+    assertThat(
+        client
+            .getScheduledExecutionsPage(ScheduledExecutionsFilter.all().withPageSize(100))
+            .getExecutions(),
+        hasSize(26));
+  }
+
+  @Test
+  public void client_should_be_able_to_stream_executions() {
+    SchedulerClient client = create(DB.getDataSource(), oneTimeTaskA).build();
+    for (int i = 0; i < 25; i++) {
+      client.scheduleIfNotExists(oneTimeTaskA.instance(String.valueOf(i)), settableClock.now());
+    }
+
+    final AtomicInteger streamed = new AtomicInteger();
+    client.fetchScheduledExecutions(
+        ScheduledExecutionsFilter.all().withFetchSize(5), e -> streamed.incrementAndGet());
+    assertThat(streamed.get(), is(25));
+  }
+
   @Test
   public void should_be_able_to_schedule_other_executions_from_an_executionhandler() {
     scheduler.schedule(scheduleAnotherTask.instance("1"), settableClock.now());
@@ -0,0 +1,221 @@
+package com.github.kagkarlsson.scheduler;
+
+import static com.github.kagkarlsson.scheduler.jdbc.JdbcTaskRepository.DEFAULT_TABLE_NAME;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import com.github.kagkarlsson.scheduler.helper.TimeHelper;
+import com.github.kagkarlsson.scheduler.jdbc.JdbcTaskRepository;
+import com.github.kagkarlsson.scheduler.stats.BacklogSample;
+import com.github.kagkarlsson.scheduler.stats.StatsRegistry;
+import com.github.kagkarlsson.scheduler.task.Execution;
+import com.github.kagkarlsson.scheduler.task.SchedulableInstance;
+import com.github.kagkarlsson.scheduler.task.helper.OneTimeTask;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+/** The batch-methods of {@link TaskRepository} for implementations only having single-row ones. */
+public class TaskRepositoryDefaultsTest {
+
+  @RegisterExtension public EmbeddedPostgresqlExtension DB = new EmbeddedPostgresqlExtension();
+
+  private OneTimeTask<Void> oneTimeTask;
+  private TaskRepository taskRepository;
+
+  @BeforeEach
+  public void setUp() {
+    oneTimeTask = TestTasks.oneTime("OneTime", Void.class, TestTasks.DO_NOTHING);
+    taskRepository =
+        new SingleRowTaskRepository(
+            new JdbcTaskRepository(
+                DB.getDataSource(),
+                false,
+                DEFAULT_TABLE_NAME,
+                new TaskResolver(StatsRegistry.NOOP, oneTimeTask),
+                new SchedulerName.Fixed("scheduler1"),
+                new SystemClock()));
+  }
+
+  @Test
+  public void should_create_pick_and_complete_one_at_a_time() {
+    Instant now = TimeHelper.truncatedInstantNow();
+    taskRepository.createIfNotExists(SchedulableInstance.of(oneTimeTask.instance("1"), now));
+
+    final boolean[] created =
+        taskRepository.createIfNotExists(
+            List.of(
+                SchedulableInstance.of(oneTimeTask.instance("1"), now),
+                SchedulableInstance.of(oneTimeTask.instance("2"), now),
+                SchedulableInstance.of(oneTimeTask.instance("3"), now)));
+    assertArrayEquals(new boolean[] {false, true, true}, created);
+
+    final List<Execution> due = taskRepository.getDue(now, 10);
+    final List<Execution> picked = taskRepository.pick(due, now);
+    assertThat(picked, hasSize(3));
+    // lost to the first pick
+    assertThat(taskRepository.pick(due, now), hasSize(0));
+
+    assertArrayEquals(
+        new boolean[] {true, true, true}, taskRepository.updateHeartbeats(picked, now));
+
+    final boolean[] removed =
+        taskRepository.remove(List.of(picked.get(0), picked.get(0).updateToPicked("x", now)));
+    assertArrayEquals(new boolean[] {true, false}, removed);
+
+    final boolean[] rescheduled =
+        taskRepository.reschedule(
+            List.of(new RescheduleUpdate(picked.get(1), now.plusSeconds(10), now, null, 0)));
+    assertArrayEquals(new boolean[] {true}, rescheduled);
+  }
+
+  @Test
+  public void should_sample_backlog_in_memory() {
+    Instant now = TimeHelper.truncatedInstantNow();
+    taskRepository.createIfNotExists(
+        List.of(
+            SchedulableInstance.of(oneTimeTask.instance("1"), now.minusSeconds(10)),
+            SchedulableInstance.of(oneTimeTask.instance("2"), now),
+            SchedulableInstance.of(oneTimeTask.instance("3"), now.plusSeconds(10))));
+    taskRepository.pick(taskRepository.getDue(now.minusSeconds(10), 1), now);
+
+    final BacklogSample sample = taskRepository.sampleBacklog(now, 10);
+    assertThat(sample.getDueByTask(), is(Map.of(oneTimeTask.getName(), 1L)));
+    assertThat(sample.getOldestDue(), is(Optional.of(now)));
+    assertThat(sample.getPickedByScheduler(), is(Map.of("scheduler1", 1L)));
+  }
+
+  /** Implements only the methods that have no default, by delegating to the JDBC repository. */
+  private static class SingleRowTaskRepository implements TaskRepository {
+    private final TaskRepository delegate;
+
+    SingleRowTaskRepository(TaskRepository delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public boolean createIfNotExists(SchedulableInstance execution) {
+      return delegate.createIfNotExists(execution);
+    }
+
+    @Override
+    public List<Execution> getDue(Instant now, int limit) {
+      return delegate.getDue(now, limit);
+    }
+
+    @Override
+    public List<Execution> getDue(
+        Instant now, int limit, List<ConcurrencySlots> slots, List<FairShare.Share> shares) {
+      return delegate.getDue(now, limit, slots, shares);
+    }
+
+    @Override
+    public Instant replace(Execution toBeReplaced, SchedulableInstance newInstance) {
+      return delegate.replace(toBeReplaced, newInstance);
+    }
+
+    @Override
+    public void getScheduledExecutions(
+        ScheduledExecutionsFilter filter, Consumer<Execution> consumer) {
+      delegate.getScheduledExecutions(filter, consumer);
+    }
+
+    @Override
+    public void getScheduledExecutions(
+        ScheduledExecutionsFilter filter, String taskName, Consumer<Execution> consumer) {
+      delegate.getScheduledExecutions(filter, taskName, consumer);
+    }
+
+    @Override
+    public List<Execution> lockAndFetchGeneric(Instant now, int limit) {
+      return delegate.lockAndFetchGeneric(now, limit);
+    }
+
+    @Override
+    public List<Execution> lockAndGetDue(Instant now, int limit) {
+      return delegate.lockAndGetDue(now, limit);
+    }
+
+    @Override
+    public List<Execution> lockAndGetDue(
+        Instant now, int limit, List<ConcurrencySlots> slots, List<FairShare.Share> shares) {
+      return delegate.lockAndGetDue(now, limit, slots, shares);
+    }
+
+    @Override
+    public void remove(Execution execution) {
+      delegate.remove(execution);
+    }
+
+    @Override
+    public boolean reschedule(
+        Execution execution,
+        Instant nextExecutionTime,
+        Instant lastSuccess,
+        Instant lastFailure,
+        int consecutiveFailures) {
+      return delegate.reschedule(
+          execution, nextExecutionTime, lastSuccess, lastFailure, consecutiveFailures);
+    }
+
+    @Override
+    public boolean reschedule(
+        Execution execution,
+        Instant nextExecutionTime,
+        Object newData,
+        Instant lastSuccess,
+        Instant lastFailure,
+        int consecutiveFailures) {
+      return delegate.reschedule(
+          execution, nextExecutionTime, newData, lastSuccess, lastFailure, consecutiveFailures);
+    }
+
+    @Override
+    public Optional<Execution> pick(Execution e, Instant timePicked) {
+      return delegate.pick(e, timePicked);
+    }
+
+    @Override
+    public List<Execution> getDeadExecutions(Instant olderThan) {
+      return delegate.getDeadExecutions(olderThan);
+    }
+
+    @Override
+    public boolean updateHeartbeatWithRetry(Execution execution, Instant newHeartbeat, int tries) {
+      return delegate.updateHeartbeatWithRetry(execution, newHeartbeat, tries);
+    }
+
+    @Override
+    public boolean updateHeartbeat(Execution execution, Instant heartbeatTime) {
+      return delegate.updateHeartbeat(execution, heartbeatTime);
+    }
+
+    @Override
+    public List<Execution> getExecutionsFailingLongerThan(Duration interval) {
+      return delegate.getExecutionsFailingLongerThan(interval);
+    }
+
+    @Override
+    public Optional<Execution> getExecution(String taskName, String taskInstanceId) {
+      return delegate.getExecution(taskName, taskInstanceId);
+    }
+
+    @Override
+    public int removeExecutions(String taskName) {
+      return delegate.removeExecutions(taskName);
+    }
+
+    @Override
+    public void verifySupportsLockAndFetch() {
+      delegate.verifySupportsLockAndFetch();
+    }
+  }
+}
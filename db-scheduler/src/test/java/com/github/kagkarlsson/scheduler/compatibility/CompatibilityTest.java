@@ -43,6 +43,7 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.GregorianCalendar;
 import java.util.List;
 import java.util.Optional;
@@ -269,7 +270,11 @@ public abstract class CompatibilityTest {
     final TaskInstance<String> taskInstance = oneTime.instance("id1", data);
     final SchedulableTaskInstance<String> newExecution =
         new SchedulableTaskInstance<>(taskInstance, now);
-    jdbcTaskRepository.createIfNotExists(newExecution);
+    assertThat(jdbcTaskRepository.createIfNotExists(newExecution), is(true));
+    assertThat(
+        jdbcTaskRepository.createIfNotExists(
+            new SchedulableTaskInstance<>(taskInstance, now.plusSeconds(10))),
+        is(false));
     Execution storedExecution = (jdbcTaskRepository.getExecution(taskInstance)).get();
     assertThat(storedExecution.getExecutionTime(), is(now));
 
@@ -282,6 +287,12 @@ public abstract class CompatibilityTest {
 
     jdbcTaskRepository.updateHeartbeat(pickedExecution.get(), now.plusSeconds(1));
     assertThat(jdbcTaskRepository.getDeadExecutions(now.plus(Duration.ofDays(1))), hasSize(1));
+    final boolean[] heartbeats =
+        jdbcTaskRepository.updateHeartbeats(
+            Collections.singletonList(pickedExecution.get()), now.plusSeconds(2));
+    assertThat(heartbeats[0], is(true));
+    assertThat(
+        jdbcTaskRepository.getExecution(taskInstance).get().lastHeartbeat, is(now.plusSeconds(2)));
 
     jdbcTaskRepository.reschedule(
         pickedExecution.get(), now.plusSeconds(1), now.minusSeconds(1), now.minusSeconds(1), 0);
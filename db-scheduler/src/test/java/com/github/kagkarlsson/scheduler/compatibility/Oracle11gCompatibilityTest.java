@@ -25,7 +25,7 @@ public class Oracle11gCompatibilityTest extends CompatibilityTest {
   private static HikariDataSource pooledDatasource;
 
   public Oracle11gCompatibilityTest() {
-    super(false, true); // FIXLATER: fix syntax and enable
+    super(true, true);
   }
 
   @BeforeAll
@@ -38,6 +38,13 @@ public class ZoneSpecificJdbcCustomization implements JdbcCustomization {
         .orElse(null);
   }
 
+  @Override
+  public Instant getInstant(ResultSet rs, int columnIndex) throws SQLException {
+    return Optional.ofNullable(rs.getTimestamp(columnIndex, zoneIfNonePresent))
+        .map(Timestamp::toInstant)
+        .orElse(null);
+  }
+
   @Override
   public void setTaskData(PreparedStatement p, int index, byte[] value) throws SQLException {
     delegate.setTaskData(p, index, value);
@@ -48,6 +55,11 @@ public class ZoneSpecificJdbcCustomization implements JdbcCustomization {
     return delegate.getTaskData(rs, columnName);
   }
 
+  @Override
+  public byte[] getTaskData(ResultSet rs, int columnIndex) throws SQLException {
+    return delegate.getTaskData(rs, columnIndex);
+  }
+
   @Override
   public boolean supportsExplicitQueryLimitPart() {
     return delegate.supportsExplicitQueryLimitPart();
@@ -80,8 +92,47 @@ public class ZoneSpecificJdbcCustomization implements JdbcCustomization {
     return delegate.createGenericSelectForUpdateQuery(tableName, limit, requiredAndCondition);
   }
 
+  @Override
+  public String createGenericSelectForUpdateQuery(
+      String tableName, int limit, String requiredAndCondition, String orderBy) {
+    return delegate.createGenericSelectForUpdateQuery(
+        tableName, limit, requiredAndCondition, orderBy);
+  }
+
   @Override
   public String createSelectDueQuery(String tableName, int limit, String andCondition) {
     return delegate.createSelectDueQuery(tableName, limit, andCondition);
   }
+
+  @Override
+  public String createSelectDueQuery(
+      String tableName, int limit, String andCondition, String orderBy) {
+    return delegate.createSelectDueQuery(tableName, limit, andCondition, orderBy);
+  }
+
+  @Override
+  public boolean supportsSingleStatementHeartbeats() {
+    return delegate.supportsSingleStatementHeartbeats();
+  }
+
+  @Override
+  public boolean[] updateHeartbeatsSingleStatement(
+      JdbcTaskRepositoryContext ctx, List<Execution> executions, Instant newHeartbeat) {
+    return delegate.updateHeartbeatsSingleStatement(ctx, executions, newHeartbeat);
+  }
+
+  @Override
+  public boolean supportsSingleStatementInsertIfNotExists() {
+    return delegate.supportsSingleStatementInsertIfNotExists();
+  }
+
+  @Override
+  public String createInsertIfNotExistsQuery(String tableName) {
+    return delegate.createInsertIfNotExistsQuery(tableName);
+  }
+
+  @Override
+  public String createInsertIfNotExistsQuery(String tableName, boolean withPriority) {
+    return delegate.createInsertIfNotExistsQuery(tableName, withPriority);
+  }
 }
@@ -0,0 +1,90 @@
+package com.github.kagkarlsson.scheduler.concurrent;
+
+import static com.github.kagkarlsson.scheduler.concurrent.ClusterTests.NUMBER_OF_THREADS;
+import static com.github.kagkarlsson.scheduler.concurrent.ClusterTests.testConcurrencyForPollingStrategy;
+
+import com.github.kagkarlsson.scheduler.DbUtils;
+import com.github.kagkarlsson.scheduler.SchedulerBuilder;
+import com.github.kagkarlsson.scheduler.StopSchedulerExtension;
+import com.github.kagkarlsson.scheduler.jdbc.MariaDBJdbcCustomization;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.util.DriverDataSource;
+import java.time.Duration;
+import java.util.Properties;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.MariaDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+@Testcontainers
+@Tag("compatibility-cluster")
+public class MariaDBClusterTest {
+  private static final Logger DEBUG_LOG = LoggerFactory.getLogger(MariaDBClusterTest.class);
+  @RegisterExtension public StopSchedulerExtension stopScheduler = new StopSchedulerExtension();
+
+  @Container
+  private static final MariaDBContainer MARIADB =
+      new MariaDBContainer(DockerImageName.parse("mariadb").withTag("10.6"));
+
+  private static DataSource pooledDatasource;
+
+  @BeforeAll
+  static void initSchema() {
+    final DriverDataSource datasource =
+        new DriverDataSource(
+            MARIADB.getJdbcUrl(),
+            "org.mariadb.jdbc.Driver",
+            new Properties(),
+            MARIADB.getUsername(),
+            MARIADB.getPassword());
+
+    final HikariConfig hikariConfig = new HikariConfig();
+    hikariConfig.setDataSource(datasource);
+    pooledDatasource = new HikariDataSource(hikariConfig);
+
+    // init schema
+    DbUtils.runSqlResource("/mariadb_tables.sql").accept(pooledDatasource);
+  }
+
+  @Test
+  public void test_concurrency_optimistic_locking() throws InterruptedException {
+    DEBUG_LOG.info("Starting test_concurrency_optimistic_locking");
+    testConcurrencyForPollingStrategy(
+        pooledDatasource,
+        (SchedulerBuilder b) -> {
+          b.pollUsingFetchAndLockOnExecute(0, NUMBER_OF_THREADS * 3);
+          b.jdbcCustomization(new MariaDBJdbcCustomization(true, true));
+        },
+        stopScheduler);
+  }
+
+  @Test
+  public void test_concurrency_select_for_update() throws InterruptedException {
+    DEBUG_LOG.info("Starting test_concurrency_select_for_update");
+    testConcurrencyForPollingStrategy(
+        pooledDatasource,
+        (SchedulerBuilder b) -> {
+          b.pollUsingLockAndFetch(((double) NUMBER_OF_THREADS) / 2, NUMBER_OF_THREADS);
+          b.jdbcCustomization(new MariaDBJdbcCustomization(true, true));
+        },
+        stopScheduler);
+  }
+
+  @Test
+  public void test_concurrency_recurring() throws InterruptedException {
+    Assertions.assertTimeoutPreemptively(
+        Duration.ofSeconds(10),
+        () -> {
+          ClusterTests.testRecurring(stopScheduler, pooledDatasource);
+        });
+  }
+}
@@ -13,7 +13,6 @@ import java.util.Properties;
 import javax.sql.DataSource;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
-import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
@@ -79,10 +78,9 @@ public class MssqlClusterTest {
         });
   }
 
-  @Test // select-for-update does not really work for sql server, there are too many deadlocks..
-  @Disabled
-  public void test_concurrency_select_for_update_generic() throws InterruptedException {
-    DEBUG_LOG.info("Starting test_concurrency_select_for_update");
+  @Test
+  public void test_concurrency_lock_and_fetch() throws InterruptedException {
+    DEBUG_LOG.info("Starting test_concurrency_lock_and_fetch");
     ClusterTests.testConcurrencyForPollingStrategy(
         pooledDatasource,
         (SchedulerBuilder b) -> {
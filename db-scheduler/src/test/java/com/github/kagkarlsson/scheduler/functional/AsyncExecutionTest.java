@@ -0,0 +1,207 @@
+package com.github.kagkarlsson.scheduler.functional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+import com.github.kagkarlsson.scheduler.EmbeddedPostgresqlExtension;
+import com.github.kagkarlsson.scheduler.Scheduler;
+import com.github.kagkarlsson.scheduler.SchedulerBuilder;
+import com.github.kagkarlsson.scheduler.SchedulerName;
+import com.github.kagkarlsson.scheduler.StopSchedulerExtension;
+import com.github.kagkarlsson.scheduler.helper.TestableRegistry;
+import com.github.kagkarlsson.scheduler.task.CompletionHandler;
+import com.github.kagkarlsson.scheduler.task.ExecutionComplete;
+import com.github.kagkarlsson.scheduler.task.helper.AsyncCustomTask;
+import com.github.kagkarlsson.scheduler.task.helper.OneTimeTask;
+import com.github.kagkarlsson.scheduler.task.helper.Tasks;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+public class AsyncExecutionTest {
+  private static final int EXECUTIONS = 10;
+
+  @RegisterExtension
+  public EmbeddedPostgresqlExtension postgres = new EmbeddedPostgresqlExtension();
+
+  @RegisterExtension public StopSchedulerExtension stopScheduler = new StopSchedulerExtension();
+
+  private final List<CompletableFuture<CompletionHandler<Void>>> inFlight =
+      new CopyOnWriteArrayList<>();
+  private final CountDownLatch allDispatched = new CountDownLatch(EXECUTIONS);
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+  private final CountDownLatch syncExecuted = new CountDownLatch(1);
+
+  private final AsyncCustomTask<Void> async =
+      Tasks.custom("async", Void.class)
+          .executeAsync(
+              (instance, ctx) -> {
+                final CompletableFuture<CompletionHandler<Void>> future = new CompletableFuture<>();
+                inFlight.add(future);
+                maxInFlight.accumulateAndGet(
+                    (int) inFlight.stream().filter(f -> !f.isDone()).count(), Math::max);
+                allDispatched.countDown();
+                return future;
+              });
+
+  private final OneTimeTask<Void> sync =
+      Tasks.oneTime("sync").execute((instance, ctx) -> syncExecuted.countDown());
+
+  @Test
+  public void should_execute_more_concurrently_than_threads() {
+    Assertions.assertTimeoutPreemptively(
+        Duration.ofSeconds(5), () -> runAllInFlightAtOnce(builder -> builder));
+  }
+
+  @Test
+  public void should_lock_and_fetch_more_concurrently_than_polling_limits() {
+    // bounded by async permits, not by threads * upper limit
+    Assertions.assertTimeoutPreemptively(
+        Duration.ofSeconds(5),
+        () -> runAllInFlightAtOnce(builder -> builder.pollUsingLockAndFetch(1.0, 2.0)));
+  }
+
+  private void runAllInFlightAtOnce(UnaryOperator<SchedulerBuilder> customizer)
+      throws InterruptedException {
+    TestableRegistry.Condition completedCondition =
+        TestableRegistry.Conditions.completed(EXECUTIONS);
+    TestableRegistry registry =
+        TestableRegistry.create().waitConditions(completedCondition).build();
+
+    Scheduler scheduler = createScheduler(registry, customizer);
+    IntStream.range(0, EXECUTIONS)
+        .forEach(i -> scheduler.schedule(async.instance(String.valueOf(i)), Instant.now()));
+
+    scheduler.start();
+    allDispatched.await();
+
+    // all in flight on a single thread, and heartbeated until completed
+    assertThat(scheduler.getCurrentlyExecuting(), hasSize(EXECUTIONS));
+    assertThat(registry.getCompleted(), hasSize(0));
+
+    inFlight.forEach(f -> f.complete(new CompletionHandler.OnCompleteRemove<>()));
+    completedCondition.waitFor();
+
+    assertThat(resultsOf(registry), everyItem(is(ExecutionComplete.Result.OK)));
+    assertThat(scheduler.getCurrentlyExecuting(), hasSize(0));
+    assertThat(scheduler.getScheduledExecutions(), hasSize(0));
+  }
+
+  @Test
+  public void should_treat_exceptional_completion_as_failure() {
+    Assertions.assertTimeoutPreemptively(
+        Duration.ofSeconds(5),
+        () -> {
+          TestableRegistry registry = TestableRegistry.create().build();
+
+          Scheduler scheduler = createScheduler(registry);
+          IntStream.range(0, EXECUTIONS)
+              .forEach(i -> scheduler.schedule(async.instance(String.valueOf(i)), Instant.now()));
+
+          scheduler.start();
+          allDispatched.await();
+
+          inFlight.forEach(f -> f.completeExceptionally(new RuntimeException("Call failed")));
+          // no longer currently executing when the failure-handler has run
+          while (!scheduler.getCurrentlyExecuting().isEmpty()) {
+            Thread.sleep(10);
+          }
+
+          assertThat(registry.getCompleted(), hasSize(EXECUTIONS));
+          assertThat(resultsOf(registry), everyItem(is(ExecutionComplete.Result.FAILED)));
+          // retried later by the default failure-handler
+          assertThat(scheduler.getScheduledExecutions(), hasSize(EXECUTIONS));
+        });
+  }
+
+  @Test
+  public void should_leave_async_executions_for_later_poll_when_no_permits() {
+    Assertions.assertTimeoutPreemptively(
+        Duration.ofSeconds(10),
+        () -> {
+          TestableRegistry registry = TestableRegistry.create().build();
+          Scheduler scheduler = createScheduler(registry, builder -> builder.maxAsyncExecutions(3));
+          runWithoutPermitsForAll(scheduler, registry);
+        });
+  }
+
+  @Test
+  public void should_lock_and_fetch_async_executions_only_for_free_permits() {
+    Assertions.assertTimeoutPreemptively(
+        Duration.ofSeconds(10),
+        () -> {
+          TestableRegistry registry = TestableRegistry.create().build();
+          Scheduler scheduler =
+              createScheduler(
+                  registry,
+                  builder -> builder.maxAsyncExecutions(3).pollUsingLockAndFetch(1.0, 2.0));
+          runWithoutPermitsForAll(scheduler, registry);
+        });
+  }
+
+  private void runWithoutPermitsForAll(Scheduler scheduler, TestableRegistry registry)
+      throws InterruptedException {
+    IntStream.range(0, EXECUTIONS)
+        .forEach(i -> scheduler.schedule(async.instance(String.valueOf(i)), Instant.now()));
+
+    scheduler.start();
+    while (inFlight.size() < 3) {
+      Thread.sleep(10);
+    }
+    Thread.sleep(200);
+    assertThat(inFlight, hasSize(3));
+
+    // the thread is not held waiting for a permit
+    scheduler.schedule(sync.instance("1"), Instant.now());
+    syncExecuted.await();
+
+    while (registry.getCompleted().size() < EXECUTIONS + 1) {
+      // completing a permit triggers a check for the executions left behind
+      inFlight.forEach(f -> f.complete(new CompletionHandler.OnCompleteRemove<>()));
+      Thread.sleep(10);
+    }
+
+    assertThat(maxInFlight.get(), is(3));
+    assertThat(resultsOf(registry), everyItem(is(ExecutionComplete.Result.OK)));
+    assertThat(scheduler.getScheduledExecutions(), hasSize(0));
+  }
+
+  private Scheduler createScheduler(TestableRegistry registry) {
+    return createScheduler(registry, builder -> builder);
+  }
+
+  private Scheduler createScheduler(
+      TestableRegistry registry, UnaryOperator<SchedulerBuilder> customizer) {
+    // polling interval is long, so the next fetch must be triggered by released threads
+    Scheduler scheduler =
+        customizer
+            .apply(
+                Scheduler.create(postgres.getDataSource(), async, sync)
+                    .threads(1)
+                    .enableImmediateExecution()
+                    .pollingInterval(Duration.ofMinutes(1))
+                    .schedulerName(new SchedulerName.Fixed("test"))
+                    .statsRegistry(registry))
+            .build();
+    stopScheduler.register(scheduler);
+    return scheduler;
+  }
+
+  private static List<ExecutionComplete.Result> resultsOf(TestableRegistry registry) {
+    return registry.getCompleted().stream()
+        .map(ExecutionComplete::getResult)
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,91 @@
+package com.github.kagkarlsson.scheduler.functional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+import com.github.kagkarlsson.scheduler.EmbeddedPostgresqlExtension;
+import com.github.kagkarlsson.scheduler.Scheduler;
+import com.github.kagkarlsson.scheduler.SchedulerBuilder;
+import com.github.kagkarlsson.scheduler.SchedulerName;
+import com.github.kagkarlsson.scheduler.StopSchedulerExtension;
+import com.github.kagkarlsson.scheduler.helper.TestableRegistry;
+import com.github.kagkarlsson.scheduler.task.helper.OneTimeTask;
+import com.github.kagkarlsson.scheduler.task.helper.Tasks;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+public class ConcurrencyLimitTest {
+  private static final int EXECUTIONS = 6;
+
+  @RegisterExtension
+  public EmbeddedPostgresqlExtension postgres = new EmbeddedPostgresqlExtension();
+
+  @RegisterExtension public StopSchedulerExtension stopScheduler = new StopSchedulerExtension();
+
+  private final AtomicInteger running = new AtomicInteger();
+  private final AtomicInteger maxRunning = new AtomicInteger();
+
+  private final OneTimeTask<Void> limited =
+      Tasks.oneTime("limited")
+          .maxConcurrency(1)
+          .execute(
+              (instance, ctx) -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                  Thread.sleep(20);
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                } finally {
+                  running.decrementAndGet();
+                }
+              });
+
+  @Test
+  public void should_not_exceed_limit_when_locking_and_fetching() {
+    runAllAndAssertLimit(builder -> builder.pollUsingLockAndFetch(0.5, 1.0));
+  }
+
+  @Test
+  public void should_not_exceed_limit_when_fetching_candidates() {
+    runAllAndAssertLimit(builder -> builder.pollUsingFetchAndLockOnExecute(0.5, 3.0));
+  }
+
+  private void runAllAndAssertLimit(UnaryOperator<SchedulerBuilder> pollingStrategy) {
+    Assertions.assertTimeoutPreemptively(
+        Duration.ofSeconds(5),
+        () -> {
+          TestableRegistry.Condition completedCondition =
+              TestableRegistry.Conditions.completed(EXECUTIONS);
+          TestableRegistry registry =
+              TestableRegistry.create().waitConditions(completedCondition).build();
+
+          // polling interval is long, so the next fetch must be triggered by a slot freeing up
+          Scheduler scheduler =
+              pollingStrategy
+                  .apply(
+                      Scheduler.create(postgres.getDataSource(), limited)
+                          .threads(4)
+                          .pollingInterval(Duration.ofMinutes(1))
+                          .schedulerName(new SchedulerName.Fixed("test"))
+                          .statsRegistry(registry))
+                  .build();
+          stopScheduler.register(scheduler);
+          IntStream.range(0, EXECUTIONS)
+              .forEach(i -> scheduler.schedule(limited.instance(String.valueOf(i)), Instant.now()));
+
+          scheduler.start();
+          completedCondition.waitFor();
+
+          assertThat(registry.getCompleted(), hasSize(EXECUTIONS));
+          assertThat(maxRunning.get(), is(1));
+          registry.assertNoFailures();
+        });
+  }
+}
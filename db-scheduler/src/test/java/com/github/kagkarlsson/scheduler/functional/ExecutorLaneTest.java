@@ -0,0 +1,100 @@
+package com.github.kagkarlsson.scheduler.functional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.github.kagkarlsson.scheduler.EmbeddedPostgresqlExtension;
+import com.github.kagkarlsson.scheduler.ExecutorLane;
+import com.github.kagkarlsson.scheduler.Scheduler;
+import com.github.kagkarlsson.scheduler.SchedulerName;
+import com.github.kagkarlsson.scheduler.StopSchedulerExtension;
+import com.github.kagkarlsson.scheduler.TestTasks;
+import com.github.kagkarlsson.scheduler.helper.TestableRegistry;
+import com.github.kagkarlsson.scheduler.task.ExecutionComplete;
+import com.github.kagkarlsson.scheduler.task.helper.OneTimeTask;
+import com.github.kagkarlsson.scheduler.task.helper.Tasks;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+public class ExecutorLaneTest {
+  private static final int FAST_EXECUTIONS = 5;
+
+  @RegisterExtension
+  public EmbeddedPostgresqlExtension postgres = new EmbeddedPostgresqlExtension();
+
+  @RegisterExtension public StopSchedulerExtension stopScheduler = new StopSchedulerExtension();
+
+  @Test
+  public void slow_lane_should_not_block_tasks_of_other_lanes() {
+    TestTasks.WaitingHandler<Void> slowHandler = new TestTasks.WaitingHandler<>();
+    OneTimeTask<Void> slow = TestTasks.oneTime("slow", Void.class, slowHandler);
+    OneTimeTask<Void> fast = TestTasks.oneTime("fast", Void.class, TestTasks.DO_NOTHING);
+
+    TestableRegistry.Condition completedCondition =
+        TestableRegistry.Conditions.completed(FAST_EXECUTIONS);
+    TestableRegistry registry =
+        TestableRegistry.create().waitConditions(completedCondition).build();
+
+    // polling interval is long, so the fast lane must keep polling on its own
+    Scheduler scheduler =
+        Scheduler.create(postgres.getDataSource(), slow, fast)
+            .threads(1)
+            .lane(ExecutorLane.of("slow", 1).withTasks("slow"))
+            .pollingInterval(Duration.ofMinutes(1))
+            .schedulerName(new SchedulerName.Fixed("test"))
+            .statsRegistry(registry)
+            .build();
+    stopScheduler.register(scheduler);
+
+    IntStream.range(0, 2)
+        .forEach(i -> scheduler.schedule(slow.instance(String.valueOf(i)), Instant.now()));
+    IntStream.range(0, FAST_EXECUTIONS)
+        .forEach(i -> scheduler.schedule(fast.instance(String.valueOf(i)), Instant.now()));
+
+    try {
+      Assertions.assertTimeoutPreemptively(
+          Duration.ofSeconds(5),
+          () -> {
+            scheduler.start();
+            completedCondition.waitFor();
+
+            assertThat(registry.getCompleted(), hasSize(FAST_EXECUTIONS));
+            assertThat(
+                registry.getCompleted().stream()
+                    .map(ExecutionComplete::getResult)
+                    .collect(Collectors.toList()),
+                everyItem(is(ExecutionComplete.Result.OK)));
+            assertThat(
+                registry.getCompleted().stream()
+                    .map(c -> c.getExecution().taskInstance.getTaskName())
+                    .collect(Collectors.toList()),
+                everyItem(is("fast")));
+          });
+    } finally {
+      slowHandler.waitForNotify.countDown();
+    }
+  }
+
+  @Test
+  public void should_not_allow_concurrency_group_spanning_lanes() {
+    OneTimeTask<Void> first =
+        Tasks.oneTime("first").maxConcurrency("group", 1).execute((instance, ctx) -> {});
+    OneTimeTask<Void> second =
+        Tasks.oneTime("second").maxConcurrency("group", 1).execute((instance, ctx) -> {});
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            Scheduler.create(postgres.getDataSource(), first, second)
+                .lane(ExecutorLane.of("first", 1).withTasks("first"))
+                .build());
+  }
+}
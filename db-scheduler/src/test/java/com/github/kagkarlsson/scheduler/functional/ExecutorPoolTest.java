@@ -71,7 +71,18 @@ public class ExecutorPoolTest {
     testExecuteUntilNoneLeft(12, 4, 200);
   }
 
+  @RepeatedTest(10)
+  public void test_execute_until_none_left_reusing_candidates() {
+    DEBUG_LOG.info("Starting test_execute_until_none_left_reusing_candidates");
+    testExecuteUntilNoneLeft(12, 4, 200, true);
+  }
+
   private void testExecuteUntilNoneLeft(int pollingLimit, int threads, int executionsToRun) {
+    testExecuteUntilNoneLeft(pollingLimit, threads, executionsToRun, false);
+  }
+
+  private void testExecuteUntilNoneLeft(
+      int pollingLimit, int threads, int executionsToRun, boolean reuseFetchedCandidates) {
     Instant now = Instant.now();
     OneTimeTask<Void> task = TestTasks.oneTime("onetime-a", Void.class, TestTasks.DO_NOTHING);
     TestableRegistry.Condition condition = TestableRegistry.Conditions.completed(executionsToRun);
@@ -80,6 +91,7 @@ public class ExecutorPoolTest {
     Scheduler scheduler =
         Scheduler.create(postgres.getDataSource(), task)
             .threads(threads)
+            .reuseFetchedCandidates(reuseFetchedCandidates)
             .pollingInterval(Duration.ofMinutes(1))
             .schedulerName(new SchedulerName.Fixed("test"))
             .statsRegistry(registry)
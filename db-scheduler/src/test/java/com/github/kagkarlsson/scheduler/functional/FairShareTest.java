@@ -0,0 +1,91 @@
+package com.github.kagkarlsson.scheduler.functional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+
+import com.github.kagkarlsson.scheduler.EmbeddedPostgresqlExtension;
+import com.github.kagkarlsson.scheduler.FairShare;
+import com.github.kagkarlsson.scheduler.Scheduler;
+import com.github.kagkarlsson.scheduler.SchedulerClient;
+import com.github.kagkarlsson.scheduler.SchedulerName;
+import com.github.kagkarlsson.scheduler.StopSchedulerExtension;
+import com.github.kagkarlsson.scheduler.task.SchedulableInstance;
+import com.github.kagkarlsson.scheduler.task.helper.OneTimeTask;
+import com.github.kagkarlsson.scheduler.task.helper.Tasks;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+public class FairShareTest {
+  private static final int FLOOD = 1000;
+  private static final int MINORITY = 10;
+
+  @RegisterExtension
+  public EmbeddedPostgresqlExtension postgres = new EmbeddedPostgresqlExtension();
+
+  @RegisterExtension public StopSchedulerExtension stopScheduler = new StopSchedulerExtension();
+
+  private final List<String> completionOrder = Collections.synchronizedList(new ArrayList<>());
+  private final CountDownLatch minorityDone = new CountDownLatch(MINORITY);
+
+  private final OneTimeTask<Void> bulk =
+      Tasks.oneTime("bulk-email")
+          .execute((instance, ctx) -> completionOrder.add(instance.getTaskName()));
+  private final OneTimeTask<Void> urgent =
+      Tasks.oneTime("urgent")
+          .execute(
+              (instance, ctx) -> {
+                completionOrder.add(instance.getTaskName());
+                minorityDone.countDown();
+              });
+
+  @Test
+  public void should_bound_lag_of_minority_task_under_flood() {
+    Assertions.assertTimeoutPreemptively(
+        Duration.ofSeconds(20),
+        () -> {
+          // flood due long before the minority task
+          final Instant now = Instant.now();
+          final SchedulerClient client =
+              SchedulerClient.Builder.create(postgres.getDataSource(), bulk, urgent).build();
+          client.scheduleBatch(
+              IntStream.range(0, FLOOD)
+                  .mapToObj(
+                      i ->
+                          SchedulableInstance.of(
+                              bulk.instance(String.valueOf(i)), now.minus(Duration.ofHours(1))))
+                  .collect(Collectors.toList()));
+          IntStream.range(0, MINORITY)
+              .forEach(i -> client.schedule(urgent.instance(String.valueOf(i)), now));
+
+          final Scheduler node1 = createScheduler("node1");
+          final Scheduler node2 = createScheduler("node2");
+          stopScheduler.register(node1, node2);
+          node1.start();
+          node2.start();
+          minorityDone.await();
+
+          // strictly by execution_time, the minority would only run after the whole flood
+          final int lastMinority = completionOrder.lastIndexOf("urgent");
+          assertThat(lastMinority, lessThan(FLOOD / 5));
+        });
+  }
+
+  private Scheduler createScheduler(String name) {
+    return Scheduler.create(postgres.getDataSource(), bulk, urgent)
+        .threads(4)
+        .pollingInterval(Duration.ofMillis(100))
+        .pollUsingLockAndFetch(0.5, 1.0)
+        .fairShare(FairShare.equalWeights())
+        .schedulerName(new SchedulerName.Fixed(name))
+        .build();
+  }
+}
@@ -0,0 +1,166 @@
+package com.github.kagkarlsson.scheduler.functional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+import com.github.kagkarlsson.scheduler.EmbeddedPostgresqlExtension;
+import com.github.kagkarlsson.scheduler.ScheduledExecution;
+import com.github.kagkarlsson.scheduler.Scheduler;
+import com.github.kagkarlsson.scheduler.SchedulerClient;
+import com.github.kagkarlsson.scheduler.SchedulerName;
+import com.github.kagkarlsson.scheduler.StopSchedulerExtension;
+import com.github.kagkarlsson.scheduler.TestTasks;
+import com.github.kagkarlsson.scheduler.event.AbstractSchedulerListener;
+import com.github.kagkarlsson.scheduler.helper.TestableRegistry;
+import com.github.kagkarlsson.scheduler.task.ExecutionComplete;
+import com.github.kagkarlsson.scheduler.task.TaskInstanceId;
+import com.github.kagkarlsson.scheduler.task.helper.OneTimeTask;
+import com.github.kagkarlsson.scheduler.task.helper.RecurringTask;
+import com.github.kagkarlsson.scheduler.task.schedule.FixedDelay;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+public class GroupCommitTest {
+
+  @RegisterExtension
+  public EmbeddedPostgresqlExtension postgres = new EmbeddedPostgresqlExtension();
+
+  @RegisterExtension public StopSchedulerExtension stopScheduler = new StopSchedulerExtension();
+
+  @Test
+  public void should_write_all_completions_in_batches() {
+    final OneTimeTask<Void> oneTime =
+        TestTasks.oneTime("onetime-a", Void.class, TestTasks.DO_NOTHING);
+    final RecurringTask<Void> recurring =
+        TestTasks.recurring(
+            "recurring-a", FixedDelay.of(Duration.ofHours(1)), TestTasks.DO_NOTHING);
+
+    Assertions.assertTimeoutPreemptively(
+        Duration.ofSeconds(10),
+        () -> {
+          TestableRegistry.Condition completedCondition =
+              TestableRegistry.Conditions.completed(101);
+          TestableRegistry registry =
+              TestableRegistry.create().waitConditions(completedCondition).build();
+
+          Scheduler scheduler =
+              Scheduler.create(postgres.getDataSource(), oneTime)
+                  .startTasks(recurring)
+                  .threads(4)
+                  .pollingInterval(Duration.ofMinutes(1))
+                  .groupCommitCompletions(10, Duration.ofMillis(20))
+                  .schedulerName(new SchedulerName.Fixed("test"))
+                  .statsRegistry(registry)
+                  .build();
+          stopScheduler.register(scheduler);
+
+          final Instant now = Instant.now();
+          IntStream.range(0, 100)
+              .forEach(i -> scheduler.schedule(oneTime.instance(String.valueOf(i)), now));
+
+          scheduler.start();
+          completedCondition.waitFor();
+          // stopping flushes pending completions
+          scheduler.stop();
+
+          final List<ScheduledExecution<Object>> remaining = new ArrayList<>();
+          SchedulerClient.Builder.create(postgres.getDataSource())
+              .build()
+              .fetchScheduledExecutions(remaining::add);
+          assertThat(remaining, hasSize(1));
+          final ScheduledExecution<Object> next = remaining.get(0);
+          assertThat(next.getTaskInstance().getTaskName(), is("recurring-a"));
+          assertThat(next.isPicked(), is(false));
+          assertThat(next.getExecutionTime().isAfter(now.plus(Duration.ofMinutes(59))), is(true));
+          registry.assertNoFailures();
+        });
+  }
+
+  @Test
+  public void should_hint_rescheduled_execution_once_written() {
+    final RecurringTask<Void> recurring =
+        TestTasks.recurring(
+            "recurring-a", FixedDelay.of(Duration.ofHours(1)), TestTasks.DO_NOTHING);
+    final SchedulerClient client = SchedulerClient.Builder.create(postgres.getDataSource()).build();
+    final CompletableFuture<Boolean> pickedWhenHinted = new CompletableFuture<>();
+
+    Assertions.assertTimeoutPreemptively(
+        Duration.ofSeconds(10),
+        () -> {
+          Scheduler scheduler =
+              Scheduler.create(postgres.getDataSource())
+                  .startTasks(recurring)
+                  .pollingInterval(Duration.ofMinutes(1))
+                  .groupCommitCompletions(10, Duration.ofMillis(200))
+                  .schedulerName(new SchedulerName.Fixed("test"))
+                  .addSchedulerListener(
+                      new AbstractSchedulerListener() {
+                        @Override
+                        public void onExecutionScheduled(
+                            TaskInstanceId taskInstanceId, Instant executionTime) {
+                          if (executionTime.isBefore(Instant.now().plus(Duration.ofMinutes(30)))) {
+                            // scheduled on startup
+                            return;
+                          }
+                          pickedWhenHinted.complete(
+                              client
+                                  .getScheduledExecution(recurring.instance(RecurringTask.INSTANCE))
+                                  .get()
+                                  .isPicked());
+                        }
+                      })
+                  .build();
+          stopScheduler.register(scheduler);
+          scheduler.start();
+
+          assertThat(pickedWhenHinted.get(), is(false));
+        });
+  }
+
+  @Test
+  public void should_report_completion_once_written() {
+    final OneTimeTask<Void> oneTime =
+        TestTasks.oneTime("onetime-a", Void.class, TestTasks.DO_NOTHING);
+    final SchedulerClient client = SchedulerClient.Builder.create(postgres.getDataSource()).build();
+    final CompletableFuture<ExecutionComplete> completed = new CompletableFuture<>();
+    final CompletableFuture<Boolean> presentWhenCompleted = new CompletableFuture<>();
+
+    Assertions.assertTimeoutPreemptively(
+        Duration.ofSeconds(10),
+        () -> {
+          Scheduler scheduler =
+              Scheduler.create(postgres.getDataSource(), oneTime)
+                  .pollingInterval(Duration.ofMinutes(1))
+                  .groupCommitCompletions(10, Duration.ofMillis(200))
+                  .schedulerName(new SchedulerName.Fixed("test"))
+                  .addSchedulerListener(
+                      new AbstractSchedulerListener() {
+                        @Override
+                        public void onExecutionComplete(ExecutionComplete executionComplete) {
+                          presentWhenCompleted.complete(
+                              client.getScheduledExecution(oneTime.instance("1")).isPresent());
+                          completed.complete(executionComplete);
+                        }
+                      })
+                  .build();
+          stopScheduler.register(scheduler);
+          scheduler.schedule(oneTime.instance("1"), Instant.now());
+          scheduler.start();
+
+          assertThat(presentWhenCompleted.get(), is(false));
+          // the writer waits for more completions until its max delay
+          assertThat(
+              completed.get().getCompletionWriteDuration().get().toMillis(),
+              greaterThanOrEqualTo(150L));
+        });
+  }
+}
@@ -0,0 +1,177 @@
+package com.github.kagkarlsson.scheduler.functional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import co.unruly.matchers.TimeMatchers;
+import com.github.kagkarlsson.jdbc.JdbcRunner;
+import com.github.kagkarlsson.jdbc.PreparedStatementSetter;
+import com.github.kagkarlsson.jdbc.RowMapper;
+import com.github.kagkarlsson.scheduler.EmbeddedPostgresqlExtension;
+import com.github.kagkarlsson.scheduler.ScheduledExecution;
+import com.github.kagkarlsson.scheduler.Scheduler;
+import com.github.kagkarlsson.scheduler.SchedulerClient;
+import com.github.kagkarlsson.scheduler.SchedulerName;
+import com.github.kagkarlsson.scheduler.StopSchedulerExtension;
+import com.github.kagkarlsson.scheduler.TestTasks;
+import com.github.kagkarlsson.scheduler.helper.TestableRegistry;
+import com.github.kagkarlsson.scheduler.task.ExecutionComplete;
+import com.github.kagkarlsson.scheduler.task.helper.OneTimeTask;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+public class LookAheadTest {
+
+  @RegisterExtension
+  public EmbeddedPostgresqlExtension postgres = new EmbeddedPostgresqlExtension();
+
+  @RegisterExtension public StopSchedulerExtension stopScheduler = new StopSchedulerExtension();
+
+  private final OneTimeTask<Void> task =
+      TestTasks.oneTime("onetime-a", Void.class, TestTasks.DO_NOTHING);
+
+  @Test
+  public void should_run_execution_when_due_between_polls() {
+    Assertions.assertTimeoutPreemptively(
+        Duration.ofSeconds(5),
+        () -> {
+          final Instant executionTime = Instant.now().plusMillis(500);
+          SchedulerClient client = SchedulerClient.Builder.create(postgres.getDataSource()).build();
+          client.schedule(task.instance("1"), executionTime);
+
+          TestableRegistry.Condition completedCondition = TestableRegistry.Conditions.completed(1);
+          TestableRegistry registry =
+              TestableRegistry.create().waitConditions(completedCondition).build();
+          Scheduler scheduler = createAndStartScheduler(registry);
+          completedCondition.waitFor();
+
+          List<ExecutionComplete> completed = registry.getCompleted();
+          assertThat(completed, hasSize(1));
+          Instant timeStarted =
+              completed.get(0).getTimeDone().minus(completed.get(0).getDuration());
+          assertThat(timeStarted, greaterThanOrEqualTo(executionTime));
+          assertThat(
+              Duration.between(executionTime, timeStarted),
+              TimeMatchers.shorterThan(Duration.ofMillis(500)));
+          registry.assertNoFailures();
+        });
+  }
+
+  @Test
+  public void should_release_parked_executions_on_stop() {
+    Assertions.assertTimeoutPreemptively(
+        Duration.ofSeconds(5),
+        () -> {
+          SchedulerClient client = SchedulerClient.Builder.create(postgres.getDataSource()).build();
+          client.schedule(task.instance("1"), Instant.now().plusSeconds(1));
+
+          TestableRegistry.Condition executeDueCondition =
+              TestableRegistry.Conditions.ranExecuteDue(1);
+          TestableRegistry registry =
+              TestableRegistry.create().waitConditions(executeDueCondition).build();
+          Scheduler scheduler = createAndStartScheduler(registry);
+          executeDueCondition.waitFor();
+
+          assertTrue(getExecution(client).get().isPicked());
+          scheduler.stop();
+
+          ScheduledExecution<Object> released = getExecution(client).get();
+          assertFalse(released.isPicked());
+          assertThat(registry.getCompleted(), hasSize(0));
+        });
+  }
+
+  @Test
+  public void should_not_set_heartbeat_ahead_of_time_when_claiming_ahead() {
+    Assertions.assertTimeoutPreemptively(
+        Duration.ofSeconds(5),
+        () -> {
+          SchedulerClient client = SchedulerClient.Builder.create(postgres.getDataSource()).build();
+          client.schedule(task.instance("1"), Instant.now().plusSeconds(1));
+
+          TestableRegistry.Condition executeDueCondition =
+              TestableRegistry.Conditions.ranExecuteDue(1);
+          TestableRegistry registry =
+              TestableRegistry.create().waitConditions(executeDueCondition).build();
+          createAndStartScheduler(registry);
+          executeDueCondition.waitFor();
+
+          assertTrue(getExecution(client).get().isPicked());
+          assertThat(getLastHeartbeat(), lessThanOrEqualTo(Instant.now()));
+        });
+  }
+
+  @Test
+  public void should_stop_ticker_when_nothing_is_parked() {
+    Assertions.assertTimeoutPreemptively(
+        Duration.ofSeconds(5),
+        () -> {
+          SchedulerClient client = SchedulerClient.Builder.create(postgres.getDataSource()).build();
+          client.schedule(task.instance("1"), Instant.now().plusMillis(500));
+
+          TestableRegistry.Condition completedCondition = TestableRegistry.Conditions.completed(1);
+          TestableRegistry registry =
+              TestableRegistry.create().waitConditions(completedCondition).build();
+          createAndStartScheduler(registry);
+          completedCondition.waitFor();
+
+          while (isTickerRunning()) {
+            Thread.sleep(10);
+          }
+          registry.assertNoFailures();
+        });
+  }
+
+  @Test
+  public void should_require_lock_and_fetch() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            Scheduler.create(postgres.getDataSource(), task)
+                .pollUsingFetchAndLockOnExecute(0.5, 3.0)
+                .lookAhead(Duration.ofSeconds(1))
+                .build());
+  }
+
+  private Optional<ScheduledExecution<Object>> getExecution(SchedulerClient client) {
+    return client.getScheduledExecution(task.instance("1"));
+  }
+
+  private Instant getLastHeartbeat() {
+    return new JdbcRunner(postgres.getDataSource())
+        .query(
+            "select last_heartbeat from scheduled_tasks",
+            PreparedStatementSetter.NOOP,
+            (RowMapper<Instant>) rs -> rs.getTimestamp(1).toInstant())
+        .get(0);
+  }
+
+  private static boolean isTickerRunning() {
+    return Thread.getAllStackTraces().keySet().stream()
+        .anyMatch(t -> t.getName().startsWith("db-scheduler-look-ahead-"));
+  }
+
+  private Scheduler createAndStartScheduler(TestableRegistry registry) {
+    Scheduler scheduler =
+        Scheduler.create(postgres.getDataSource(), task)
+            .pollingInterval(Duration.ofMinutes(1))
+            .pollUsingLockAndFetch(0.5, 1.0)
+            .lookAhead(Duration.ofSeconds(2))
+            .schedulerName(new SchedulerName.Fixed("test"))
+            .statsRegistry(registry)
+            .build();
+    stopScheduler.register(scheduler);
+    scheduler.start();
+    return scheduler;
+  }
+}
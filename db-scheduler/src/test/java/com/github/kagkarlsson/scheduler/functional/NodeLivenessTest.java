@@ -0,0 +1,185 @@
+package com.github.kagkarlsson.scheduler.functional;
+
+import static com.github.kagkarlsson.scheduler.stats.StatsRegistry.SchedulerStatsEvent;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.github.kagkarlsson.scheduler.EmbeddedPostgresqlExtension;
+import com.github.kagkarlsson.scheduler.ScheduledExecutionsFilter;
+import com.github.kagkarlsson.scheduler.Scheduler;
+import com.github.kagkarlsson.scheduler.SchedulerName;
+import com.github.kagkarlsson.scheduler.StopSchedulerExtension;
+import com.github.kagkarlsson.scheduler.SystemClock;
+import com.github.kagkarlsson.scheduler.TaskResolver;
+import com.github.kagkarlsson.scheduler.TestTasks;
+import com.github.kagkarlsson.scheduler.helper.TestableRegistry;
+import com.github.kagkarlsson.scheduler.jdbc.JdbcTaskRepository;
+import com.github.kagkarlsson.scheduler.stats.StatsRegistry;
+import com.github.kagkarlsson.scheduler.task.CompletionHandler;
+import com.github.kagkarlsson.scheduler.task.Execution;
+import com.github.kagkarlsson.scheduler.task.ExecutionComplete;
+import com.github.kagkarlsson.scheduler.task.ExecutionOperations;
+import com.github.kagkarlsson.scheduler.task.SchedulableTaskInstance;
+import com.github.kagkarlsson.scheduler.task.helper.CustomTask;
+import com.github.kagkarlsson.scheduler.task.helper.OneTimeTask;
+import com.github.kagkarlsson.scheduler.task.helper.Tasks;
+import com.github.kagkarlsson.scheduler.testhelper.SettableClock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+public class NodeLivenessTest {
+
+  @RegisterExtension
+  public EmbeddedPostgresqlExtension postgres = new EmbeddedPostgresqlExtension();
+
+  @RegisterExtension public StopSchedulerExtension stopScheduler = new StopSchedulerExtension();
+
+  @Test
+  public void should_revive_executions_of_node_with_expired_lease() {
+    Assertions.assertTimeoutPreemptively(
+        Duration.ofSeconds(5),
+        () -> {
+          OneTimeTask<Void> task = TestTasks.oneTime("onetime-a", Void.class, TestTasks.DO_NOTHING);
+
+          // a node that picked an execution and then died, the execution itself has a fresh
+          // heartbeat
+          SettableClock clock = new SettableClock();
+          JdbcTaskRepository crashedNode =
+              new JdbcTaskRepository(
+                  postgres.getDataSource(),
+                  true,
+                  JdbcTaskRepository.DEFAULT_TABLE_NAME,
+                  new TaskResolver(StatsRegistry.NOOP, task),
+                  new SchedulerName.Fixed("crashed"),
+                  clock);
+          crashedNode.createIfNotExists(
+              new SchedulableTaskInstance<>(task.instance("1"), clock.now()));
+          crashedNode.renewNodeLease(clock.now().minusSeconds(1));
+          List<Execution> picked =
+              crashedNode.pick(crashedNode.getDue(clock.now(), 10), clock.now());
+          assertThat(picked, hasSize(1));
+
+          TestableRegistry.Condition completedCondition = TestableRegistry.Conditions.completed(1);
+          TestableRegistry registry =
+              TestableRegistry.create().waitConditions(completedCondition).build();
+
+          Scheduler scheduler =
+              Scheduler.create(postgres.getDataSource(), task)
+                  .pollingInterval(Duration.ofMillis(100))
+                  .enableNodeLiveness()
+                  .schedulerName(new SchedulerName.Fixed("test"))
+                  .statsRegistry(registry)
+                  .build();
+          stopScheduler.register(scheduler);
+          scheduler.start();
+          completedCondition.waitFor();
+
+          assertEquals(1, registry.getCount(SchedulerStatsEvent.DEAD_EXECUTION));
+          final List<Execution> remaining = new ArrayList<>();
+          crashedNode.getScheduledExecutions(ScheduledExecutionsFilter.all(), remaining::add);
+          assertThat(remaining.isEmpty(), is(true));
+        });
+  }
+
+  @Test
+  public void should_keep_heartbeats_fresh_for_nodes_without_liveness() {
+    Assertions.assertTimeoutPreemptively(
+        Duration.ofSeconds(5),
+        () -> {
+          final CountDownLatch started = new CountDownLatch(1);
+          final CountDownLatch done = new CountDownLatch(1);
+          OneTimeTask<Void> task =
+              Tasks.oneTime("long-running")
+                  .execute(
+                      (instance, ctx) -> {
+                        started.countDown();
+                        try {
+                          done.await();
+                        } catch (InterruptedException e) {
+                          Thread.currentThread().interrupt();
+                        }
+                      });
+
+          Scheduler scheduler =
+              Scheduler.create(postgres.getDataSource(), task)
+                  .pollingInterval(Duration.ofMillis(100))
+                  .heartbeatInterval(Duration.ofMillis(100))
+                  .missedHeartbeatsLimit(4)
+                  .enableNodeLiveness()
+                  .schedulerName(new SchedulerName.Fixed("test"))
+                  .build();
+          stopScheduler.register(scheduler);
+          scheduler.schedule(task.instance("1"), Instant.now());
+          scheduler.start();
+          started.await();
+
+          // a node without node liveness, detecting dead executions by heartbeat only
+          JdbcTaskRepository otherNode =
+              new JdbcTaskRepository(
+                  postgres.getDataSource(),
+                  true,
+                  JdbcTaskRepository.DEFAULT_TABLE_NAME,
+                  new TaskResolver(StatsRegistry.NOOP, task),
+                  new SchedulerName.Fixed("other"),
+                  new SystemClock());
+          try {
+            for (int i = 0; i < 10; i++) {
+              Thread.sleep(100);
+              assertThat(
+                  otherNode.getDeadExecutions(Instant.now().minus(Duration.ofMillis(400))),
+                  hasSize(0));
+            }
+          } finally {
+            done.countDown();
+          }
+        });
+  }
+
+  @Test
+  public void should_detect_own_executions_no_longer_executing() {
+    Assertions.assertTimeoutPreemptively(
+        Duration.ofSeconds(5),
+        () -> {
+          CustomTask<Void> customTask =
+              Tasks.custom("custom-a", Void.class)
+                  .execute(
+                      (taskInstance, executionContext) ->
+                          new CompletionHandler<Void>() {
+                            @Override
+                            public void complete(
+                                ExecutionComplete executionComplete,
+                                ExecutionOperations<Void> executionOperations) {
+                              // do nothing on complete, row will be left as-is in database
+                            }
+                          });
+
+          TestableRegistry.Condition completedCondition = TestableRegistry.Conditions.completed(2);
+          TestableRegistry registry =
+              TestableRegistry.create().waitConditions(completedCondition).build();
+
+          Scheduler scheduler =
+              Scheduler.create(postgres.getDataSource(), customTask)
+                  .pollingInterval(Duration.ofMillis(100))
+                  .heartbeatInterval(Duration.ofMillis(100))
+                  .enableNodeLiveness()
+                  .schedulerName(new SchedulerName.Fixed("test"))
+                  .statsRegistry(registry)
+                  .build();
+          stopScheduler.register(scheduler);
+
+          scheduler.schedule(customTask.instance("1"), Instant.now());
+          scheduler.start();
+          completedCondition.waitFor();
+
+          assertEquals(1, registry.getCount(SchedulerStatsEvent.DEAD_EXECUTION));
+        });
+  }
+}
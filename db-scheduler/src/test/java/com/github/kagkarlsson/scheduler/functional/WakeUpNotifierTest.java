@@ -0,0 +1,178 @@
+package com.github.kagkarlsson.scheduler.functional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+import com.github.kagkarlsson.scheduler.EmbeddedPostgresqlExtension;
+import com.github.kagkarlsson.scheduler.InMemoryWakeUpNotifier;
+import com.github.kagkarlsson.scheduler.Scheduler;
+import com.github.kagkarlsson.scheduler.SchedulerClient;
+import com.github.kagkarlsson.scheduler.SchedulerName;
+import com.github.kagkarlsson.scheduler.StopSchedulerExtension;
+import com.github.kagkarlsson.scheduler.TestTasks;
+import com.github.kagkarlsson.scheduler.WakeUpNotifier;
+import com.github.kagkarlsson.scheduler.helper.TestableRegistry;
+import com.github.kagkarlsson.scheduler.jdbc.PostgreSqlWakeUpNotifier;
+import com.github.kagkarlsson.scheduler.task.helper.OneTimeTask;
+import com.github.kagkarlsson.scheduler.testhelper.SettableClock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+public class WakeUpNotifierTest {
+
+  private SettableClock clock;
+
+  @RegisterExtension
+  public EmbeddedPostgresqlExtension postgres = new EmbeddedPostgresqlExtension();
+
+  @RegisterExtension public StopSchedulerExtension stopScheduler = new StopSchedulerExtension();
+
+  @BeforeEach
+  public void setUp() {
+    clock = new SettableClock();
+  }
+
+  @Test
+  public void should_wake_up_scheduler_when_scheduled_by_separate_client_in_memory() {
+    testWakeUpFromSeparateClient(new InMemoryWakeUpNotifier());
+  }
+
+  @Test
+  public void should_wake_up_scheduler_when_scheduled_by_separate_client_postgres() {
+    testWakeUpFromSeparateClient(new PostgreSqlWakeUpNotifier(postgres.getDataSource()));
+  }
+
+  @Test
+  public void postgres_notifier_should_deliver_execution_time_to_subscribers()
+      throws InterruptedException {
+    PostgreSqlWakeUpNotifier notifier = new PostgreSqlWakeUpNotifier(postgres.getDataSource());
+    Instant executionTime = Instant.ofEpochMilli(1_700_000_000_000L);
+    CountDownLatch received = new CountDownLatch(1);
+    Consumer<Instant> subscriber =
+        instant -> {
+          if (instant.equals(executionTime)) {
+            received.countDown();
+          }
+        };
+
+    notifier.subscribe(subscriber);
+    try {
+      Assertions.assertTrue(notifyUntilReceived(notifier, executionTime, received));
+    } finally {
+      notifier.unsubscribe(subscriber);
+    }
+  }
+
+  @Test
+  public void should_only_keep_earliest_pending_wake_up() {
+    OneTimeTask<Void> task = TestTasks.oneTime("onetime-a", Void.class, TestTasks.DO_NOTHING);
+    InMemoryWakeUpNotifier notifier = new InMemoryWakeUpNotifier();
+    AtomicInteger scheduledWakeUps = new AtomicInteger();
+    ScheduledThreadPoolExecutor housekeeper =
+        new ScheduledThreadPoolExecutor(1) {
+          @Override
+          public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            scheduledWakeUps.incrementAndGet();
+            return super.schedule(command, delay, unit);
+          }
+        };
+
+    Scheduler scheduler =
+        Scheduler.create(postgres.getDataSource(), task)
+            .pollingInterval(Duration.ofMinutes(10))
+            .wakeUpNotifier(notifier)
+            .housekeeperExecutor(housekeeper)
+            .build();
+    stopScheduler.register(scheduler);
+    scheduler.start();
+
+    Instant inOneMinute = Instant.now().plus(Duration.ofMinutes(1));
+    for (int i = 0; i < 100; i++) {
+      notifier.notifyDue(inOneMinute.plusSeconds(i));
+    }
+    assertThat(scheduledWakeUps.get(), is(1));
+
+    notifier.notifyDue(inOneMinute.minusSeconds(1));
+    assertThat(scheduledWakeUps.get(), is(2));
+  }
+
+  private void awaitListening(WakeUpNotifier notifier) throws InterruptedException {
+    Instant probe = Instant.ofEpochMilli(0);
+    CountDownLatch received = new CountDownLatch(1);
+    Consumer<Instant> subscriber =
+        instant -> {
+          if (instant.equals(probe)) {
+            received.countDown();
+          }
+        };
+    notifier.subscribe(subscriber);
+    try {
+      Assertions.assertTrue(notifyUntilReceived(notifier, probe, received));
+    } finally {
+      notifier.unsubscribe(subscriber);
+    }
+  }
+
+  // LISTEN is issued asynchronously by the listener-thread, keep notifying until received
+  private boolean notifyUntilReceived(
+      WakeUpNotifier notifier, Instant executionTime, CountDownLatch received)
+      throws InterruptedException {
+    for (int i = 0; i < 50; i++) {
+      notifier.notifyDue(executionTime);
+      if (received.await(100, TimeUnit.MILLISECONDS)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void testWakeUpFromSeparateClient(WakeUpNotifier notifier) {
+    Assertions.assertTimeoutPreemptively(
+        Duration.ofSeconds(5),
+        () -> {
+          OneTimeTask<Void> task = TestTasks.oneTime("onetime-a", Void.class, TestTasks.DO_NOTHING);
+          TestableRegistry.Condition completedCondition = TestableRegistry.Conditions.completed(1);
+          TestableRegistry.Condition executeDueCondition =
+              TestableRegistry.Conditions.ranExecuteDue(1);
+
+          TestableRegistry registry =
+              TestableRegistry.create()
+                  .waitConditions(executeDueCondition, completedCondition)
+                  .build();
+
+          Scheduler scheduler =
+              Scheduler.create(postgres.getDataSource(), task)
+                  .pollingInterval(Duration.ofMinutes(1))
+                  .wakeUpNotifier(notifier)
+                  .schedulerName(new SchedulerName.Fixed("test"))
+                  .statsRegistry(registry)
+                  .build();
+          stopScheduler.register(scheduler);
+          scheduler.start();
+          executeDueCondition.waitFor();
+
+          SchedulerClient client =
+              SchedulerClient.Builder.create(postgres.getDataSource(), task)
+                  .wakeUpNotifier(notifier, Duration.ofMinutes(1))
+                  .build();
+
+          awaitListening(notifier);
+          client.scheduleIfNotExists(task.instance("1"), clock.now());
+          completedCondition.waitFor();
+
+          assertThat(registry.getCompleted(), hasSize(1));
+          registry.assertNoFailures();
+        });
+  }
+}
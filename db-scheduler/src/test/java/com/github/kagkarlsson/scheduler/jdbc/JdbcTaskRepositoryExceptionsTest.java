@@ -42,14 +42,21 @@ public class JdbcTaskRepositoryExceptionsTest {
     expectedTableName = randomAlphanumeric(5);
     jdbcTaskRepository =
         new JdbcTaskRepository(
-            null, expectedTableName, null, null, null, mockJdbcRunner, new SystemClock());
+            new DefaultJdbcCustomization(false),
+            expectedTableName,
+            null,
+            null,
+            null,
+            mockJdbcRunner,
+            new SystemClock());
   }
 
   @Test
   public void createIfNotExistsFailsToAddNewTask() {
     when(mockJdbcRunner.query(
             ArgumentMatchers.eq(
-                "select * from "
+                "select task_name, task_instance, execution_time, picked, picked_by, last_success, "
+                    + "last_failure, consecutive_failures, last_heartbeat, version from "
                     + expectedTableName
                     + " where task_name = ? and task_instance = ?"),
             any(PreparedStatementSetter.class),
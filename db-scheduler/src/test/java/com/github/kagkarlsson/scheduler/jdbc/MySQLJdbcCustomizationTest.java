@@ -0,0 +1,62 @@
+package com.github.kagkarlsson.scheduler.jdbc;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class MySQLJdbcCustomizationTest {
+
+  @Test
+  void limit_should_come_before_locking_clause() {
+    assertThat(
+        new MySQL8JdbcCustomization(true)
+            .createGenericSelectForUpdateQuery("scheduled_tasks", 10, "")
+            .trim(),
+        endsWith("ORDER BY execution_time ASC  LIMIT 10 FOR UPDATE SKIP LOCKED"));
+    assertThat(
+        new MariaDBJdbcCustomization(true, true)
+            .createGenericSelectForUpdateQuery("scheduled_tasks", 10, "")
+            .trim(),
+        endsWith("ORDER BY execution_time ASC  LIMIT 10 FOR UPDATE SKIP LOCKED"));
+  }
+
+  @Test
+  void insert_if_not_exists_should_only_ignore_duplicate_keys() {
+    final String query =
+        new MySQL8JdbcCustomization(true, true).createInsertIfNotExistsQuery("scheduled_tasks");
+    assertThat(query, not(containsString("IGNORE")));
+    assertThat(query, endsWith("ON DUPLICATE KEY UPDATE task_name = task_name"));
+  }
+
+  @Test
+  void insert_if_not_exists_should_require_affected_rows() {
+    assertFalse(new MySQL8JdbcCustomization(true).supportsSingleStatementInsertIfNotExists());
+    assertTrue(new MySQL8JdbcCustomization(true, true).supportsSingleStatementInsertIfNotExists());
+    assertFalse(
+        new MariaDBJdbcCustomization(true, true).supportsSingleStatementInsertIfNotExists());
+    assertTrue(
+        new MariaDBJdbcCustomization(true, true, true).supportsSingleStatementInsertIfNotExists());
+
+    assertTrue(
+        AutodetectJdbcCustomization.useAffectedRows(
+            "jdbc:mysql://localhost:3306/db?useSSL=false&useAffectedRows=true"));
+    assertFalse(AutodetectJdbcCustomization.useAffectedRows("jdbc:mariadb://localhost:3306/db"));
+  }
+
+  @Test
+  void mariadb_supports_skip_locked_from_10_6() {
+    assertTrue(
+        MariaDBJdbcCustomization.supportsSkipLocked("10.6.16-MariaDB-1:10.6.16+maria~ubu2004"));
+    assertTrue(MariaDBJdbcCustomization.supportsSkipLocked("11.2.2-MariaDB"));
+    assertTrue(MariaDBJdbcCustomization.supportsSkipLocked("5.5.5-10.11.6-MariaDB"));
+    assertFalse(
+        MariaDBJdbcCustomization.supportsSkipLocked("10.3.39-MariaDB-1:10.3.39+maria~ubu2004"));
+    assertFalse(MariaDBJdbcCustomization.supportsSkipLocked("5.5.5-10.5.23-MariaDB"));
+    assertFalse(MariaDBJdbcCustomization.supportsSkipLocked("unknown"));
+  }
+}
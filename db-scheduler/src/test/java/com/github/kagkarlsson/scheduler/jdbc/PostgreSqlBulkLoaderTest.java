@@ -0,0 +1,52 @@
+package com.github.kagkarlsson.scheduler.jdbc;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import com.github.kagkarlsson.scheduler.EmbeddedPostgresqlExtension;
+import com.github.kagkarlsson.scheduler.ScheduledExecution;
+import com.github.kagkarlsson.scheduler.SchedulerClient;
+import com.github.kagkarlsson.scheduler.TestTasks;
+import com.github.kagkarlsson.scheduler.task.SchedulableInstance;
+import com.github.kagkarlsson.scheduler.task.TaskInstanceId;
+import com.github.kagkarlsson.scheduler.task.helper.OneTimeTask;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+class PostgreSqlBulkLoaderTest {
+  @RegisterExtension
+  public EmbeddedPostgresqlExtension postgres = new EmbeddedPostgresqlExtension();
+
+  private final OneTimeTask<String> task =
+      TestTasks.oneTime("onetime-a", String.class, (instance, context) -> {});
+
+  @Test
+  void should_load_executions_and_skip_existing() {
+    final SchedulerClient client =
+        SchedulerClient.Builder.create(postgres.getDataSource(), task).build();
+    final Instant executionTime = Instant.now().truncatedTo(ChronoUnit.MICROS).plusSeconds(60);
+    client.scheduleIfNotExists(task.instance("1", "existing"), executionTime);
+
+    final long created =
+        new PostgreSqlBulkLoader(postgres.getDataSource())
+            .load(
+                IntStream.range(0, 10_000)
+                    .mapToObj(
+                        i ->
+                            SchedulableInstance.of(
+                                task.instance(String.valueOf(i), "data-" + i), executionTime)));
+    assertThat(created, is(9_999L));
+
+    final ScheduledExecution<Object> loaded =
+        client.getScheduledExecution(TaskInstanceId.of("onetime-a", "42")).get();
+    assertThat(loaded.getData(), is("data-42"));
+    assertThat(loaded.getExecutionTime(), is(executionTime));
+    assertThat(loaded.isPicked(), is(false));
+    assertThat(
+        client.getScheduledExecution(TaskInstanceId.of("onetime-a", "1")).get().getData(),
+        is("existing"));
+  }
+}
@@ -0,0 +1,133 @@
+package com.github.kagkarlsson.scheduler.stats;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.github.kagkarlsson.jdbc.SQLRuntimeException;
+import com.github.kagkarlsson.scheduler.TaskRepository;
+import com.github.kagkarlsson.scheduler.stats.StatsRegistry.CandidateStatsEvent;
+import com.github.kagkarlsson.scheduler.stats.StatsRegistry.SchedulerStatsEvent;
+import com.github.kagkarlsson.scheduler.task.Execution;
+import com.github.kagkarlsson.scheduler.task.TaskInstance;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MicrometerStatsRegistryTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private MicrometerStatsRegistry statsRegistry;
+
+  @BeforeEach
+  public void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    statsRegistry = new MicrometerStatsRegistry(meterRegistry, Collections.emptyList());
+  }
+
+  @Test
+  public void should_count_events() {
+    statsRegistry.register(CandidateStatsEvent.STALE);
+    statsRegistry.register(CandidateStatsEvent.STALE);
+    statsRegistry.register(SchedulerStatsEvent.DEAD_EXECUTION);
+
+    assertThat(counter("dbscheduler_candidate_events", "stale"), is(2.0));
+    assertThat(counter("dbscheduler_candidate_events", "already_picked"), is(0.0));
+    assertThat(counter("dbscheduler_scheduler_events", "dead_execution"), is(1.0));
+  }
+
+  @Test
+  public void should_publish_poll_result() {
+    statsRegistry.registerPollResult(3, 10, 7);
+
+    assertThat(gauge("dbscheduler_poll_last_fetched"), is(3.0));
+    assertThat(gauge("dbscheduler_poll_last_limit"), is(10.0));
+    assertThat(gauge("dbscheduler_executor_in_queue_or_processing"), is(7.0));
+  }
+
+  @Test
+  public void should_zero_backlog_of_tasks_absent_from_sample() {
+    final Instant now = Instant.now();
+    statsRegistry.registerBacklogSample(
+        new BacklogSample(now, Map.of("task1", 5L), now.minusSeconds(2), Map.of()));
+    assertThat(
+        meterRegistry.get("dbscheduler_backlog_due").tag("task", "task1").gauge().value(), is(5.0));
+    assertThat(gauge("dbscheduler_backlog_lag_seconds"), is(2.0));
+
+    statsRegistry.registerBacklogSample(new BacklogSample(now, Map.of(), null, Map.of()));
+    assertThat(
+        meterRegistry.get("dbscheduler_backlog_due").tag("task", "task1").gauge().value(), is(0.0));
+    assertThat(gauge("dbscheduler_backlog_lag_seconds"), is(0.0));
+  }
+
+  @Test
+  public void should_remove_picked_gauge_of_schedulers_absent_from_sample() {
+    final Instant now = Instant.now();
+    statsRegistry.registerBacklogSample(
+        new BacklogSample(now, Map.of(), null, Map.of("pod-1", 3L, "pod-2", 1L)));
+    assertThat(
+        meterRegistry.get("dbscheduler_backlog_picked").tag("scheduler", "pod-1").gauge().value(),
+        is(3.0));
+
+    statsRegistry.registerBacklogSample(
+        new BacklogSample(now, Map.of(), null, Map.of("pod-2", 2L)));
+    assertThat(
+        meterRegistry.find("dbscheduler_backlog_picked").tag("scheduler", "pod-1").gauge(),
+        is(nullValue()));
+    assertThat(
+        meterRegistry.get("dbscheduler_backlog_picked").tag("scheduler", "pod-2").gauge().value(),
+        is(2.0));
+  }
+
+  @Test
+  public void should_time_repository_operations() {
+    final TaskRepository delegate = mock(TaskRepository.class);
+    final Execution execution = new Execution(Instant.now(), new TaskInstance<>("task1", "id1"));
+    when(delegate.getDue(any(), anyInt())).thenReturn(List.of(execution, execution));
+    when(delegate.getDeadExecutions(any())).thenThrow(new SQLRuntimeException("failed"));
+    final TaskRepository repository =
+        new InstrumentedTaskRepository(delegate, statsRegistry, "PostgreSQL");
+
+    repository.getDue(Instant.now(), 10);
+    assertThrows(SQLRuntimeException.class, () -> repository.getDeadExecutions(Instant.now()));
+
+    final Timer getDue =
+        meterRegistry
+            .get("dbscheduler_repository_operation")
+            .tags("operation", "getDue", "database", "PostgreSQL", "result", "ok")
+            .timer();
+    assertThat(getDue.count(), is(1L));
+    assertThat(
+        meterRegistry
+            .get("dbscheduler_repository_rows")
+            .tags("operation", "getDue")
+            .summary()
+            .totalAmount(),
+        is(2.0));
+    assertThat(
+        meterRegistry
+            .get("dbscheduler_repository_operation")
+            .tags("operation", "getDeadExecutions", "result", "failed")
+            .timer()
+            .count(),
+        is(1L));
+  }
+
+  private double counter(String name, String event) {
+    return meterRegistry.get(name).tag("event", event).counter().count();
+  }
+
+  private double gauge(String name) {
+    return meterRegistry.get(name).gauge().value();
+  }
+}
@@ -0,0 +1,7 @@
+create table scheduler_nodes
+(
+  node_name     varchar(50)    not null,
+  last_renewed  datetimeoffset not null,
+  lease_expires datetimeoffset not null,
+  primary key (node_name)
+)
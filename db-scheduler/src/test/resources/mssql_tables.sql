@@ -11,7 +11,9 @@ create table scheduled_tasks
   consecutive_failures int,
   last_heartbeat       datetimeoffset,
   [version]            bigint         not null,
+  priority             smallint       not null default 0,
   primary key (task_name, task_instance),
   index execution_time_idx (execution_time),
-  index last_heartbeat_idx (last_heartbeat)
+  index last_heartbeat_idx (last_heartbeat),
+  index priority_execution_time_idx (priority desc, execution_time asc)
 )
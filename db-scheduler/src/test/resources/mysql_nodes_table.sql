@@ -0,0 +1,6 @@
+create table test.scheduler_nodes (
+  node_name varchar(50) not null,
+  last_renewed timestamp(6) not null,
+  lease_expires timestamp(6) not null,
+  PRIMARY KEY (node_name)
+)
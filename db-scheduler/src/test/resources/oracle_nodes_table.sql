@@ -0,0 +1,7 @@
+create table scheduler_nodes
+(
+    node_name     varchar(50),
+    last_renewed  TIMESTAMP(6) WITH TIME ZONE,
+    lease_expires TIMESTAMP(6) WITH TIME ZONE,
+    PRIMARY KEY (node_name)
+)
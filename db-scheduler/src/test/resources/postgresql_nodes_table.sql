@@ -0,0 +1,6 @@
+create table scheduler_nodes (
+  node_name text not null,
+  last_renewed timestamp with time zone not null,
+  lease_expires timestamp with time zone not null,
+  PRIMARY KEY (node_name)
+);